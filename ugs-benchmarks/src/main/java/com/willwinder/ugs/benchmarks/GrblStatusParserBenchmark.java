@@ -0,0 +1,116 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.GrblStatusParser;
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the regular expression based {@link GrblUtils#getStatusFromStatusStringV1}
+ * with the single pass {@link GrblStatusParser}.
+ *
+ * One operation is one status report. The reports are the ones GRBL 1.1 sends
+ * while a job is running, with the WCO and overrides added every tenth report.
+ * In the idle case the same report is repeated, which is what the controller
+ * sends while the machine is sitting still.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class GrblStatusParserBenchmark {
+    private static final int REPORT_COUNT = 1000;
+
+    @Param({"RUNNING", "IDLE"})
+    public String machine;
+
+    private String[] reports;
+    private int index;
+    private ControllerStatus lastStatus;
+    private GrblStatusParser parser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        reports = new String[REPORT_COUNT];
+        for (int i = 0; i < REPORT_COUNT; i++) {
+            reports[i] = "IDLE".equals(machine) ? createIdleReport(i) : createRunningReport(i);
+        }
+        index = 0;
+        lastStatus = null;
+        parser = new GrblStatusParser();
+    }
+
+    private static String createRunningReport(int i) {
+        String report = String.format(Locale.ROOT, "<Run|MPos:%.3f,%.3f,%.3f|Bf:%d,%d|FS:%d,%d",
+                i * 0.125, -i * 0.05, 5 - (i % 50) * 0.1, i % 16, 128 - i % 100, 1000 + i % 500, 12000);
+        if (i % 10 == 0) {
+            report += "|WCO:10.000,-20.000,5.000|Ov:100,100,100|A:S";
+        }
+        return report + ">";
+    }
+
+    private static String createIdleReport(int i) {
+        String report = "<Idle|MPos:10.000,-20.000,0.000|Bf:15,128|FS:0,0";
+        if (i % 10 == 0) {
+            report += "|WCO:10.000,-20.000,5.000|Ov:100,100,100";
+        }
+        return report + ">";
+    }
+
+    private String nextReport() {
+        if (index == reports.length) {
+            index = 0;
+        }
+        return reports[index++];
+    }
+
+    @Benchmark
+    public void regularExpressionParser(Blackhole blackhole) {
+        lastStatus = GrblUtils.getStatusFromStatusStringV1(lastStatus, nextReport(), Units.MM);
+        blackhole.consume(lastStatus);
+    }
+
+    @Benchmark
+    public void singlePassParser(Blackhole blackhole) {
+        lastStatus = parser.parse(lastStatus, nextReport(), Units.MM);
+        blackhole.consume(lastStatus);
+    }
+}
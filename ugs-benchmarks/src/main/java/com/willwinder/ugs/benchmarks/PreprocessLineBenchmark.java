@@ -0,0 +1,125 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one line per benchmark operation through a preprocessor chain, the same
+ * way {@code GcodeParserUtils.processAndExport} does: parse the comment, call
+ * {@link GcodeParser#preprocessCommand} and finally {@link GcodeParser#addCommand}.
+ *
+ * One operation is one source line, so the throughput is reported in lines/sec
+ * and the GC profiler's "gc.alloc.rate.norm" is the number of bytes allocated
+ * per line. When the end of the program is reached the parser is reset and it
+ * starts over from the first line.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class PreprocessLineBenchmark {
+
+    @Param({
+            TestFiles.SYNTHETIC,
+            "Gates_combined_R12.nc",
+            "ShapeOko_Calibration_Pattern_01b.ngc",
+            "arc_rword_test.gcode",
+            "serial_stress_test.gcode",
+            "spiral.gcode"
+    })
+    public String source;
+
+    @Param({"NONE", "GRBL", "COMMENT_ARC_EXPANDER", "LINE_SPLITTER", "MESH_LEVELER", "TRANSLATOR", "FULL"})
+    public ProcessorChain chain;
+
+    private String[] lines;
+    private int index;
+    private GcodeParser parser;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        lines = removeRejectedLines(TestFiles.loadLines(source));
+        parser = chain.createParser();
+        index = 0;
+    }
+
+    /**
+     * Some processors refuse certain commands, for example the mesh leveler
+     * doesn't accept multiple motion commands on one line. Those lines would
+     * stop the file from being opened so they are left out of the measurement.
+     */
+    private String[] removeRejectedLines(String[] program) throws Exception {
+        GcodeParser validator = chain.createParser();
+        List<String> accepted = new ArrayList<>(program.length);
+        for (String line : program) {
+            try {
+                if (StringUtils.isNotEmpty(line)) {
+                    validator.preprocessCommand(line, validator.getCurrentState());
+                    validator.addCommand(line);
+                }
+                accepted.add(line);
+            } catch (GcodeParserException e) {
+                // Skip the line, the parser state is left untouched.
+            }
+        }
+        return accepted.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void preprocessLine(Blackhole blackhole) throws GcodeParserException {
+        if (index == lines.length) {
+            index = 0;
+            parser.reset();
+        }
+
+        String line = lines[index++];
+        blackhole.consume(GcodePreprocessorUtils.parseComment(line));
+        if (StringUtils.isEmpty(line)) {
+            return;
+        }
+
+        blackhole.consume(parser.preprocessCommand(line, parser.getCurrentState()));
+        blackhole.consume(parser.addCommand(line));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preprocesses a complete multi-million line program from disk to a gcode
+ * stream file with {@link GcodeParserUtils#processAndExport}, which is what
+ * happens when a file is opened in the GUI.
+ *
+ * Each invocation processes {@link #LINE_COUNT} lines and is reported as that
+ * many operations, so the throughput is in lines/sec and the GC profiler's
+ * "gc.alloc.rate.norm" is the number of bytes allocated per line.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ProcessAndExportBenchmark {
+    static final int LINE_COUNT = 2_000_000;
+
+    @Param({"NONE", "GRBL", "FULL"})
+    public ProcessorChain chain;
+
+    private File input;
+    private File output;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        input = SyntheticGcode.generateFile(LINE_COUNT);
+        output = File.createTempFile("ugs_benchmark_output_", ".gcode");
+        output.deleteOnExit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public GcodeParser processAndExport() throws Exception {
+        GcodeParser parser = chain.createParser();
+        try (IGcodeWriter writer = new GcodeStreamWriter(output)) {
+            GcodeParserUtils.processAndExport(parser, input, writer);
+        }
+        return parser;
+    }
+}
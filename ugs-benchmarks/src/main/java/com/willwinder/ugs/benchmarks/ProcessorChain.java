@@ -0,0 +1,136 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.LineSplitter;
+import com.willwinder.universalgcodesender.gcode.processors.MeshLeveler;
+import com.willwinder.universalgcodesender.gcode.processors.Translator;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.utils.FirmwareUtils;
+import com.willwinder.universalgcodesender.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.willwinder.universalgcodesender.model.UnitUtils.Units.MM;
+
+/**
+ * The preprocessor chains exercised by the benchmarks. The firmware chains are
+ * loaded through {@link FirmwareUtils#getParserFor} exactly like the backend
+ * does, the remaining ones add the optional processors found in the GUI on top
+ * of the GRBL chain.
+ *
+ * @author agent
+ */
+public enum ProcessorChain {
+    /**
+     * No processors, measures the bare {@link GcodeParser#addCommand} cost.
+     */
+    NONE,
+    GRBL,
+    COMMENT_ARC_EXPANDER,
+    LINE_SPLITTER,
+    MESH_LEVELER,
+    TRANSLATOR,
+    /**
+     * Everything at once, in the order the GUI would apply them.
+     */
+    FULL;
+
+    private static final String FIRMWARE = "GRBL";
+
+    public GcodeParser createParser() throws Exception {
+        GcodeParser parser = new GcodeParser();
+        for (CommandProcessor p : createProcessors()) {
+            parser.addCommandProcessor(p);
+        }
+        return parser;
+    }
+
+    public List<CommandProcessor> createProcessors() throws Exception {
+        List<CommandProcessor> processors = new ArrayList<>();
+        switch (this) {
+            case NONE:
+                return Collections.emptyList();
+            case GRBL:
+                processors.addAll(firmwareProcessors());
+                break;
+            case COMMENT_ARC_EXPANDER:
+                processors.add(new CommentProcessor());
+                processors.add(new ArcExpander(true, 0.5));
+                break;
+            case LINE_SPLITTER:
+                processors.addAll(firmwareProcessors());
+                processors.add(new LineSplitter(1.0));
+                break;
+            case MESH_LEVELER:
+                // The mesh leveler can't handle arcs, so they must be expanded first.
+                processors.addAll(firmwareProcessors());
+                processors.add(new ArcExpander(true, 0.5));
+                processors.add(new MeshLeveler(0.0, createSurfaceMesh(), MM));
+                break;
+            case TRANSLATOR:
+                processors.addAll(firmwareProcessors());
+                processors.add(new Translator(new Position(10, -10, 0, MM)));
+                break;
+            case FULL:
+                processors.addAll(firmwareProcessors());
+                processors.add(new Translator(new Position(10, -10, 0, MM)));
+                processors.add(new ArcExpander(true, 0.5));
+                processors.add(new LineSplitter(1.0));
+                processors.add(new MeshLeveler(0.0, createSurfaceMesh(), MM));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown processor chain: " + this);
+        }
+        return processors;
+    }
+
+    private static List<CommandProcessor> firmwareProcessors() throws Exception {
+        return FirmwareUtils.getParserFor(FIRMWARE, new Settings())
+                .orElseThrow(() -> new IllegalStateException("Missing firmware config for " + FIRMWARE));
+    }
+
+    /**
+     * A gently sloping 20x20 probe grid which covers the test files and the
+     * synthetic programs.
+     */
+    private static Position[][] createSurfaceMesh() {
+        final int samples = 20;
+        final double min = -1000;
+        final double max = 1000;
+        final double step = (max - min) / (samples - 1);
+
+        Position[][] mesh = new Position[samples][samples];
+        for (int x = 0; x < samples; x++) {
+            for (int y = 0; y < samples; y++) {
+                double xCoord = min + x * step;
+                double yCoord = min + y * step;
+                double zCoord = Math.sin(xCoord / 100.0) * Math.cos(yCoord / 100.0);
+                mesh[x][y] = new Position(xCoord, yCoord, zCoord, MM);
+            }
+        }
+        return mesh;
+    }
+}
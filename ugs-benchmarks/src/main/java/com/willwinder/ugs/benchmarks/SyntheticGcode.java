@@ -0,0 +1,118 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates large, deterministic gcode programs resembling the output of a 3D
+ * carving post processor: long runs of short G1 moves with the occasional
+ * arc, rapid, comment and modal change.
+ *
+ * @author agent
+ */
+public class SyntheticGcode {
+    private static final long SEED = 42;
+
+    private final Random random = new Random(SEED);
+    private double x = 0;
+    private double y = 0;
+    private double z = 0;
+    private int lineNumber = 0;
+
+    /**
+     * Creates the next line of the program.
+     */
+    public String nextLine() {
+        int line = lineNumber++;
+
+        if (line == 0) {
+            return "G21 G90 G17 G94 (synthetic carving program)";
+        } else if (line == 1) {
+            return "M3 S12000";
+        } else if (line % 5000 == 0) {
+            return "(pass " + (line / 5000) + ")";
+        } else if (line % 1000 == 0) {
+            z = 5;
+            return "G0 Z5.0";
+        } else if (line % 1000 == 1) {
+            x = random.nextDouble() * 200 - 100;
+            y = random.nextDouble() * 200 - 100;
+            return String.format(Locale.US, "G0 X%.4f Y%.4f", x, y);
+        } else if (line % 1000 == 2) {
+            z = -random.nextDouble() * 3;
+            return String.format(Locale.US, "G1 Z%.4f F300", z);
+        } else if (line % 97 == 0) {
+            // Small arc away from the current point, I and J relative to it.
+            double i = random.nextDouble() * 2 - 1;
+            double j = random.nextDouble() * 2 - 1;
+            x += i * 2;
+            y += j * 2;
+            return String.format(Locale.US, "G%d X%.4f Y%.4f I%.4f J%.4f",
+                    random.nextBoolean() ? 2 : 3, x, y, i, j);
+        } else if (line % 251 == 0) {
+            return String.format(Locale.US, "G1 X%.4f Y%.4f Z%.4f F%d ; feed change", x, y, z, 800 + random.nextInt(1200));
+        }
+
+        // Bulk of the program, small 3D moves.
+        x += random.nextDouble() * 0.4 - 0.2;
+        y += random.nextDouble() * 0.4 - 0.2;
+        z += random.nextDouble() * 0.02 - 0.01;
+        if (line % 3 == 0) {
+            return String.format(Locale.US, "G1 X%.4f Y%.4f Z%.4f", x, y, z);
+        }
+        return String.format(Locale.US, "X%.4f Y%.4f Z%.4f", x, y, z);
+    }
+
+    /**
+     * Creates a program with the given number of lines.
+     */
+    public static String[] generateLines(int lineCount) {
+        SyntheticGcode generator = new SyntheticGcode();
+        String[] lines = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lines[i] = generator.nextLine();
+        }
+        return lines;
+    }
+
+    /**
+     * Writes a program with the given number of lines to a temporary file which
+     * is removed when the JVM exits.
+     */
+    public static File generateFile(int lineCount) throws IOException {
+        File file = File.createTempFile("ugs_benchmark_" + lineCount + "_", ".gcode");
+        file.deleteOnExit();
+
+        SyntheticGcode generator = new SyntheticGcode();
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lineCount; i++) {
+                writer.write(generator.nextLine());
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Locates the files in the repositories "test_files" directory. The location
+ * can be overridden with the "ugs.benchmark.testFiles" system property.
+ *
+ * @author agent
+ */
+public class TestFiles {
+    public static final String TEST_FILES_PROPERTY = "ugs.benchmark.testFiles";
+    public static final String SYNTHETIC = "synthetic";
+
+    /**
+     * Number of lines in the synthetic program when used as a line source.
+     */
+    public static final int SYNTHETIC_LINE_COUNT = 1_000_000;
+
+    private TestFiles() {
+    }
+
+    public static File getDirectory() throws FileNotFoundException {
+        String property = System.getProperty(TEST_FILES_PROPERTY);
+        if (property != null) {
+            return new File(property);
+        }
+
+        // Look in the working directory and its parents, the benchmarks are
+        // usually started from the repository root or the module directory.
+        File dir = new File("").getAbsoluteFile();
+        while (dir != null) {
+            File candidate = new File(dir, "test_files");
+            if (candidate.isDirectory()) {
+                return candidate;
+            }
+            dir = dir.getParentFile();
+        }
+
+        throw new FileNotFoundException("Couldn't find the test_files directory, set -D" + TEST_FILES_PROPERTY);
+    }
+
+    /**
+     * Loads the lines of a test file, or generates a synthetic program if
+     * {@link #SYNTHETIC} is given.
+     */
+    public static String[] loadLines(String source) throws IOException {
+        if (SYNTHETIC.equals(source)) {
+            return SyntheticGcode.generateLines(SYNTHETIC_LINE_COUNT);
+        }
+
+        // Some of the older test files aren't valid UTF-8.
+        List<String> lines = Files.readAllLines(new File(getDirectory(), source).toPath(), StandardCharsets.ISO_8859_1);
+        return lines.toArray(new String[0]);
+    }
+}
@@ -88,7 +88,7 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
     private String gcodeFile = null;
     private boolean processedGcodeFile = false; // True if the file should be loaded with a GcodeStreamReader
     private boolean isDrawable = false; //True if a file is loaded; false if not
-    private List<LineSegment> gcodeLineList; //An ArrayList of linesegments composing the model
+    private LineSegmentStore gcodeLineList; //A store of the linesegments composing the model
     private int currentCommandNumber = 0;
     private int lastCommandNumber = 0;
 
@@ -411,7 +411,7 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
 
             int verts = 0;
             int colors = 0;
-            for(LineSegment ls : gcodeLineList)
+            for (int i = 0; i < gcodeLineList.size(); i++)
             {
                 gl.glColor3ub(lineColorData[colors++],lineColorData[colors++],lineColorData[colors++]);
                 gl.glVertex3d(lineVertexData[verts++], lineVertexData[verts++], lineVertexData[verts++]);
@@ -473,8 +473,9 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
 
             // Load from stream
             if (this.processedGcodeFile) {
-                IGcodeStreamReader gsr = new GcodeStreamReader(new File(this.gcodeFile));
-                gcodeLineList = gcvp.toObjFromReader(gsr, 0.3);
+                try (IGcodeStreamReader gsr = new GcodeStreamReader(new File(this.gcodeFile))) {
+                    gcodeLineList = gcvp.toObjFromReader(gsr, 0.3);
+                }
             }
             // Load raw file
             else {
@@ -486,12 +487,12 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
             this.objectMin = gcvp.getMinimumExtremes();
             this.objectMax = gcvp.getMaximumExtremes();
 
-            if (gcodeLineList.size() == 0) {
+            if (gcodeLineList.isEmpty()) {
                 return;
             }
             
             // Grab the line number off the last line.
-            this.lastCommandNumber = gcodeLineList.get(gcodeLineList.size() - 1).getLineNumber();
+            this.lastCommandNumber = gcodeLineList.getLineNumber(gcodeLineList.size() - 1);
             
             System.out.println("Object bounds: X ("+objectMin.x+", "+objectMax.x+")");
             System.out.println("               Y ("+objectMin.y+", "+objectMax.y+")");
@@ -539,7 +540,8 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
             VisualizerUtils.Color color;
             int vertIndex = 0;
             int colorIndex = 0;
-            for(LineSegment ls : gcodeLineList) {
+            LineSegmentStore.Cursor ls = gcodeLineList.cursor();
+            while (ls.next()) {
                 // Find the lines color.
                 if (ls.isArc()) {
                     color = VisualizerUtils.Color.RED;
@@ -558,8 +560,6 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
 
                 // Draw it.
                 {
-                    Point3d p1 = ls.getStart();
-                    Point3d p2 = ls.getEnd();
                     byte[] c = color.getBytes();
 
                     // colors
@@ -574,13 +574,13 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
                     lineColorData[colorIndex++] = c[2];
                     
                     // p1 location
-                    lineVertexData[vertIndex++] = (float)p1.x;
-                    lineVertexData[vertIndex++] = (float)p1.y;
-                    lineVertexData[vertIndex++] = (float)p1.z;
+                    lineVertexData[vertIndex++] = (float)ls.getStartX();
+                    lineVertexData[vertIndex++] = (float)ls.getStartY();
+                    lineVertexData[vertIndex++] = (float)ls.getStartZ();
                     //p2
-                    lineVertexData[vertIndex++] = (float)p2.x;
-                    lineVertexData[vertIndex++] = (float)p2.y;
-                    lineVertexData[vertIndex++] = (float)p2.z;
+                    lineVertexData[vertIndex++] = (float)ls.getEndX();
+                    lineVertexData[vertIndex++] = (float)ls.getEndY();
+                    lineVertexData[vertIndex++] = (float)ls.getEndZ();
                 }
             }
         }
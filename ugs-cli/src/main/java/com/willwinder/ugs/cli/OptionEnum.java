@@ -19,6 +19,7 @@
 package com.willwinder.ugs.cli;
 
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.jfr.FlightRecording;
 import com.willwinder.universalgcodesender.utils.ControllerSettings;
 import com.willwinder.universalgcodesender.utils.FirmwareUtils;
 
@@ -44,7 +45,9 @@ public enum OptionEnum {
     RESET_ALARM("reset-alarm", "r", false, "", "Resets any alarm"),
     DAEMON("daemon", "d", false, "", "Starts in daemon mode providing a web pendant UI"),
     WORKSPACE("workspace", "w", true, "dir", "Sets and saves the workspace directory setting"),
-    DRIVER("driver", "dr", true, "driver", "Sets and saves the connection driver setting. These are the available drivers: " + Arrays.toString(ConnectionDriver.values()));
+    DRIVER("driver", "dr", true, "driver", "Sets and saves the connection driver setting. These are the available drivers: " + Arrays.toString(ConnectionDriver.values())),
+    BENCHMARK("benchmark", "bm", true, "lines|filename", "Streams a file or a number of generated lines, " + StreamingBenchmark.DEFAULT_LINE_COUNT + " by default, and prints the throughput as JSON. Uses a simulated controller unless a port is given."),
+    FLIGHT_RECORDING("flight-recording", "fr", true, "filename", "Records the last " + FlightRecording.DEFAULT_MAX_AGE.toMinutes() + " minutes of the run with Java Flight Recorder and writes it to the file on exit. Requires Java 11 or later.");
 
     /**
      * The long option name that will be displayed like this: --file
@@ -0,0 +1,427 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.cli;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.willwinder.universalgcodesender.BufferedCommunicator;
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.connection.GrblSimulator;
+import com.willwinder.universalgcodesender.connection.GrblSimulatorServer;
+import com.willwinder.universalgcodesender.listeners.ControllerListener;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
+import com.willwinder.universalgcodesender.model.Alarm;
+import com.willwinder.universalgcodesender.model.GUIBackend;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.Settings;
+import com.willwinder.universalgcodesender.utils.SettingsFactory;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a file can be streamed through the controller, the
+ * communicator and the connection. Unless a port is given the file is
+ * streamed to a {@link GrblSimulator} over a loopback TCP connection, with
+ * the default settings so that the numbers can be compared between versions.
+ *
+ * The result is printed as JSON with the throughput, the round trip time
+ * from sending each line until it was acknowledged, the time the planner of
+ * the controller was starved while streaming, and the garbage collections
+ * and allocations during the stream. The round trip time and the planner
+ * starvation are the ones measured by the communicator and the controller.
+ *
+ * @author agent
+ */
+public class StreamingBenchmark implements ControllerListener {
+    public static final int DEFAULT_LINE_COUNT = 5000;
+
+    private static final long CONNECT_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * The stream is given up if it takes longer than the minimum timeout
+     * plus this time for every line of the file.
+     */
+    private static final long STREAM_TIMEOUT_MILLIS_PER_LINE = 100;
+    private static final long MINIMUM_STREAM_TIMEOUT_MILLIS = 60000;
+    private static final double SIMULATOR_MAXIMUM_RATE = 20000;
+    private static final double SIMULATOR_ACCELERATION = 5000;
+    private static final double SEGMENT_LENGTH = 0.2;
+    private static final double SEGMENT_RADIUS = 10;
+    private static final int FEED_RATE = 12000;
+
+    private final Configuration configuration;
+    private final Histogram gcPauses = new Histogram("benchmark.gc.pause", "Garbage collection pauses while streaming", Metric.Unit.NANOSECONDS);
+
+    // Guarded by this
+    private long bytesCompleted;
+    private long linesCompleted;
+    private long errors;
+    private boolean streamComplete;
+    private boolean timedOut;
+
+    public StreamingBenchmark(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Runs the benchmark and prints the result to standard out.
+     *
+     * @return true if the whole file was streamed without errors
+     */
+    public boolean run() throws Exception {
+        String workload = configuration.getOptionValue(OptionEnum.BENCHMARK);
+        boolean synthetic = StringUtils.isEmpty(workload) || StringUtils.isNumeric(workload);
+        File file = synthetic ? createSyntheticWorkload(StringUtils.isEmpty(workload) ? DEFAULT_LINE_COUNT : Integer.parseInt(workload)) : new File(workload);
+
+        String baudRateArgument = configuration.getOptionValue(OptionEnum.BAUD);
+        int baudRate = Integer.parseInt(StringUtils.defaultIfEmpty(baudRateArgument, "115200"));
+        boolean simulated = !configuration.hasOption(OptionEnum.PORT);
+
+        GrblSimulator[] simulator = new GrblSimulator[1];
+        GrblSimulatorServer server = null;
+        GUIBackend backend = new GUIBackend();
+        try {
+            Settings settings;
+            String port;
+            int connectionRate;
+            if (simulated) {
+                server = new GrblSimulatorServer(0, s -> {
+                    s.setBaudRate(baudRate);
+                    s.setMaximumRate(SIMULATOR_MAXIMUM_RATE);
+                    s.setAcceleration(SIMULATOR_ACCELERATION);
+                    simulator[0] = s;
+                });
+                settings = new Settings();
+                settings.setConnectionDriver(ConnectionDriver.TCP);
+                port = "localhost";
+                connectionRate = server.getPort();
+            } else {
+                settings = SettingsFactory.loadSettings();
+                port = configuration.getOptionValue(OptionEnum.PORT);
+                connectionRate = baudRate;
+            }
+
+            String firmware = StringUtils.defaultIfEmpty(configuration.getOptionValue(OptionEnum.CONTROLLER_FIRMWARE), settings.getFirmwareVersion());
+            backend.applySettings(settings);
+            backend.addControllerListener(this);
+            backend.connect(firmware, port, connectionRate);
+            waitUntilIdle(backend);
+
+            backend.setGcodeFile(file);
+            if (!backend.canSend()) {
+                throw new IllegalStateException("The controller is in a state where it isn't able to process the file: " + backend.getControlState());
+            }
+
+            // Only the commands of the file are measured
+            Histogram roundTripTime = getRoundTripTime();
+            roundTripTime.reset();
+
+            long timeout = MINIMUM_STREAM_TIMEOUT_MILLIS + backend.getNumRows() * STREAM_TIMEOUT_MILLIS_PER_LINE;
+            long duration;
+            long allocated;
+            GcMonitor gcMonitor = new GcMonitor();
+            try {
+                long allocatedBefore = getAllocatedBytes();
+                long start = System.nanoTime();
+                backend.send();
+                boolean streamed = waitUntilStreamed(backend, timeout);
+                duration = System.nanoTime() - start;
+                allocated = getAllocatedBytes() - allocatedBefore;
+                if (!streamed) {
+                    synchronized (this) {
+                        timedOut = true;
+                    }
+                    System.err.println("The file wasn't streamed within " + timeout + " ms, cancelling the stream");
+                    backend.cancel();
+                }
+            } finally {
+                gcMonitor.close();
+            }
+
+            JsonObject result = createResult(synthetic ? "synthetic" : file.getPath(), backend.getNumRows(),
+                    settings.getConnectionDriver(), simulated ? "simulator" : port, baudRate, duration, allocated, gcMonitor,
+                    roundTripTime.getSnapshot(), backend.getController().getPlannerStarvationTime());
+            if (simulator[0] != null) {
+                result.add("simulator", createSimulatorResult(simulator[0]));
+            }
+            System.out.println(new GsonBuilder().setPrettyPrinting().create().toJson(result));
+
+            return isSuccessful(backend.getNumRows());
+        } finally {
+            backend.removeControllerListener(this);
+            if (backend.isConnected()) {
+                backend.disconnect();
+            }
+            if (server != null) {
+                server.close();
+            }
+            if (synthetic) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    private static Histogram getRoundTripTime() {
+        return MetricsRegistry.getDefault().getMetric(BufferedCommunicator.ROUND_TRIP_TIME_METRIC)
+                .map(Histogram.class::cast)
+                .orElseThrow(() -> new IllegalStateException("The controller doesn't measure the round trip time"));
+    }
+
+    private static void waitUntilIdle(GUIBackend backend) throws InterruptedException {
+        long end = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while (!backend.isIdle()) {
+            if (System.currentTimeMillis() > end) {
+                throw new IllegalStateException("The controller didn't become idle after connecting: " + backend.getControlState());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Waits until the file has been streamed.
+     *
+     * @return false if the file still was being streamed when the timeout expired
+     */
+    private static boolean waitUntilStreamed(GUIBackend backend, long timeout) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeout;
+        while (backend.isSendingFile()) {
+            if (System.currentTimeMillis() > end) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private synchronized boolean isSuccessful(long lines) {
+        return !timedOut && streamComplete && errors == 0 && linesCompleted == lines;
+    }
+
+    /**
+     * Creates a file with short moves around a circle, the kind of file
+     * where the stream rather than the machine limits the speed.
+     */
+    private static File createSyntheticWorkload(int lineCount) throws IOException {
+        File file = File.createTempFile("ugs-benchmark", ".gcode");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.println("G21 G90 G1 F" + FEED_RATE);
+            double step = SEGMENT_LENGTH / SEGMENT_RADIUS;
+            for (int i = 1; i < lineCount; i++) {
+                double x = SEGMENT_RADIUS * Math.cos(i * step) - SEGMENT_RADIUS;
+                double y = SEGMENT_RADIUS * Math.sin(i * step);
+                writer.println(String.format(Locale.US, "G1X%.3fY%.3f", x, y));
+            }
+        }
+        return file;
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        // Only counts threads which are alive, so this is a lower bound
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        long total = 0;
+        for (long allocated : allocationBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    private synchronized JsonObject createResult(String source, long lines, ConnectionDriver driver, String port,
+                                                 int baudRate, long duration, long allocated, GcMonitor gcMonitor,
+                                                 Histogram.Snapshot roundTripTime, long plannerStarvationTime) {
+        double seconds = duration / 1e9;
+
+        JsonObject workload = new JsonObject();
+        workload.addProperty("source", source);
+        workload.addProperty("lines", lines);
+
+        JsonObject connection = new JsonObject();
+        connection.addProperty("driver", driver.name());
+        connection.addProperty("port", port);
+        connection.addProperty("baudRate", baudRate);
+
+        JsonObject gc = new JsonObject();
+        gc.addProperty("collections", gcMonitor.getCollections());
+        gc.addProperty("timeMs", gcMonitor.getCollectionTime());
+        gc.add("pauseMs", toJson(gcPauses.getSnapshot()));
+
+        JsonObject result = new JsonObject();
+        result.add("workload", workload);
+        result.add("connection", connection);
+        result.addProperty("success", isSuccessful(lines));
+        result.addProperty("timedOut", timedOut);
+        result.addProperty("durationMs", TimeUnit.NANOSECONDS.toMillis(duration));
+        result.addProperty("linesCompleted", linesCompleted);
+        result.addProperty("errors", errors);
+        result.addProperty("linesPerSecond", linesCompleted / seconds);
+        result.addProperty("bytesPerSecond", bytesCompleted / seconds);
+        result.add("roundTripMs", toJson(roundTripTime));
+        result.addProperty("plannerStarvationMs", plannerStarvationTime);
+        result.add("gc", gc);
+        result.addProperty("allocatedBytes", allocated);
+        result.addProperty("allocationRateBytesPerSecond", allocated < 0 ? -1 : allocated / seconds);
+        return result;
+    }
+
+    private static JsonObject createSimulatorResult(GrblSimulator simulator) {
+        JsonObject result = new JsonObject();
+        result.addProperty("linesProcessed", simulator.getLinesProcessed());
+        result.addProperty("blocksCompleted", simulator.getBlocksCompleted());
+        result.addProperty("starvations", simulator.getStarvations());
+        result.addProperty("rxOverflows", simulator.getRxOverflows());
+        result.addProperty("motionTimeMs", Math.round(simulator.getMotionTime() * 1000));
+        return result;
+    }
+
+    private static JsonObject toJson(Histogram.Snapshot histogram) {
+        JsonObject result = new JsonObject();
+        result.addProperty("count", histogram.getCount());
+        result.addProperty("min", toMillis(histogram.getMin()));
+        result.addProperty("mean", toMillis(histogram.getMean()));
+        result.addProperty("p50", toMillis(histogram.getPercentile(50)));
+        result.addProperty("p90", toMillis(histogram.getPercentile(90)));
+        result.addProperty("p99", toMillis(histogram.getPercentile(99)));
+        result.addProperty("max", toMillis(histogram.getMax()));
+        return result;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    @Override
+    public void commandSent(GcodeCommand command) {
+    }
+
+    @Override
+    public synchronized void commandComplete(GcodeCommand command) {
+        // Only count the lines of the file, not the commands sent by the controller
+        if (command.isGenerated()) {
+            return;
+        }
+
+        linesCompleted++;
+        bytesCompleted += command.getCommandString().length() + 1;
+        if (Boolean.TRUE.equals(command.isError())) {
+            errors++;
+        }
+    }
+
+    @Override
+    public void statusStringListener(ControllerStatus status) {
+    }
+
+    @Override
+    public synchronized void fileStreamComplete(String filename, boolean success) {
+        streamComplete = success;
+    }
+
+    @Override
+    public void controlStateChange(UGSEvent.ControlState state) {
+    }
+
+    @Override
+    public void receivedAlarm(Alarm alarm) {
+    }
+
+    @Override
+    public void commandSkipped(GcodeCommand command) {
+    }
+
+    @Override
+    public void commandComment(String comment) {
+    }
+
+    @Override
+    public void probeCoordinates(Position p) {
+    }
+
+    /**
+     * Records the garbage collections while the file is streamed.
+     */
+    private class GcMonitor implements NotificationListener {
+        private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        private final long collectionsBefore;
+        private final long collectionTimeBefore;
+        private long collections;
+        private long collectionTime;
+
+        GcMonitor() {
+            collectionsBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+            collectionTimeBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+                }
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                gcPauses.record(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+            }
+        }
+
+        void close() throws ListenerNotFoundException {
+            collections = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum() - collectionsBefore;
+            collectionTime = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum() - collectionTimeBefore;
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).removeNotificationListener(this);
+                }
+            }
+        }
+
+        long getCollections() {
+            return collections;
+        }
+
+        long getCollectionTime() {
+            return collectionTime;
+        }
+    }
+}
@@ -20,6 +20,7 @@ package com.willwinder.ugs.cli;
 
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
+import com.willwinder.universalgcodesender.jfr.FlightRecording;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.pendantui.PendantUI;
 import com.willwinder.universalgcodesender.utils.Settings;
@@ -79,6 +80,10 @@ public class TerminalClient {
                 System.exit(0);
             }
 
+            if (configuration.hasOption(OptionEnum.FLIGHT_RECORDING)) {
+                startFlightRecording();
+            }
+
             if (configuration.hasOption(OptionEnum.WORKSPACE)) {
                 String directory = configuration.getOptionValue(OptionEnum.WORKSPACE);
                 setWorkspaceDirectory(directory);
@@ -94,6 +99,10 @@ public class TerminalClient {
                 System.exit(0);
             }
 
+            if (configuration.hasOption(OptionEnum.BENCHMARK)) {
+                runBenchmark();
+            }
+
             initializeBackend();
 
             if (configuration.hasOption(OptionEnum.DAEMON)) {
@@ -122,6 +131,8 @@ public class TerminalClient {
             e.printStackTrace();
             System.exit(-1);
         } finally {
+            stopFlightRecording();
+
             // TODO This is a hack to exit threads, find out why threads aren't killed
             System.exit(0);
         }
@@ -139,6 +150,27 @@ public class TerminalClient {
         SettingsFactory.saveSettings(settings);
     }
 
+    /**
+     * Starts a bounded flight recording, it is written to the file when stopped
+     * or if the program exits before that.
+     */
+    private void startFlightRecording() throws IOException {
+        File destination = new File(configuration.getOptionValue(OptionEnum.FLIGHT_RECORDING));
+        FlightRecording.start(destination, FlightRecording.DEFAULT_MAX_AGE, FlightRecording.DEFAULT_MAX_SIZE);
+        System.out.println("Recording to \"" + destination + "\"");
+    }
+
+    private void stopFlightRecording() {
+        try {
+            File destination = FlightRecording.stop();
+            if (destination != null) {
+                System.out.println("Flight recording written to \"" + destination + "\"");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     private void startDaemon() {
         pendantUI = new PendantUI(backend);
         pendantUI.start();
@@ -221,6 +253,15 @@ public class TerminalClient {
         }
     }
 
+    /**
+     * Streams a file to the controller and prints the throughput as JSON, exits with
+     * an error code if the file couldn't be streamed without errors.
+     */
+    private void runBenchmark() throws Exception {
+        boolean success = new StreamingBenchmark(configuration).run();
+        System.exit(success ? 0 : -1);
+    }
+
     /**
      * Initialize and connects the backend to the controller
      */
@@ -23,6 +23,9 @@ import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.listeners.CommunicatorListener;
+import com.willwinder.universalgcodesender.metrics.Gauge;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 
 import java.util.HashSet;
@@ -41,6 +44,8 @@ import static com.willwinder.universalgcodesender.AbstractCommunicator.SerialCom
  */
 public abstract class AbstractCommunicator implements ICommunicator {
     private static final Logger logger = Logger.getLogger(AbstractCommunicator.class.getName());
+    private static final Gauge EVENT_QUEUE_DEPTH = MetricsRegistry.getDefault()
+            .gauge("communicator.events.queued", "Communicator events waiting to be sent to the controller", Metric.Unit.NONE);
 
     protected Connection connection;
 
@@ -151,6 +156,7 @@ public abstract class AbstractCommunicator implements ICommunicator {
 
         if (launchEventsInDispatchThread) {
             this.eventQueue.add(new EventData(event, string, command));
+            EVENT_QUEUE_DEPTH.set(eventQueue.size());
         } else {
             sendEventToListeners(event, string, command);
         }
@@ -191,6 +197,7 @@ public abstract class AbstractCommunicator implements ICommunicator {
         while (!stop) {
             try {
                 EventData e = eventQueue.take();
+                EVENT_QUEUE_DEPTH.set(eventQueue.size());
                 sendEventToListeners(e.event, e.string, e.command);
             } catch (InterruptedException ignored) {
                 stop = true;
@@ -24,22 +24,29 @@ import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.gcode.util.GcodeUtils;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.CommandsCompletedListener;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.MessageType;
 import com.willwinder.universalgcodesender.listeners.CommunicatorListener;
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
 import com.willwinder.universalgcodesender.model.*;
 import com.willwinder.universalgcodesender.model.UGSEvent.ControlState;
 import com.willwinder.universalgcodesender.services.MessageService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.CommandCompletionBatcher;
+import com.willwinder.universalgcodesender.utils.EventBus;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,6 +72,14 @@ public abstract class AbstractController implements CommunicatorListener, IContr
     // Outside influence
     private boolean statusUpdatesEnabled = true;
     private int statusUpdateRate = 200;
+    private boolean plannerAwareStreaming = false;
+    private int rxBufferSizeOverride = 0;
+
+    // Real-time command latencies, recorded by controllers which can measure them
+    protected final Histogram feedHoldLatency = new Histogram("controller.feedhold.latency",
+            "Time from a feed hold request until the controller reported that it is holding", Metric.Unit.NANOSECONDS);
+    protected final Histogram stopLatency = new Histogram("controller.stop.latency",
+            "Time from a soft reset request until the controller reported that it was reset", Metric.Unit.NANOSECONDS);
 
     // Added value
     private Boolean isStreaming = false;
@@ -91,7 +106,15 @@ public abstract class AbstractController implements CommunicatorListener, IContr
     private IGcodeStreamReader streamCommands;    // The stream of commands to send.
 
     // Listeners
-    private ArrayList<ControllerListener> listeners;
+    private static final String STATUS_EVENT = "statusString";
+    private final EventBus<ControllerListener> listeners = new EventBus<>("Controller");
+    private final CommandCompletionBatcher completedCommands = new CommandCompletionBatcher(this::dispatchCommandsCompleted);
+
+    // The console echo of the commands sent while streaming, written with each batch. Guarded by itself.
+    private final StringBuilder sentCommandsEcho = new StringBuilder();
+
+    // The latest comment for the listeners which take the commands in batches
+    private final AtomicReference<String> batchComment = new AtomicReference<>();
 
     //Track current mode to restore after jogging
     private String distanceModeCode = null;
@@ -327,7 +350,6 @@ public abstract class AbstractController implements CommunicatorListener, IContr
         this.comm.addListener(this);
 
         this.activeCommands = new ArrayList<>();
-        this.listeners = new ArrayList<>();
     }
 
     @Override
@@ -370,6 +392,61 @@ public abstract class AbstractController implements CommunicatorListener, IContr
     public int getStatusUpdateRate() {
         return this.statusUpdateRate;
     }
+
+    @Override
+    public void setPlannerAwareStreaming(boolean enabled) {
+        if (this.plannerAwareStreaming != enabled) {
+            this.plannerAwareStreaming = enabled;
+            plannerAwareStreamingValueChanged();
+        }
+    }
+
+    @Override
+    public boolean getPlannerAwareStreaming() {
+        return this.plannerAwareStreaming;
+    }
+
+    /**
+     * Called when planner aware streaming is enabled or disabled, controllers
+     * which don't report their buffer state can ignore it.
+     */
+    protected void plannerAwareStreamingValueChanged() {
+    }
+
+    @Override
+    public long getPlannerStarvationTime() {
+        return 0;
+    }
+
+    @Override
+    public Histogram getFeedHoldLatency() {
+        return feedHoldLatency;
+    }
+
+    @Override
+    public Histogram getStopLatency() {
+        return stopLatency;
+    }
+
+    @Override
+    public void setRxBufferSizeOverride(int size) {
+        if (this.rxBufferSizeOverride != size) {
+            this.rxBufferSizeOverride = size;
+            rxBufferSizeOverrideValueChanged();
+        }
+    }
+
+    @Override
+    public int getRxBufferSizeOverride() {
+        return this.rxBufferSizeOverride;
+    }
+
+    /**
+     * Called when the receive buffer size override is changed, controllers
+     * which don't stream by buffer size can ignore it.
+     */
+    protected void rxBufferSizeOverrideValueChanged() {
+    }
     
     @Override
     public Boolean openCommPort(ConnectionDriver connectionDriver, String port, int portRate) throws Exception {
@@ -600,6 +677,7 @@ public abstract class AbstractController implements CommunicatorListener, IContr
     
     @Override
     public void pauseStreaming() throws Exception {
+        flushSentCommandsEcho();
         this.dispatchConsoleMessage(MessageType.INFO,"\n**** Pausing file transfer. ****\n\n");
         pauseStreamingEvent();
         this.comm.pauseSend();
@@ -643,6 +721,7 @@ public abstract class AbstractController implements CommunicatorListener, IContr
 
     @Override
     public void cancelSend() throws Exception {
+        flushSentCommandsEcho();
         this.dispatchConsoleMessage(MessageType.INFO, "\n**** Canceling file transfer. ****\n\n");
 
         cancelSendBeforeEvent();
@@ -697,6 +776,7 @@ public abstract class AbstractController implements CommunicatorListener, IContr
                 com.willwinder.universalgcodesender.Utils.
                         formattedMillis(this.getSendDuration());
 
+        flushSentCommandsEcho();
         this.dispatchConsoleMessage(MessageType.INFO,"\n**** Finished sending file in "+duration+" ****\n\n");
         this.streamStopWatch.stop();
         this.isStreaming = false;
@@ -716,7 +796,26 @@ public abstract class AbstractController implements CommunicatorListener, IContr
             dispatchCommandCommment(command.getComment());
         }
         dispatchCommandSent(command);
-        dispatchConsoleMessage(MessageType.INFO, ">>> " + StringUtils.trimToEmpty(command.getCommandString()) + "\n");
+
+        // While streaming the commands are echoed in batches
+        synchronized (sentCommandsEcho) {
+            sentCommandsEcho.append(">>> ").append(StringUtils.trimToEmpty(command.getCommandString())).append("\n");
+        }
+        if (!this.isStreaming()) {
+            flushSentCommandsEcho();
+        }
+    }
+
+    /**
+     * Writes the echo of the sent commands which haven't been written to the console.
+     */
+    private void flushSentCommandsEcho() {
+        synchronized (sentCommandsEcho) {
+            if (sentCommandsEcho.length() > 0) {
+                dispatchConsoleMessage(MessageType.INFO, sentCommandsEcho.toString());
+                sentCommandsEcho.setLength(0);
+            }
+        }
     }
 
     @Override
@@ -787,6 +886,7 @@ public abstract class AbstractController implements CommunicatorListener, IContr
             }
         }
         message.append("\n");
+        flushSentCommandsEcho();
         this.dispatchConsoleMessage(MessageType.INFO, message.toString());
         command.setResponse("<skipped by application>");
         command.setSkipped(true);
@@ -822,6 +922,7 @@ public abstract class AbstractController implements CommunicatorListener, IContr
         }
 
         dispatchCommandComplete(command);
+        completedCommands.commandComplete(command);
         checkStreamFinished();
     }
 
@@ -839,26 +940,26 @@ public abstract class AbstractController implements CommunicatorListener, IContr
 
     @Override
     public void addListener(ControllerListener listener) {
-        if (!this.listeners.contains(listener)) {
-            this.listeners.add(listener);
-        }
+        listeners.subscribe(listener);
+    }
+
+    @Override
+    public void addAsyncListener(ControllerListener listener) {
+        listeners.subscribeAsync(listener);
     }
 
     @Override
     public void removeListener(ControllerListener listener) {
-        if (this.listeners.contains(listener)) {
-            // Needs to be removed with thread safe operation,
-            // will otherwise result in ConcurrentModifificationException
-            this.listeners.removeIf(l -> l.equals(listener));
-        }
+        listeners.unsubscribe(listener);
+    }
+
+    @Override
+    public List<EventBus.Subscription<ControllerListener>> getListenerSubscriptions() {
+        return listeners.getSubscriptions();
     }
 
     protected void dispatchStatusString(ControllerStatus status) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.statusStringListener(status);
-            }
-        }
+        listeners.publish(STATUS_EVENT, l -> l.statusStringListener(status));
     }
     
     protected void dispatchConsoleMessage(MessageType type, String message) {
@@ -870,65 +971,63 @@ public abstract class AbstractController implements CommunicatorListener, IContr
     }
     
     protected void dispatchStateChange(ControlState state) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.controlStateChange(state);
-            }
-        }
+        listeners.publish(l -> l.controlStateChange(state));
     }
 
     protected void dispatchStreamComplete(String filename, Boolean success) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.fileStreamComplete(filename, success);
-            }
-        }
+        // The batch listeners get the last commands before the stream completes
+        completedCommands.flush();
+        dispatchBatchComment();
+        listeners.publish(l -> l.fileStreamComplete(filename, success));
     }
     
     protected void dispatchCommandSkipped(GcodeCommand command) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.commandSkipped(command);
-            }
-        }
+        listeners.publish(l -> l.commandSkipped(command));
     }
     
     protected void dispatchCommandSent(GcodeCommand command) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.commandSent(command);
-            }
-        }
+        listeners.publishTo(AbstractController::isPerLineListener, l -> l.commandSent(command));
     }
     
     protected void dispatchCommandComplete(GcodeCommand command) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.commandComplete(command);
-            }
+        listeners.publishTo(AbstractController::isPerLineListener, l -> l.commandComplete(command));
+    }
+
+    protected void dispatchCommandsCompleted(int fromLine, int toLine, List<GcodeCommand> errors) {
+        flushSentCommandsEcho();
+        dispatchBatchComment();
+        listeners.publishTo(l -> !isPerLineListener(l),
+                l -> ((CommandsCompletedListener) l).commandsCompleted(fromLine, toLine, errors));
+    }
+
+    /**
+     * The listeners which take the commands in batches only get the latest comment of each batch.
+     */
+    private void dispatchBatchComment() {
+        String comment = batchComment.getAndSet(null);
+        if (comment != null) {
+            listeners.publishTo(l -> !isPerLineListener(l), l -> l.commandComment(comment));
         }
     }
+
+    /**
+     * Listeners which take the completed commands in batches don't get an event per line.
+     */
+    private static boolean isPerLineListener(ControllerListener listener) {
+        return !(listener instanceof CommandsCompletedListener);
+    }
     
     protected void dispatchCommandCommment(String comment) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.commandComment(comment);
-            }
-        }
+        listeners.publishTo(AbstractController::isPerLineListener, l -> l.commandComment(comment));
+        batchComment.set(comment);
     }
 
     protected void dispatchAlarm(Alarm alarm) {
-        if (listeners != null) {
-            listeners.forEach(l -> l.receivedAlarm(alarm));
-        }
+        listeners.publish(l -> l.receivedAlarm(alarm));
     }
 
     protected void dispatchProbeCoordinates(Position p) {
-        if (listeners != null) {
-            for (ControllerListener c : listeners) {
-                c.probeCoordinates(p);
-            }
-        }
+        listeners.publish(l -> l.probeCoordinates(p));
     }
 
     protected String getUnitsCode() {
@@ -22,33 +22,91 @@ package com.willwinder.universalgcodesender;
 import static com.willwinder.universalgcodesender.AbstractCommunicator.SerialCommunicatorEvent.*;
 
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.connection.ResponseFrame;
+import com.willwinder.universalgcodesender.jfr.FlightRecorderEvents;
+import com.willwinder.universalgcodesender.metrics.Counter;
+import com.willwinder.universalgcodesender.metrics.Gauge;
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
-import com.willwinder.universalgcodesender.utils.CommUtils;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.SpscRingBuffer;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * GRBL serial port interface class.
  *
+ * While connected commands are sent by two threads. A prefetch thread reads
+ * the manual commands and the command stream ahead and puts them in a send
+ * queue, the sender thread writes them to the connection as soon as there is
+ * room in the controller buffer. Responses from the controller only release
+ * buffer space and wake the sender so that the thread reading the connection
+ * never does any stream or connection work. When there is room for several
+ * commands at once they are written to the connection together.
+ *
+ * Without a connection (for instance in unit tests) both stages are instead
+ * run by the thread calling {@link #streamCommands()}.
+ *
  * @author wwinder
  */
 public abstract class BufferedCommunicator extends AbstractCommunicator {
     private static final Logger logger = Logger.getLogger(BufferedCommunicator.class.getName());
 
+    // Number of commands which are read ahead of the sender.
+    private static final int SEND_QUEUE_SIZE = 64;
+    private static final long CANCEL_TIMEOUT_MS = 1000;
+
+    private static final Counter COMMANDS_SENT = MetricsRegistry.getDefault()
+            .counter("communicator.commands.sent", "Commands written to the controller", Metric.Unit.NONE);
+    private static final Counter BYTES_SENT = MetricsRegistry.getDefault()
+            .counter("communicator.bytes.sent", "Command bytes written to the controller", Metric.Unit.BYTES);
+    /**
+     * The name of the histogram with the time from writing each command until it was acknowledged.
+     */
+    public static final String ROUND_TRIP_TIME_METRIC = "communicator.command.roundtrip";
+
+    private static final Histogram ROUND_TRIP_TIME = MetricsRegistry.getDefault()
+            .histogram(ROUND_TRIP_TIME_METRIC, "Time from writing a command until the controller acknowledged it", Metric.Unit.NANOSECONDS);
+    private static final Histogram RX_OCCUPANCY = MetricsRegistry.getDefault()
+            .histogram("communicator.rx.occupancy", "Bytes in the controller buffer after each write", Metric.Unit.BYTES);
+    private static final Gauge RX_USED = MetricsRegistry.getDefault()
+            .gauge("communicator.rx.used", "Bytes in the controller buffer", Metric.Unit.BYTES);
+
     // Command streaming variables
-    private Boolean sendPaused = false;
-    private GcodeCommand nextCommand;                      // Cached command.
-    private IGcodeStreamReader commandStream;               // Arbitrary number of commands
+    private volatile boolean sendPaused = false;
+    private volatile IGcodeStreamReader commandStream;                 // Arbitrary number of commands
     private final LinkedBlockingDeque<GcodeCommand> commandBuffer;     // Manually specified commands
     private final LinkedBlockingDeque<GcodeCommand> activeCommandList;  // Currently running commands
-    private int sentBufferSize = 0;
-    
-    private Boolean singleStepModeEnabled = false;
-    
+    private final AtomicInteger sentBufferSize = new AtomicInteger();
+
+    // Commands which have been read and are waiting for room in the controller buffer.
+    private final SpscRingBuffer<QueuedCommand> sendQueue = new SpscRingBuffer<>(SEND_QUEUE_SIZE);
+
+    // Commands taken from the send queue which are about to be written, only used by the sender.
+    private final List<QueuedCommand> sendBatch = new ArrayList<>();
+    private final List<byte[]> sendBatchBytes = new ArrayList<>();
+
+    // Incremented by cancelSend, the sender removes all queued commands when it changes.
+    private volatile long cancelCount = 0;
+    private volatile long drainedCancelCount = 0;
+
+    private volatile boolean singleStepModeEnabled = false;
+
+    // Send pipeline threads, only running while connected.
+    private volatile boolean pipelineRunning = false;
+    private volatile Thread prefetchThread;
+    private volatile Thread senderThread;
+
     abstract public int getBufferSize();
 
     public BufferedCommunicator() {
@@ -78,8 +136,28 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     }
 
     @Override
-    public void queueStreamForComm(final IGcodeStreamReader input) {
+    public synchronized void queueStreamForComm(final IGcodeStreamReader input) {
+        IGcodeStreamReader previous = commandStream;
         commandStream = input;
+        if (previous != input) {
+            closeStream(previous);
+        }
+    }
+
+    /**
+     * Releases the file behind a stream, the stream is owned by the
+     * communicator once it has been queued.
+     */
+    private static void closeStream(IGcodeStreamReader stream) {
+        if (stream == null) {
+            return;
+        }
+
+        try {
+            stream.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Couldn't close the gcode stream", e);
+        }
     }
        
     /*
@@ -112,9 +190,10 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
             comma = ", ";
         }
 
-        if (commandStream != null) {
+        IGcodeStreamReader stream = commandStream;
+        if (stream != null) {
             sb.append(comma)
-                    .append(commandStream.getNumRowsRemaining())
+                    .append(stream.getNumRowsRemaining())
                     .append(" streaming commands.");
         }
 
@@ -126,12 +205,15 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         return numActiveCommands() > 0;
     }
 
+    /**
+     * Synchronized with the prefetch stage so that a command which is moved
+     * from the stream to the send queue is always counted.
+     */
     @Override
-    public int numActiveCommands() {
-        int streamingCount =
-                commandStream == null ? 0 : commandStream.getNumRowsRemaining();
-        int cachedCommand = nextCommand == null ? 0 : 1;
-        return this.activeCommandList.size() + streamingCount + cachedCommand;
+    public synchronized int numActiveCommands() {
+        IGcodeStreamReader stream = commandStream;
+        int streamingCount = stream == null ? 0 : stream.getNumRowsRemaining();
+        return this.activeCommandList.size() + streamingCount + sendQueue.size();
     }
 
     public int numBufferedCommands() {
@@ -145,88 +227,193 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         }
         return true;
     }
-    
+
     /**
-     * THIS COMMAND CAN ONLY BE CALLED FROM streamCommands UNLESS
-     * THE nextCommand OBJECT IS SYNCHRONIZED.
-     * 
-     * Returns the next command with the following priority:
-     * 1. nextCommand object if set.
-     * 2. Front of the commandBuffer collection.
-     * 3. Next line in the commandStream.
-     * @return the next command to be streamed
+     * Returns the next command to be streamed with the following priority:
+     * 1. Front of the commandBuffer collection.
+     * 2. Next line in the commandStream.
+     *
+     * @return the next command or null if there are no more commands
      */
-    private GcodeCommand getNextCommand() {
-        if (nextCommand != null) {
-            return nextCommand;
-        }
-        else if (!this.commandBuffer.isEmpty()) {
-            nextCommand = commandBuffer.pop();
-        }
-        else try {
-            if (commandStream != null && commandStream.ready()) {
-                nextCommand = commandStream.getNextCommand();
+    private GcodeCommand readNextCommand() {
+        GcodeCommand command = commandBuffer.poll();
+        if (command == null) {
+            IGcodeStreamReader stream = commandStream;
+            try {
+                if (stream != null && stream.ready()) {
+                    command = stream.getNextCommand();
+                    if (!stream.ready()) {
+                        closeStream(stream);
+                    }
+                }
+            } catch (IOException ignored) {
+                // Fall through to null handling.
             }
-        } catch (IOException ignored) {
-            // Fall through to null handling.
         }
 
-        if (nextCommand != null) {
-            if (nextCommand.getCommandString().endsWith("\n")) {
-                nextCommand.setCommand(nextCommand.getCommandString().trim());
-            }
-            return nextCommand;
+        if (command != null && command.getCommandString().endsWith("\n")) {
+            command.setCommand(command.getCommandString().trim());
         }
-        return null;
+        return command;
     }
-   
+
     /**
-     * Streams anything in the command buffer to the comm port.
-     * Synchronized to prevent commands from sending out of order.
+     * The prefetch stage, reads commands until the send queue contains the
+     * given number of commands. This is the only producer of the send queue.
+     *
+     * @param limit the number of commands to read ahead
+     * @return true if any commands were queued
      */
-    @Override
-    synchronized public void streamCommands() {
-        // If there are no commands to send, exit.
-        if (this.getNextCommand() == null) {
-            logger.log(Level.FINE, "There are no more commands to stream");
-            return;
+    private synchronized boolean prefetchCommands(int limit) {
+        boolean queued = false;
+        while (sendQueue.size() < limit) {
+            GcodeCommand command = readNextCommand();
+            if (command == null) {
+                break;
+            }
+            sendQueue.offer(new QueuedCommand(command));
+            queued = true;
         }
-        
+        return queued;
+    }
+
+    /**
+     * The send stage, writes queued commands to the connection while there is
+     * room in the controller buffer. This is the only consumer of the send
+     * queue.
+     */
+    private void sendQueuedCommands() {
         // Send command if:
         // There is room in the buffer.
         // AND we are NOT paused
         // AND We are NOT in single step mode.
         // OR  We are in single command mode and there are no active commands.
-        while (this.getNextCommand() != null &&
-                !isPaused() &&
-                CommUtils.checkRoomInBuffer(
-                    this.sentBufferSize,
-                    this.getNextCommand().getCommandString(),
-                    this.getBufferSize())
-                && allowMoreCommands()) {
-
-            GcodeCommand command = this.getNextCommand();
-
-            if (command.getCommandString().isEmpty()) {
-                dispatchListenerEvents(COMMAND_SKIPPED, command);
-                nextCommand = null;
+        while (true) {
+            drainCanceledCommands();
+            if (isPaused() || !allowMoreCommands()) {
+                break;
+            }
+
+            QueuedCommand next = sendQueue.peek();
+            if (next == null) {
+                wakeThread(prefetchThread);
+                break;
+            }
+
+            if (next.commandString.isEmpty()) {
+                // Keep the events in order
+                writeBatch();
+                sendQueue.poll();
+                dispatchListenerEvents(COMMAND_SKIPPED, next.command);
                 continue;
             }
 
-            String commandString = command.getCommandString().trim();
-            
-            this.activeCommandList.add(command);
-            this.sentBufferSize += (commandString.length() + 1);
+            if (sentBufferSize.get() + next.length > getBufferSize()) {
+                break;
+            }
 
-            try {
-                this.sendingCommand(commandString);
-                connection.sendStringToComm(commandString + "\n");
-                dispatchListenerEvents(COMMAND_SENT, command);
-                nextCommand = null;
-            } catch (Exception e) {
-                e.printStackTrace();
-                System.exit(-1);
+            // Add to the active list before removing it from the queue so
+            // that the command is always counted as active.
+            next.command.setSentTime(System.nanoTime());
+            this.activeCommandList.add(next.command);
+            RX_USED.set(this.sentBufferSize.addAndGet(next.length));
+            sendQueue.poll();
+            if (sendQueue.size() == sendQueue.capacity() / 2) {
+                wakeThread(prefetchThread);
             }
+            sendBatch.add(next);
+
+            // May switch to single step mode, which is checked before the
+            // next command is added to the batch.
+            this.sendingCommand(next.commandString);
+        }
+        writeBatch();
+    }
+
+    /**
+     * Writes the commands which have been taken from the send queue, several
+     * commands are written to the connection at once.
+     */
+    private void writeBatch() {
+        // A cancel may have arrived while the batch was being collected.
+        drainCanceledCommands();
+        if (sendBatch.isEmpty()) {
+            return;
+        }
+
+        Object event = FlightRecorderEvents.COMMANDS_SENT.begin();
+        try {
+            // The sent events are queued before writing so that they are
+            // always dispatched ahead of the responses to the commands.
+            long bytes = 0;
+            for (QueuedCommand queued : sendBatch) {
+                dispatchListenerEvents(COMMAND_SENT, queued.command);
+                bytes += queued.length;
+            }
+
+            // The connection gives real-time bytes priority over commands
+            // written from the sender thread.
+            if (sendBatch.size() == 1 && !pipelineRunning) {
+                connection.sendStringToComm(sendBatch.get(0).line);
+            } else {
+                for (QueuedCommand queued : sendBatch) {
+                    sendBatchBytes.add(queued.bytes);
+                }
+                connection.sendBytesToComm(sendBatchBytes);
+            }
+
+            BYTES_SENT.add(bytes);
+            COMMANDS_SENT.add(sendBatch.size());
+            RX_OCCUPANCY.record(sentBufferSize.get());
+
+            if (event != null) {
+                FlightRecorderEvents.COMMANDS_SENT.commit(event, sendBatch.get(0).command.getCommandNumber(),
+                        sendBatch.get(sendBatch.size() - 1).command.getCommandNumber(), sendBatch.size(),
+                        bytes, (long) sentBufferSize.get());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(-1);
+        } finally {
+            sendBatch.clear();
+            sendBatchBytes.clear();
+        }
+    }
+
+    private void drainCanceledCommands() {
+        long count = cancelCount;
+        if (drainedCancelCount != count) {
+            sendQueue.clear();
+            sendBatch.clear();
+            sendBatchBytes.clear();
+            drainedCancelCount = count;
+        }
+    }
+
+    /**
+     * Streams anything in the command buffer to the comm port. While
+     * connected this only wakes the send pipeline, otherwise the commands are
+     * sent by the calling thread.
+     */
+    @Override
+    public void streamCommands() {
+        if (pipelineRunning) {
+            wakeThread(prefetchThread);
+            wakeThread(senderThread);
+            return;
+        }
+
+        // Synchronized to prevent commands from sending out of order. Only
+        // one command is read ahead as nothing is read while waiting.
+        synchronized (this) {
+            if (!prefetchCommands(1) && sendQueue.isEmpty()) {
+                logger.log(Level.FINE, "There are no more commands to stream");
+                return;
+            }
+
+            do {
+                sendQueuedCommands();
+            } while (sendQueue.isEmpty() && prefetchCommands(1));
         }
     }
     
@@ -247,13 +434,36 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     }
     
     @Override
-    public void cancelSend() {
-        this.nextCommand = null;
+    public synchronized void cancelSend() {
         this.commandBuffer.clear();
-        this.activeCommandList.clear();
+        closeStream(this.commandStream);
         this.commandStream = null;
+
+        // Let the consumer of the send queue remove the queued commands
+        this.cancelCount++;
+        Thread sender = senderThread;
+        if (pipelineRunning && sender != null && sender != Thread.currentThread()) {
+            waitForCanceledCommands(sender);
+        } else {
+            drainCanceledCommands();
+        }
+
+        this.activeCommandList.clear();
         this.sendPaused = false;
-        this.sentBufferSize = 0;
+        this.sentBufferSize.set(0);
+        RX_USED.set(0);
+    }
+
+    private void waitForCanceledCommands(Thread sender) {
+        long deadline = System.currentTimeMillis() + CANCEL_TIMEOUT_MS;
+        while (drainedCancelCount != cancelCount) {
+            if (System.currentTimeMillis() > deadline) {
+                logger.log(Level.WARNING, "Timed out waiting for the sender to cancel the queued commands");
+                return;
+            }
+            LockSupport.unpark(sender);
+            LockSupport.parkNanos(100000);
+        }
     }
 
     /**
@@ -277,6 +487,30 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
      * @return true if a command has completed.
      */
     abstract protected boolean processedCommandIsError(String response);
+
+    /**
+     * Returns whether or not a command has been completed, for communicators
+     * which can tell from the type of the response line.
+     *
+     * @param response the response line
+     * @param type the type of the response line, or null if it isn't known
+     * @return true if a command has completed.
+     */
+    protected boolean processedCommand(String response, ResponseFrame.Type type) {
+        return processedCommand(response);
+    }
+
+    /**
+     * Returns whether or not a completed command had an error, for
+     * communicators which can tell from the type of the response line.
+     *
+     * @param response the response line
+     * @param type the type of the response line, or null if it isn't known
+     * @return true if a command has completed with an error.
+     */
+    protected boolean processedCommandIsError(String response, ResponseFrame.Type type) {
+        return processedCommandIsError(response);
+    }
     
     /** 
      * Processes message from GRBL. This should only be called from the
@@ -285,13 +519,25 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
      */
     @Override
     public void handleResponseMessage(String response) {
+        handleResponseMessage(response, null);
+    }
+
+    /**
+     * Processes a response line whose type may already be known from the
+     * connection.
+     *
+     * @param response the response line
+     * @param type the type of the response line, or null if it isn't known
+     */
+    protected void handleResponseMessage(String response, ResponseFrame.Type type) {
         // Send this information back up to the Controller.
         dispatchListenerEvents(SerialCommunicatorEvent.RAW_RESPONSE, response);
 
 
         // Pause if there was an error and if there are more commands queued
-        if (processedCommandIsError(response) &&
-                (nextCommand != null                    // No cached command
+        boolean error = processedCommandIsError(response, type);
+        if (error &&
+                (!sendQueue.isEmpty()                   // No queued command
                     || (activeCommandList.size() > 1)   // No more commands (except for the one being popped further down)
                     || (commandStream != null && commandStream.getNumRowsRemaining() > 0) // No more rows in stream
                     || (commandBuffer != null && commandBuffer.size() > 0))) { // No commands in buffer
@@ -301,14 +547,25 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         }
 
         // Keep the data flow going in case of an "ok" or an "error".
-        if (processedCommand(response)) {
-            // Pop the front of the active list.
-            if (this.activeCommandList != null && this.activeCommandList.size() > 0) {
-                GcodeCommand command = this.activeCommandList.pop();
-                this.sentBufferSize -= (command.getCommandString().length() + 1);
+        if (processedCommand(response, type)) {
+            // Pop the front of the active list and release its buffer space.
+            GcodeCommand command = this.activeCommandList.poll();
+            if (command != null) {
+                RX_USED.set(this.sentBufferSize.addAndGet(-(command.getCommandString().length() + 1)));
+                if (command.getSentTime() != 0) {
+                    long roundTrip = System.nanoTime() - command.getSentTime();
+                    ROUND_TRIP_TIME.record(roundTrip);
+                    if (FlightRecorderEvents.COMMAND_ACKNOWLEDGED.isEnabled()) {
+                        FlightRecorderEvents.COMMAND_ACKNOWLEDGED.emit(command.getCommandNumber(), command.getCommandString(), roundTrip, error);
+                    }
+                }
 
                 if (!isPaused()) {
-                    this.streamCommands();
+                    if (pipelineRunning) {
+                        wakeThread(senderThread);
+                    } else {
+                        this.streamCommands();
+                    }
                 }
             }
         }
@@ -320,12 +577,17 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
 
         this.commandBuffer.clear();
         this.activeCommandList.clear();
-        this.sentBufferSize = 0;
+        this.sentBufferSize.set(0);
+        RX_USED.set(0);
+        this.sendQueue.clear();
+
+        startSendPipeline();
     }
 
     @Override
     public void disconnect() throws Exception {
         this.cancelSend();
+        stopSendPipeline();
         super.disconnect();
         
         this.sendPaused = false;
@@ -337,4 +599,74 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     public void sendByteImmediately(byte b) throws Exception {
         connection.sendByteImmediately(b);
     }
+
+    private void startSendPipeline() {
+        if (pipelineRunning) {
+            return;
+        }
+
+        pipelineRunning = true;
+        senderThread = new Thread(() -> {
+            while (pipelineRunning) {
+                sendQueuedCommands();
+                LockSupport.park(this);
+            }
+        }, "BufferedCommunicator sender");
+        prefetchThread = new Thread(() -> {
+            while (pipelineRunning) {
+                if (prefetchCommands(SEND_QUEUE_SIZE)) {
+                    wakeThread(senderThread);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        }, "BufferedCommunicator prefetch");
+
+        senderThread.setDaemon(true);
+        prefetchThread.setDaemon(true);
+        senderThread.start();
+        prefetchThread.start();
+    }
+
+    private void stopSendPipeline() throws InterruptedException {
+        if (!pipelineRunning) {
+            return;
+        }
+
+        pipelineRunning = false;
+        Thread sender = senderThread;
+        Thread prefetch = prefetchThread;
+        wakeThread(sender);
+        wakeThread(prefetch);
+        sender.join(CANCEL_TIMEOUT_MS);
+        prefetch.join(CANCEL_TIMEOUT_MS);
+        senderThread = null;
+        prefetchThread = null;
+    }
+
+    private static void wakeThread(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * A command in the send queue with the line which is written to the
+     * connection, prepared and encoded by the prefetch stage.
+     */
+    private static final class QueuedCommand {
+        private final GcodeCommand command;
+        private final String commandString;
+        private final String line;
+        private final byte[] bytes;
+        private final int length;
+
+        private QueuedCommand(GcodeCommand command) {
+            this.command = command;
+            this.commandString = command.getCommandString().trim();
+            this.line = commandString + "\n";
+            this.bytes = line.getBytes(StandardCharsets.UTF_8);
+            this.length = commandString.length() + 1;
+        }
+    }
 }
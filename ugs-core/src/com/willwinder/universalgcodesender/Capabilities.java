@@ -34,6 +34,11 @@ public class Capabilities {
      */
     private Set<String> capabilities = new HashSet<>();
 
+    /**
+     * The size of the serial receive buffer in bytes, zero if unknown
+     */
+    private int rxBufferSize = 0;
+
     /**
      * Adds a capability that is either defined in {@link CapabilitiesConstants} or a
      * special capability for the controller.
@@ -168,4 +173,24 @@ public class Capabilities {
     public boolean hasReturnToZero() {
         return hasCapability(CapabilitiesConstants.RETURN_TO_ZERO);
     }
+
+    /**
+     * Sets the size of the serial receive buffer reported by the hardware.
+     *
+     * @param rxBufferSize the buffer size in bytes
+     */
+    public void setRxBufferSize(int rxBufferSize) {
+        this.rxBufferSize = rxBufferSize;
+    }
+
+    /**
+     * Returns the size of the serial receive buffer reported by the hardware,
+     * which limits how many bytes may be streamed ahead of the commands being
+     * executed.
+     *
+     * @return the buffer size in bytes or zero if it hasn't been reported
+     */
+    public int getRxBufferSize() {
+        return rxBufferSize;
+    }
 }
@@ -41,4 +41,10 @@ public class GrblCapabilitiesConstants {
      * A constant for defining if the status strings are returned in version 1 format
      */
     public static final String V1_FORMAT = "V1_FORMAT";
+
+    /**
+     * A constant for defining if the build options from "$I" include the size of
+     * the planner and the serial receive buffer
+     */
+    public static final String BUILD_OPTIONS_BUFFER_SIZE = "BUILD_OPTIONS_BUFFER_SIZE";
 }
@@ -19,6 +19,8 @@
 package com.willwinder.universalgcodesender;
 
 import com.willwinder.universalgcodesender.connection.Connection;
+import com.willwinder.universalgcodesender.connection.ResponseFrame;
+import com.willwinder.universalgcodesender.connection.ResponseLineFramer;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.regex.Pattern;
@@ -26,9 +28,10 @@ import java.util.regex.Pattern;
 /**
  * @author wwinder
  */
-public class GrblCommunicator extends BufferedCommunicator {
+public class GrblCommunicator extends BufferedCommunicator implements ResponseLineFramer.FrameListener {
 
     private boolean temporarySingleStepMode;
+    private volatile int bufferSize = GrblUtils.GRBL_RX_BUFFER_SIZE;
     private final static String EEPROM_COMMAND_PATTERN = "G10|G28|G30|\\$x=|\\$I|\\$N|\\$RST=|G5[456789]|\\$\\$|\\$#";
     private final static Pattern EEPROM_COMMAND = Pattern.compile(EEPROM_COMMAND_PATTERN, Pattern.CASE_INSENSITIVE);
     
@@ -50,7 +53,17 @@ public class GrblCommunicator extends BufferedCommunicator {
 
     @Override
     public int getBufferSize() {
-        return GrblUtils.GRBL_RX_BUFFER_SIZE;
+        return bufferSize;
+    }
+
+    /**
+     * Sets the number of bytes which may be waiting in the controllers serial
+     * buffer, the default is {@link GrblUtils#GRBL_RX_BUFFER_SIZE}.
+     *
+     * @param bufferSize the buffer size in bytes
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
     }
 
     @Override
@@ -63,6 +76,32 @@ public class GrblCommunicator extends BufferedCommunicator {
         return response.startsWith("error");
     }
 
+    @Override
+    protected boolean processedCommand(String response, ResponseFrame.Type type) {
+        // Status reports and feedback messages never complete a command
+        if (type == ResponseFrame.Type.STATUS || type == ResponseFrame.Type.FEEDBACK) {
+            return false;
+        }
+        return processedCommand(response);
+    }
+
+    @Override
+    protected boolean processedCommandIsError(String response, ResponseFrame.Type type) {
+        if (type == null) {
+            return processedCommandIsError(response);
+        }
+        return type == ResponseFrame.Type.ERROR;
+    }
+
+    /**
+     * Handles a response line from the connection, the type of the line is
+     * used instead of matching the decoded line.
+     */
+    @Override
+    public void onFrame(ResponseFrame frame) {
+        handleResponseMessage(frame.getLine(), frame.getType());
+    }
+
     /**
      * When a command is sent, check if it is one of the special commands which writes to the EEPROM.
      * If it is temporarily setSingleStepMode(true) to avoid corruption.
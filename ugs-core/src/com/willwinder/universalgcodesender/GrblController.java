@@ -27,6 +27,7 @@ import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
 import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.metrics.Histogram;
 import com.willwinder.universalgcodesender.model.*;
 import com.willwinder.universalgcodesender.model.UGSEvent.ControlState;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
@@ -37,6 +38,7 @@ import com.willwinder.universalgcodesender.utils.GrblLookups;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +56,8 @@ public class GrblController extends AbstractController {
     private static final GrblLookups ALARMS = new GrblLookups("alarm_codes");
     private static final GrblLookups ERRORS = new GrblLookups("error_codes");
     private StatusPollTimer positionPollTimer;
+    private final PlannerMonitor plannerMonitor = new PlannerMonitor();
+    private final GrblStatusParser statusParser = new GrblStatusParser();
 
     // Grbl state
     private double grblVersion = 0.0;           // The 0.8 in 'Grbl 0.8c'
@@ -65,6 +69,12 @@ public class GrblController extends AbstractController {
     // Polling state
     private ControllerStatus controllerStatus = new ControllerStatus(ControllerState.DISCONNECTED, new Position(0,0,0,Units.MM), new Position(0,0,0,Units.MM));
 
+    // Real-time command latency, the request times are from System.nanoTime()
+    private volatile boolean feedHoldRequested = false;
+    private volatile long feedHoldRequestTime;
+    private volatile boolean stopRequested = false;
+    private volatile long stopRequestTime;
+
     // Canceling state
     private Boolean isCanceling = false;     // Set for the position polling thread.
     private int attemptsRemaining;
@@ -188,6 +198,10 @@ public class GrblController extends AbstractController {
 
             else if (GrblUtils.isGrblVersionString(response)) {
                 this.isReady = true;
+                if (stopRequested) {
+                    stopRequested = false;
+                    recordLatency(stopLatency, stopRequestTime, "Soft reset");
+                }
                 resetBuffers();
 
                 // When exiting COMM_CHECK mode a soft reset is done, do not clear the
@@ -200,6 +214,10 @@ public class GrblController extends AbstractController {
                 positionPollTimer.stop();
                 positionPollTimer.start();
 
+                // The buffer sizes are learned again after a reset
+                plannerMonitor.reset();
+                updatePlannerAwareStreaming();
+
                 // In case a reset occurred while streaming.
                 if (this.isStreaming()) {
                     checkStreamFinished();
@@ -209,9 +227,14 @@ public class GrblController extends AbstractController {
                 this.grblVersionLetter = GrblUtils.getVersionLetter(response);
                 
                 this.capabilities = GrblUtils.getGrblStatusCapabilities(this.grblVersion, this.grblVersionLetter);
+                updateSendWindow();
                 try {
                     this.sendCommandImmediately(createCommand(GrblUtils.GRBL_VIEW_SETTINGS_COMMAND));
                     this.sendCommandImmediately(createCommand(GrblUtils.GRBL_VIEW_PARSER_STATE_COMMAND));
+
+                    if (this.capabilities.hasCapability(GrblCapabilitiesConstants.BUILD_OPTIONS_BUFFER_SIZE)) {
+                        this.sendCommandImmediately(createCommand(GrblUtils.GRBL_VIEW_BUILD_INFO_COMMAND));
+                    }
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
@@ -240,6 +263,15 @@ public class GrblController extends AbstractController {
                 this.checkStreamFinished();
             }
 
+            else if (GrblUtils.isGrblBuildOptionsMessage(response)) {
+                int rxBufferSize = GrblUtils.getRxBufferSizeFromBuildOptions(response);
+                if (rxBufferSize > 0) {
+                    logger.log(Level.CONFIG, "Detected serial buffer size: {0}", rxBufferSize);
+                    this.capabilities.setRxBufferSize(rxBufferSize);
+                    updateSendWindow();
+                }
+            }
+
             else if (GrblUtils.isGrblFeedbackMessage(response, capabilities)) {
                 GrblFeedbackMessage grblFeedbackMessage = new GrblFeedbackMessage(response);
                 // Convert feedback message to raw commands to update modal state.
@@ -278,6 +310,8 @@ public class GrblController extends AbstractController {
     @Override
     protected void pauseStreamingEvent() throws Exception {
         if (this.capabilities.hasCapability(GrblCapabilitiesConstants.REAL_TIME)) {
+            feedHoldRequestTime = System.nanoTime();
+            feedHoldRequested = true;
             this.comm.sendByteImmediately(GrblUtils.GRBL_PAUSE_COMMAND);
         }
     }
@@ -348,6 +382,9 @@ public class GrblController extends AbstractController {
     
     @Override
     protected void cancelSendAfterEvent() {
+        plannerMonitor.finishJob();
+        updatePlannerAwareStreaming();
+
         if (this.capabilities.hasCapability(GrblCapabilitiesConstants.REAL_TIME) && this.getStatusUpdatesEnabled()) {
             // Trigger the position listener to watch for the machine to stop.
             this.attemptsRemaining = 50;
@@ -356,6 +393,105 @@ public class GrblController extends AbstractController {
         }
     }
 
+    @Override
+    public void beginStreaming() throws Exception {
+        plannerMonitor.startJob(System.currentTimeMillis());
+        try {
+            super.beginStreaming();
+        } catch (Exception e) {
+            plannerMonitor.finishJob();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void fileStreamComplete(String filename, boolean success) {
+        plannerMonitor.finishJob();
+        updatePlannerAwareStreaming();
+        super.fileStreamComplete(filename, success);
+
+        if (plannerMonitor.hasBufferState()) {
+            String duration = Utils.formattedMillis(plannerMonitor.getStarvationTime());
+            logger.info("Planner ran empty " + plannerMonitor.getStarvationCount() + " times for " + duration);
+            this.dispatchConsoleMessage(MessageType.INFO, "**** Planner ran empty "
+                    + plannerMonitor.getStarvationCount() + " times for " + duration + " ****\n\n");
+        }
+    }
+
+    private void recordLatency(Histogram histogram, long requestTime, String name) {
+        long latency = System.nanoTime() - requestTime;
+        histogram.record(latency);
+        logger.log(Level.INFO, "{0} was reported after {1} ms ({2})",
+                new Object[]{name, TimeUnit.NANOSECONDS.toMillis(latency), histogram.getSummary()});
+    }
+
+    @Override
+    public long getPlannerStarvationTime() {
+        return plannerMonitor.getStarvationTime();
+    }
+
+    @Override
+    protected void plannerAwareStreamingValueChanged() {
+        updatePlannerAwareStreaming();
+    }
+
+    @Override
+    protected void rxBufferSizeOverrideValueChanged() {
+        updateSendWindow();
+    }
+
+    /**
+     * Applies the planner state from the last status report to the status
+     * polling interval. Without planner aware streaming or buffer reports
+     * the status update rate is used.
+     */
+    private void updatePlannerAwareStreaming() {
+        int pollInterval = getStatusUpdateRate();
+        if (getPlannerAwareStreaming() && plannerMonitor.hasBufferState()) {
+            pollInterval = plannerMonitor.getPollInterval(pollInterval);
+        }
+        positionPollTimer.setUpdateInterval(pollInterval);
+        updateSendWindow();
+    }
+
+    /**
+     * Sizes the send window from the serial buffer size, in order of
+     * precedence: the configured override, the size detected from the
+     * firmware, the largest buffer seen in status reports with planner aware
+     * streaming and finally the 128 bytes of a stock GRBL. With planner
+     * aware streaming the window is reduced while the planner is full.
+     */
+    private void updateSendWindow() {
+        if (!(comm instanceof GrblCommunicator)) {
+            return;
+        }
+
+        int rxBufferSize = getRxBufferSizeOverride();
+        if (rxBufferSize <= 0) {
+            rxBufferSize = capabilities.getRxBufferSize();
+        }
+        if (rxBufferSize <= 0 && getPlannerAwareStreaming()) {
+            rxBufferSize = plannerMonitor.getRxBufferSize();
+        }
+
+        int sendWindow = GrblUtils.GRBL_RX_BUFFER_SIZE;
+        if (rxBufferSize > GrblUtils.GRBL_RX_BUFFER_MARGIN) {
+            sendWindow = rxBufferSize - GrblUtils.GRBL_RX_BUFFER_MARGIN;
+        }
+        if (getPlannerAwareStreaming()) {
+            sendWindow = plannerMonitor.getSendWindow(sendWindow);
+        }
+
+        GrblCommunicator grblCommunicator = (GrblCommunicator) comm;
+        int previousSendWindow = grblCommunicator.getBufferSize();
+        grblCommunicator.setBufferSize(sendWindow);
+
+        // The held back commands are sent when the planner has room again
+        if (sendWindow > previousSendWindow && isStreaming()) {
+            comm.streamCommands();
+        }
+    }
+
     @Override
     protected Boolean isIdleEvent() {
         if (this.capabilities.hasCapability(GrblCapabilitiesConstants.REAL_TIME)) {
@@ -520,6 +656,8 @@ public class GrblController extends AbstractController {
     @Override
     public void softReset() throws Exception {
         if (this.isCommOpen() && this.capabilities.hasCapability(GrblCapabilitiesConstants.REAL_TIME)) {
+            stopRequestTime = System.nanoTime();
+            stopRequested = true;
             this.comm.sendByteImmediately(GrblUtils.GRBL_RESET_COMMAND);
             //Does GRBL need more time to handle the reset?
             this.comm.cancelSend();
@@ -592,8 +730,26 @@ public class GrblController extends AbstractController {
         ControlState before = getControlState();
         ControllerState beforeState = controllerStatus == null ? ControllerState.UNKNOWN : controllerStatus.getState();
 
-        controllerStatus = GrblUtils.getStatusFromStatusString(
-                controllerStatus, string, capabilities, getFirmwareSettings().getReportingUnits());
+        if (capabilities.hasCapability(GrblCapabilitiesConstants.V1_FORMAT)) {
+            controllerStatus = statusParser.parse(controllerStatus, string, getFirmwareSettings().getReportingUnits());
+        } else {
+            controllerStatus = GrblUtils.getStatusFromStatusString(
+                    controllerStatus, string, capabilities, getFirmwareSettings().getReportingUnits());
+        }
+
+        if (feedHoldRequested && (controllerStatus.getState() == ControllerState.HOLD || controllerStatus.getState() == ControllerState.DOOR)) {
+            feedHoldRequested = false;
+            recordLatency(feedHoldLatency, feedHoldRequestTime, "Feed hold");
+        }
+
+        if (controllerStatus.getBufferState() != null) {
+            // Firmware without build options reports an empty buffer while idle
+            if (capabilities.getRxBufferSize() == 0 && controllerStatus.getState() == ControllerState.IDLE) {
+                capabilities.setRxBufferSize(controllerStatus.getBufferState().rxBytesAvailable);
+            }
+            plannerMonitor.update(controllerStatus.getBufferState(), controllerStatus.getState(), System.currentTimeMillis());
+            updatePlannerAwareStreaming();
+        }
 
         // Make UGS more responsive to the state being reported by GRBL.
         if (before != getControlState()) {
@@ -0,0 +1,547 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.AccessoryStates;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.BufferState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.EnabledPins;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.OverridePercents;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+
+/**
+ * Parses GRBL 1.x status reports in a single pass over the string:
+ * <Idle|MPos:1.000,2.000,3.000|FS:0,0|WCO:0.000,0.000,0.000>
+ *
+ * The result is the same as {@link GrblUtils#getStatusFromStatusStringV1}.
+ * The fields are parsed into a mutable record which is reused for every
+ * report, and a new {@link ControllerStatus} is only created when something
+ * differs from the last status. Otherwise the last status is returned, so a
+ * machine sitting idle doesn't allocate anything while it is being polled.
+ *
+ * Reports which this parser doesn't fully understand, like malformed numbers
+ * or exponents, are given to {@link GrblUtils#getStatusFromStatusStringV1}.
+ *
+ * The parser isn't thread safe, each controller should have its own.
+ *
+ * @author agent
+ */
+public class GrblStatusParser {
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Integers up to this value are exact as a double.
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    private static final String[] STATE_NAMES = {
+            "jog", "run", "hold", "door", "home", "idle", "alarm", "check", "sleep"
+    };
+    private static final ControllerState[] STATES = {
+            ControllerState.JOG, ControllerState.RUN, ControllerState.HOLD, ControllerState.DOOR,
+            ControllerState.HOME, ControllerState.IDLE, ControllerState.ALARM, ControllerState.CHECK,
+            ControllerState.SLEEP
+    };
+
+    private static final String PIN_LETTERS = "XYZPDHRS";
+    private static final String ACCESSORY_LETTERS = "SCFM";
+    private static final EnabledPins[] PINS = new EnabledPins[1 << PIN_LETTERS.length()];
+    private static final AccessoryStates[] ACCESSORY_STATES = new AccessoryStates[1 << ACCESSORY_LETTERS.length()];
+
+    static {
+        for (int mask = 0; mask < PINS.length; mask++) {
+            PINS[mask] = new EnabledPins(lettersFromMask(PIN_LETTERS, mask));
+        }
+        for (int mask = 0; mask < ACCESSORY_STATES.length; mask++) {
+            ACCESSORY_STATES[mask] = new AccessoryStates(lettersFromMask(ACCESSORY_LETTERS, mask));
+        }
+    }
+
+    /**
+     * The fields of one status report, reset before each report is parsed.
+     */
+    private static final class StatusRecord {
+        ControllerState state;
+
+        boolean hasMachineCoord;
+        final double[] machineCoord = new double[3];
+        boolean hasWorkCoord;
+        final double[] workCoord = new double[3];
+        boolean hasWorkCoordinateOffset;
+        final double[] workCoordinateOffset = new double[3];
+
+        boolean hasFeedSpeed;
+        double feedSpeed;
+        boolean hasSpindleSpeed;
+        double spindleSpeed;
+
+        boolean isOverrideReport;
+        boolean hasOverrides;
+        final int[] overrides = new int[3];
+
+        boolean hasPins;
+        int pins;
+        boolean hasAccessoryStates;
+        int accessoryStates;
+
+        boolean hasBufferState;
+        final int[] bufferState = new int[2];
+
+        void reset() {
+            state = ControllerState.UNKNOWN;
+            hasMachineCoord = false;
+            hasWorkCoord = false;
+            hasWorkCoordinateOffset = false;
+            hasFeedSpeed = false;
+            hasSpindleSpeed = false;
+            isOverrideReport = false;
+            hasOverrides = false;
+            hasPins = false;
+            hasAccessoryStates = false;
+            hasBufferState = false;
+        }
+    }
+
+    private final StatusRecord record = new StatusRecord();
+
+    // Scratch space for the values of a field.
+    private final double[] doubles = new double[3];
+    private final int[] ints = new int[3];
+    private double number;
+
+    /**
+     * Parses a GRBL status string in the v1.x format.
+     *
+     * @param lastStatus the previous status, the WCO coords and override status
+     *                   are taken from it when they aren't in the report.
+     * @param status the raw status string
+     * @param reportingUnits units
+     * @return the parsed controller status, which is lastStatus if nothing changed
+     */
+    public ControllerStatus parse(ControllerStatus lastStatus, String status, Units reportingUnits) {
+        if (!parseRecord(status)) {
+            return GrblUtils.getStatusFromStatusStringV1(lastStatus, status, reportingUnits);
+        }
+        return toStatus(lastStatus, reportingUnits);
+    }
+
+    /**
+     * Parses the status report into the record.
+     *
+     * @return false if the report has to be parsed by the regular parser
+     */
+    private boolean parseRecord(String status) {
+        record.reset();
+
+        // The last character is the closing '>'
+        int end = status.length() - 1;
+        if (end < 1 || status.charAt(0) != '<') {
+            return false;
+        }
+
+        int partEnd = indexOf(status, '|', 1, end);
+        record.state = parseState(status, 1, indexOf(status, ':', 1, partEnd));
+        while (partEnd < end) {
+            int start = partEnd + 1;
+            partEnd = indexOf(status, '|', start, end);
+            if (!parseField(status, start, partEnd)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean parseField(String status, int start, int end) {
+        if (startsWith(status, start, end, "<")) {
+            return false;
+        } else if (startsWith(status, start, end, "MPos:")) {
+            // The regular parser uses the first position in the report
+            if (!record.hasMachineCoord) {
+                record.hasMachineCoord = parsePosition(status, start + 5, end, record.machineCoord);
+                return record.hasMachineCoord;
+            }
+        } else if (startsWith(status, start, end, "WPos:")) {
+            if (!record.hasWorkCoord) {
+                record.hasWorkCoord = parsePosition(status, start + 5, end, record.workCoord);
+                return record.hasWorkCoord;
+            }
+        } else if (startsWith(status, start, end, "WCO:")) {
+            if (!record.hasWorkCoordinateOffset) {
+                record.hasWorkCoordinateOffset = parsePosition(status, start + 4, end, record.workCoordinateOffset);
+                return record.hasWorkCoordinateOffset;
+            }
+        } else if (startsWith(status, start, end, "Ov:")) {
+            int count = parseInts(status, start + 3, end, ints);
+            if (count != 3) {
+                return false;
+            }
+            record.isOverrideReport = true;
+            record.hasOverrides = true;
+            System.arraycopy(ints, 0, record.overrides, 0, 3);
+        } else if (startsWith(status, start, end, "F:")) {
+            int count = parseDoubles(status, start + 2, end, doubles);
+            if (count < 1) {
+                return false;
+            }
+            // F:1000.0 or F:3000.0,100.0,100.0, two values isn't a known format
+            record.hasFeedSpeed = true;
+            record.feedSpeed = count == 2 ? 0 : doubles[0];
+        } else if (startsWith(status, start, end, "FS:")) {
+            int count = parseDoubles(status, start + 3, end, doubles);
+            if (count < 2) {
+                return false;
+            }
+            record.hasFeedSpeed = true;
+            record.feedSpeed = doubles[0];
+            record.hasSpindleSpeed = true;
+            record.spindleSpeed = doubles[1];
+        } else if (startsWith(status, start, end, "Pn:")) {
+            record.hasPins = true;
+            record.pins = maskFromLetters(PIN_LETTERS, status, start + 3, end);
+        } else if (startsWith(status, start, end, "A:")) {
+            record.hasAccessoryStates = true;
+            record.accessoryStates = maskFromLetters(ACCESSORY_LETTERS, status, start + 2, end);
+        } else if (startsWith(status, start, end, "Bf:")) {
+            if (parseInts(status, start + 3, end, ints) != 2) {
+                return false;
+            }
+            record.hasBufferState = true;
+            record.bufferState[0] = ints[0];
+            record.bufferState[1] = ints[1];
+        }
+        return true;
+    }
+
+    /**
+     * Creates the controller status from the record, reusing the values of
+     * the last status which haven't changed.
+     */
+    private ControllerStatus toStatus(ControllerStatus lastStatus, Units reportingUnits) {
+        double feedSpeed = 0;
+        double spindleSpeed = 0;
+        if (lastStatus != null) {
+            feedSpeed = lastStatus.getFeedSpeed();
+            spindleSpeed = lastStatus.getSpindleSpeed();
+        }
+        if (record.hasFeedSpeed) {
+            feedSpeed = record.feedSpeed;
+        }
+        if (record.hasSpindleSpeed) {
+            spindleSpeed = record.spindleSpeed;
+        }
+
+        Position lastMachineCoord = lastStatus == null ? null : lastStatus.getMachineCoord();
+        Position lastWorkCoord = lastStatus == null ? null : lastStatus.getWorkCoord();
+        Position lastWorkCoordinateOffset = lastStatus == null ? null : lastStatus.getWorkCoordinateOffset();
+
+        // Grab WCO from the last status if necessary.
+        Position wco;
+        double[] offset = record.workCoordinateOffset;
+        if (record.hasWorkCoordinateOffset) {
+            wco = position(lastWorkCoordinateOffset, offset[0], offset[1], offset[2], reportingUnits);
+        } else if (lastWorkCoordinateOffset != null) {
+            wco = lastWorkCoordinateOffset;
+        } else {
+            wco = new Position(0, 0, 0, reportingUnits);
+        }
+
+        // Calculate missing coordinate with WCO
+        Position machineCoord = null;
+        Position workCoord = null;
+        double[] machine = record.machineCoord;
+        double[] work = record.workCoord;
+        if (record.hasMachineCoord) {
+            machineCoord = position(lastMachineCoord, machine[0], machine[1], machine[2], reportingUnits);
+        }
+        if (record.hasWorkCoord) {
+            workCoord = position(lastWorkCoord, work[0], work[1], work[2], reportingUnits);
+        }
+        if (workCoord == null && machineCoord != null) {
+            workCoord = position(lastWorkCoord, machineCoord.x - wco.x, machineCoord.y - wco.y, machineCoord.z - wco.z, reportingUnits);
+        } else if (machineCoord == null && workCoord != null) {
+            machineCoord = position(lastMachineCoord, workCoord.x + wco.x, workCoord.y + wco.y, workCoord.z + wco.z, reportingUnits);
+        }
+
+        OverridePercents overrides = null;
+        EnabledPins pins = null;
+        AccessoryStates accessoryStates = null;
+        if (!record.isOverrideReport && lastStatus != null) {
+            overrides = lastStatus.getOverrides();
+            pins = lastStatus.getEnabledPins();
+            accessoryStates = lastStatus.getAccessoryStates();
+        } else {
+            if (record.hasOverrides) {
+                overrides = overrides(lastStatus == null ? null : lastStatus.getOverrides());
+            }
+
+            // An override report without 'Pn:' or 'A:' means that they are all disabled
+            if (record.hasPins || record.isOverrideReport) {
+                pins = pins(lastStatus == null ? null : lastStatus.getEnabledPins(), record.hasPins ? record.pins : 0);
+            }
+            if (record.hasAccessoryStates || record.isOverrideReport) {
+                accessoryStates = accessoryStates(lastStatus == null ? null : lastStatus.getAccessoryStates(),
+                        record.hasAccessoryStates ? record.accessoryStates : 0);
+            }
+        }
+
+        BufferState bufferState = null;
+        if (record.hasBufferState) {
+            bufferState = bufferState(lastStatus == null ? null : lastStatus.getBufferState());
+        }
+
+        if (lastStatus == null) {
+            return new ControllerStatus(record.state, machineCoord, workCoord, feedSpeed, reportingUnits,
+                    spindleSpeed, overrides, wco, pins, accessoryStates, bufferState);
+        }
+
+        Double feed = same(lastStatus.getFeedSpeed(), feedSpeed) ? lastStatus.getFeedSpeed() : Double.valueOf(feedSpeed);
+        Double spindle = same(lastStatus.getSpindleSpeed(), spindleSpeed) ? lastStatus.getSpindleSpeed() : Double.valueOf(spindleSpeed);
+        if (record.state == lastStatus.getState()
+                && machineCoord == lastMachineCoord
+                && workCoord == lastWorkCoord
+                && wco == lastWorkCoordinateOffset
+                && feed == lastStatus.getFeedSpeed()
+                && reportingUnits == lastStatus.getFeedSpeedUnits()
+                && spindle == lastStatus.getSpindleSpeed()
+                && overrides == lastStatus.getOverrides()
+                && pins == lastStatus.getEnabledPins()
+                && accessoryStates == lastStatus.getAccessoryStates()
+                && bufferState == lastStatus.getBufferState()) {
+            return lastStatus;
+        }
+
+        return new ControllerStatus(record.state, machineCoord, workCoord, feed, reportingUnits,
+                spindle, overrides, wco, pins, accessoryStates, bufferState);
+    }
+
+    private static Position position(Position last, double x, double y, double z, Units units) {
+        if (last != null && last.getUnits() == units && same(last.x, x) && same(last.y, y) && same(last.z, z)) {
+            return last;
+        }
+        return new Position(x, y, z, units);
+    }
+
+    private OverridePercents overrides(OverridePercents last) {
+        int[] values = record.overrides;
+        if (last != null && last.feed == values[0] && last.rapid == values[1] && last.spindle == values[2]) {
+            return last;
+        }
+        return new OverridePercents(values[0], values[1], values[2]);
+    }
+
+    private BufferState bufferState(BufferState last) {
+        int[] values = record.bufferState;
+        if (last != null && last.plannerBlocksAvailable == values[0] && last.rxBytesAvailable == values[1]) {
+            return last;
+        }
+        return new BufferState(values[0], values[1]);
+    }
+
+    private static EnabledPins pins(EnabledPins last, int mask) {
+        if (last != null && pinsMask(last) == mask) {
+            return last;
+        }
+        return PINS[mask];
+    }
+
+    private static AccessoryStates accessoryStates(AccessoryStates last, int mask) {
+        if (last != null && accessoryStatesMask(last) == mask) {
+            return last;
+        }
+        return ACCESSORY_STATES[mask];
+    }
+
+    private static int pinsMask(EnabledPins pins) {
+        return bit(pins.X, 0) | bit(pins.Y, 1) | bit(pins.Z, 2) | bit(pins.Probe, 3)
+                | bit(pins.Door, 4) | bit(pins.Hold, 5) | bit(pins.SoftReset, 6) | bit(pins.CycleStart, 7);
+    }
+
+    private static int accessoryStatesMask(AccessoryStates states) {
+        return bit(states.SpindleCW, 0) | bit(states.SpindleCCW, 1) | bit(states.Flood, 2) | bit(states.Mist, 3);
+    }
+
+    private static int bit(boolean set, int index) {
+        return set ? 1 << index : 0;
+    }
+
+    /**
+     * Compares the bits so that 0.0 and -0.0 are different, the same way a
+     * newly parsed value would be.
+     */
+    private static boolean same(double a, double b) {
+        return Double.doubleToRawLongBits(a) == Double.doubleToRawLongBits(b);
+    }
+
+    private static String lettersFromMask(String letters, int mask) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < letters.length(); i++) {
+            if ((mask & (1 << i)) != 0) {
+                builder.append(letters.charAt(i));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int maskFromLetters(String letters, String status, int start, int end) {
+        int mask = 0;
+        for (int i = start; i < end; i++) {
+            int index = letters.indexOf(Character.toUpperCase(status.charAt(i)));
+            if (index >= 0) {
+                mask |= 1 << index;
+            }
+        }
+        return mask;
+    }
+
+    private static ControllerState parseState(String status, int start, int end) {
+        for (int i = 0; i < STATE_NAMES.length; i++) {
+            String name = STATE_NAMES[i];
+            if (name.length() == end - start && status.regionMatches(true, start, name, 0, name.length())) {
+                return STATES[i];
+            }
+        }
+        return ControllerState.UNKNOWN;
+    }
+
+    /**
+     * Parses three coordinates, additional axes are ignored.
+     */
+    private boolean parsePosition(String status, int start, int end, double[] coordinates) {
+        return parseDoubles(status, start, end, coordinates) >= 3;
+    }
+
+    /**
+     * Parses comma separated numbers, storing as many as fit in the values.
+     *
+     * @return the number of values or -1 if any of them isn't a plain decimal number
+     */
+    private int parseDoubles(String status, int start, int end, double[] values) {
+        int count = 0;
+        while (true) {
+            int valueEnd = indexOf(status, ',', start, end);
+            if (!parseDouble(status, start, valueEnd)) {
+                return -1;
+            }
+            if (count < values.length) {
+                values[count] = number;
+            }
+            count++;
+            if (valueEnd == end) {
+                return count;
+            }
+            start = valueEnd + 1;
+        }
+    }
+
+    /**
+     * Parses comma separated integers, storing as many as fit in the values.
+     *
+     * @return the number of values or -1 if any of them isn't a plain integer
+     */
+    private static int parseInts(String status, int start, int end, int[] values) {
+        int count = 0;
+        while (true) {
+            int valueEnd = indexOf(status, ',', start, end);
+            boolean negative = valueEnd > start && status.charAt(start) == '-';
+            int i = negative ? start + 1 : start;
+
+            // Nine digits always fit in an int
+            if (i == valueEnd || valueEnd - i > 9) {
+                return -1;
+            }
+            int value = 0;
+            for (; i < valueEnd; i++) {
+                int digit = status.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+
+            if (count < values.length) {
+                values[count] = negative ? -value : value;
+            }
+            count++;
+            if (valueEnd == end) {
+                return count;
+            }
+            start = valueEnd + 1;
+        }
+    }
+
+    /**
+     * Parses a number like "-12.345" into {@link #number}. The mantissa and
+     * the power of ten are both exact doubles, so dividing them gives the
+     * same correctly rounded result as {@link Double#parseDouble}.
+     *
+     * @return false if the number isn't a plain decimal number
+     */
+    private boolean parseDouble(String status, int start, int end) {
+        boolean negative = end > start && status.charAt(start) == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean decimalPoint = false;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            char c = status.charAt(i);
+            if (c == '.' && !decimalPoint) {
+                decimalPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                digits++;
+                if (decimalPoint) {
+                    decimals++;
+                }
+            } else {
+                return false;
+            }
+        }
+
+        if (digits == 0) {
+            return false;
+        }
+        if (digits > MAX_MANTISSA_DIGITS || mantissa > MAX_EXACT_MANTISSA || decimals >= POW10.length) {
+            number = Double.parseDouble(status.substring(start, end));
+            return true;
+        }
+
+        double value = mantissa / POW10[decimals];
+        number = negative ? -value : value;
+        return true;
+    }
+
+    private static boolean startsWith(String status, int start, int end, String prefix) {
+        return end - start >= prefix.length() && status.startsWith(prefix, start);
+    }
+
+    private static int indexOf(String status, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (status.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+}
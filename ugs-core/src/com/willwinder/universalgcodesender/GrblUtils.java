@@ -22,6 +22,7 @@ package com.willwinder.universalgcodesender;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus.AccessoryStates;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.BufferState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus.EnabledPins;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus.OverridePercents;
 import com.willwinder.universalgcodesender.model.*;
@@ -41,6 +42,8 @@ public class GrblUtils {
     
     // Note: 5 characters of this buffer reserved for real time commands.
     public static final int GRBL_RX_BUFFER_SIZE= 123;
+    // Reserved when the buffer size is detected or configured.
+    public static final int GRBL_RX_BUFFER_MARGIN = 5;
 
     /**
      * Grbl commands
@@ -57,6 +60,7 @@ public class GrblUtils {
     public static final String GRBL_TOGGLE_CHECK_MODE_COMMAND = "$C";
     public static final String GRBL_VIEW_PARSER_STATE_COMMAND = "$G";
     public static final String GRBL_VIEW_SETTINGS_COMMAND = "$$";
+    public static final String GRBL_VIEW_BUILD_INFO_COMMAND = "$I";
     
     /**
      * Gcode Commands
@@ -246,6 +250,10 @@ public class GrblUtils {
             ret.addCapability(CapabilitiesConstants.CONTINUOUS_JOGGING);
         }
 
+        if (version > 1.1 || (version == 1.1 && letter != null && letter >= 'f')) {
+            ret.addCapability(GrblCapabilitiesConstants.BUILD_OPTIONS_BUFFER_SIZE);
+        }
+
         return ret;
     }
 
@@ -285,6 +293,29 @@ public class GrblUtils {
         }
     }
 
+    private static final String BUILD_OPTIONS_REGEX = "^\\[OPT:[^,\\]]*,(\\d+),(\\d+)";
+    private static final Pattern BUILD_OPTIONS_PATTERN = Pattern.compile(BUILD_OPTIONS_REGEX);
+    static protected Boolean isGrblBuildOptionsMessage(final String response) {
+        return response.startsWith("[OPT:");
+    }
+
+    /**
+     * Parses the serial receive buffer size from the build options reported
+     * by "$I" since GRBL 1.1f: "[OPT:V,15,128]" with the number of planner
+     * blocks followed by the buffer size. Derivatives such as grblHAL append
+     * more fields.
+     *
+     * @param response the build options message
+     * @return the buffer size in bytes or -1 if it isn't included
+     */
+    static protected int getRxBufferSizeFromBuildOptions(final String response) {
+        Matcher matcher = BUILD_OPTIONS_PATTERN.matcher(response);
+        if (matcher.find()) {
+            return Integer.parseInt(matcher.group(2));
+        }
+        return -1;
+    }
+
     static protected String parseFeedbackMessage(final String response, Capabilities c) {
         if (c.hasCapability(GrblCapabilitiesConstants.V1_FORMAT)) {
             return response.substring(4, response.length() - 1);
@@ -357,6 +388,7 @@ public class GrblUtils {
         OverridePercents overrides = null;
         EnabledPins pins = null;
         AccessoryStates accessoryStates = null;
+        BufferState bufferState = null;
 
         double feedSpeed = 0;
         double spindleSpeed = 0;
@@ -410,6 +442,14 @@ public class GrblUtils {
                 String value = part.substring(part.indexOf(':')+1);
                 accessoryStates = new AccessoryStates(value);
             }
+            else if (part.startsWith("Bf:")) {
+                String[] bufferParts = part.substring(3).trim().split(",");
+                if (bufferParts.length == 2) {
+                    bufferState = new BufferState(
+                            Integer.parseInt(bufferParts[0]),
+                            Integer.parseInt(bufferParts[1]));
+                }
+            }
         }
 
         // Grab WCO from state information if necessary.
@@ -447,7 +487,7 @@ public class GrblUtils {
         }
 
         ControllerState state = getControllerStateFromStateString(stateString);
-        return new ControllerStatus(state, MPos, WPos, feedSpeed, reportingUnits, spindleSpeed, overrides, WCO, pins, accessoryStates);
+        return new ControllerStatus(state, MPos, WPos, feedSpeed, reportingUnits, spindleSpeed, overrides, WCO, pins, accessoryStates, bufferState);
     }
 
     /**
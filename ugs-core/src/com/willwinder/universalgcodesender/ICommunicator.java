@@ -49,7 +49,8 @@ public interface ICommunicator extends IConnectionListener {
      * to the command buffer.
      * <p>
      * Invoke the method {@link #streamCommands()} to start sending any queued commands
-     * from the stream.
+     * from the stream. The stream is closed by the communicator when all of its
+     * commands have been read or when the send is canceled.
      *
      * @param stream a stream of gcode commands to send
      */
@@ -23,6 +23,7 @@ import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.metrics.Histogram;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.Overrides;
 import com.willwinder.universalgcodesender.model.PartialPosition;
@@ -31,8 +32,10 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.services.MessageService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.EventBus;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -49,6 +52,15 @@ public interface IController {
      */
     void addListener(ControllerListener listener);
 
+    /**
+     * Adds a listener which is notified from a thread of its own, so that
+     * a slow listener doesn't delay the controller or the other listeners.
+     * Status reports it hasn't received yet are replaced with the latest one.
+     *
+     * @param listener the listener to observe the controller
+     */
+    void addAsyncListener(ControllerListener listener);
+
     /**
      * Removes a listener for this controller
      *
@@ -56,6 +68,11 @@ public interface IController {
      */
     void removeListener(ControllerListener listener);
 
+    /**
+     * @return the listeners with their event delivery statistics
+     */
+    List<EventBus.Subscription<ControllerListener>> getListenerSubscriptions();
+
     /**
      * Assigns a message service to be used for writing messages to the console
      *
@@ -145,6 +162,22 @@ public interface IController {
     void setStatusUpdateRate(int rate);
     int getStatusUpdateRate();
 
+    /**
+     * Adapts the status polling and streaming to the planner and serial
+     * buffer state reported by the controller, if the firmware reports it.
+     */
+    void setPlannerAwareStreaming(boolean enabled);
+    boolean getPlannerAwareStreaming();
+
+    /**
+     * Overrides the size of the controllers serial receive buffer, which is
+     * otherwise detected from the firmware if it is reported.
+     *
+     * @param size the buffer size in bytes or zero to detect it
+     */
+    void setRxBufferSizeOverride(int size);
+    int getRxBufferSizeOverride();
+
     /*
     Serial
     */
@@ -165,6 +198,21 @@ public interface IController {
     int rowsRemaining();
     Optional<GcodeCommand> getActiveCommand();
     GcodeState getCurrentGcodeState();
+
+    /**
+     * @return the time in milliseconds that the controllers planner ran empty during the current or last stream
+     */
+    long getPlannerStarvationTime();
+
+    /**
+     * @return the time from a feed hold request until the controller reported that it is holding
+     */
+    Histogram getFeedHoldLatency();
+
+    /**
+     * @return the time from a soft reset request until the controller reported that it was reset
+     */
+    Histogram getStopLatency();
     
     /*
     Stream control
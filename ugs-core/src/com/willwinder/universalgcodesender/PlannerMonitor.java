@@ -0,0 +1,221 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.BufferState;
+
+/**
+ * Tracks the planner and serial buffer reported by the controller, for
+ * instance the "Bf:15,128" field in GRBL 1.1 status reports.
+ *
+ * The buffer sizes are not reported directly, they are learned from the
+ * largest number of available blocks and bytes which has been seen since
+ * they are both empty while the machine is idle.
+ *
+ * While a job is running the time during which the planner was empty is
+ * accumulated. An empty planner in the middle of a job means that the
+ * machine stopped to wait for more commands, which typically happens when a
+ * program is made of many short segments.
+ *
+ * The planner fill is used to adapt the status poll interval and the send
+ * window, see {@link #getPollInterval(int)} and {@link #getSendWindow(int)}.
+ *
+ * @author agent
+ */
+public class PlannerMonitor {
+    /**
+     * Below this planner fill status is polled more often.
+     */
+    static final double LOW_FILL = 0.25;
+
+    /**
+     * Above this planner fill status is polled less often.
+     */
+    static final double HIGH_FILL = 0.75;
+
+    static final int MIN_POLL_INTERVAL = 50;
+    static final int MAX_POLL_INTERVAL = 1000;
+
+    /**
+     * The send window is never made smaller than the line buffer of GRBL, so
+     * that the longest accepted command always fits.
+     */
+    static final int MIN_SEND_WINDOW = 80;
+
+    private int plannerSize = 0;
+    private int rxBufferSize = 0;
+    private int plannerBlocksAvailable = -1;
+
+    private boolean jobRunning = false;
+    private boolean starving = false;
+    private long lastSampleTime;
+    private long starvationTime = 0;
+    private int starvationCount = 0;
+
+    /**
+     * Forgets everything that has been learned about the controller, should
+     * be called when connecting or when the controller was reset.
+     */
+    public void reset() {
+        plannerSize = 0;
+        rxBufferSize = 0;
+        plannerBlocksAvailable = -1;
+        starving = false;
+    }
+
+    /**
+     * Starts measuring planner starvation for a new job.
+     *
+     * @param time the current time in milliseconds
+     */
+    public void startJob(long time) {
+        jobRunning = true;
+        starving = false;
+        starvationTime = 0;
+        starvationCount = 0;
+        lastSampleTime = time;
+    }
+
+    /**
+     * Stops measuring planner starvation, the result is kept until the next
+     * job is started.
+     */
+    public void finishJob() {
+        jobRunning = false;
+        starving = false;
+    }
+
+    /**
+     * Updates the monitor with a new status report.
+     *
+     * @param bufferState the reported buffer state, may be null if the controller doesn't report it
+     * @param state the reported controller state
+     * @param time the current time in milliseconds
+     */
+    public void update(BufferState bufferState, ControllerState state, long time) {
+        if (bufferState == null) {
+            return;
+        }
+
+        // The time since the last report is counted if the planner was empty then
+        if (jobRunning && starving) {
+            starvationTime += time - lastSampleTime;
+        }
+        lastSampleTime = time;
+
+        plannerSize = Math.max(plannerSize, bufferState.plannerBlocksAvailable);
+        rxBufferSize = Math.max(rxBufferSize, bufferState.rxBytesAvailable);
+        plannerBlocksAvailable = bufferState.plannerBlocksAvailable;
+
+        boolean plannerEmpty = plannerBlocksAvailable >= plannerSize;
+        boolean waiting = state == ControllerState.IDLE || state == ControllerState.RUN;
+        boolean wasStarving = starving;
+        starving = jobRunning && waiting && plannerEmpty;
+        if (starving && !wasStarving) {
+            starvationCount++;
+        }
+    }
+
+    /**
+     * @return true if any buffer state has been reported
+     */
+    public boolean hasBufferState() {
+        return plannerBlocksAvailable >= 0;
+    }
+
+    /**
+     * @return the number of planner blocks, or zero if it isn't known
+     */
+    public int getPlannerSize() {
+        return plannerSize;
+    }
+
+    /**
+     * @return the size of the controllers serial buffer, or zero if it isn't known
+     */
+    public int getRxBufferSize() {
+        return rxBufferSize;
+    }
+
+    /**
+     * @return the part of the planner in use, between 0 and 1
+     */
+    public double getPlannerFill() {
+        if (!hasBufferState() || plannerSize == 0) {
+            return 0;
+        }
+        return (plannerSize - plannerBlocksAvailable) / (double) plannerSize;
+    }
+
+    /**
+     * @return the time in milliseconds that the planner was empty during the current or last job
+     */
+    public long getStarvationTime() {
+        return starvationTime;
+    }
+
+    /**
+     * @return the number of times the planner ran empty during the current or last job
+     */
+    public int getStarvationCount() {
+        return starvationCount;
+    }
+
+    /**
+     * Returns a status poll interval for the current planner fill. Status is
+     * polled more often while the planner is draining so that starvation is
+     * noticed quickly, and less often while the planner is full so that the
+     * status requests and reports take less of the serial bandwidth.
+     *
+     * @param interval the configured poll interval in milliseconds
+     * @return the poll interval to use in milliseconds
+     */
+    public int getPollInterval(int interval) {
+        if (!jobRunning || !hasBufferState() || plannerSize == 0) {
+            return interval;
+        }
+
+        double fill = getPlannerFill();
+        if (fill < LOW_FILL) {
+            return Math.max(Math.min(interval, MIN_POLL_INTERVAL), interval / 2);
+        } else if (fill > HIGH_FILL) {
+            return Math.max(interval, Math.min(MAX_POLL_INTERVAL, interval * 2));
+        }
+        return interval;
+    }
+
+    /**
+     * Returns a send window for the current planner fill. While the planner
+     * is full the controller can't take any more commands from its serial
+     * buffer, so the commands sent then only wait there and delay real-time
+     * commands like overrides. Sends are held back to half of the window
+     * until the planner has room again, the full window is used while the
+     * planner is draining so that it doesn't run empty.
+     *
+     * @param sendWindow the send window for the serial buffer in bytes
+     * @return the send window to use in bytes
+     */
+    public int getSendWindow(int sendWindow) {
+        if (!jobRunning || !hasBufferState() || plannerSize == 0 || plannerBlocksAvailable > 0) {
+            return sendWindow;
+        }
+        return Math.min(sendWindow, Math.max(MIN_SEND_WINDOW, sendWindow / 2));
+    }
+}
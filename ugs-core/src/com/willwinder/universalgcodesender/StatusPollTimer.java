@@ -1,6 +1,16 @@
 package com.willwinder.universalgcodesender;
 
-import javax.swing.*;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.metrics.Counter;
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -9,6 +19,13 @@ import java.util.logging.Logger;
  * If the status report wasn't received it will wait until there was twenty outstanding polls, it will
  * then attempt to request a status report again.
  *
+ * The polls are issued from a scheduler thread of their own, so they aren't delayed when the GUI is
+ * busy. While the machine is idle or in alarm status is polled less often, at most once every second
+ * or at the update interval if it is longer than that.
+ *
+ * Polls which are sent while the last one still hasn't been answered are counted as missed, and polls
+ * which are issued more than half an interval after they were due are counted as late.
+ *
  * @author wwinder
  * @author Joacim Breiler
  */
@@ -16,9 +33,38 @@ public class StatusPollTimer {
     private static final Logger LOGGER = Logger.getLogger(StatusPollTimer.class.getName());
     private static final int MAX_OUTSTANDING_POLLS = 20;
 
-    private Timer timer;
-    private IController controller;
+    private static final Histogram POLL_JITTER = MetricsRegistry.getDefault()
+            .histogram("status.poll.jitter", "Time from when each status poll was due until it was issued", Metric.Unit.NANOSECONDS);
+    private static final Counter MISSED_POLLS = MetricsRegistry.getDefault()
+            .counter("status.poll.missed", "Status polls where the previous report hadn't been received", Metric.Unit.NONE);
+
+    /**
+     * While idle the interval is multiplied by this factor.
+     */
+    static final int IDLE_INTERVAL_FACTOR = 4;
+
+    /**
+     * The idle interval is never longer than this unless the update interval is.
+     */
+    static final int MAX_IDLE_INTERVAL = 1000;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "StatusPollTimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final IController controller;
+
+    // Guarded by this
+    private ScheduledFuture<?> future;
+    private int generation;
+    private int updateInterval;
+    private long nextPollTime;
     private int outstandingPolls;
+    private long pollCount;
+    private long missedPolls;
+    private long latePolls;
 
     public StatusPollTimer(IController controller) {
         this.controller = controller;
@@ -27,59 +73,165 @@ public class StatusPollTimer {
     /**
      * Begin issuing status request commands.
      */
-    public void start() {
-        if (controller.getStatusUpdatesEnabled()) {
-            if (timer == null) {
-                timer = createTimer();
-            }
+    public synchronized void start() {
+        if (controller.getStatusUpdatesEnabled() && future == null) {
+            outstandingPolls = 0;
+            updateInterval = controller.getStatusUpdateRate();
+            schedule(System.nanoTime(), getPollInterval());
+        }
+    }
 
-            if (!timer.isRunning()) {
-                outstandingPolls = 0;
-                timer.start();
-            }
+    /**
+     * Stop issuing status request commands.
+     */
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+            generation++;
+            LOGGER.log(Level.FINE, "Status polls: {0}, missed: {1}, late: {2}, jitter: {3}",
+                    new Object[]{pollCount, missedPolls, latePolls, POLL_JITTER.getSummary()});
         }
     }
 
     /**
-     * Create a timer which will execute  position polling mechanism.
+     * @return true if status request commands are being issued
      */
-    private Timer createTimer() {
-        stop();
-
-        return new Timer(controller.getStatusUpdateRate(), actionEvent -> {
-            try {
-                if (outstandingPolls == 0) {
-                    outstandingPolls++;
-                    controller.requestStatusReport();
-                } else {
-                    // If a poll is somehow lost after 20 intervals,
-                    // reset for sending another.
-                    outstandingPolls++;
-                    if (outstandingPolls >= MAX_OUTSTANDING_POLLS) {
-                        outstandingPolls = 0;
-                    }
-                }
-            } catch (Exception ex) {
-                LOGGER.log(Level.SEVERE, "Couldn't poll for status reports", ex);
-                stop();
-            }
-        });
+    public synchronized boolean isRunning() {
+        return future != null;
     }
 
     /**
-     * Stop issuing status request commands.
+     * Changes the interval of a running timer, it is restored to the status
+     * update rate of the controller when the timer is restarted. The new
+     * interval is used from the next poll.
+     *
+     * @param interval the interval between status requests in milliseconds
      */
-    public void stop() {
-        if (timer != null) {
-            timer.stop();
-            timer = null;
+    public synchronized void setUpdateInterval(int interval) {
+        if (future != null) {
+            updateInterval = interval;
         }
     }
 
     /**
      * Resets the outstanding polls, forcing a new status report request.
      */
-    public void receivedStatus() {
+    public synchronized void receivedStatus() {
         outstandingPolls = 0;
     }
+
+    /**
+     * @return the number of status requests which have been issued
+     */
+    public synchronized long getPollCount() {
+        return pollCount;
+    }
+
+    /**
+     * @return the number of polls where the previous status report hadn't been received yet
+     */
+    public synchronized long getMissedPolls() {
+        return missedPolls;
+    }
+
+    /**
+     * @return the number of polls issued more than half an interval after they were due
+     */
+    public synchronized long getLatePolls() {
+        return latePolls;
+    }
+
+    /**
+     * @return the time from when each poll was due until it was issued, this
+     * is the registered "status.poll.jitter" histogram which is shared by all timers
+     */
+    public Histogram getPollJitter() {
+        return POLL_JITTER;
+    }
+
+    /**
+     * Resets the poll counters.
+     */
+    public synchronized void resetStatistics() {
+        pollCount = 0;
+        missedPolls = 0;
+        latePolls = 0;
+    }
+
+    /**
+     * Returns the interval until the next poll, the update interval while
+     * the machine is moving or streaming and a longer one while it is idle.
+     *
+     * @return the interval in milliseconds
+     */
+    synchronized int getPollInterval() {
+        ControllerStatus status = controller.getControllerStatus();
+        ControllerState state = status == null ? ControllerState.UNKNOWN : status.getState();
+        boolean idle = state == ControllerState.IDLE || state == ControllerState.ALARM || state == ControllerState.SLEEP;
+        if (idle && !Boolean.TRUE.equals(controller.isStreaming())) {
+            return Math.max(updateInterval, Math.min(updateInterval * IDLE_INTERVAL_FACTOR, MAX_IDLE_INTERVAL));
+        }
+        return updateInterval;
+    }
+
+    private void schedule(long now, int interval) {
+        int scheduledGeneration = generation;
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, interval));
+
+        // Scheduled from when the last poll was due so that the rate doesn't drift
+        nextPollTime = future == null ? now + intervalNanos : Math.max(now, nextPollTime + intervalNanos);
+        future = EXECUTOR.schedule(() -> poll(scheduledGeneration, intervalNanos),
+                nextPollTime - now, TimeUnit.NANOSECONDS);
+    }
+
+    private void poll(int scheduledGeneration, long intervalNanos) {
+        boolean request;
+        synchronized (this) {
+            if (scheduledGeneration != generation) {
+                return;
+            }
+
+            long delay = System.nanoTime() - nextPollTime;
+            POLL_JITTER.record(delay);
+            if (delay > intervalNanos / 2) {
+                latePolls++;
+            }
+
+            request = outstandingPolls == 0;
+            if (!request) {
+                missedPolls++;
+                MISSED_POLLS.increment();
+            }
+
+            // If a poll is somehow lost after 20 intervals, reset for sending another.
+            outstandingPolls++;
+            if (outstandingPolls >= MAX_OUTSTANDING_POLLS) {
+                outstandingPolls = 0;
+            }
+        }
+
+        try {
+            if (request) {
+                controller.requestStatusReport();
+                synchronized (this) {
+                    pollCount++;
+                }
+            }
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't poll for status reports", ex);
+            synchronized (this) {
+                if (scheduledGeneration == generation) {
+                    stop();
+                }
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (scheduledGeneration == generation) {
+                schedule(System.nanoTime(), getPollInterval());
+            }
+        }
+    }
 }
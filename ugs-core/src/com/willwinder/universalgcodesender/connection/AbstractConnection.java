@@ -18,17 +18,184 @@
  */
 package com.willwinder.universalgcodesender.connection;
 
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Abstract Connection
  *
+ * Real-time bytes have priority over commands. A real-time byte is written
+ * right away unless commands are being written, then it is written before
+ * the next chunk of the commands.
+ *
  * @author wwinder
  */
 public abstract class AbstractConnection implements Connection {
 
+    private static final int INITIAL_WRITE_BUFFER_SIZE = 256;
+    private static final int REALTIME_QUEUE_SIZE = 64;
+
     protected final ResponseMessageHandler responseMessageHandler = new ResponseMessageHandler();
 
+    // Held while writing to the device.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Reused to gather commands into a single write, guarded by the write lock.
+    private byte[] writeBuffer = new byte[INITIAL_WRITE_BUFFER_SIZE];
+
+    // Real-time bytes waiting for a write of commands, with the time they were requested.
+    private final byte[] realtimeBytes = new byte[REALTIME_QUEUE_SIZE];
+    private final long[] realtimeTimes = new long[REALTIME_QUEUE_SIZE];
+    private int realtimeHead = 0;
+    private int realtimeCount = 0;
+
+    private final Histogram realtimeLatency = new Histogram("connection.realtime.latency", "Time from a real-time byte being requested until it was written", Metric.Unit.NANOSECONDS);
+
     @Override
     public void addListener(IConnectionListener connectionListener) {
         responseMessageHandler.addListener(connectionListener);
     }
+
+    @Override
+    public void sendByteImmediately(byte b) throws Exception {
+        long requested = System.nanoTime();
+        if (writeLock.tryLock()) {
+            try {
+                writeQueuedRealtimeBytes();
+                writeRealtimeByte(b, requested);
+            } finally {
+                writeLock.unlock();
+            }
+            return;
+        }
+
+        // Commands are being written, the writer sends the byte between two chunks
+        synchronized (realtimeBytes) {
+            while (realtimeCount == REALTIME_QUEUE_SIZE) {
+                realtimeBytes.wait();
+            }
+            int index = (realtimeHead + realtimeCount) % REALTIME_QUEUE_SIZE;
+            realtimeBytes[index] = b;
+            realtimeTimes[index] = requested;
+            realtimeCount++;
+        }
+        drainRealtimeBytes();
+    }
+
+    @Override
+    public void sendBytesToComm(List<byte[]> commands) throws Exception {
+        writeLock.lock();
+        try {
+            int length = 0;
+            for (byte[] command : commands) {
+                length += command.length;
+            }
+
+            if (writeBuffer.length < length) {
+                writeBuffer = new byte[Math.max(length, writeBuffer.length * 2)];
+            }
+
+            int offset = 0;
+            for (byte[] command : commands) {
+                System.arraycopy(command, 0, writeBuffer, offset, command.length);
+                offset += command.length;
+            }
+
+            int chunkSize = getWriteChunkSize();
+            for (offset = 0; offset < length; offset += chunkSize) {
+                writeQueuedRealtimeBytes();
+                writeBytes(writeBuffer, offset, Math.min(chunkSize, length - offset));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        drainRealtimeBytes();
+    }
+
+    /**
+     * Writes real-time bytes which were queued while the lock was held by
+     * another thread, in case that thread has released it without seeing them.
+     */
+    private void drainRealtimeBytes() throws Exception {
+        while (hasQueuedRealtimeBytes() && writeLock.tryLock()) {
+            try {
+                writeQueuedRealtimeBytes();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private boolean hasQueuedRealtimeBytes() {
+        synchronized (realtimeBytes) {
+            return realtimeCount > 0;
+        }
+    }
+
+    private void writeQueuedRealtimeBytes() throws Exception {
+        while (true) {
+            byte b;
+            long requested;
+            synchronized (realtimeBytes) {
+                if (realtimeCount == 0) {
+                    return;
+                }
+                b = realtimeBytes[realtimeHead];
+                requested = realtimeTimes[realtimeHead];
+                realtimeHead = (realtimeHead + 1) % REALTIME_QUEUE_SIZE;
+                realtimeCount--;
+                realtimeBytes.notifyAll();
+            }
+            writeRealtimeByte(b, requested);
+        }
+    }
+
+    private void writeRealtimeByte(byte b, long requested) throws Exception {
+        writeByte(b);
+        realtimeLatency.record(System.nanoTime() - requested);
+    }
+
+    /**
+     * @return the time from a real-time byte being requested until it was written
+     */
+    public Histogram getRealtimeLatency() {
+        return realtimeLatency;
+    }
+
+    /**
+     * Commands are written in chunks of this size, real-time bytes may be
+     * written between the chunks. Connections which may block while writing
+     * should use a size which takes a few milliseconds to transfer.
+     *
+     * @return the number of bytes in each chunk
+     */
+    protected int getWriteChunkSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Writes a single real-time byte to the device. By default it is written
+     * with {@link #writeBytes(byte[], int, int)}.
+     *
+     * @param b the byte to write
+     */
+    protected void writeByte(byte b) throws Exception {
+        writeBytes(new byte[]{b}, 0, 1);
+    }
+
+    /**
+     * Writes bytes to the device, connections should override this with a
+     * single write. By default the bytes are decoded and sent as a string.
+     *
+     * @param buffer the buffer containing the bytes, it is reused after the call
+     * @param offset the start of the bytes to write
+     * @param length the number of bytes to write
+     */
+    protected void writeBytes(byte[] buffer, int offset, int length) throws Exception {
+        sendStringToComm(new String(buffer, offset, length, StandardCharsets.UTF_8));
+    }
 }
@@ -81,6 +81,14 @@ public interface Connection {
      */
     void sendStringToComm(String command) throws Exception;
 
+    /**
+     * Sends several commands to the device in a single write. The commands
+     * are already encoded and terminated.
+     *
+     * @param commands the encoded commands in the order they should be sent
+     */
+    void sendBytesToComm(List<byte[]> commands) throws Exception;
+
     /**
      * Checks if the communication is established
      *
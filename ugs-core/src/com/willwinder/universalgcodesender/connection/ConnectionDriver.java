@@ -30,7 +30,8 @@ public enum ConnectionDriver {
     JSERIALCOMM("JSerialComm", "jserialcomm://"),
     JSSC("JSSC", "jssc://"),
     TCP("TCP", "tcp://"),
-    WS("WebSocket", "ws://");
+    WS("WebSocket", "ws://"),
+    SIMULATOR("Simulator", "sim://");
 
     private final String prettyName;
     private final String protocol;
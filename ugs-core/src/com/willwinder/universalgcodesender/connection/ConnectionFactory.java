@@ -68,6 +68,8 @@ public class ConnectionFactory {
                 return Optional.of(new TCPConnection());
             case WS:
                 return Optional.of(new WSConnection());
+            case SIMULATOR:
+                return Optional.of(new SimulatorConnection());
         }
         return Optional.empty();
     }
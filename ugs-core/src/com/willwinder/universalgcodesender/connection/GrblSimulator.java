@@ -0,0 +1,976 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An approximation of a GRBL 1.1 controller, used to measure streaming
+ * throughput without a machine.
+ *
+ * The simulator models the parts of the controller that limit how fast a
+ * job can be streamed:
+ * <ul>
+ *     <li>the serial line, each byte takes ten bits at the baud rate</li>
+ *     <li>the RX buffer, bytes which don't fit are dropped and counted as overflows</li>
+ *     <li>the planner queue, a line is only read from the RX buffer when there is room for its block</li>
+ *     <li>the motion, blocks are executed with the maximum rate and acceleration of each axis
+ *     and the junction speeds between them are planned the way GRBL does it</li>
+ * </ul>
+ *
+ * Real-time commands, the common system commands and status reports in the
+ * GRBL 1.1 format are supported. Arcs are executed as a single block with
+ * the length of the arc and the direction of its chord.
+ *
+ * Time may be sped up with {@link #setTimeScale(double)}, the motion, the
+ * serial line and the line processing are all scaled.
+ *
+ * @author agent
+ */
+public class GrblSimulator {
+    private static final Logger LOGGER = Logger.getLogger(GrblSimulator.class.getName());
+
+    public static final int DEFAULT_RX_BUFFER_SIZE = 128;
+    public static final int DEFAULT_PLANNER_BLOCK_COUNT = 15;
+    public static final String VERSION = "1.1f";
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long LINE_PROCESSING_NANOS = TimeUnit.MICROSECONDS.toNanos(250);
+    private static final int STATUS_REFRESH_COUNT = 10;
+    private static final double MINIMUM_SPEED = 0.01;
+    private static final double STEP_SECONDS = 0.001;
+    private static final String GREETING = "Grbl " + VERSION + " ['$' for help]";
+
+    private enum State {
+        IDLE("Idle"), RUN("Run"), JOG("Jog"), HOLD("Hold:0"), HOLDING("Hold:1"), CHECK("Check");
+
+        private final String name;
+
+        State(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Consumer<String> output;
+    private Thread thread;
+
+    // Configuration, guarded by this
+    private int rxBufferSize = DEFAULT_RX_BUFFER_SIZE;
+    private int plannerBlockCount = DEFAULT_PLANNER_BLOCK_COUNT;
+    private int baudRate = 115200;
+    private double timeScale = 1;
+    private final double[] maximumRate = {500, 500, 500};
+    private final double[] acceleration = {10, 10, 10};
+    private double junctionDeviation = 0.01;
+
+    // Serial line and RX buffer, guarded by this
+    private byte[] pending = new byte[256];
+    private int pendingHead = 0;
+    private int pendingCount = 0;
+    private long nextArrival = 0;
+    private byte[] rx = new byte[DEFAULT_RX_BUFFER_SIZE];
+    private int rxHead = 0;
+    private int rxCount = 0;
+    private int rxLines = 0;
+    private long processingDoneAt = 0;
+    private final StringBuilder line = new StringBuilder();
+
+    // Motion, guarded by this
+    private final ArrayDeque<Block> planner = new ArrayDeque<>();
+    private final double[] position = new double[3];
+    private final double[] workOffset = new double[3];
+    private double speed = 0;
+    private double distanceDone = 0;
+    private State state = State.IDLE;
+    private boolean feedHold = false;
+    private boolean checkMode = false;
+    private int feedOverride = 100;
+    private boolean overridesChanged = true;
+
+    // Modal state, guarded by this
+    private int motionMode = 0;
+    private boolean absolute = true;
+    private boolean inches = false;
+    private double feedRate = 0;
+    private double spindleSpeed = 0;
+    private boolean spindleOn = false;
+
+    // Statistics, guarded by this
+    private int statusReports = 0;
+    private long linesProcessed = 0;
+    private long blocksCompleted = 0;
+    private long rxOverflows = 0;
+    private long starvations = 0;
+    private double motionTime = 0;
+
+    // Responses created while holding the lock, sent after releasing it
+    private final List<String> responses = new ArrayList<>();
+
+    /**
+     * @param output receives the responses, each one terminated with "\r\n"
+     */
+    public GrblSimulator(Consumer<String> output) {
+        this.output = output;
+    }
+
+    /**
+     * Starts the simulator thread, the controller sends its greeting right away.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        reset();
+        thread = new Thread(this::run, "GrblSimulator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the simulator thread.
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Sends bytes to the controller, they arrive at the speed of the serial line.
+     *
+     * @param buffer the buffer containing the bytes, it is not kept
+     * @param offset the start of the bytes
+     * @param length the number of bytes
+     */
+    public synchronized void receive(byte[] buffer, int offset, int length) {
+        if (pendingCount + length > pending.length) {
+            byte[] grown = new byte[Math.max(pendingCount + length, pending.length * 2)];
+            for (int i = 0; i < pendingCount; i++) {
+                grown[i] = pending[(pendingHead + i) % pending.length];
+            }
+            pending = grown;
+            pendingHead = 0;
+        }
+
+        if (pendingCount == 0) {
+            nextArrival = Math.max(nextArrival, System.nanoTime() + getByteNanos());
+        }
+        for (int i = 0; i < length; i++) {
+            pending[(pendingHead + pendingCount) % pending.length] = buffer[offset + i];
+            pendingCount++;
+        }
+    }
+
+    /**
+     * Sets the size of the RX buffer, reported by "$I" and in the status reports.
+     * It takes effect on the next reset.
+     */
+    public synchronized void setRxBufferSize(int rxBufferSize) {
+        this.rxBufferSize = rxBufferSize;
+    }
+
+    public synchronized int getRxBufferSize() {
+        return rxBufferSize;
+    }
+
+    /**
+     * Sets the number of blocks in the planner queue.
+     */
+    public synchronized void setPlannerBlockCount(int plannerBlockCount) {
+        this.plannerBlockCount = plannerBlockCount;
+    }
+
+    /**
+     * Sets the speed of the serial line, zero makes the transfer instant.
+     */
+    public synchronized void setBaudRate(int baudRate) {
+        this.baudRate = baudRate;
+    }
+
+    /**
+     * Makes the time pass faster, 10 runs the simulation ten times faster than real time.
+     */
+    public synchronized void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Sets the maximum rate of all axes, the same as "$110" to "$112".
+     *
+     * @param rate the rate in millimeters per minute
+     */
+    public synchronized void setMaximumRate(double rate) {
+        Arrays.fill(maximumRate, rate);
+    }
+
+    /**
+     * Sets the acceleration of all axes, the same as "$120" to "$122".
+     *
+     * @param acceleration the acceleration in millimeters per second squared
+     */
+    public synchronized void setAcceleration(double acceleration) {
+        Arrays.fill(this.acceleration, acceleration);
+    }
+
+    /**
+     * Copies the maximum rate and acceleration of each axis from the firmware
+     * settings of a machine. Settings which aren't available are left as they are.
+     */
+    public synchronized void setFirmwareSettings(IFirmwareSettings settings) {
+        for (Axis axis : new Axis[]{Axis.X, Axis.Y, Axis.Z}) {
+            try {
+                double rate = settings.getMaximumRate(axis);
+                if (rate > 0) {
+                    maximumRate[axis.ordinal()] = rate;
+                }
+            } catch (FirmwareSettingsException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Couldn't read the maximum rate for axis " + axis, e);
+            }
+
+            try {
+                double accel = settings.getMaximumAcceleration(axis);
+                if (accel > 0) {
+                    acceleration[axis.ordinal()] = accel;
+                }
+            } catch (FirmwareSettingsException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Couldn't read the acceleration for axis " + axis, e);
+            }
+        }
+    }
+
+    /**
+     * @return the machine position in millimeters
+     */
+    public synchronized Position getMachinePosition() {
+        return new Position(position[0], position[1], position[2], UnitUtils.Units.MM);
+    }
+
+    /**
+     * @return the number of lines which have been read from the RX buffer
+     */
+    public synchronized long getLinesProcessed() {
+        return linesProcessed;
+    }
+
+    /**
+     * @return the number of motion blocks which have been executed
+     */
+    public synchronized long getBlocksCompleted() {
+        return blocksCompleted;
+    }
+
+    /**
+     * @return the number of bytes dropped because the RX buffer was full
+     */
+    public synchronized long getRxOverflows() {
+        return rxOverflows;
+    }
+
+    /**
+     * @return the number of times the machine stopped because the planner ran empty
+     *         while more lines were on their way
+     */
+    public synchronized long getStarvations() {
+        return starvations;
+    }
+
+    /**
+     * @return the simulated time in seconds that the machine has been moving
+     */
+    public synchronized double getMotionTime() {
+        return motionTime;
+    }
+
+    private void run() {
+        long last = System.nanoTime();
+        List<String> toSend = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(TICK_NANOS);
+            long now = System.nanoTime();
+            synchronized (this) {
+                if (thread != Thread.currentThread()) {
+                    return;
+                }
+                step(now, (now - last) / 1e9 * timeScale);
+                toSend.addAll(responses);
+                responses.clear();
+            }
+            last = now;
+
+            for (String response : toSend) {
+                try {
+                    output.accept(response);
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Couldn't send the response " + response.trim(), e);
+                }
+            }
+            toSend.clear();
+        }
+    }
+
+    private void step(long now, double seconds) {
+        receiveBytes(now);
+        processLines(now);
+        move(seconds);
+    }
+
+    private long getByteNanos() {
+        if (baudRate <= 0) {
+            return 0;
+        }
+        return (long) (TimeUnit.SECONDS.toNanos(10) / baudRate / timeScale);
+    }
+
+    private void receiveBytes(long now) {
+        long byteNanos = getByteNanos();
+        while (pendingCount > 0 && (byteNanos == 0 || nextArrival <= now)) {
+            byte b = pending[pendingHead];
+            pendingHead = (pendingHead + 1) % pending.length;
+            pendingCount--;
+            nextArrival += byteNanos;
+            handleByte(b);
+        }
+    }
+
+    private void handleByte(byte b) {
+        switch (b) {
+            case GrblUtils.GRBL_STATUS_COMMAND:
+                sendStatusReport();
+                return;
+            case GrblUtils.GRBL_PAUSE_COMMAND:
+                if (state == State.RUN || state == State.JOG) {
+                    feedHold = true;
+                    state = State.HOLDING;
+                }
+                return;
+            case GrblUtils.GRBL_RESUME_COMMAND:
+                if (feedHold) {
+                    feedHold = false;
+                    state = planner.isEmpty() ? State.IDLE : planner.peekFirst().jog ? State.JOG : State.RUN;
+                }
+                return;
+            case GrblUtils.GRBL_RESET_COMMAND:
+                reset();
+                return;
+            case GrblUtils.GRBL_JOG_CANCEL_COMMAND:
+                if (state == State.JOG) {
+                    planner.clear();
+                    speed = 0;
+                    distanceDone = 0;
+                    state = State.IDLE;
+                }
+                return;
+            case (byte) 0x90:
+                setFeedOverride(100);
+                return;
+            case (byte) 0x91:
+                setFeedOverride(feedOverride + 10);
+                return;
+            case (byte) 0x92:
+                setFeedOverride(feedOverride - 10);
+                return;
+            case (byte) 0x93:
+                setFeedOverride(feedOverride + 1);
+                return;
+            case (byte) 0x94:
+                setFeedOverride(feedOverride - 1);
+                return;
+            default:
+        }
+
+        // Other real-time commands are ignored
+        if ((b & 0x80) != 0) {
+            return;
+        }
+
+        if (rxCount == rx.length) {
+            rxOverflows++;
+            return;
+        }
+        rx[(rxHead + rxCount) % rx.length] = b;
+        rxCount++;
+        if (b == '\n') {
+            rxLines++;
+        }
+    }
+
+    private void setFeedOverride(int value) {
+        feedOverride = Math.max(10, Math.min(200, value));
+        overridesChanged = true;
+    }
+
+    private void reset() {
+        if (rx.length != rxBufferSize) {
+            rx = new byte[rxBufferSize];
+        }
+        rxHead = 0;
+        rxCount = 0;
+        rxLines = 0;
+        line.setLength(0);
+        planner.clear();
+        speed = 0;
+        distanceDone = 0;
+        feedHold = false;
+        checkMode = false;
+        state = State.IDLE;
+        feedOverride = 100;
+        overridesChanged = true;
+        motionMode = 0;
+        absolute = true;
+        inches = false;
+        spindleOn = false;
+        responses.add("\r\n" + GREETING + "\r\n");
+    }
+
+    private void processLines(long now) {
+        while (rxLines > 0 && planner.size() < plannerBlockCount) {
+            // Lines take a while to parse
+            if (processingDoneAt > now) {
+                return;
+            }
+            processingDoneAt = Math.max(processingDoneAt, now - TICK_NANOS) + (long) (LINE_PROCESSING_NANOS / timeScale);
+
+            line.setLength(0);
+            while (true) {
+                byte b = rx[rxHead];
+                rxHead = (rxHead + 1) % rx.length;
+                rxCount--;
+                if (b == '\n') {
+                    rxLines--;
+                    break;
+                }
+                line.append((char) b);
+            }
+
+            linesProcessed++;
+            processLine(line.toString());
+        }
+    }
+
+    private void processLine(String input) {
+        String command = normalize(input);
+        if (command.isEmpty()) {
+            respond("ok");
+        } else if (command.startsWith("$")) {
+            processSystemCommand(command);
+        } else {
+            processGcode(command, false);
+        }
+    }
+
+    /**
+     * Removes white space and comments, and makes the letters upper case.
+     */
+    private static String normalize(String input) {
+        StringBuilder result = new StringBuilder(input.length());
+        boolean comment = false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (comment) {
+                comment = c != ')';
+            } else if (c == '(') {
+                comment = true;
+            } else if (c == ';') {
+                break;
+            } else if (!Character.isWhitespace(c)) {
+                result.append(Character.toUpperCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    private void processSystemCommand(String command) {
+        switch (command) {
+            case "$":
+                respond("[HLP:$$ $# $G $I $N $x=val $Nx=line $J=line $SLP $C $X $H ~ ! ? ctrl-x]");
+                break;
+            case "$$":
+                respondSetting(11, junctionDeviation);
+                respondSetting(13, 0);
+                for (int i = 0; i < 3; i++) {
+                    respondSetting(110 + i, maximumRate[i]);
+                }
+                for (int i = 0; i < 3; i++) {
+                    respondSetting(120 + i, acceleration[i]);
+                }
+                break;
+            case "$#":
+                for (int i = 54; i <= 59; i++) {
+                    respond(String.format(Locale.ROOT, "[G%d:%s]", i, formatCoordinates(i == 54 ? workOffset : new double[3])));
+                }
+                respond("[TLO:0.000]");
+                respond("[PRB:0.000,0.000,0.000:0]");
+                break;
+            case "$G":
+                respond(String.format(Locale.ROOT, "[GC:G%d G54 G17 %s %s G94 %s M9 T0 F%s S%s]",
+                        motionMode, inches ? "G20" : "G21", absolute ? "G90" : "G91", spindleOn ? "M3" : "M5",
+                        formatNumber(feedRate), formatNumber(spindleSpeed)));
+                break;
+            case "$I":
+                respond("[VER:" + VERSION + ".20170801:]");
+                respond("[OPT:V," + plannerBlockCount + "," + rxBufferSize + "]");
+                break;
+            case "$N":
+                respond("$N0=");
+                respond("$N1=");
+                break;
+            case "$C":
+                checkMode = !checkMode;
+                state = checkMode ? State.CHECK : State.IDLE;
+                respond(checkMode ? "[MSG:Enabled]" : "[MSG:Disabled]");
+                break;
+            case "$X":
+                respond("[MSG:Caution: Unlocked]");
+                break;
+            case "$H":
+                planner.clear();
+                position[0] = position[1] = position[2] = 0;
+                break;
+            default:
+                if (command.startsWith("$J=")) {
+                    processGcode(command.substring(3), true);
+                    return;
+                } else if (!updateSetting(command)) {
+                    respond("error:3");
+                    return;
+                }
+        }
+        respond("ok");
+    }
+
+    private boolean updateSetting(String command) {
+        int separator = command.indexOf('=');
+        if (separator < 2) {
+            return false;
+        }
+        try {
+            int key = Integer.parseInt(command.substring(1, separator));
+            double value = Double.parseDouble(command.substring(separator + 1));
+            if (key == 11) {
+                junctionDeviation = value;
+            } else if (key >= 110 && key <= 112) {
+                maximumRate[key - 110] = value;
+            } else if (key >= 120 && key <= 122) {
+                acceleration[key - 120] = value;
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void processGcode(String command, boolean jog) {
+        double[] words = new double[26];
+        boolean[] present = new boolean[26];
+        List<Integer> gCodes = new ArrayList<>();
+        List<Integer> mCodes = new ArrayList<>();
+
+        int i = 0;
+        while (i < command.length()) {
+            char letter = command.charAt(i++);
+            int start = i;
+            while (i < command.length() && (Character.isDigit(command.charAt(i)) || command.charAt(i) == '.'
+                    || command.charAt(i) == '-' || command.charAt(i) == '+')) {
+                i++;
+            }
+            if (letter < 'A' || letter > 'Z' || start == i) {
+                respond("error:1");
+                return;
+            }
+
+            double value;
+            try {
+                value = Double.parseDouble(command.substring(start, i));
+            } catch (NumberFormatException e) {
+                respond("error:2");
+                return;
+            }
+
+            if (letter == 'G') {
+                gCodes.add((int) Math.round(value * 10));
+            } else if (letter == 'M') {
+                mCodes.add((int) value);
+            } else {
+                words[letter - 'A'] = value;
+                present[letter - 'A'] = true;
+            }
+        }
+
+        int motion = jog ? 10 : motionMode * 10;
+        boolean blockAbsolute = absolute;
+        boolean blockInches = inches;
+        int nonModal = 0;
+        for (int code : gCodes) {
+            switch (code) {
+                case 0:
+                case 10:
+                case 20:
+                case 30:
+                    motion = code;
+                    break;
+                case 200:
+                    blockInches = true;
+                    break;
+                case 210:
+                    blockInches = false;
+                    break;
+                case 900:
+                    blockAbsolute = true;
+                    break;
+                case 910:
+                    blockAbsolute = false;
+                    break;
+                case 100:
+                case 920:
+                    nonModal = code;
+                    break;
+                default:
+                    // Other codes don't affect the motion
+            }
+        }
+
+        double scale = blockInches ? 25.4 : 1;
+        double feed = present['F' - 'A'] ? words['F' - 'A'] * scale : (jog ? 0 : feedRate);
+        if (jog && feed <= 0) {
+            respond("error:22");
+            return;
+        }
+
+        if (!jog) {
+            motionMode = motion / 10;
+            absolute = blockAbsolute;
+            inches = blockInches;
+            feedRate = feed;
+            if (present['S' - 'A']) {
+                spindleSpeed = words['S' - 'A'];
+            }
+            for (int code : mCodes) {
+                if (code == 3 || code == 4) {
+                    spindleOn = true;
+                } else if (code == 5) {
+                    spindleOn = false;
+                }
+            }
+        }
+
+        boolean hasAxisWords = present['X' - 'A'] || present['Y' - 'A'] || present['Z' - 'A'];
+        if (nonModal != 0) {
+            // G10 L20 and G92 set the work coordinates of the current position
+            for (int axis = 0; axis < 3; axis++) {
+                if (present['X' - 'A' + axis]) {
+                    workOffset[axis] = position[axis] - words['X' - 'A' + axis] * scale;
+                }
+            }
+            // The next status report includes the new offset
+            statusReports = 0;
+            respond("ok");
+            return;
+        }
+
+        if (hasAxisWords) {
+            double[] start = getPlannedPosition();
+            double[] target = new double[3];
+            for (int axis = 0; axis < 3; axis++) {
+                int index = 'X' - 'A' + axis;
+                if (!present[index]) {
+                    target[axis] = start[axis];
+                } else if (blockAbsolute) {
+                    target[axis] = words[index] * scale + workOffset[axis];
+                } else {
+                    target[axis] = start[axis] + words[index] * scale;
+                }
+            }
+
+            if (motion != 0 && feed <= 0) {
+                respond("error:22");
+                return;
+            }
+
+            double length = motion == 20 || motion == 30
+                    ? getArcLength(start, target, words, present, motion == 20, scale)
+                    : distance(start, target);
+            if (length > 0 && !checkMode) {
+                addBlock(start, target, length, motion == 0 ? Double.MAX_VALUE : feed / 60, motion == 0, jog);
+            }
+        }
+        respond("ok");
+    }
+
+    private double getArcLength(double[] start, double[] target, double[] words, boolean[] present,
+                                boolean clockwise, double scale) {
+        double dx = target[0] - start[0];
+        double dy = target[1] - start[1];
+        double dz = target[2] - start[2];
+        double chord = Math.hypot(dx, dy);
+        double sweep;
+        double radius;
+        if (present['R' - 'A']) {
+            radius = Math.abs(words['R' - 'A'] * scale);
+            sweep = 2 * Math.asin(Math.min(1, chord / (2 * Math.max(radius, chord / 2))));
+            if (words['R' - 'A'] < 0) {
+                sweep = 2 * Math.PI - sweep;
+            }
+        } else {
+            double cx = start[0] + words['I' - 'A'] * scale;
+            double cy = start[1] + words['J' - 'A'] * scale;
+            radius = Math.hypot(start[0] - cx, start[1] - cy);
+            double startAngle = Math.atan2(start[1] - cy, start[0] - cx);
+            double endAngle = Math.atan2(target[1] - cy, target[0] - cx);
+            sweep = clockwise ? startAngle - endAngle : endAngle - startAngle;
+            if (sweep <= 1e-9) {
+                sweep += 2 * Math.PI;
+            }
+        }
+        return Math.hypot(radius * sweep, dz);
+    }
+
+    private double[] getPlannedPosition() {
+        Block last = planner.peekLast();
+        return last == null ? position.clone() : last.target.clone();
+    }
+
+    private void addBlock(double[] start, double[] target, double length, double requestedSpeed, boolean rapid, boolean jog) {
+        double[] unit = new double[3];
+        double maximumSpeed = Double.MAX_VALUE;
+        double maximumAcceleration = Double.MAX_VALUE;
+        for (int axis = 0; axis < 3; axis++) {
+            unit[axis] = (target[axis] - start[axis]) / length;
+            double component = Math.abs(unit[axis]);
+            if (component > 1e-9) {
+                maximumSpeed = Math.min(maximumSpeed, maximumRate[axis] / 60 / component);
+                maximumAcceleration = Math.min(maximumAcceleration, acceleration[axis] / component);
+            }
+        }
+
+        // Arcs may be a lot longer than their chord
+        if (maximumSpeed == Double.MAX_VALUE) {
+            maximumSpeed = maximumRate[0] / 60;
+            maximumAcceleration = acceleration[0];
+        }
+
+        Block block = new Block(start, target, unit, length, Math.min(requestedSpeed, maximumSpeed),
+                maximumAcceleration, rapid, jog);
+
+        Block previous = planner.peekLast();
+        if (previous != null) {
+            block.maximumEntrySpeed = Math.min(Math.min(previous.nominalSpeed, block.nominalSpeed),
+                    getJunctionSpeed(previous, block));
+        }
+        planner.add(block);
+
+        if (state == State.IDLE) {
+            state = jog ? State.JOG : State.RUN;
+        }
+    }
+
+    /**
+     * The highest speed through the corner between two blocks, the same
+     * approximation as the GRBL planner.
+     */
+    private double getJunctionSpeed(Block previous, Block next) {
+        double cosTheta = -(previous.unit[0] * next.unit[0] + previous.unit[1] * next.unit[1]
+                + previous.unit[2] * next.unit[2]);
+        if (cosTheta > 0.999999) {
+            // Reversing
+            return 0;
+        } else if (cosTheta < -0.999999) {
+            // Straight
+            return Double.MAX_VALUE;
+        }
+        double sinHalfTheta = Math.sqrt(0.5 * (1 - cosTheta));
+        double accel = Math.min(previous.acceleration, next.acceleration);
+        return Math.sqrt(accel * junctionDeviation * sinHalfTheta / (1 - sinHalfTheta));
+    }
+
+    /**
+     * @return the speed the first block should have when it ends, so that all
+     *         blocks can stop at the end of the planner queue
+     */
+    private double getPlannedExitSpeed() {
+        double exitSpeed = 0;
+        Iterator<Block> blocks = planner.descendingIterator();
+        for (int i = planner.size() - 1; i > 0; i--) {
+            Block block = blocks.next();
+            exitSpeed = Math.min(block.maximumEntrySpeed,
+                    Math.sqrt(exitSpeed * exitSpeed + 2 * block.acceleration * block.length));
+        }
+        return exitSpeed;
+    }
+
+    private void move(double seconds) {
+        boolean moving = !planner.isEmpty();
+        while (seconds > 0 && !planner.isEmpty()) {
+            double used = advance(Math.min(seconds, STEP_SECONDS));
+            if (used == 0) {
+                break;
+            }
+            seconds -= used;
+        }
+
+        if (moving && planner.isEmpty()) {
+            speed = 0;
+            if (!feedHold) {
+                state = checkMode ? State.CHECK : State.IDLE;
+            }
+            if (rxCount > 0 || pendingCount > 0) {
+                starvations++;
+            }
+        }
+    }
+
+    /**
+     * Moves along the first block in the planner.
+     *
+     * @param seconds the longest time to move
+     * @return the time used, shorter if the block was completed and zero if the machine is held
+     */
+    private double advance(double seconds) {
+        Block block = planner.peekFirst();
+        if (state == State.IDLE) {
+            state = block.jog ? State.JOG : State.RUN;
+        }
+
+        double remaining = block.length - distanceDone;
+        double exitSpeed = getPlannedExitSpeed();
+        double targetSpeed = 0;
+        if (!feedHold) {
+            double nominalSpeed = block.rapid ? block.nominalSpeed : block.nominalSpeed * feedOverride / 100;
+            targetSpeed = Math.min(nominalSpeed,
+                    Math.sqrt(exitSpeed * exitSpeed + 2 * block.acceleration * remaining));
+        }
+
+        double startSpeed = speed;
+        if (speed < targetSpeed) {
+            speed = Math.min(targetSpeed, speed + block.acceleration * seconds);
+        } else {
+            speed = Math.max(targetSpeed, speed - block.acceleration * seconds);
+        }
+
+        if (feedHold && speed <= 0) {
+            state = State.HOLD;
+            return 0;
+        }
+
+        // Always make progress, the speed may round down to nothing at the end of a block
+        double averageSpeed = Math.max((startSpeed + speed) / 2, MINIMUM_SPEED);
+        if (distanceDone + averageSpeed * seconds < block.length) {
+            distanceDone += averageSpeed * seconds;
+            motionTime += seconds;
+            for (int axis = 0; axis < 3; axis++) {
+                position[axis] = block.start[axis] + block.unit[axis] * distanceDone;
+            }
+            return seconds;
+        }
+
+        double used = remaining / averageSpeed;
+        motionTime += used;
+        System.arraycopy(block.target, 0, position, 0, 3);
+        distanceDone = 0;
+        planner.poll();
+        blocksCompleted++;
+        return used;
+    }
+
+    private void sendStatusReport() {
+        StringBuilder report = new StringBuilder()
+                .append('<').append(state.name)
+                .append("|MPos:").append(formatCoordinates(position))
+                .append("|Bf:").append(plannerBlockCount - planner.size()).append(',').append(rx.length - rxCount)
+                .append("|FS:").append(Math.round(speed * 60)).append(',').append(Math.round(spindleOn ? spindleSpeed : 0));
+
+        if (statusReports % STATUS_REFRESH_COUNT == 0) {
+            report.append("|WCO:").append(formatCoordinates(workOffset));
+        }
+        if (overridesChanged) {
+            report.append("|Ov:").append(feedOverride).append(",100,100");
+            overridesChanged = false;
+        }
+        statusReports++;
+        respond(report.append('>').toString());
+    }
+
+    private void respond(String response) {
+        responses.add(response + "\r\n");
+    }
+
+    private void respondSetting(int key, double value) {
+        respond("$" + key + "=" + formatNumber(value));
+    }
+
+    private static String formatCoordinates(double[] coordinates) {
+        return String.format(Locale.ROOT, "%.3f,%.3f,%.3f", coordinates[0], coordinates[1], coordinates[2]);
+    }
+
+    private static String formatNumber(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double dx = b[0] - a[0];
+        double dy = b[1] - a[1];
+        double dz = b[2] - a[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static final class Block {
+        final double[] start;
+        final double[] target;
+        final double[] unit;
+        final double length;
+        final double nominalSpeed;
+        final double acceleration;
+        final boolean rapid;
+        final boolean jog;
+        double maximumEntrySpeed = 0;
+
+        Block(double[] start, double[] target, double[] unit, double length, double nominalSpeed,
+              double acceleration, boolean rapid, boolean jog) {
+            this.start = start;
+            this.target = target;
+            this.unit = unit;
+            this.length = length;
+            this.nominalSpeed = nominalSpeed;
+            this.acceleration = acceleration;
+            this.rapid = rapid;
+            this.jog = jog;
+        }
+    }
+}
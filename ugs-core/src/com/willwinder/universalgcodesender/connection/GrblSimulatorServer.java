@@ -0,0 +1,142 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Makes a {@link GrblSimulator} available as a TCP server on the local
+ * machine, so that it can be used with a {@link TCPConnection}. Each client
+ * gets a simulator of its own, which still simulates a serial line at the
+ * default baud rate unless the configurator changes it.
+ *
+ * It can be started from the command line, the first argument is the port
+ * and the optional second one the size of the RX buffer:
+ * <pre>
+ *     java -cp UniversalGcodeSender.jar com.willwinder.universalgcodesender.connection.GrblSimulatorServer 9001
+ * </pre>
+ * and then connected to with the URI tcp://localhost:9001.
+ *
+ * @author agent
+ */
+public class GrblSimulatorServer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(GrblSimulatorServer.class.getName());
+
+    private final ServerSocket serverSocket;
+    private final Consumer<GrblSimulator> configurator;
+    private final Thread acceptThread;
+
+    /**
+     * @param port the port to listen on, zero picks a free one
+     */
+    public GrblSimulatorServer(int port) throws IOException {
+        this(port, simulator -> {});
+    }
+
+    /**
+     * @param port the port to listen on, zero picks a free one
+     * @param configurator configures the simulator of each client before it is started
+     */
+    public GrblSimulatorServer(int port, Consumer<GrblSimulator> configurator) throws IOException {
+        this.serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        this.configurator = configurator;
+        this.acceptThread = new Thread(this::accept, "GrblSimulatorServer");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Thread clientThread = new Thread(() -> serve(client), "GrblSimulatorServer - " + client.getPort());
+                clientThread.setDaemon(true);
+                clientThread.start();
+            } catch (SocketException e) {
+                // Expected when the server is closed
+                return;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Couldn't accept a client", e);
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        GrblSimulator simulator = null;
+        try (Socket socket = client) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+
+            simulator = new GrblSimulator(response -> {
+                try {
+                    out.write(response.getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Couldn't write to the client", e);
+                }
+            });
+            configurator.accept(simulator);
+            simulator.start();
+
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                simulator.receive(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "The client disconnected", e);
+        } finally {
+            if (simulator != null) {
+                simulator.stop();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9001;
+        int rxBufferSize = args.length > 1 ? Integer.parseInt(args[1]) : GrblSimulator.DEFAULT_RX_BUFFER_SIZE;
+        try (GrblSimulatorServer server = new GrblSimulatorServer(port, simulator -> simulator.setRxBufferSize(rxBufferSize))) {
+            System.out.println("Grbl simulator listening on tcp://localhost:" + server.getPort());
+            server.acceptThread.join();
+        }
+    }
+}
@@ -34,6 +34,8 @@ import java.util.List;
  */
 public class JSSCConnection extends AbstractConnection implements SerialPortEventListener {
 
+    private static final int SERIAL_WRITE_CHUNK_SIZE = 128;
+
     private int baudRate;
     private String portName;
 
@@ -100,14 +102,29 @@ public class JSSCConnection extends AbstractConnection implements SerialPortEven
     public void sendStringToComm(String command) throws Exception {
         this.serialPort.writeString(command);
     }
+
+    @Override
+    protected void writeBytes(byte[] buffer, int offset, int length) throws Exception {
+        // JSSC always writes the whole array
+        if (offset == 0 && length == buffer.length) {
+            this.serialPort.writeBytes(buffer);
+        } else {
+            this.serialPort.writeBytes(Arrays.copyOfRange(buffer, offset, offset + length));
+        }
+    }
         
     /**
      * Immediately sends a byte, used for real-time commands.
      */
     @Override
-    public void sendByteImmediately(byte b) throws Exception {
+    protected void writeByte(byte b) throws Exception {
         this.serialPort.writeByte(b);
     }
+
+    @Override
+    protected int getWriteChunkSize() {
+        return SERIAL_WRITE_CHUNK_SIZE;
+    }
     
     /**
      * Reads data from the serial port. RXTX SerialPortEventListener method.
@@ -120,8 +137,7 @@ public class JSSCConnection extends AbstractConnection implements SerialPortEven
                 return;
             }
 
-            String s = new String(buf, 0, buf.length);
-            responseMessageHandler.handleResponse(s);
+            responseMessageHandler.handleResponse(buf, 0, buf.length);
         } catch ( Exception e ) {
             e.printStackTrace();
             System.exit(-1);
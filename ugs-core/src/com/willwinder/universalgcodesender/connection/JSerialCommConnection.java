@@ -33,7 +33,10 @@ import java.util.stream.Collectors;
  */
 public class JSerialCommConnection extends AbstractConnection implements SerialPortDataListener {
 
+    private static final int SERIAL_WRITE_CHUNK_SIZE = 128;
+
     private final byte[] buffer = new byte[1024];
+    private final byte[] singleByte = new byte[1];
     private SerialPort serialPort;
 
     @Override
@@ -78,8 +81,14 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
     }
 
     @Override
-    public void sendByteImmediately(byte b) throws Exception {
-        serialPort.writeBytes(new byte[]{b}, 1);
+    protected void writeByte(byte b) throws Exception {
+        singleByte[0] = b;
+        serialPort.writeBytes(singleByte, 1);
+    }
+
+    @Override
+    protected int getWriteChunkSize() {
+        return SERIAL_WRITE_CHUNK_SIZE;
     }
 
     @Override
@@ -87,6 +96,11 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
         serialPort.writeBytes(command.getBytes(), command.length());
     }
 
+    @Override
+    protected void writeBytes(byte[] buffer, int offset, int length) throws Exception {
+        serialPort.writeBytes(buffer, length, offset);
+    }
+
     @Override
     public boolean isOpen() {
         return serialPort.isOpen();
@@ -117,8 +131,8 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
         }
 
         int bytesRead = serialPort.readBytes(buffer, Math.min(buffer.length, bytesAvailable));
-        String response = new String(buffer, 0, bytesRead);
-
-        responseMessageHandler.handleResponse(response);
+        if (bytesRead > 0) {
+            responseMessageHandler.handleResponse(buffer, 0, bytesRead);
+        }
     }
 }
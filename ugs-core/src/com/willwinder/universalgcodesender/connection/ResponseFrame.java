@@ -0,0 +1,128 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single response line from a controller without its line terminator. The
+ * frame is a view into the bytes read from the connection and is reused for
+ * the next line, so it is only valid while it is being handled. Use
+ * {@link #getLine()} to keep the content.
+ *
+ * @author agent
+ */
+public class ResponseFrame {
+    private static final String OK = "ok";
+
+    public enum Type {
+        OK,
+        ERROR,
+        ALARM,
+        STATUS,
+        FEEDBACK,
+        OTHER
+    }
+
+    private byte[] bytes;
+    private int offset;
+    private int length;
+    private Type type;
+    private String line;
+
+    void set(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.line = null;
+        this.type = classify();
+    }
+
+    private Type classify() {
+        if (length == 0) {
+            return Type.OTHER;
+        }
+
+        byte first = bytes[offset];
+        if (first == '<') {
+            return Type.STATUS;
+        } else if (first == '[') {
+            return Type.FEEDBACK;
+        } else if (length == 2 && first == 'o' && bytes[offset + 1] == 'k') {
+            return Type.OK;
+        } else if (startsWith("error")) {
+            return Type.ERROR;
+        } else if (startsWith("ALARM")) {
+            return Type.ALARM;
+        }
+        return Type.OTHER;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte byteAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+        }
+        return bytes[offset + index];
+    }
+
+    /**
+     * Compares the start of the frame with an ASCII string without decoding
+     * the frame.
+     *
+     * @param prefix the ASCII prefix
+     * @return true if the frame starts with the prefix
+     */
+    public boolean startsWith(String prefix) {
+        if (prefix.length() > length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes[offset + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the frame, the result is cached until the next line.
+     *
+     * @return the response line
+     */
+    public String getLine() {
+        if (line == null) {
+            line = type == Type.OK ? OK : new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return getLine();
+    }
+}
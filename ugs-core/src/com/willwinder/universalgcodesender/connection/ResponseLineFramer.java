@@ -0,0 +1,130 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits the bytes read from a connection into response lines terminated by
+ * "\n" or "\r\n". Every byte is only scanned once. Lines which are complete
+ * within a read are framed directly from the read buffer, only the bytes of
+ * an unterminated line are copied and kept until the rest of it arrives.
+ *
+ * This class is not thread safe, it should only be used by the thread
+ * reading from the connection.
+ *
+ * @author agent
+ */
+public class ResponseLineFramer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    public interface FrameListener {
+        /**
+         * Invoked for each complete line.
+         *
+         * @param frame the line, only valid during the call
+         */
+        void onFrame(ResponseFrame frame);
+    }
+
+    private final FrameListener listener;
+    private final ResponseFrame frame = new ResponseFrame();
+
+    // The start of a line which hasn't been terminated yet.
+    private byte[] pending = new byte[INITIAL_CAPACITY];
+    private int pendingLength = 0;
+
+    // Reused when appending strings.
+    private byte[] encoded = new byte[INITIAL_CAPACITY];
+
+    public ResponseLineFramer(FrameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Appends bytes read from the connection and dispatches all lines which
+     * are completed by them.
+     *
+     * @param data the buffer containing the read bytes, it is not kept
+     * @param offset the start of the read bytes
+     * @param length the number of read bytes
+     */
+    public void append(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int lineStart = offset;
+        for (int i = offset; i < end; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+
+            if (pendingLength > 0) {
+                appendPending(data, lineStart, i - lineStart);
+                dispatch(pending, 0, pendingLength);
+                pendingLength = 0;
+            } else {
+                dispatch(data, lineStart, i - lineStart);
+            }
+            lineStart = i + 1;
+        }
+
+        if (lineStart < end) {
+            appendPending(data, lineStart, end - lineStart);
+        }
+    }
+
+    /**
+     * Appends a response which has already been decoded.
+     *
+     * @param data a complete or partial response
+     */
+    public void append(String data) {
+        int length = data.length();
+        if (encoded.length < length) {
+            encoded = new byte[Math.max(length, encoded.length * 2)];
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = data.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+                append(bytes, 0, bytes.length);
+                return;
+            }
+            encoded[i] = (byte) c;
+        }
+        append(encoded, 0, length);
+    }
+
+    private void appendPending(byte[] data, int offset, int length) {
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        System.arraycopy(data, offset, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private void dispatch(byte[] data, int offset, int length) {
+        if (length > 0 && data[offset + length - 1] == '\r') {
+            length--;
+        }
+        frame.set(data, offset, length);
+        listener.onFrame(frame);
+    }
+}
@@ -31,15 +31,16 @@ import java.util.Set;
  */
 public class ResponseMessageHandler {
 
-    private final StringBuilder inputBuffer;
+    private final ResponseLineFramer framer;
     private Set<IConnectionListener> listeners = new HashSet<>();
 
+    // Listeners which handle the frames without decoding them to a string
+    private Set<ResponseLineFramer.FrameListener> frameListeners = new HashSet<>();
+
     public ResponseMessageHandler() {
-        inputBuffer = new StringBuilder();
+        framer = new ResponseLineFramer(this::handleFrame);
     }
 
-
-
     /**
      * Appends the response data to a buffer, then splits out response rows and sends them
      * to the communicator using the {@link IConnectionListener#handleResponseMessage(String)}
@@ -47,27 +48,28 @@ public class ResponseMessageHandler {
      * @param response a complete or part of a response message
      */
     public void handleResponse(String response) {
-        inputBuffer.append(response);
-
-        // Only continue if there is a line terminator and split out command(response).
-        if (!inputBuffer.toString().contains("\n")) {
-            return;
-        }
+        framer.append(response);
+    }
 
-        // Split with the -1 option will give an empty string at
-        // the end if there is a terminator there as well.
-        String[] messages = inputBuffer.toString().split("\\r?\\n", -1);
-        for (int i = 0; i < messages.length; i++) {
-            // Make sure this isn't the last command.
-            if ((i + 1) < messages.length) {
+    /**
+     * Splits out response rows from the bytes read from a connection and sends them
+     * to the communicator using the {@link IConnectionListener#handleResponseMessage(String)}
+     *
+     * @param buffer the buffer the response was read into, it is not kept
+     * @param offset the start of the response in the buffer
+     * @param length the number of bytes read
+     */
+    public void handleResponse(byte[] buffer, int offset, int length) {
+        framer.append(buffer, offset, length);
+    }
 
-                notifyListeners(messages[i]);
+    private void handleFrame(ResponseFrame frame) {
+        frameListeners.forEach(listener -> listener.onFrame(frame));
 
-                // Append last command to input buffer because it didn't have a terminator.
-            } else {
-                inputBuffer.setLength(0);
-                inputBuffer.append(messages[i]);
-            }
+        // Only decode the line if someone is listening for it
+        if (!listeners.isEmpty()) {
+            String message = frame.getLine();
+            listeners.forEach(listener -> listener.handleResponseMessage(message));
         }
     }
 
@@ -75,9 +77,23 @@ public class ResponseMessageHandler {
         listeners.forEach(listener -> {
             listener.handleResponseMessage(message);
         });
+        frameListeners.forEach(listener -> {
+            ((IConnectionListener) listener).handleResponseMessage(message);
+        });
     }
 
+    /**
+     * Adds a listener for the response lines. A listener which also
+     * implements {@link ResponseLineFramer.FrameListener} receives the
+     * frames instead, which are only decoded if the listener asks for it.
+     *
+     * @param connectionListener the listener to add
+     */
     public void addListener(IConnectionListener connectionListener) {
-        listeners.add(connectionListener);
+        if (connectionListener instanceof ResponseLineFramer.FrameListener) {
+            frameListeners.add((ResponseLineFramer.FrameListener) connectionListener);
+        } else {
+            listeners.add(connectionListener);
+        }
     }
 }
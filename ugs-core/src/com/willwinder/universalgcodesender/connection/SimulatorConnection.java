@@ -0,0 +1,104 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A connection to a {@link GrblSimulator} running in the application, for
+ * measuring the streaming throughput without a machine. The baud rate of the
+ * connection is used as the speed of the simulated serial line.
+ *
+ * Example URI: sim://grbl:115200
+ *
+ * @author agent
+ */
+public class SimulatorConnection extends AbstractConnection {
+    public static final String PORT_NAME = "grbl";
+
+    private final GrblSimulator simulator = new GrblSimulator(responseMessageHandler::handleResponse);
+
+    @Override
+    public void setUri(String uri) {
+        try {
+            simulator.setBaudRate(Integer.valueOf(StringUtils.substringAfterLast(uri, ":")));
+        } catch (Exception e) {
+            throw new ConnectionException("Couldn't parse connection string " + uri, e);
+        }
+    }
+
+    @Override
+    public boolean openPort() throws Exception {
+        simulator.start();
+        return isOpen();
+    }
+
+    @Override
+    public void closePort() throws Exception {
+        simulator.stop();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return simulator.isRunning();
+    }
+
+    @Override
+    public List<String> getPortNames() {
+        return Collections.singletonList(PORT_NAME);
+    }
+
+    /**
+     * Configures the maximum rate and acceleration of the simulated machine
+     * from the firmware settings of a real machine.
+     *
+     * @param firmwareSettings the settings to copy the limits from
+     */
+    public void setFirmwareSettings(IFirmwareSettings firmwareSettings) {
+        simulator.setFirmwareSettings(firmwareSettings);
+    }
+
+    /**
+     * @return the simulator, for changing its configuration and reading its statistics
+     */
+    public GrblSimulator getSimulator() {
+        return simulator;
+    }
+
+    @Override
+    public void sendStringToComm(String command) throws Exception {
+        byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        simulator.receive(bytes, 0, bytes.length);
+    }
+
+    @Override
+    protected void writeBytes(byte[] buffer, int offset, int length) throws Exception {
+        simulator.receive(buffer, offset, length);
+    }
+
+    @Override
+    protected void writeByte(byte b) throws Exception {
+        simulator.receive(new byte[]{b}, 0, 1);
+    }
+}
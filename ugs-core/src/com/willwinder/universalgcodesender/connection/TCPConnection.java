@@ -18,10 +18,9 @@
 */
 package com.willwinder.universalgcodesender.connection;
 
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.InputStreamReader;
 import java.io.IOException;
-import java.io.BufferedReader;
 import java.net.*;
 import java.net.Socket;
 
@@ -42,9 +41,9 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
 
 	// General variables
 	private Socket client;
-	private BufferedReader bufIn;
+	private InputStream inStream;
 	private OutputStream bufOut;
-	private InputStreamReader inStream;
+	private final byte[] buffer = new byte[1024];
 	private Thread replyThread;
 
 	@Override
@@ -81,8 +80,7 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
 		}
 
 		bufOut = client.getOutputStream();
-		inStream = new InputStreamReader(client.getInputStream());
-		bufIn = new BufferedReader(inStream);
+		inStream = client.getInputStream();
 
 		// start thread so replies can be handled
 		replyThread = new Thread(this);
@@ -131,10 +129,24 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
 		}
 	}
 
+	@Override
+	protected void writeBytes(byte[] buffer, int offset, int length) throws Exception {
+		try {
+			bufOut.write(buffer, offset, length);
+			bufOut.flush();
+		} catch (SocketException e) {
+			closePort(); // very likely we got disconnected, attempt to disconnect gracefully
+			throw e;
+		} catch (IOException e) {
+			closePort(); // very likely we got disconnected, attempt to disconnect gracefully
+			throw e;
+		}
+	}
+
 	/**
 	 * Immediately sends a byte, used for real-time commands.
 	 */
-	public void sendByteImmediately(byte b) throws Exception {
+	protected void writeByte(byte b) throws Exception {
 		try {
 			bufOut.write(b);
 			bufOut.flush();
@@ -151,15 +163,20 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
 	 * Thread to accept data from remote host, and pass it to responseHandler
 	 */
 	public void run() {
-		String resp;
-		while(!Thread.interrupted() && !client.isClosed())
+		int bytesRead;
+		while(!Thread.interrupted())
 		{
 			try {
-				if(inStream.ready() && (resp = bufIn.readLine()) != null) {
-					responseMessageHandler.handleResponse(resp + "\n");
+				// Blocks until data arrives, returns -1 when the connection is closed
+				if ((bytesRead = inStream.read(buffer)) < 0) {
+					return;
 				}
+				responseMessageHandler.handleResponse(buffer, 0, bytesRead);
 			} catch (SocketException e) {
-				e.printStackTrace();
+				// Expected when closePort closes the socket while reading
+				if (isOpen()) {
+					e.printStackTrace();
+				}
 				return; // terminate thread if disconnected
 						//TODO: at some point, reconnecting should be considered
 			} catch (IOException e) {
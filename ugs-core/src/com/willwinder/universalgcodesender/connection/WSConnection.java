@@ -70,7 +70,7 @@ public class WSConnection  extends AbstractConnection implements Connection  {
     }
 
     @Override
-    public void sendByteImmediately(byte b) throws Exception {
+    protected void writeByte(byte b) throws Exception {
         final OutputStream sendStream = this.userSession.getBasicRemote().getSendStream();
         sendStream.write(b);
         sendStream.flush();
@@ -81,6 +81,11 @@ public class WSConnection  extends AbstractConnection implements Connection  {
         this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(command.getBytes("UTF-8")), true);
     }
 
+    @Override
+    protected void writeBytes(byte[] buffer, int offset, int length) throws Exception {
+        this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(buffer, offset, length), true);
+    }
+
     @Override
     public boolean isOpen() {
         return this.userSession != null && this.userSession.isOpen();
@@ -135,6 +135,11 @@ public class DefaultFirmwareSettings implements IFirmwareSettings {
         return 0;
     }
 
+    @Override
+    public double getMaximumAcceleration(Axis axis) {
+        return 0;
+    }
+
     @Override
     public UnitUtils.Units getReportingUnits() {
         return UnitUtils.Units.UNKNOWN;
@@ -18,7 +18,6 @@
  */
 package com.willwinder.universalgcodesender.gcode;
 
-import com.google.common.collect.Iterables;
 import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
 import com.willwinder.universalgcodesender.gcode.processors.Stats;
 import com.willwinder.universalgcodesender.gcode.util.Code;
@@ -53,6 +52,9 @@ import static com.willwinder.universalgcodesender.gcode.util.Code.ModalGroup.Spi
 public class GcodeParser implements IGcodeParser {
     private static final Logger logger = Logger.getLogger(GcodeParser.class.getName());
 
+    // Reused between calls to processCommand to avoid allocating while tokenizing.
+    private static final ThreadLocal<ParsedGcodeLine> PARSED_LINE = ThreadLocal.withInitial(ParsedGcodeLine::new);
+
     // Current state
     private GcodeState state;
 
@@ -126,6 +128,15 @@ public class GcodeParser implements IGcodeParser {
         this.state = new GcodeState();
         this.state.commandNumber = -1;
     }
+
+    /**
+     * Resets the parser so that it continues from a previously captured state,
+     * the next command added will be numbered initialState.commandNumber + 1.
+     */
+    public void reset(GcodeState initialState) {
+        this.statsProcessor = new Stats();
+        this.state = initialState.copy();
+    }
     
     /**
      * Add a command to be processed with no line number association.
@@ -194,7 +205,7 @@ public class GcodeParser implements IGcodeParser {
     public static List<GcodeMeta> processCommand(String command, int line, final GcodeState inputState,
             boolean includeNonMotionStates)
             throws GcodeParserException {
-        List<String> args = GcodePreprocessorUtils.splitCommand(command);
+        ParsedGcodeLine args = PARSED_LINE.get().parse(command);
         if (args.isEmpty()) return null;
 
         // Initialize with original state
@@ -203,8 +214,11 @@ public class GcodeParser implements IGcodeParser {
         state.commandNumber = line;
         
         // handle M codes.
-        Set<Code> mCodes = GcodePreprocessorUtils.getMCodes(args);
-        for (Code c : mCodes) {
+        for (int i = 0; i < args.size(); i++) {
+            if (args.getLetter(i) != 'M' || isDuplicateCode(args, i)) {
+                continue;
+            }
+            Code c = args.getCode(i);
             switch(c.getType()) {
                 case Spindle:
                     state.spindle = c;
@@ -217,28 +231,31 @@ public class GcodeParser implements IGcodeParser {
             }
         }
 
-        List<String> fCodes = GcodePreprocessorUtils.parseCodes(args, 'F');
-        if (!fCodes.isEmpty()) {
-            try {
-                state.speed = Double.parseDouble(Iterables.getOnlyElement(fCodes));
-            } catch (IllegalArgumentException e) {
+        int fIndex = args.indexOf('F');
+        if (fIndex >= 0) {
+            if (args.count('F') > 1 || !args.isValid(fIndex)) {
                 throw new GcodeParserException("Multiple F-codes on one line.");
             }
+            state.speed = args.getValue(fIndex);
         }
 
-        List<String> sCodes = GcodePreprocessorUtils.parseCodes(args, 'S');
-        if (!sCodes.isEmpty()) {
-            try {
-                state.spindleSpeed = Double.parseDouble(Iterables.getOnlyElement(sCodes));
-            } catch (IllegalArgumentException e) {
+        int sIndex = args.indexOf('S');
+        if (sIndex >= 0) {
+            if (args.count('S') > 1 || !args.isValid(sIndex)) {
                 throw new GcodeParserException("Multiple S-codes on one line.");
             }
+            state.spindleSpeed = args.getValue(sIndex);
         }
         
         // Gather G codes.
-        Set<Code> gCodes = GcodePreprocessorUtils.getGCodes(args);
+        List<Code> gCodes = new ArrayList<>(args.size() + 1);
+        for (int i = 0; i < args.size(); i++) {
+            if (args.getLetter(i) == 'G' && !isDuplicateCode(args, i)) {
+                gCodes.add(args.getCode(i));
+            }
+        }
         
-        boolean hasAxisWords = GcodePreprocessorUtils.hasAxisWords(args);
+        boolean hasAxisWords = args.hasAxisWords();
 
         // Error to mix group 1 (Motion) and certain group 0 (NonModal) codes (G10, G28, G30, G92)
         Collection<Code> motionCodes = gCodes.stream()
@@ -252,7 +269,8 @@ public class GcodeParser implements IGcodeParser {
         }
 
         // If there are axis words and nothing to use them, add the currentMotionMode.
-        if (hasAxisWords && motionCodes.isEmpty() && state.currentMotionMode != null) {
+        if (hasAxisWords && motionCodes.isEmpty() && state.currentMotionMode != null
+                && !gCodes.contains(state.currentMotionMode)) {
             gCodes.add(state.currentMotionMode);
         }
 
@@ -284,6 +302,20 @@ public class GcodeParser implements IGcodeParser {
         return results;
     }
 
+    /**
+     * Checks if the code at the given index already occurred earlier on the line.
+     */
+    private static boolean isDuplicateCode(ParsedGcodeLine args, int index) {
+        char letter = args.getLetter(index);
+        Code code = args.getCode(index);
+        for (int i = 0; i < index; i++) {
+            if (args.getLetter(i) == letter && args.getCode(i) == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static PointSegment addProbePointSegment(Position nextPoint, boolean fastTraverse, int line, GcodeState state) {
         PointSegment ps = addLinearPointSegment(nextPoint, fastTraverse, line, state);
         ps.setIsProbe(true);
@@ -321,7 +353,7 @@ public class GcodeParser implements IGcodeParser {
     /**
      * Create a PointSegment representing the arc command.
      */
-    private static PointSegment addArcPointSegment(Position nextPoint, boolean clockwise, List<String> args, int line, GcodeState state) {
+    private static PointSegment addArcPointSegment(Position nextPoint, boolean clockwise, ParsedGcodeLine args, int line, GcodeState state) {
         if (nextPoint == null) {
             return null;
         }
@@ -333,7 +365,7 @@ public class GcodeParser implements IGcodeParser {
                 GcodePreprocessorUtils.updateCenterWithCommand(
                         args, state.currentPoint, nextPoint, state.inAbsoluteIJKMode, clockwise, plane);
 
-        double radius = GcodePreprocessorUtils.parseCoord(args, 'R');
+        double radius = args.parseCoord('R');
 
         // Calculate radius if necessary, according to the current G17/18/19 Plane
         if (Double.isNaN(radius)) {
@@ -360,7 +392,7 @@ public class GcodeParser implements IGcodeParser {
      * 
      * A copy of the state object should go in the resulting GcodeMeta object.
      */
-    private static GcodeMeta handleGCode(final Code code, List<String> args, int line, GcodeState state)
+    private static GcodeMeta handleGCode(final Code code, ParsedGcodeLine args, int line, GcodeState state)
             throws GcodeParserException {
         GcodeMeta meta = new GcodeMeta();
 
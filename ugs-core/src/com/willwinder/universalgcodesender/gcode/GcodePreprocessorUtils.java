@@ -44,9 +44,8 @@ public class GcodePreprocessorUtils {
     private static final String EMPTY = "";
     private static final Pattern COMMENTPARSE = Pattern.compile("(?<=\\()[^()]*|(?<=;).*|%");
 
-    private static int decimalLength = -1;
-    private static Pattern decimalPattern;
-    private static DecimalFormat decimalFormatter;
+    // DecimalFormat isn't thread safe, so each thread which truncates decimals gets its own.
+    private static final ThreadLocal<DecimalTruncator> decimalTruncator = new ThreadLocal<>();
 
     /**
      * Searches the command string for an 'f' and replaces the speed value 
@@ -96,19 +95,20 @@ public class GcodePreprocessorUtils {
     }
     
     static public String truncateDecimals(int length, String command) {
-        if (length != decimalLength) {
+        DecimalTruncator truncator = decimalTruncator.get();
+        if (truncator == null || truncator.length != length) {
             //Only build the decimal formatter if the truncation length has changed.
-            updateDecimalFormatter(length);
-
+            truncator = new DecimalTruncator(length);
+            decimalTruncator.set(truncator);
         }
-        Matcher matcher = decimalPattern.matcher(command);
+        Matcher matcher = truncator.pattern.matcher(command);
 
         // Build up the truncated command.
         double d;
         StringBuffer sb = new StringBuffer();
         while (matcher.find()) {
             d = Double.parseDouble(matcher.group());
-            matcher.appendReplacement(sb, decimalFormatter.format(d));
+            matcher.appendReplacement(sb, truncator.formatter.format(d));
         }
         matcher.appendTail(sb);
         
@@ -116,30 +116,39 @@ public class GcodePreprocessorUtils {
         return sb.toString();
     }
 
-    private static void updateDecimalFormatter(int length) {
-        StringBuilder df = new StringBuilder();
+    /**
+     * The formatter and pattern used to truncate decimals to a given length.
+     */
+    private static class DecimalTruncator {
+        private final int length;
+        private final Pattern pattern;
+        private final DecimalFormat formatter;
 
-        // Build up the decimal formatter.
-        df.append("#");
+        private DecimalTruncator(int length) {
+            StringBuilder df = new StringBuilder();
 
-        if (length != 0) {
-            df.append(".");
-        }
-        for (int i = 0; i < length; i++) {
-            df.append('#');
-        }
+            // Build up the decimal formatter.
+            df.append("#");
+
+            if (length != 0) {
+                df.append(".");
+            }
+            for (int i = 0; i < length; i++) {
+                df.append('#');
+            }
 
-        decimalFormatter = new DecimalFormat(df.toString(), Localization.dfs);
+            this.formatter = new DecimalFormat(df.toString(), Localization.dfs);
 
-        // Build up the regular expression.
-        df = new StringBuilder();
-        df.append("\\d+\\.\\d");
-        for (int i = 0; i < length; i++) {
-            df.append("\\d");
+            // Build up the regular expression.
+            df = new StringBuilder();
+            df.append("\\d+\\.\\d");
+            for (int i = 0; i < length; i++) {
+                df.append("\\d");
+            }
+            df.append('+');
+            this.pattern = Pattern.compile(df.toString());
+            this.length = length;
         }
-        df.append('+');
-        decimalPattern = Pattern.compile(df.toString());
-        decimalLength = length;
     }
 
     static public List<String> parseCodes(List<String> args, char code) {
@@ -171,6 +180,22 @@ public class GcodePreprocessorUtils {
         return updatePointWithCommand(initial, x, y, z, absoluteMode);
     }
 
+    /**
+     * Update a point given the arguments of a command, using a pre-parsed line.
+     */
+    static public Position updatePointWithCommand(ParsedGcodeLine command, Position initial, boolean absoluteMode) {
+
+        double x = command.parseCoord('X');
+        double y = command.parseCoord('Y');
+        double z = command.parseCoord('Z');
+
+        if (Double.isNaN(x) && Double.isNaN(y) && Double.isNaN(z)) {
+            return null;
+        }
+
+        return updatePointWithCommand(initial, x, y, z, absoluteMode);
+    }
+
     /**
      * Update a point given the new coordinates.
      */
@@ -225,6 +250,28 @@ public class GcodePreprocessorUtils {
 
     }
 
+    static public Position updateCenterWithCommand(
+            ParsedGcodeLine command,
+            Position initial,
+            Position nextPoint,
+            boolean absoluteIJKMode,
+            boolean clockwise,
+            PlaneFormatter plane) {
+        double i      = command.parseCoord('I');
+        double j      = command.parseCoord('J');
+        double k      = command.parseCoord('K');
+        double radius = command.parseCoord('R');
+
+        if (Double.isNaN(i) && Double.isNaN(j) && Double.isNaN(k)) {
+            return GcodePreprocessorUtils.convertRToCenter(
+                            initial, nextPoint, radius, absoluteIJKMode,
+                            clockwise, plane);
+        }
+
+        return updatePointWithCommand(initial, i, j, k, absoluteIJKMode);
+
+    }
+
     static public String generateLineFromPoints(final Code command, final Position start, final Position end, final boolean absoluteMode, DecimalFormat formatter) {
         DecimalFormat df = formatter;
         if (df == null) {
@@ -276,73 +323,11 @@ public class GcodePreprocessorUtils {
             return Collections.singletonList(command);
         }
 
-        List<String> l = new ArrayList<>();
-        boolean readNumeric = false;
-        boolean readLineComment = false;
-        boolean readBlockComment = false;
-        StringBuilder sb = new StringBuilder();
-        
-        for (int i = 0; i < command.length(); i++){
-            char c = command.charAt(i);
-
-            if (c == '(' && !readLineComment && !readBlockComment) {
-                if( sb.length() > 0 ){
-                    l.add(sb.toString());
-                    sb = new StringBuilder();
-                }
-                sb.append(c);
-                readBlockComment = true;
-                continue;
-            } else if (readBlockComment && c == ')') {
-                readBlockComment = false;
-                sb.append(c);
-                l.add(sb.toString());
-                sb = new StringBuilder();
-                continue;
-            } else if (c == ';' && !readLineComment && !readBlockComment) {
-                if( sb.length() > 0 ){
-                    l.add(sb.toString());
-                    sb = new StringBuilder();
-                }
-                sb.append(c);
-                readLineComment = true;
-                continue;
-            }
-
-
-            if (readLineComment || readBlockComment) {
-                sb.append(c);
-            } else if (Character.isWhitespace(c)) {
-                continue;
-            }
-            // If the last character was numeric (readNumeric is true) and this
-            // character is a letter or whitespace, then we hit a boundary.
-            else if (readNumeric && !Character.isDigit(c) && c != '.') {
-                readNumeric = false; // reset flag.
-                
-                l.add(sb.toString());
-                sb = new StringBuilder();
-                
-                if (Character.isLetter(c)) {
-                    sb.append(c);
-                }
-            }
-
-            else if (Character.isDigit(c) || c == '.' || c == '-') {
-                sb.append(c);
-                readNumeric = true;
-            }
-            
-            else if (Character.isLetter(c)) {
-                sb.append(c);
-            }
-        }
-        
-        // Add final one
-        if (sb.length() > 0) {
-            l.add(sb.toString());
+        ParsedGcodeLine line = new ParsedGcodeLine(command);
+        List<String> l = new ArrayList<>(line.size());
+        for (int i = 0; i < line.size(); i++) {
+            l.add(line.getWord(i));
         }
-        
         return l;
     }
     
@@ -641,21 +626,21 @@ public class GcodePreprocessorUtils {
      * http://linuxcnc.org/docs/html/gcode/g-code.html#gcode:g53
      */
     public static SplitCommand extractMotion(Code code, String command) {
-        List<String> args = splitCommand(command);
+        ParsedGcodeLine args = new ParsedGcodeLine(command);
         if (args.isEmpty()) return null;
         
         StringBuilder extracted = new StringBuilder();
         StringBuilder remainder = new StringBuilder();
 
         boolean includeG53 = code == G0 || code == G1;
-        for (String arg : args) {
-            char c = arg.charAt(0);
-            Code lookup = Code.lookupCode(arg);
+        for (int i = 0; i < args.size(); i++) {
+            char c = args.getLetter(i);
+            Code lookup = args.getCode(i);
             if (lookup.getType() == Motion && lookup != code) return null;
             if (lookup == code || isMotionWord(c) || (includeG53 && lookup == G53)) {
-                extracted.append(arg);
+                args.appendWord(i, extracted);
             } else {
-                remainder.append(arg);
+                args.appendWord(i, remainder);
             }
         }
 
@@ -684,12 +669,16 @@ public class GcodePreprocessorUtils {
      * @return normalized command.
      */
     public static String normalizeCommand(String command, GcodeState state) throws GcodeParserException {
-        List<String> args = GcodePreprocessorUtils.splitCommand(command);
-        Set<Code> gCodes = getGCodes(args);
+        ParsedGcodeLine args = new ParsedGcodeLine(command);
+        Set<Code> gCodes = EnumSet.noneOf(Code.class);
 
         Code code = null;
-        for (Code c : gCodes) {
-            if (c.getType() == Motion) {
+        for (int i = 0; i < args.size(); i++) {
+            if (args.getLetter(i) != 'G') {
+                continue;
+            }
+            Code c = args.getCode(i);
+            if (gCodes.add(c) && c.getType() == Motion) {
                 code = c;
             }
         }
@@ -0,0 +1,395 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.util.Code;
+
+import java.util.Arrays;
+
+/**
+ * A reusable tokenizer for a single line of gcode. The line is split into
+ * words, the words are kept as offsets into a shared character buffer and the
+ * numeric values and codes are parsed without creating any strings.
+ *
+ * An instance can be reused for any number of lines by calling
+ * {@link #parse(String)}, it is not thread safe.
+ *
+ * @author agent
+ */
+public class ParsedGcodeLine {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Values with at most this many significant digits can be converted exactly.
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+            1e21, 1e22
+    };
+
+    private static final byte VALUE_UNPARSED = 0;
+    private static final byte VALUE_VALID = 1;
+    private static final byte VALUE_INVALID = 2;
+
+    private char[] buffer = new char[64];
+    private int bufferLength = 0;
+
+    private int size = 0;
+    private int[] wordStart = new int[INITIAL_CAPACITY];
+    private int[] wordEnd = new int[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private byte[] valueState = new byte[INITIAL_CAPACITY];
+    private Code[] codes = new Code[INITIAL_CAPACITY];
+
+    public ParsedGcodeLine() {
+    }
+
+    public ParsedGcodeLine(String command) {
+        parse(command);
+    }
+
+    /**
+     * Splits the command into words, replacing anything parsed earlier.
+     *
+     * @param command a line of gcode
+     * @return this instance
+     */
+    public ParsedGcodeLine parse(String command) {
+        size = 0;
+        bufferLength = 0;
+        ensureBufferCapacity(command.length());
+
+        // Special handling for GRBL system commands which will not be splitted
+        if (command.startsWith("$")) {
+            command.getChars(0, command.length(), buffer, 0);
+            bufferLength = command.length();
+            addWord(0, bufferLength);
+            return this;
+        }
+
+        boolean readNumeric = false;
+        boolean readLineComment = false;
+        boolean readBlockComment = false;
+        int start = 0;
+
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+
+            if (c == '(' && !readLineComment && !readBlockComment) {
+                start = endWordIfNotEmpty(start);
+                buffer[bufferLength++] = c;
+                readBlockComment = true;
+                readNumeric = false;
+                continue;
+            } else if (readBlockComment && c == ')') {
+                readBlockComment = false;
+                buffer[bufferLength++] = c;
+                start = endWord(start);
+                continue;
+            } else if (c == ';' && !readLineComment && !readBlockComment) {
+                start = endWordIfNotEmpty(start);
+                buffer[bufferLength++] = c;
+                readLineComment = true;
+                readNumeric = false;
+                continue;
+            }
+
+            if (readLineComment || readBlockComment) {
+                buffer[bufferLength++] = c;
+            } else if (Character.isWhitespace(c)) {
+                continue;
+            }
+            // If the last character was numeric (readNumeric is true) and this
+            // character is a letter or whitespace, then we hit a boundary.
+            else if (readNumeric && !Character.isDigit(c) && c != '.') {
+                readNumeric = false;
+                start = endWord(start);
+
+                if (Character.isLetter(c)) {
+                    buffer[bufferLength++] = c;
+                }
+            } else if (Character.isDigit(c) || c == '.' || c == '-') {
+                buffer[bufferLength++] = c;
+                readNumeric = true;
+            } else if (Character.isLetter(c)) {
+                buffer[bufferLength++] = c;
+            }
+        }
+
+        // Add final one
+        endWordIfNotEmpty(start);
+        return this;
+    }
+
+    /**
+     * @return the number of words on the line
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the upper case first character of the word, for example 'X' for "x-0.5"
+     */
+    public char getLetter(int index) {
+        checkIndex(index);
+        return Character.toUpperCase(buffer[wordStart[index]]);
+    }
+
+    /**
+     * @return the number of characters in the word including the letter
+     */
+    public int getWordLength(int index) {
+        checkIndex(index);
+        return wordEnd[index] - wordStart[index];
+    }
+
+    /**
+     * Returns the word as a string, this allocates a new string on every call.
+     */
+    public String getWord(int index) {
+        checkIndex(index);
+        return new String(buffer, wordStart[index], wordEnd[index] - wordStart[index]);
+    }
+
+    /**
+     * Appends the word to the given builder without creating an intermediate string.
+     */
+    public StringBuilder appendWord(int index, StringBuilder builder) {
+        checkIndex(index);
+        return builder.append(buffer, wordStart[index], wordEnd[index] - wordStart[index]);
+    }
+
+    /**
+     * @return true if the characters following the letter could be parsed as a number
+     */
+    public boolean isValid(int index) {
+        checkIndex(index);
+        parseValue(index);
+        return valueState[index] == VALUE_VALID;
+    }
+
+    /**
+     * Returns the numeric value following the letter, "X-0.5" would return -0.5.
+     * The value is the same as the one given by {@link Double#parseDouble(String)}.
+     *
+     * @return the value or NaN if the value couldn't be parsed
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        parseValue(index);
+        return valueState[index] == VALUE_VALID ? values[index] : Double.NaN;
+    }
+
+    /**
+     * Returns the numeric value following the letter, the same as
+     * {@link #getValue(int)} but an invalid value is reported like
+     * {@link Double#parseDouble(String)} does.
+     *
+     * @return the value
+     * @throws NumberFormatException if the value couldn't be parsed
+     */
+    public double requireValue(int index) {
+        double value = getValue(index);
+        if (valueState[index] != VALUE_VALID) {
+            // Only invalid values get here, let the JDK throw its exception for them
+            return Double.parseDouble(new String(buffer, wordStart[index] + 1, wordEnd[index] - wordStart[index] - 1));
+        }
+        return value;
+    }
+
+    /**
+     * Looks up the code of the word, same as {@link Code#lookupCode(String)}.
+     */
+    public Code getCode(int index) {
+        checkIndex(index);
+        if (codes[index] == null) {
+            codes[index] = Code.lookupCode(buffer, wordStart[index], wordEnd[index] - wordStart[index]);
+        }
+        return codes[index];
+    }
+
+    /**
+     * @return the index of the first word starting with the letter or -1 if there is none
+     */
+    public int indexOf(char letter) {
+        char address = Character.toUpperCase(letter);
+        for (int i = 0; i < size; i++) {
+            if (Character.toUpperCase(buffer[wordStart[i]]) == address) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of words starting with the letter
+     */
+    public int count(char letter) {
+        char address = Character.toUpperCase(letter);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (Character.toUpperCase(buffer[wordStart[i]]) == address) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@link GcodePreprocessorUtils#parseCoord(java.util.List, char)}.
+     *
+     * @return the value of the first word starting with the letter or NaN
+     */
+    public double parseCoord(char letter) {
+        int index = indexOf(letter);
+        if (index < 0 || getWordLength(index) <= 1) {
+            return Double.NaN;
+        }
+        return getValue(index);
+    }
+
+    /**
+     * Same as {@link GcodePreprocessorUtils#hasAxisWords(java.util.List)}.
+     */
+    public boolean hasAxisWords() {
+        for (int i = 0; i < size; i++) {
+            if (wordEnd[i] - wordStart[i] > 1) {
+                char c = Character.toUpperCase(buffer[wordStart[i]]);
+                if (c == 'X' || c == 'Y' || c == 'Z') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            appendWord(i, sb);
+        }
+        return sb.append(']').toString();
+    }
+
+    private void parseValue(int index) {
+        if (valueState[index] != VALUE_UNPARSED) {
+            return;
+        }
+
+        int start = wordStart[index] + 1;
+        int end = wordEnd[index];
+        int position = start;
+        boolean negative = position < end && buffer[position] == '-';
+        if (negative) {
+            position++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean hasDigits = false;
+        boolean hasDecimalPoint = false;
+        boolean fastPath = true;
+        for (; position < end && fastPath; position++) {
+            char c = buffer[position];
+            if (c >= '0' && c <= '9') {
+                hasDigits = true;
+                if (hasDecimalPoint) {
+                    fractionDigits++;
+                }
+                if (mantissa == 0 && c == '0') {
+                    continue;
+                }
+                if (significantDigits == MAX_FAST_DIGITS) {
+                    fastPath = false;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                significantDigits++;
+            } else if (c == '.' && !hasDecimalPoint) {
+                hasDecimalPoint = true;
+            } else {
+                fastPath = false;
+            }
+        }
+
+        if (fastPath && hasDigits && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            values[index] = negative ? -value : value;
+            valueState[index] = VALUE_VALID;
+            return;
+        }
+
+        // Anything unusual is left to the JDK so that the result is exactly the same.
+        try {
+            values[index] = Double.parseDouble(new String(buffer, start, end - start));
+            valueState[index] = VALUE_VALID;
+        } catch (NumberFormatException e) {
+            valueState[index] = VALUE_INVALID;
+        }
+    }
+
+    private int endWordIfNotEmpty(int start) {
+        if (bufferLength > start) {
+            return endWord(start);
+        }
+        return start;
+    }
+
+    private int endWord(int start) {
+        addWord(start, bufferLength);
+        return bufferLength;
+    }
+
+    private void addWord(int start, int end) {
+        if (size == wordStart.length) {
+            int capacity = size * 2;
+            wordStart = Arrays.copyOf(wordStart, capacity);
+            wordEnd = Arrays.copyOf(wordEnd, capacity);
+            values = Arrays.copyOf(values, capacity);
+            valueState = Arrays.copyOf(valueState, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+        wordStart[size] = start;
+        wordEnd[size] = end;
+        valueState[size] = VALUE_UNPARSED;
+        codes[size] = null;
+        size++;
+    }
+
+    private void ensureBufferCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = new char[Math.max(capacity, buffer.length * 2)];
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
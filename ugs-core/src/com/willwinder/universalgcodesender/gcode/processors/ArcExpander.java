@@ -127,4 +127,14 @@ public class ArcExpander implements CommandProcessor {
         }
         return null;
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "ArcExpander(convertToLines=" + convertToLines + ",length=" + length + ")";
+    }
 }
@@ -54,4 +54,14 @@ public class CommandLengthProcessor implements CommandProcessor {
         return ret;
     }
     
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "CommandLengthProcessor(length=" + length + ")";
+    }
 }
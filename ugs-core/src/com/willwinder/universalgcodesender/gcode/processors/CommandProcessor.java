@@ -44,4 +44,25 @@ public interface CommandProcessor {
      * @return 
      */
     String getHelp();
+
+    /**
+     * Processors which only look at the command and the state argument can be
+     * applied to different parts of a program independently, for example when
+     * preprocessing a large file in parallel.
+     * @return true if no state is kept between calls to processCommand.
+     */
+    default boolean isStateless() {
+        return false;
+    }
+
+    /**
+     * Returns a canonical description of the processor and its settings.
+     * Processors with equal configurations produce the same output for a
+     * program, which is used to reuse programs that have been processed before.
+     * @return the configuration or null if it can't be described, in which case
+     *         processed programs are never reused.
+     */
+    default String getConfiguration() {
+        return null;
+    }
 }
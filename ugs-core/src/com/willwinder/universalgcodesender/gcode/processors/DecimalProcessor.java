@@ -57,4 +57,14 @@ public class DecimalProcessor implements CommandProcessor {
         }
         return ret;
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "DecimalProcessor(decimals=" + numDecimals + ")";
+    }
 }
@@ -56,4 +56,14 @@ public class FeedOverrideProcessor implements CommandProcessor {
         }
         return ret;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "FeedOverrideProcessor(percent=" + percentOverride + ")";
+    }
+}
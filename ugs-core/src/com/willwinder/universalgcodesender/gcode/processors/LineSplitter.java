@@ -122,4 +122,14 @@ public class LineSplitter implements CommandProcessor {
 
         return results;
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "LineSplitter(maxSegmentLength=" + maxSegmentLength + ")";
+    }
 }
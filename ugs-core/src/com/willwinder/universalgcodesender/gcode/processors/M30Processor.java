@@ -29,4 +29,9 @@ public class M30Processor extends PatternRemover {
     public M30Processor() {
         super("[Mm]30");
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
 }
@@ -245,4 +245,18 @@ public class MeshLeveler implements CommandProcessor {
     public String getHelp() {
         return null;
     }
+
+    @Override
+    public String getConfiguration() {
+        StringBuilder sb = new StringBuilder("MeshLeveler(materialSurfaceHeight=")
+                .append(materialSurfaceHeight)
+                .append(",unit=").append(unit)
+                .append(",mesh=");
+        for (Position[] row : surfaceMesh) {
+            for (Position p : row) {
+                sb.append(p.x).append(',').append(p.y).append(',').append(p.z).append(',').append(p.getUnits()).append(';');
+            }
+        }
+        return sb.append(')').toString();
+    }
 }
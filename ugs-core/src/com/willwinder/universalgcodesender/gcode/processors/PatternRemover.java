@@ -50,4 +50,14 @@ public class PatternRemover implements CommandProcessor {
         ret.add(p.matcher(command).replaceAll(""));
         return ret;
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return getClass().getSimpleName() + "(pattern=" + p.pattern() + ")";
+    }
 }
@@ -84,4 +84,9 @@ public class RunFromProcessor implements CommandProcessor {
     public String getHelp() {
         return null;
     }
+
+    @Override
+    public String getConfiguration() {
+        return "RunFromProcessor(line=" + runFromLine + ")";
+    }
 }
@@ -18,15 +18,15 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
-import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.ParsedGcodeLine;
+import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Pattern;
 
 /**
  * Adds a dwell command after an M3 or M4.
@@ -34,10 +34,9 @@ import java.util.regex.Pattern;
  * @author wwinder
  */
 public class SpindleOnDweller implements CommandProcessor {
-    private final String dwellCommand;
+    private static final ThreadLocal<ParsedGcodeLine> PARSED_LINE = ThreadLocal.withInitial(ParsedGcodeLine::new);
 
-    // Contains an M3 not followed by another digit (i.e. M30)
-    private Pattern spindleOnPattern = Pattern.compile(".*[mM][34](?!\\d)(\\D.*)?");
+    private final String dwellCommand;
 
     public SpindleOnDweller(double dwellDuration) {
         this.dwellCommand = String.format(Locale.ROOT, "G4P%.2f", dwellDuration);
@@ -45,9 +44,13 @@ public class SpindleOnDweller implements CommandProcessor {
 
     @Override
     public List<String> processCommand(String command, GcodeState state) throws GcodeParserException {
-        String noComments = GcodePreprocessorUtils.removeComment(command);
-        if (spindleOnPattern.matcher(noComments).matches()) {
-            return Arrays.asList(command, dwellCommand);
+        // Comments are separate words, so an M3 within a comment isn't found
+        ParsedGcodeLine parts = PARSED_LINE.get().parse(command);
+        for (int i = 0; i < parts.size(); i++) {
+            Code code = parts.getCode(i);
+            if (code == Code.M3 || code == Code.M4) {
+                return Arrays.asList(command, dwellCommand);
+            }
         }
         return Collections.singletonList(command);
     }
@@ -56,4 +59,14 @@ public class SpindleOnDweller implements CommandProcessor {
     public String getHelp() {
         return Localization.getString("sender.help.spindle-dwell");
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "SpindleOnDweller(dwellCommand=" + dwellCommand + ")";
+    }
 }
@@ -83,4 +83,9 @@ public class Stats implements CommandProcessor, GcodeStats {
         return commandCount;
     }
     
+    @Override
+    public String getConfiguration() {
+        // Only collects metrics, the commands are not changed.
+        return "Stats";
+    }
 }
@@ -20,6 +20,7 @@ package com.willwinder.universalgcodesender.gcode.processors;
 
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.ParsedGcodeLine;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
@@ -33,14 +34,20 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class Translator implements CommandProcessor {
 
+  private static final ThreadLocal<ParsedGcodeLine> PARSED_LINE = ThreadLocal.withInitial(ParsedGcodeLine::new);
+
   private final Position offset;
 
   public Translator(Position offset) {
     this.offset = offset;
   }
 
-  private String shift(String part, double amount) {
-    return "" + part.charAt(0) + (Double.valueOf(part.substring(1)) + amount);
+  private void shift(ParsedGcodeLine parts, int index, double amount, StringBuilder sb) {
+    double value = parts.requireValue(index);
+    int start = sb.length();
+    parts.appendWord(index, sb);
+    sb.setLength(start + 1);
+    sb.append(value + amount);
   }
 
   @Override
@@ -52,46 +59,46 @@ public class Translator implements CommandProcessor {
 
     String comment = GcodePreprocessorUtils.parseComment(command);
     String rawCommand = GcodePreprocessorUtils.removeComment(command);
-    List<String> parts = GcodePreprocessorUtils.splitCommand(rawCommand);
+    ParsedGcodeLine parts = PARSED_LINE.get().parse(rawCommand);
     StringBuilder sb = new StringBuilder();
 
     double x = offset.getPositionIn(UnitUtils.Units.getUnits(state.units)).x;
     double y = offset.getPositionIn(UnitUtils.Units.getUnits(state.units)).y;
     double z = offset.getPositionIn(UnitUtils.Units.getUnits(state.units)).z;
 
-    for (String part : parts) {
-      switch (Character.toUpperCase(part.charAt(0))) {
+    for (int i = 0; i < parts.size(); i++) {
+      switch (parts.getLetter(i)) {
         case 'X':
-          sb.append(shift(part, x));
+          shift(parts, i, x, sb);
           break;
         case 'Y':
-          sb.append(shift(part, y));
+          shift(parts, i, y, sb);
           break;
         case 'Z':
-          sb.append(shift(part, z));
+          shift(parts, i, z, sb);
           break;
 
         // Grbl doesn't support absolute arcs, but what the hell.
         case 'I':
           if (state.inAbsoluteIJKMode) {
-            sb.append(shift(part, x));
+            shift(parts, i, x, sb);
             break;
           }
         // fall through if not in absolute mode...
         case 'J':
           if (state.inAbsoluteIJKMode) {
-            sb.append(shift(part, y));
+            shift(parts, i, y, sb);
             break;
           }
         // fall through if not in absolute mode...
         case 'K':
           if (state.inAbsoluteIJKMode) {
-            sb.append(shift(part, z));
+            shift(parts, i, z, sb);
             break;
           }
         // fall through if not in absolute mode...
         default:
-          sb.append(part);
+          parts.appendWord(i, sb);
       }
     }
 
@@ -106,4 +113,14 @@ public class Translator implements CommandProcessor {
   public String getHelp() {
     return "Translates gcode location.";
   }
+
+  @Override
+  public boolean isStateless() {
+    return true;
+  }
+
+  @Override
+  public String getConfiguration() {
+    return "Translator(offset=" + offset.x + "," + offset.y + "," + offset.z + "," + offset.getUnits() + ")";
+  }
 }
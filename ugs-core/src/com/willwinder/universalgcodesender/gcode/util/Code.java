@@ -178,6 +178,21 @@ public enum Code {
         Arrays.stream(Code.values())
                 .collect(Collectors.toMap(Code::toString, c -> c));
 
+    /**
+     * The codes grouped by their first character, used for looking up codes
+     * from a character buffer without creating strings.
+     */
+    private static final Code[][] codesByLetter = new Code[128][];
+
+    static {
+        for (char letter = 0; letter < codesByLetter.length; letter++) {
+            final char first = letter;
+            codesByLetter[letter] = Arrays.stream(Code.values())
+                    .filter(c -> c.toString().charAt(0) == first)
+                    .toArray(Code[]::new);
+        }
+    }
+
     private final ModalGroup type;
     private final boolean nonModalMotionCode;
     private final boolean motionOptional;
@@ -239,4 +254,52 @@ public enum Code {
         Code c = codeLookup.get(type + rest);
         return c == null ? UNKNOWN : c;
     }
+
+    /**
+     * Lookup code from a character buffer, same as {@link #lookupCode(String)}
+     * but without allocating any strings.
+     * @param code buffer containing a code like G1 or G38.2
+     * @param offset index of the first character of the code
+     * @param length number of characters in the code
+     * @return the enum value, null if the length is zero
+     */
+    public static Code lookupCode(char[] code, int offset, int length) {
+        if (length < 1) {
+            return null;
+        }
+
+        char type = Character.toUpperCase(code[offset]);
+
+        // Strip leading zeros in a way that leaves the last zero in case of 'G0'
+        int end = offset + length;
+        int restStart = offset + 1;
+        for (int i = offset + 1; i < end; i++) {
+            restStart = i;
+            if (code[i] != '0') {
+                break;
+            }
+        }
+        int restLength = end - restStart;
+
+        if (type >= codesByLetter.length) {
+            return UNKNOWN;
+        }
+
+        for (Code c : codesByLetter[type]) {
+            String name = c.toString();
+            if (name.length() - 1 == restLength && regionEquals(name, code, restStart, restLength)) {
+                return c;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean regionEquals(String name, char[] code, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i + 1) != code[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -34,6 +34,8 @@ import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvents.PREPROCESSING_CHUNK;
+
 /**
  *
  * @author wwinder
@@ -46,10 +48,8 @@ public class GcodeParserUtils {
      */
     public static void processAndExport(GcodeParser gcp, File input, IGcodeWriter output)
             throws IOException, GcodeParserException {
-        try(BufferedReader br = new BufferedReader(new FileReader(input))) {
-            if (processAndExportGcodeStream(gcp, br, output)) {
-                return;
-            }
+        if (processAndExportGcodeStream(gcp, input, output)) {
+            return;
         }
 
         try(BufferedReader br = new BufferedReader(new FileReader(input))) {
@@ -84,17 +84,21 @@ public class GcodeParserUtils {
      * Attempts to read the input file in GcodeStream format.
      * @return whether or not we succeed processing the file.
      */
-    private static boolean processAndExportGcodeStream(GcodeParser gcp, BufferedReader input, IGcodeWriter output)
+    private static boolean processAndExportGcodeStream(GcodeParser gcp, File input, IGcodeWriter output)
             throws IOException, GcodeParserException {
 
         // Preprocess a GcodeStream file.
         try (IGcodeStreamReader gsr = new GcodeStreamReader(input)) {
+            ChunkEvent chunkEvent = new ChunkEvent();
             int i = 0;
             while (gsr.getNumRowsRemaining() > 0) {
                 i++;
                 GcodeCommand gc = gsr.getNextCommand();
+                chunkEvent.beforeLine(i);
                 preprocessAndWrite(gcp, output, gc.getCommandString(), gc.getComment(), i);
+                chunkEvent.afterLine(i);
             }
+            chunkEvent.finish(i);
 
             // Done processing GcodeStream file.
             return true;
@@ -112,12 +116,45 @@ public class GcodeParserUtils {
             throws IOException, GcodeParserException {
         // Preprocess a regular gcode file.
         try(BufferedReader br = input) {
+            ChunkEvent chunkEvent = new ChunkEvent();
             int i = 0;
             for(String line; (line = br.readLine()) != null; ) {
                 i++;
 
+                chunkEvent.beforeLine(i);
                 String comment = GcodePreprocessorUtils.parseComment(line);
                 preprocessAndWrite(gcp, output, line, comment, i);
+                chunkEvent.afterLine(i);
+            }
+            chunkEvent.finish(i);
+        }
+    }
+
+    /**
+     * Records a flight recorder event for every chunk of lines, the same size
+     * as the chunks of the {@link ParallelGcodePreprocessor}.
+     */
+    private static class ChunkEvent {
+        private Object event;
+        private int firstLine;
+
+        void beforeLine(int lineNumber) {
+            if (event == null) {
+                event = PREPROCESSING_CHUNK.begin();
+                firstLine = lineNumber;
+            }
+        }
+
+        void afterLine(int lineNumber) {
+            if (event != null && lineNumber - firstLine + 1 >= ParallelGcodePreprocessor.DEFAULT_CHUNK_SIZE) {
+                finish(lineNumber);
+            }
+        }
+
+        void finish(int lastLine) {
+            if (event != null) {
+                PREPROCESSING_CHUNK.commit(event, firstLine, lastLine, false);
+                event = null;
             }
         }
     }
@@ -0,0 +1,359 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvents.PREPROCESSING_CHUNK;
+
+/**
+ * Applies a preprocessor chain to a gcode file using several threads, with the
+ * exact same result as {@link GcodeParserUtils#processAndExport}.
+ *
+ * The program is read on the calling thread where each command is added to the
+ * given parser, which is cheap compared to running the preprocessors. Every
+ * {@link #getChunkSize()} lines the parser state is captured as a checkpoint
+ * and the lines since the previous checkpoint are handed to a fork join pool.
+ * The workers continue from the checkpoint with their own parser and their own
+ * processors, and the results are written to the output in order.
+ *
+ * This only works if the processors don't keep any state between commands, if
+ * any of them does the file is processed serially instead.
+ *
+ * @author agent
+ */
+public class ParallelGcodePreprocessor {
+    private static final Logger logger = Logger.getLogger(ParallelGcodePreprocessor.class.getName());
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    private final Supplier<List<CommandProcessor>> processorFactory;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * @param processorFactory creates a new instance of the processor chain
+     *                         used by the parser, it is called once per chunk.
+     */
+    public ParallelGcodePreprocessor(Supplier<List<CommandProcessor>> processorFactory) {
+        this(processorFactory, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelGcodePreprocessor(Supplier<List<CommandProcessor>> processorFactory, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least one line.");
+        }
+        this.processorFactory = processorFactory;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Checks if the processors allow the program to be split into chunks.
+     */
+    public static boolean canProcessInParallel(Collection<CommandProcessor> processors) {
+        return processors.stream().allMatch(CommandProcessor::isStateless);
+    }
+
+    /**
+     * Applies the processors to the input file and writes the result to the
+     * output. When finished the parser has the same state and statistics as
+     * after {@link GcodeParserUtils#processAndExport}.
+     *
+     * @param gcp a parser with the processors from the factory, the commands are
+     *            added to it as the program is read.
+     */
+    public void processAndExport(GcodeParser gcp, File input, IGcodeWriter output)
+            throws IOException, GcodeParserException {
+        if (!canProcessInParallel(processorFactory.get())) {
+            logger.log(Level.INFO, "The preprocessors keep state between commands, processing serially.");
+            GcodeParserUtils.processAndExport(gcp, input, output);
+            return;
+        }
+
+        if (processAndExportGcodeStream(gcp, input, output)) {
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(input))) {
+            processAndExportText(gcp, br, output);
+        }
+    }
+
+    private boolean processAndExportGcodeStream(GcodeParser gcp, File input, IGcodeWriter output)
+            throws IOException, GcodeParserException {
+        try (IGcodeStreamReader gsr = new GcodeStreamReader(input)) {
+            ChunkWriter writer = new ChunkWriter(gcp, output);
+            while (gsr.getNumRowsRemaining() > 0) {
+                GcodeCommand gc = gsr.getNextCommand();
+                if (!writer.add(gc.getCommandString(), gc.getComment())) {
+                    break;
+                }
+            }
+            writer.finish();
+            return true;
+        } catch (GcodeStreamReader.NotGcodeStreamFile ex) {
+            // File exists, but isn't a stream reader. So go ahead and try parsing it as a raw gcode file.
+        }
+        return false;
+    }
+
+    private void processAndExportText(GcodeParser gcp, BufferedReader input, IGcodeWriter output)
+            throws IOException, GcodeParserException {
+        ChunkWriter writer = new ChunkWriter(gcp, output);
+        for (String line; (line = input.readLine()) != null; ) {
+            // The comment is parsed by the worker.
+            if (!writer.add(line, null)) {
+                break;
+            }
+        }
+        writer.finish();
+    }
+
+    /**
+     * Splits the program into chunks on the reading thread, keeps a bounded
+     * number of chunks in flight and writes the finished ones in order.
+     */
+    private class ChunkWriter {
+        private final GcodeParser gcp;
+        private final IGcodeWriter output;
+        private final Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+        private final int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+
+        private Chunk chunk;
+        private int lineNumber = 0;
+        private GcodeParserException firstPassError;
+
+        ChunkWriter(GcodeParser gcp, IGcodeWriter output) {
+            this.gcp = gcp;
+            this.output = output;
+        }
+
+        /**
+         * Adds the next line of the program.
+         * @return false if the command couldn't be parsed, no more lines are
+         *         needed since processing stops at that command.
+         */
+        boolean add(String command, String comment) throws GcodeParserException {
+            if (chunk == null) {
+                chunk = new Chunk(lineNumber + 1, gcp.getCurrentState().copy(), chunkSize);
+            }
+
+            lineNumber++;
+            chunk.add(command, comment);
+
+            if (StringUtils.isNotEmpty(command)) {
+                try {
+                    gcp.addCommand(command);
+                } catch (GcodeParserException e) {
+                    // Let the worker process the chunk up to this command so that
+                    // the output and the error match the serial processing.
+                    firstPassError = e;
+                    submitChunk();
+                    return false;
+                }
+            }
+
+            if (chunk.size() == chunkSize) {
+                submitChunk();
+            }
+            return true;
+        }
+
+        void finish() throws GcodeParserException {
+            if (chunk != null) {
+                submitChunk();
+            }
+
+            while (!inFlight.isEmpty()) {
+                writeOldestChunk();
+            }
+
+            if (firstPassError != null) {
+                throw firstPassError;
+            }
+        }
+
+        private void submitChunk() throws GcodeParserException {
+            if (inFlight.size() >= maxInFlight) {
+                writeOldestChunk();
+            }
+
+            inFlight.add(pool.submit(new ChunkTask(chunk)));
+            chunk = null;
+        }
+
+        private void writeOldestChunk() throws GcodeParserException {
+            ChunkResult result;
+            try {
+                result = inFlight.removeFirst().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new GcodeParserException("Interrupted while preprocessing.");
+            } catch (ExecutionException e) {
+                cancelAll();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new GcodeParserException(e.getCause().getMessage());
+            }
+
+            result.writeTo(output);
+
+            if (result.error != null) {
+                cancelAll();
+                throw result.error;
+            }
+        }
+
+        private void cancelAll() {
+            inFlight.forEach(task -> task.cancel(true));
+            inFlight.clear();
+        }
+    }
+
+    /**
+     * A number of consecutive lines and the parser state before the first one.
+     */
+    private static class Chunk {
+        private final int firstLineNumber;
+        private final GcodeState checkpoint;
+        private final List<String> commands;
+        private final List<String> comments;
+
+        Chunk(int firstLineNumber, GcodeState checkpoint, int capacity) {
+            this.firstLineNumber = firstLineNumber;
+            this.checkpoint = checkpoint;
+            this.commands = new ArrayList<>(capacity);
+            this.comments = new ArrayList<>(capacity);
+        }
+
+        void add(String command, String comment) {
+            commands.add(command);
+            comments.add(comment);
+        }
+
+        int size() {
+            return commands.size();
+        }
+    }
+
+    /**
+     * The rows to write for a chunk, and the error which stopped the processing
+     * if there was one.
+     */
+    private static class ChunkResult {
+        private final List<String> original = new ArrayList<>();
+        private final List<String> processed = new ArrayList<>();
+        private final List<String> comments = new ArrayList<>();
+        private final List<Integer> lineNumbers = new ArrayList<>();
+        private GcodeParserException error;
+
+        void add(String originalCommand, String processedCommand, String comment, int lineNumber) {
+            original.add(originalCommand);
+            processed.add(processedCommand);
+            comments.add(comment);
+            lineNumbers.add(lineNumber);
+        }
+
+        void writeTo(IGcodeWriter output) {
+            for (int i = 0; i < original.size(); i++) {
+                output.addLine(original.get(i), processed.get(i), comments.get(i), lineNumbers.get(i));
+            }
+        }
+    }
+
+    /**
+     * Processes a chunk the same way as GcodeParserUtils.preprocessAndWrite.
+     */
+    private class ChunkTask implements Callable<ChunkResult> {
+        private final Chunk chunk;
+
+        ChunkTask(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public ChunkResult call() {
+            Object event = PREPROCESSING_CHUNK.begin();
+            GcodeParser parser = new GcodeParser();
+            processorFactory.get().forEach(parser::addCommandProcessor);
+            parser.reset(chunk.checkpoint);
+
+            ChunkResult result = new ChunkResult();
+            for (int i = 0; i < chunk.size(); i++) {
+                int lineNumber = chunk.firstLineNumber + i;
+                String command = chunk.commands.get(i);
+                String comment = chunk.comments.get(i);
+                if (comment == null) {
+                    comment = GcodePreprocessorUtils.parseComment(command);
+                }
+
+                if (StringUtils.isEmpty(command)) {
+                    result.add(command, command, comment, lineNumber);
+                    continue;
+                }
+
+                try {
+                    for (String processedLine : parser.preprocessCommand(command, parser.getCurrentState())) {
+                        result.add(command, processedLine, comment, lineNumber);
+                    }
+                    parser.addCommand(command);
+                } catch (GcodeParserException e) {
+                    result.error = e;
+                    break;
+                }
+            }
+
+            if (event != null) {
+                PREPROCESSING_CHUNK.commit(event, chunk.firstLineNumber, chunk.firstLineNumber + chunk.size() - 1, true);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.jfr;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A type of flight recorder event. The event type is defined when the class
+ * is created with jdk.jfr.EventFactory, so it works without compiling
+ * against jdk.jfr.
+ *
+ * An event measures the time from {@link #begin()} until
+ * {@link #commit(Object, Object...)}, with the values of the fields in the
+ * order they were declared:
+ * <pre>
+ *     Object event = EVENT.begin();
+ *     ...
+ *     if (event != null) {
+ *         EVENT.commit(event, firstLine, lastLine);
+ *     }
+ * </pre>
+ * When nothing is recording begin() returns null, so checking it before
+ * commit avoids boxing the values.
+ *
+ * @author agent
+ */
+public final class FlightRecorderEvent {
+    private static final Logger LOGGER = Logger.getLogger(FlightRecorderEvent.class.getName());
+    private static final String CATEGORY = "Universal Gcode Sender";
+
+    private static final MethodHandle BEGIN;
+    private static final MethodHandle SET;
+    private static final MethodHandle COMMIT;
+
+    static {
+        MethodHandle begin = null;
+        MethodHandle set = null;
+        MethodHandle commit = null;
+        if (FlightRecording.isAvailable()) {
+            try {
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(void.class, Object.class));
+                set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                        .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+                commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(void.class, Object.class));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.log(Level.WARNING, "Could not find the flight recorder event methods", e);
+                begin = null;
+                set = null;
+                commit = null;
+            }
+        }
+        BEGIN = begin;
+        SET = set;
+        COMMIT = commit;
+    }
+
+    private final String name;
+    private final int fieldCount;
+    private final MethodHandle newEvent;
+
+    /**
+     * @param name        the unique name of the event type
+     * @param label       a human readable name
+     * @param description what the event measures
+     * @param fields      the values given to commit
+     */
+    public FlightRecorderEvent(String name, String label, String description, Field... fields) {
+        this.name = name;
+        this.fieldCount = fields.length;
+        this.newEvent = BEGIN == null ? null : createEventType(name, label, description, fields);
+    }
+
+    /**
+     * Describes a value of the event.
+     *
+     * @param name  the name of the field
+     * @param label a human readable name
+     * @param type  a primitive type or String
+     */
+    public static Field field(String name, String label, Class<?> type) {
+        return new Field(name, label, type, null, null);
+    }
+
+    /**
+     * Describes a duration in nanoseconds, the value must be a long.
+     */
+    public static Field timespan(String name, String label) {
+        return new Field(name, label, long.class, "jdk.jfr.Timespan", "NANOSECONDS");
+    }
+
+    /**
+     * Describes a number of bytes, the value must be a long.
+     */
+    public static Field bytes(String name, String label) {
+        return new Field(name, label, long.class, "jdk.jfr.DataAmount", "BYTES");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if the events are recorded
+     */
+    public boolean isEnabled() {
+        return newEvent != null && FlightRecording.isRecording();
+    }
+
+    /**
+     * Starts timing an event.
+     *
+     * @return the event, or null if it isn't recorded
+     */
+    public Object begin() {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        try {
+            Object event = (Object) newEvent.invokeExact();
+            BEGIN.invokeExact(event);
+            return event;
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE, "Could not create the flight recorder event " + name, t);
+            return null;
+        }
+    }
+
+    /**
+     * Sets the fields of the event and records it.
+     *
+     * @param event  the event returned by {@link #begin()}, nothing is recorded if it is null
+     * @param values the values of the fields in the order they were declared
+     */
+    public void commit(Object event, Object... values) {
+        if (event == null) {
+            return;
+        }
+        if (values.length != fieldCount) {
+            throw new IllegalArgumentException("The event " + name + " has " + fieldCount + " fields, got " + values.length);
+        }
+
+        try {
+            for (int i = 0; i < values.length; i++) {
+                SET.invokeExact(event, i, values[i]);
+            }
+            COMMIT.invokeExact(event);
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE, "Could not commit the flight recorder event " + name, t);
+        }
+    }
+
+    /**
+     * Records an event without a duration. Check {@link #isEnabled()} first
+     * to avoid boxing the values when nothing is recording.
+     */
+    public void emit(Object... values) {
+        commit(begin(), values);
+    }
+
+    private static MethodHandle createEventType(String name, String label, String description, Field[] fields) {
+        try {
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+            Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+
+            List<Object> annotations = new ArrayList<>();
+            annotations.add(annotationElement.newInstance(Class.forName("jdk.jfr.Name"), name));
+            annotations.add(annotationElement.newInstance(Class.forName("jdk.jfr.Label"), label));
+            annotations.add(annotationElement.newInstance(Class.forName("jdk.jfr.Description"), description));
+            annotations.add(annotationElement.newInstance(Class.forName("jdk.jfr.Category"), new String[]{CATEGORY}));
+            annotations.add(annotationElement.newInstance(Class.forName("jdk.jfr.StackTrace"), false));
+
+            Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+            Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+            List<Object> values = new ArrayList<>();
+            for (Field field : fields) {
+                List<Object> fieldAnnotations = new ArrayList<>();
+                fieldAnnotations.add(annotationElement.newInstance(Class.forName("jdk.jfr.Label"), field.label));
+                if (field.unitAnnotation != null) {
+                    fieldAnnotations.add(annotationElement.newInstance(Class.forName(field.unitAnnotation), field.unit));
+                }
+                values.add(valueDescriptor.newInstance(field.type, field.name, fieldAnnotations));
+            }
+
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+            Object factory = eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, values);
+            return MethodHandles.publicLookup()
+                    .findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(Class.forName("jdk.jfr.Event")))
+                    .bindTo(factory)
+                    .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not define the flight recorder event " + name, e);
+            return null;
+        }
+    }
+
+    /**
+     * A value of an event type.
+     */
+    public static final class Field {
+        private final String name;
+        private final String label;
+        private final Class<?> type;
+        private final String unitAnnotation;
+        private final String unit;
+
+        private Field(String name, String label, Class<?> type, String unitAnnotation, String unit) {
+            this.name = name;
+            this.label = label;
+            this.type = type;
+            this.unitAnnotation = unitAnnotation;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.jfr;
+
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvent.bytes;
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvent.field;
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvent.timespan;
+
+/**
+ * The flight recorder events of the streaming and visualization stack, they
+ * are shown in the "Universal Gcode Sender" category in JDK Mission Control.
+ *
+ * @author agent
+ */
+public final class FlightRecorderEvents {
+    public static final FlightRecorderEvent COMMANDS_SENT = new FlightRecorderEvent(
+            "com.willwinder.ugs.CommandsSent", "Commands Sent",
+            "Commands written to the controller in one write",
+            field("firstLine", "First Line", int.class),
+            field("lastLine", "Last Line", int.class),
+            field("commands", "Commands", int.class),
+            bytes("bytes", "Bytes"),
+            bytes("bufferUsed", "Controller Buffer Used"));
+
+    public static final FlightRecorderEvent COMMAND_ACKNOWLEDGED = new FlightRecorderEvent(
+            "com.willwinder.ugs.CommandAcknowledged", "Command Acknowledged",
+            "The controller responded to a command",
+            field("line", "Line", int.class),
+            field("command", "Command", String.class),
+            timespan("roundTrip", "Round Trip"),
+            field("error", "Error", boolean.class));
+
+    public static final FlightRecorderEvent PREPROCESSING_CHUNK = new FlightRecorderEvent(
+            "com.willwinder.ugs.PreprocessingChunk", "Preprocessing Chunk",
+            "Consecutive lines of a file run through the gcode preprocessors",
+            field("firstLine", "First Line", int.class),
+            field("lastLine", "Last Line", int.class),
+            field("parallel", "Parallel", boolean.class));
+
+    public static final FlightRecorderEvent GCODE_MODEL_REBUILD = new FlightRecorderEvent(
+            "com.willwinder.ugs.GcodeModelRebuild", "Gcode Model Rebuild",
+            "The visualizer rebuilt the geometry or the colors of the gcode model",
+            field("geometry", "Geometry", boolean.class),
+            field("lineSegments", "Line Segments", int.class),
+            field("completedLine", "Completed Line", int.class));
+
+    public static final FlightRecorderEvent RENDER_FRAME = new FlightRecorderEvent(
+            "com.willwinder.ugs.RenderFrame", "Render Frame",
+            "The visualizer drew a frame",
+            field("renderables", "Renderables", int.class));
+
+    public static final FlightRecorderEvent UGS_EVENT_DISPATCH = new FlightRecorderEvent(
+            "com.willwinder.ugs.UGSEventDispatch", "UGS Event Dispatch",
+            "A UGS event was published to the listeners",
+            field("eventType", "Event Type", String.class),
+            field("listeners", "Listeners", int.class));
+
+    private FlightRecorderEvents() {
+    }
+}
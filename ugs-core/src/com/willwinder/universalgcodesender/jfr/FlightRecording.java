@@ -0,0 +1,237 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Starts and stops a bounded Java Flight Recorder recording of the events in
+ * {@link FlightRecorderEvents}, along with the default JVM events.
+ *
+ * The project still runs on Java 8 where jdk.jfr doesn't exist, so the API is
+ * only used through reflection and everything here is a no-op on a runtime
+ * without the flight recorder. Recordings started outside of UGS, like with
+ * -XX:StartFlightRecording or jcmd, also enable the events.
+ *
+ * @author agent
+ */
+public final class FlightRecording {
+    private static final Logger LOGGER = Logger.getLogger(FlightRecording.class.getName());
+
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(10);
+    public static final long DEFAULT_MAX_SIZE = 100L * 1024 * 1024;
+
+    private static final String RECORDING_NAME = "Universal Gcode Sender";
+    private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+    // Guarded by RUNNING_RECORDINGS
+    private static final Set<Long> RUNNING_RECORDINGS = new HashSet<>();
+    private static volatile boolean recording = false;
+
+    // Guarded by FlightRecording.class
+    private static Object activeRecording;
+    private static File activeDestination;
+
+    static {
+        if (AVAILABLE) {
+            addRecorderListener();
+        }
+    }
+
+    private FlightRecording() {
+    }
+
+    /**
+     * @return true if the Java runtime has the flight recorder
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Checks if events are being recorded, this is cheap enough to call
+     * before creating every event.
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * @return true if a recording has been started with {@link #start} and not stopped yet
+     */
+    public static synchronized boolean isStarted() {
+        return activeRecording != null;
+    }
+
+    /**
+     * @return the file the recording will be written to, or null if no recording is started
+     */
+    public static synchronized File getDestination() {
+        return activeDestination;
+    }
+
+    /**
+     * Creates a file name for a recording in the given directory based on the current time.
+     */
+    public static File createDestination(File directory) {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        return new File(directory, "ugs-" + timestamp + ".jfr");
+    }
+
+    /**
+     * Starts a recording which only keeps the most recent events. It is
+     * written to the destination when stopped, or when the application exits.
+     * A previously started recording is stopped first.
+     *
+     * @param destination the file to write the recording to
+     * @param maxAge      how long events are kept
+     * @param maxSize     how many bytes of events are kept
+     * @throws IOException if the flight recorder isn't available or the recording couldn't be started
+     */
+    public static synchronized void start(File destination, Duration maxAge, long maxSize) throws IOException {
+        if (!AVAILABLE) {
+            throw new IOException("Java Flight Recorder is not available in this Java runtime");
+        }
+        stop();
+
+        try {
+            Class<?> configurationClass = Class.forName("jdk.jfr.Configuration");
+            Object configuration = configurationClass.getMethod("getConfiguration", String.class).invoke(null, "default");
+            Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+            Object newRecording = recordingClass.getConstructor(configurationClass).newInstance(configuration);
+
+            recordingClass.getMethod("setName", String.class).invoke(newRecording, RECORDING_NAME);
+            recordingClass.getMethod("setMaxAge", Duration.class).invoke(newRecording, maxAge);
+            recordingClass.getMethod("setMaxSize", long.class).invoke(newRecording, maxSize);
+            recordingClass.getMethod("setToDisk", boolean.class).invoke(newRecording, true);
+            recordingClass.getMethod("setDumpOnExit", boolean.class).invoke(newRecording, true);
+            recordingClass.getMethod("setDestination", Path.class).invoke(newRecording, destination.toPath());
+            recordingClass.getMethod("start").invoke(newRecording);
+
+            activeRecording = newRecording;
+            activeDestination = destination;
+            LOGGER.log(Level.INFO, "Started flight recording to {0}", destination);
+        } catch (InvocationTargetException e) {
+            throw new IOException("Could not start the flight recording", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Could not start the flight recording", e);
+        }
+    }
+
+    /**
+     * Stops the recording started with {@link #start} and writes it to its destination.
+     *
+     * @return the file the recording was written to, or null if there was no recording
+     * @throws IOException if the recording couldn't be written
+     */
+    public static synchronized File stop() throws IOException {
+        if (activeRecording == null) {
+            return null;
+        }
+
+        Object stopped = activeRecording;
+        File destination = activeDestination;
+        activeRecording = null;
+        activeDestination = null;
+        try {
+            stopped.getClass().getMethod("stop").invoke(stopped);
+            stopped.getClass().getMethod("close").invoke(stopped);
+            LOGGER.log(Level.INFO, "Flight recording written to {0}", destination);
+            return destination;
+        } catch (InvocationTargetException e) {
+            throw new IOException("Could not write the flight recording to " + destination, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Could not write the flight recording to " + destination, e);
+        }
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class<?> flightRecorderClass = Class.forName("jdk.jfr.FlightRecorder");
+            return (Boolean) flightRecorderClass.getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Keeps track of the running recordings, including the ones started
+     * outside of UGS, without initializing the flight recorder.
+     */
+    private static void addRecorderListener() {
+        try {
+            Class<?> flightRecorderClass = Class.forName("jdk.jfr.FlightRecorder");
+            Class<?> listenerClass = Class.forName("jdk.jfr.FlightRecorderListener");
+            Object listener = Proxy.newProxyInstance(FlightRecording.class.getClassLoader(),
+                    new Class<?>[]{listenerClass}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "recorderInitialized":
+                                List<?> recordings = (List<?>) flightRecorderClass.getMethod("getRecordings").invoke(args[0]);
+                                for (Object r : recordings) {
+                                    updateRecordingState(r);
+                                }
+                                return null;
+                            case "recordingStateChanged":
+                                updateRecordingState(args[0]);
+                                return null;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return FlightRecording.class.getSimpleName() + " listener";
+                            default:
+                                return null;
+                        }
+                    });
+            flightRecorderClass.getMethod("addListener", listenerClass).invoke(null, listener);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.log(Level.WARNING, "Could not listen to the flight recorder, events will not be recorded", e);
+        }
+    }
+
+    private static void updateRecordingState(Object changed) throws ReflectiveOperationException {
+        Method getId = changed.getClass().getMethod("getId");
+        Method getState = changed.getClass().getMethod("getState");
+        long id = (Long) getId.invoke(changed);
+        boolean running = "RUNNING".equals(String.valueOf(getState.invoke(changed)));
+
+        synchronized (RUNNING_RECORDINGS) {
+            if (running) {
+                RUNNING_RECORDINGS.add(id);
+            } else {
+                RUNNING_RECORDINGS.remove(id);
+            }
+            recording = !RUNNING_RECORDINGS.isEmpty();
+        }
+    }
+}
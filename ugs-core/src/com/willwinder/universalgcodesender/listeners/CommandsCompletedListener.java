@@ -0,0 +1,47 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.listeners;
+
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.util.List;
+
+/**
+ * Receives the completed commands in batches instead of one event per line.
+ *
+ * A {@link ControllerListener} which also implements this interface gets
+ * {@link #commandsCompleted} at a bounded rate and no longer receives
+ * {@link ControllerListener#commandSent} and {@link ControllerListener#commandComplete}.
+ * {@link ControllerListener#commandComment} is only called with the latest
+ * comment, right before the batch is delivered.
+ * The batch with the last commands of a stream is delivered before
+ * {@link ControllerListener#fileStreamComplete}.
+ *
+ * @author agent
+ */
+public interface CommandsCompletedListener {
+    /**
+     * Commands have been processed by the controller.
+     *
+     * @param fromLine the command number of the first completed command in the batch
+     * @param toLine the command number of the last completed command in the batch
+     * @param errors the commands in the batch which the controller responded to with an error
+     */
+    void commandsCompleted(int fromLine, int toLine, List<GcodeCommand> errors);
+}
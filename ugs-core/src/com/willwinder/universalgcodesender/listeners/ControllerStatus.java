@@ -36,6 +36,7 @@ public class ControllerStatus {
     private final AccessoryStates accessoryStates;
     private final ControllerState state;
     private final UnitUtils.Units feedSpeedUnits;
+    private final BufferState bufferState;
 
     /**
      * Baseline constructor. This data should always be present. Represents the
@@ -56,6 +57,16 @@ public class ControllerStatus {
                             Position workCoord, Double feedSpeed, UnitUtils.Units feedSpeedUnits, Double spindleSpeed,
                             OverridePercents overrides, Position workCoordinateOffset,
                             EnabledPins pins, AccessoryStates states) {
+        this(state, machineCoord, workCoord, feedSpeed, feedSpeedUnits, spindleSpeed, overrides, workCoordinateOffset, pins, states, null);
+    }
+
+    /**
+     * Additional parameters including the buffer state of the controller
+     */
+    public ControllerStatus(ControllerState state, Position machineCoord,
+                            Position workCoord, Double feedSpeed, UnitUtils.Units feedSpeedUnits, Double spindleSpeed,
+                            OverridePercents overrides, Position workCoordinateOffset,
+                            EnabledPins pins, AccessoryStates states, BufferState bufferState) {
         this.state = state;
         this.machineCoord = machineCoord;
         this.workCoord = workCoord;
@@ -66,6 +77,7 @@ public class ControllerStatus {
         this.overrides = overrides;
         this.pins = pins;
         this.accessoryStates = states;
+        this.bufferState = bufferState;
     }
 
     public ControllerState getState() {
@@ -108,6 +120,13 @@ public class ControllerStatus {
         return feedSpeedUnits;
     }
 
+    /**
+     * @return the buffer state or null if it wasn't included in the status report
+     */
+    public BufferState getBufferState() {
+        return bufferState;
+    }
+
     public static class EnabledPins {
         final public boolean X;
         final public boolean Y;
@@ -156,4 +175,13 @@ public class ControllerStatus {
             this.spindle = spindle;
         }
     }
-}
\ No newline at end of file
+
+    public static class BufferState {
+        final public int plannerBlocksAvailable;
+        final public int rxBytesAvailable;
+        public BufferState(int plannerBlocksAvailable, int rxBytesAvailable) {
+            this.plannerBlocksAvailable = plannerBlocksAvailable;
+            this.rxBytesAvailable = rxBytesAvailable;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A value which only increases, like the number of commands sent. Updating
+ * it doesn't lock and scales with the number of threads.
+ *
+ * @author agent
+ */
+public class Counter extends Metric {
+    private final LongAdder value = new LongAdder();
+
+    public Counter(String name, String description, Unit unit) {
+        super(name, description, unit);
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long getValue() {
+        return value.sum();
+    }
+
+    @Override
+    public Type getType() {
+        return Type.COUNTER;
+    }
+
+    @Override
+    public Map<String, Long> getValues() {
+        return Collections.singletonMap("value", getValue());
+    }
+
+    @Override
+    public void reset() {
+        value.reset();
+    }
+
+    @Override
+    public String getSummary() {
+        return getUnit().format(getValue());
+    }
+}
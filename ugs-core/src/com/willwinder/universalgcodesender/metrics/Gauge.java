@@ -0,0 +1,91 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A value which goes up and down, like the depth of a queue. The largest
+ * value since the last reset is kept as well. Updating it doesn't lock.
+ *
+ * @author agent
+ */
+public class Gauge extends Metric {
+    private final AtomicLong value = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Gauge(String name, String description, Unit unit) {
+        super(name, description, unit);
+    }
+
+    public void set(long newValue) {
+        value.set(newValue);
+        updateMax(newValue);
+    }
+
+    public void add(long amount) {
+        updateMax(value.addAndGet(amount));
+    }
+
+    private void updateMax(long newValue) {
+        long current = max.get();
+        while (newValue > current && !max.compareAndSet(current, newValue)) {
+            current = max.get();
+        }
+    }
+
+    public long getValue() {
+        return value.get();
+    }
+
+    /**
+     * @return the largest value since the last reset
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public Type getType() {
+        return Type.GAUGE;
+    }
+
+    @Override
+    public Map<String, Long> getValues() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("value", getValue());
+        values.put("max", getMax());
+        return values;
+    }
+
+    /**
+     * Resets the largest value to the current one.
+     */
+    @Override
+    public void reset() {
+        max.set(value.get());
+    }
+
+    @Override
+    public String getSummary() {
+        return getUnit().format(getValue()) + " (max " + getUnit().format(getMax()) + ")";
+    }
+}
@@ -0,0 +1,228 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram with log-linear buckets in the style of HdrHistogram. Values
+ * below {@link #SUB_BUCKETS} are counted exactly, above that every power of
+ * two is split in {@link #SUB_BUCKETS} buckets so the percentiles are within
+ * about three percent of the recorded values over the whole range of a long.
+ *
+ * Recording doesn't lock or allocate, so it can be used on the streaming
+ * threads. The statistics are read without stopping the recording threads,
+ * a {@link Snapshot} taken while values are recorded may be slightly off.
+ *
+ * @author agent
+ */
+public class Histogram extends Metric {
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // The values 0 to SUB_BUCKETS - 1 and then SUB_BUCKETS buckets for each
+    // power of two up to 2^63.
+    static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram(String name, String description, Unit unit) {
+        super(name, description, unit);
+    }
+
+    /**
+     * @param value the value to record, negative values are counted as zero
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(getBucket(value));
+        count.increment();
+        total.add(value);
+
+        long current = min.get();
+        while (value < current && !min.compareAndSet(current, value)) {
+            current = min.get();
+        }
+        current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // Keep the highest SUB_BUCKET_BITS + 1 bits of the value
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return (int) (SUB_BUCKETS + shift * SUB_BUCKETS + (value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @return the smallest value counted in the bucket
+     */
+    static long getBucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return subBucket << shift;
+    }
+
+    /**
+     * @return the largest value counted in the bucket
+     */
+    static long getBucketUpperBound(int bucket) {
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return getBucketLowerBound(bucket + 1) - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return a copy of the statistics
+     */
+    public Snapshot getSnapshot() {
+        long[] counts = new long[BUCKETS];
+        long countSum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            countSum += counts[i];
+        }
+        return new Snapshot(counts, countSum, total.sum(), min.get(), max.get());
+    }
+
+    @Override
+    public Type getType() {
+        return Type.HISTOGRAM;
+    }
+
+    @Override
+    public Map<String, Long> getValues() {
+        Snapshot snapshot = getSnapshot();
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("count", snapshot.getCount());
+        values.put("min", snapshot.getMin());
+        values.put("mean", snapshot.getMean());
+        values.put("p50", snapshot.getPercentile(50));
+        values.put("p90", snapshot.getPercentile(90));
+        values.put("p99", snapshot.getPercentile(99));
+        values.put("p999", snapshot.getPercentile(99.9));
+        values.put("max", snapshot.getMax());
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+
+    @Override
+    public String getSummary() {
+        Snapshot snapshot = getSnapshot();
+        Unit unit = getUnit();
+        return String.format("count=%d, mean=%s, p50=%s, p99=%s, max=%s", snapshot.getCount(),
+                unit.format(snapshot.getMean()), unit.format(snapshot.getPercentile(50)),
+                unit.format(snapshot.getPercentile(99)), unit.format(snapshot.getMax()));
+    }
+
+    /**
+     * The statistics of a histogram at one point in time.
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long min;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long total, long min, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the smallest value or zero if nothing has been recorded
+         */
+        public long getMin() {
+            return count == 0 ? 0 : min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @return the mean value or zero if nothing has been recorded
+         */
+        public long getMean() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        /**
+         * Returns the largest value which is counted in the same bucket as
+         * the given percentile, but never more than the largest value.
+         *
+         * @param percentile the percentile between 0 and 100
+         * @return the value or zero if nothing has been recorded
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(count * Math.max(0, Math.min(100, percentile)) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.max(getMin(), Math.min(getBucketUpperBound(i), max));
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.Map;
+
+/**
+ * A named value in the {@link MetricsRegistry}.
+ *
+ * @author agent
+ */
+public abstract class Metric {
+    public enum Type {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    /**
+     * The unit of the recorded values, used when they are displayed.
+     */
+    public enum Unit {
+        NONE(""), BYTES(" B"), NANOSECONDS(" ms"), PER_SECOND("/s");
+
+        private final String suffix;
+
+        Unit(String suffix) {
+            this.suffix = suffix;
+        }
+
+        /**
+         * @return the value formatted for display, nanoseconds are shown as milliseconds
+         */
+        public String format(long value) {
+            if (this == NANOSECONDS) {
+                return String.format("%.3f%s", value / 1000000.0, suffix);
+            }
+            return value + suffix;
+        }
+    }
+
+    private final String name;
+    private final String description;
+    private final Unit unit;
+
+    protected Metric(String name, String description, Unit unit) {
+        this.name = name;
+        this.description = description;
+        this.unit = unit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    public abstract Type getType();
+
+    /**
+     * @return the current values of the metric by name, for exporting it
+     */
+    public abstract Map<String, Long> getValues();
+
+    /**
+     * Resets the metric to its initial state.
+     */
+    public abstract void reset();
+
+    /**
+     * @return the current value formatted for display
+     */
+    public abstract String getSummary();
+
+    @Override
+    public String toString() {
+        return name + ": " + getSummary();
+    }
+}
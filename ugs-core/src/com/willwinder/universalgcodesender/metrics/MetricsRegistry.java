@@ -0,0 +1,88 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Keeps the metrics of the application by name. The metrics are usually
+ * created once and kept in a static field by the class updating them:
+ * <pre>
+ *     private static final Counter COMMANDS_SENT = MetricsRegistry.getDefault()
+ *             .counter("communicator.commands.sent", "Commands written to the controller", Metric.Unit.NONE);
+ * </pre>
+ * Asking for a metric which already exists returns the same instance, so
+ * several instances of a class share their metrics.
+ *
+ * @author agent
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentSkipListMap<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return the registry with the metrics of the application
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name, String description, Metric.Unit unit) {
+        return register(name, Counter.class, n -> new Counter(n, description, unit));
+    }
+
+    public Gauge gauge(String name, String description, Metric.Unit unit) {
+        return register(name, Gauge.class, n -> new Gauge(n, description, unit));
+    }
+
+    public Histogram histogram(String name, String description, Metric.Unit unit) {
+        return register(name, Histogram.class, n -> new Histogram(n, description, unit));
+    }
+
+    private <T extends Metric> T register(String name, Class<T> type, Function<String, T> factory) {
+        Metric metric = metrics.computeIfAbsent(name, factory);
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("The metric " + name + " is a " + metric.getType());
+        }
+        return type.cast(metric);
+    }
+
+    public Optional<Metric> getMetric(String name) {
+        return Optional.ofNullable(metrics.get(name));
+    }
+
+    /**
+     * @return the metrics sorted by name
+     */
+    public List<Metric> getMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    /**
+     * Resets all metrics, they stay registered.
+     */
+    public void reset() {
+        metrics.values().forEach(Metric::reset);
+    }
+}
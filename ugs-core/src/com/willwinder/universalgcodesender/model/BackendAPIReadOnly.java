@@ -22,9 +22,11 @@ import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.listeners.MessageListener;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStateListener;
+import com.willwinder.universalgcodesender.utils.EventBus;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.model.UGSEvent.ControlState;
 import java.io.File;
+import java.util.List;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 
 /**
@@ -42,6 +44,14 @@ public interface BackendAPIReadOnly {
      */
     void addUGSEventListener(UGSEventListener listener);
 
+    /**
+     * Adds a UGSEvent listener which is notified from a thread of its own,
+     * so that it doesn't delay the controller or the other listeners.
+     *
+     * @param listener the listener to be added
+     */
+    void addAsyncUGSEventListener(UGSEventListener listener);
+
     /**
      * Removes a UGSEvent listener
      *
@@ -54,6 +64,14 @@ public interface BackendAPIReadOnly {
      */
     void addControllerStateListener(ControllerStateListener listener);
 
+    /**
+     * Adds a controller state listener which is notified from a thread of its
+     * own. Status events it hasn't received yet are replaced with the latest.
+     *
+     * @param listener the listener to be added
+     */
+    void addAsyncControllerStateListener(ControllerStateListener listener);
+
     /**
      * Removes a controller state listener
      *
@@ -66,6 +84,14 @@ public interface BackendAPIReadOnly {
      */
     void addControllerListener(ControllerListener listener);
 
+    /**
+     * Adds a controller listener which is notified from a thread of its own.
+     * Status reports it hasn't received yet are replaced with the latest.
+     *
+     * @param listener the listener to be added
+     */
+    void addAsyncControllerListener(ControllerListener listener);
+
     /**
      * Removes a controller listener
      *
@@ -87,6 +113,12 @@ public interface BackendAPIReadOnly {
      */
     void removeMessageListener(MessageListener listener);
 
+    /**
+     * @return the listeners of the backend and the controller with their
+     *         event delivery statistics, like how far behind they are
+     */
+    List<EventBus.Subscription<?>> getListenerSubscriptions();
+
     // Config options
     File getGcodeFile();
     File getProcessedGcodeFile();
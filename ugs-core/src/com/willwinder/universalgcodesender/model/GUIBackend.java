@@ -20,7 +20,9 @@ package com.willwinder.universalgcodesender.model;
 
 import com.google.common.io.Files;
 import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
+import com.willwinder.universalgcodesender.connection.SimulatorConnection;
 import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
@@ -28,8 +30,15 @@ import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.gcode.GcodeStats;
 import com.willwinder.universalgcodesender.gcode.processors.*;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.gcode.util.ParallelGcodePreprocessor;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.jfr.FlightRecording;
 import com.willwinder.universalgcodesender.listeners.*;
+import com.willwinder.universalgcodesender.metrics.Counter;
+import com.willwinder.universalgcodesender.metrics.Gauge;
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
 import com.willwinder.universalgcodesender.model.UGSEvent.ControlState;
 import com.willwinder.universalgcodesender.model.UGSEvent.EventType;
 import com.willwinder.universalgcodesender.model.UGSEvent.FileState;
@@ -46,14 +55,19 @@ import javax.script.ScriptException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvents.UGS_EVENT_DISPATCH;
+
 /**
  *
  * @author wwinder
@@ -62,6 +76,13 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
     private static final Logger logger = Logger.getLogger(GUIBackend.class.getName());
     private static final String NEW_LINE = "\n    ";
 
+    private static final Counter PREPROCESSED_LINES = MetricsRegistry.getDefault()
+            .counter("preprocessing.lines", "Lines written by the preprocessors", Metric.Unit.NONE);
+    private static final Histogram PREPROCESSING_TIME = MetricsRegistry.getDefault()
+            .histogram("preprocessing.time", "Time to preprocess each file", Metric.Unit.NANOSECONDS);
+    private static final Gauge PREPROCESSING_RATE = MetricsRegistry.getDefault()
+            .gauge("preprocessing.rate", "Lines per second when the last file was preprocessed", Metric.Unit.PER_SECOND);
+
     private final MessageService messageService = new MessageService();
 
     private IController controller = null;
@@ -69,51 +90,74 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
     private Position machineCoord = null;
     private Position workCoord = null;
 
+    private static final String CONTROLLER_STATUS_EVENT = "controllerStatus";
+
     private final Collection<ControllerListener> controllerListeners = new ArrayList<>();
-    private final Collection<UGSEventListener> ugsEventListener = new ArrayList<>();
-    private final Collection<ControllerStateListener> controllerStateListener = new ArrayList<>();
+    private final Set<ControllerListener> asyncControllerListeners = new HashSet<>();
+    private final EventBus<UGSEventListener> ugsEventListener = new EventBus<>("UGSEvent");
+    private final EventBus<ControllerStateListener> controllerStateListener = new EventBus<>("ControllerState");
 
     // GUI State
     private File gcodeFile = null;
     private File processedGcodeFile = null;
     private File tempDir = null;
+    private ProcessedGcodeCache processedGcodeCache = null;
     private String firmware = null;
 
     private long lastResponse = Long.MIN_VALUE;
     private boolean streamFailed = false;
     private boolean autoconnect = false;
+
+    // The flight recording started by the settings, if any
+    private File flightRecordingDestination = null;
     
     private GcodeParser gcp = new GcodeParser();
 
     @Override
     public void addUGSEventListener(UGSEventListener listener) {
-        if (!ugsEventListener.contains(listener)) {
+        if (!ugsEventListener.isSubscribed(listener)) {
             logger.log(Level.INFO, "Adding UGSEvent listener: " + listener.getClass().getSimpleName());
-            ugsEventListener.add(listener);
+            ugsEventListener.subscribe(listener);
+        }
+    }
+
+    @Override
+    public void addAsyncUGSEventListener(UGSEventListener listener) {
+        if (!ugsEventListener.isSubscribed(listener)) {
+            logger.log(Level.INFO, "Adding asynchronous UGSEvent listener: " + listener.getClass().getSimpleName());
+            ugsEventListener.subscribeAsync(listener);
         }
     }
 
     @Override
     public void removeUGSEventListener(UGSEventListener listener) {
-        if (ugsEventListener.contains(listener)) {
+        if (ugsEventListener.isSubscribed(listener)) {
             logger.log(Level.INFO, "Removing UGSEvent listener: " + listener.getClass().getSimpleName());
-            ugsEventListener.remove(listener);
+            ugsEventListener.unsubscribe(listener);
         }
     }
 
     @Override
     public void addControllerStateListener(ControllerStateListener listener) {
-        if (!controllerStateListener.contains(listener)) {
+        if (!controllerStateListener.isSubscribed(listener)) {
             logger.log(Level.INFO, "Adding controller state listener: " + listener.getClass().getSimpleName());
-            controllerStateListener.add(listener);
+            controllerStateListener.subscribe(listener);
+        }
+    }
+
+    @Override
+    public void addAsyncControllerStateListener(ControllerStateListener listener) {
+        if (!controllerStateListener.isSubscribed(listener)) {
+            logger.log(Level.INFO, "Adding asynchronous controller state listener: " + listener.getClass().getSimpleName());
+            controllerStateListener.subscribeAsync(listener);
         }
     }
 
     @Override
     public void removeControllerStateListener(ControllerStateListener listener) {
-        if (controllerStateListener.contains(listener)) {
+        if (controllerStateListener.isSubscribed(listener)) {
             logger.log(Level.INFO, "Removing controller state listener: " + listener.getClass().getSimpleName());
-            controllerStateListener.remove(listener);
+            controllerStateListener.unsubscribe(listener);
         }
     }
 
@@ -129,11 +173,25 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         }
     }
 
+    @Override
+    public void addAsyncControllerListener(ControllerListener listener) {
+        if (!controllerListeners.contains(listener)) {
+            logger.log(Level.INFO, "Adding asynchronous controller listener: " + listener.getClass().getSimpleName());
+            controllerListeners.add(listener);
+            asyncControllerListeners.add(listener);
+        }
+
+        if (this.controller != null) {
+            this.controller.addAsyncListener(listener);
+        }
+    }
+
     @Override
     public void removeControllerListener(ControllerListener listener) {
         if (controllerListeners.contains(listener)) {
             logger.log(Level.INFO, "Removing controller state listener: " + listener.getClass().getSimpleName());
             controllerListeners.remove(listener);
+            asyncControllerListeners.remove(listener);
         }
 
         if (this.controller != null) {
@@ -151,6 +209,17 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         this.messageService.removeListener(listener);
     }
 
+    @Override
+    public List<EventBus.Subscription<?>> getListenerSubscriptions() {
+        List<EventBus.Subscription<?>> subscriptions = new ArrayList<>();
+        if (this.controller != null) {
+            subscriptions.addAll(this.controller.getListenerSubscriptions());
+        }
+        subscriptions.addAll(ugsEventListener.getSubscriptions());
+        subscriptions.addAll(controllerStateListener.getSubscriptions());
+        return subscriptions;
+    }
+
     /////////////
     // GUI API //
     /////////////
@@ -176,16 +245,23 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
     private void initGcodeParser() {
         // Configure gcode parser.
         gcp.resetCommandProcessors();
+        createCommandProcessors().forEach(gcp::addCommandProcessor);
+    }
 
+    /**
+     * Creates a new instance of the command processors for the current firmware.
+     */
+    private List<CommandProcessor> createCommandProcessors() {
         try {
-            List<CommandProcessor> processors = FirmwareUtils.getParserFor(firmware, settings).orElse(null);
-            for (CommandProcessor p : processors) {
-                gcp.addCommandProcessor(p);
+            Optional<List<CommandProcessor>> processors = FirmwareUtils.getParserFor(firmware, settings);
+            if (processors.isPresent()) {
+                return processors.get();
             }
         }
         catch (Exception e) {
-            initializeWithFallbackProcessors(gcp);
+            logger.log(Level.FINE, "Using fallback processors for firmware: " + firmware);
         }
+        return createFallbackProcessors();
     }
 
     private void updateWithFirmware(String firmware) throws Exception {
@@ -210,13 +286,27 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         logger.log(Level.INFO, "Connecting to {0} on port {1}", new Object[]{firmware, port});
         updateWithFirmware(firmware);
 
+        IController previousController = this.controller;
         this.controller = fetchControllerFromFirmware(firmware);
         this.controller.setMessageService(messageService);
         applySettings(settings);
+        this.controller.setRxBufferSizeOverride(settings.getRxBufferSizeOverride(port));
+
+        // Simulate the limits of the last connected machine
+        if (settings.getConnectionDriver() == ConnectionDriver.SIMULATOR && previousController != null) {
+            SimulatorConnection simulatorConnection = new SimulatorConnection();
+            simulatorConnection.setUri(ConnectionDriver.SIMULATOR.getProtocol() + port + ":" + baudRate);
+            simulatorConnection.setFirmwareSettings(previousController.getFirmwareSettings());
+            this.controller.getCommunicator().setConnection(simulatorConnection);
+        }
 
         this.controller.addListener(this);
         for (ControllerListener l : controllerListeners) {
-            this.controller.addListener(l);
+            if (asyncControllerListeners.contains(l)) {
+                this.controller.addAsyncListener(l);
+            } else {
+                this.controller.addListener(l);
+            }
         }
 
         this.controller.getFirmwareSettings().addListener(this);
@@ -252,6 +342,11 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         if (this.controller != null) {
             this.controller.closeCommPort();
             this.controller.removeListener(this);
+
+            // Stops the threads of the asynchronous listeners
+            for (ControllerListener l : asyncControllerListeners) {
+                this.controller.removeListener(l);
+            }
             this.controller.getFirmwareSettings().removeListener(this);
             this.controller = null;
             this.sendUGSEvent(new UGSEvent(ControlState.COMM_DISCONNECTED), false);
@@ -299,6 +394,10 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         logger.log(Level.INFO, "Applying settings.");
         this.settings = settings;
         this.settings.setSettingChangeListener(this);
+        if (this.settings.isFlightRecordingEnabled() && !FlightRecording.isAvailable()) {
+            logger.log(Level.WARNING, "Flight recording is enabled but the flight recorder isn't available in this Java runtime.");
+        }
+        updateFlightRecording();
         if (this.controller != null) {
             applySettingsToController(this.settings, this.controller);
         }
@@ -311,14 +410,15 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
     /**
      * This allows us to visualize a file without loading a controller profile.
      */
-    private static void initializeWithFallbackProcessors(GcodeParser parser) {
+    private static List<CommandProcessor> createFallbackProcessors() {
         // Comment processor must come first otherwise we try to parse codes
         // out of the comments, like an f-code when we see "(feed rate is 100)"
-        parser.addCommandProcessor(new CommentProcessor());
-        parser.addCommandProcessor(new WhitespaceProcessor());
-        parser.addCommandProcessor(new M30Processor());
-        parser.addCommandProcessor(new DecimalProcessor(4));
-        parser.addCommandProcessor(new CommandLengthProcessor(50));
+        return Arrays.asList(
+                new CommentProcessor(),
+                new WhitespaceProcessor(),
+                new M30Processor(),
+                new DecimalProcessor(4),
+                new CommandLengthProcessor(50));
     }
 
     @Override
@@ -413,6 +513,14 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         return tempDir;
     }
 
+    private ProcessedGcodeCache getProcessedGcodeCache() {
+        if (processedGcodeCache == null) {
+            File cacheDir = new File(SettingsFactory.getSettingsDirectory(), "processed_gcode_cache");
+            processedGcodeCache = new ProcessedGcodeCache(cacheDir, ProcessedGcodeCache.DEFAULT_MAX_SIZE);
+        }
+        return processedGcodeCache;
+    }
+
     @Override
     public void setGcodeFile(File file) throws Exception {
         logger.log(Level.INFO, "Setting gcode file.");
@@ -501,13 +609,20 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
         // Note: there is a divide by zero error in the timer because it uses
         //       the rowsValueLabel that was just reset.
 
+        GcodeStreamReader stream = null;
         try {
             // This will throw an exception and prevent that other stuff from
             // happening (clearing the table before its ready for clearing.
             this.controller.isReadyToStreamFile();
-            this.controller.queueStream(new GcodeStreamReader(this.processedGcodeFile));
+
+            // The communicator closes the stream when it has been sent
+            stream = new GcodeStreamReader(this.processedGcodeFile);
+            this.controller.queueStream(stream);
             this.controller.beginStreaming();
         } catch (Exception e) {
+            if (stream != null) {
+                stream.close();
+            }
             this.sendUGSEvent(new UGSEvent(ControlState.COMM_IDLE), false);
             throw new Exception(Localization.getString("mainWindow.error.startingStream"), e);
         }
@@ -742,6 +857,7 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
             controller.setSingleStepMode(settings.isSingleStepMode());
             controller.setStatusUpdatesEnabled(settings.isStatusUpdatesEnabled());
             controller.setStatusUpdateRate(settings.getStatusUpdateRate());
+            controller.setPlannerAwareStreaming(settings.isPlannerAwareStreaming());
         } catch (Exception ex) {
             StringBuilder message = new StringBuilder()
                     .append(Localization.getString("mainWindow.error.firmwareSetting"))
@@ -822,27 +938,89 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
                 String name = startFile.getName();
 
                 // If this is being re-processed, strip the ugs postfix and try again.
-                Pattern word = Pattern.compile("(.*)_ugs_[\\d]+$");
+                Pattern word = Pattern.compile("(.*)_ugs_[\\da-f]+$");
                 Matcher match = word.matcher(name);
                 if (match.matches()) {
                     name = match.group(1);
                 }
-                this.processedGcodeFile =
-                        new File(this.getTempDir(), name + "_ugs_" + System.currentTimeMillis());
-                try (IGcodeWriter gcw = new GcodeStreamWriter(this.processedGcodeFile)) {
-                    this.preprocessAndExportToFile(gcodeParser, startFile, gcw);
-                }
 
-                // Store gcode file stats.
-                GcodeStats gs = gcp.getCurrentStats();
-                this.settings.setFileStats(new FileStats(
-                    gs.getMin(), gs.getMax(), gs.getCommandCount()));
+                // Reuse the result if the file has been processed with the same processors before.
+                Optional<String> key = ProcessedGcodeCache.createKey(startFile, createCommandProcessors());
+                if (key.isPresent() && loadProcessedFileFromCache(name, key.get())) {
+                    logger.log(Level.INFO, "Using previously processed file {0}", this.processedGcodeFile);
+                } else if (key.isPresent()) {
+                    File output = getProcessedGcodeCache().createTempFile(name);
+                    try {
+                        processFile(startFile, gcodeParser, output);
+                        this.processedGcodeFile = getProcessedGcodeCache().put(name, key.get(), output);
+                    } finally {
+                        java.nio.file.Files.deleteIfExists(output.toPath());
+                    }
+                } else {
+                    this.processedGcodeFile =
+                            new File(this.getTempDir(), name + "_ugs_" + System.currentTimeMillis());
+                    processFile(startFile, gcodeParser, this.processedGcodeFile);
+                }
             }
             long end = System.currentTimeMillis();
             logger.info("Took " + (end - start) + "ms to preprocess");
         }
     }
     
+    /**
+     * Processes the start file into a GcodeStream file and stores its stats.
+     */
+    private void processFile(File startFile, GcodeParser gcodeParser, File output) throws Exception {
+        long start = System.nanoTime();
+        GcodeStats gs;
+        try (BinaryGcodeStreamWriter gcw = new BinaryGcodeStreamWriter(output)) {
+            // Large files are split into chunks which are preprocessed in parallel.
+            logger.log(Level.INFO, "Preprocessing {0} to {1}", new Object[]{startFile.getCanonicalPath(), gcw.getCanonicalPath()});
+            new ParallelGcodePreprocessor(this::createCommandProcessors)
+                    .processAndExport(gcodeParser, startFile, gcw);
+
+            // The stats are stored with the processed file so that it can be reopened without parsing it.
+            gs = gcp.getCurrentStats();
+            gcw.setStats(gs);
+        }
+
+        long time = System.nanoTime() - start;
+        PREPROCESSED_LINES.add(gs.getCommandCount());
+        PREPROCESSING_TIME.record(time);
+        PREPROCESSING_RATE.set(gs.getCommandCount() * TimeUnit.SECONDS.toNanos(1) / Math.max(1, time));
+
+        // Store gcode file stats.
+        this.settings.setFileStats(new FileStats(
+            gs.getMin(), gs.getMax(), gs.getCommandCount()));
+    }
+
+    /**
+     * Uses a file from the processed gcode cache if there is one, the stats
+     * are read from the file.
+     * @return true if the cached file is used.
+     */
+    private boolean loadProcessedFileFromCache(String name, String key) {
+        Optional<File> cached = getProcessedGcodeCache().get(name, key);
+        if (!cached.isPresent()) {
+            return false;
+        }
+
+        try (GcodeStreamReader reader = new GcodeStreamReader(cached.get())) {
+            GcodeStats gs = reader.getStats();
+            if (gs == null) {
+                return false;
+            }
+
+            this.processedGcodeFile = cached.get();
+            this.settings.setFileStats(new FileStats(
+                gs.getMin(), gs.getMax(), gs.getCommandCount()));
+            return true;
+        } catch (IOException | GcodeStreamReader.NotGcodeStreamFile e) {
+            logger.log(Level.WARNING, "Could not use the previously processed file " + cached.get(), e);
+            return false;
+        }
+    }
+
     private void sendUGSEvent(UGSEvent event, boolean force) {
         if (event.isControllerStatusEvent()) return;
 
@@ -853,14 +1031,43 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
             }
         }
 
-        ugsEventListener.forEach(l -> l.UGSEvent(event));
+        publishUGSEvent(ugsEventListener, null, event, l -> l.UGSEvent(event));
     }
 
     private void sendControllerStateEvent(UGSEvent event) {
         if (!event.isControllerStatusEvent()) return;
 
-        for (ControllerStateListener l : controllerStateListener) {
-            l.UGSEvent(event);
+        publishUGSEvent(controllerStateListener, CONTROLLER_STATUS_EVENT, event, l -> l.UGSEvent(event));
+    }
+
+    private static <L> void publishUGSEvent(EventBus<L> bus, Object key, UGSEvent event, Consumer<L> dispatch) {
+        Object dispatchEvent = UGS_EVENT_DISPATCH.begin();
+        bus.publish(key, dispatch);
+        if (dispatchEvent != null) {
+            UGS_EVENT_DISPATCH.commit(dispatchEvent, event.getEventType().name(), bus.getSubscriptions().size());
+        }
+    }
+
+    /**
+     * Starts or stops the flight recording when the setting is changed. A
+     * recording which was started some other way, like from the command
+     * line, is left alone.
+     */
+    private void updateFlightRecording() {
+        boolean enabled = settings != null && settings.isFlightRecordingEnabled();
+        try {
+            if (enabled && !FlightRecording.isStarted() && FlightRecording.isAvailable()) {
+                File destination = FlightRecording.createDestination(SettingsFactory.getSettingsDirectory());
+                FlightRecording.start(destination, FlightRecording.DEFAULT_MAX_AGE, FlightRecording.DEFAULT_MAX_SIZE);
+                flightRecordingDestination = destination;
+            } else if (!enabled && flightRecordingDestination != null) {
+                if (flightRecordingDestination.equals(FlightRecording.getDestination())) {
+                    FlightRecording.stop();
+                }
+                flightRecordingDestination = null;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not update the flight recording", e);
         }
     }
 
@@ -871,6 +1078,7 @@ public class GUIBackend implements BackendAPI, ControllerListener, SettingChange
 
     @Override
     public void settingChanged() {
+        updateFlightRecording();
         this.sendUGSEvent(new UGSEvent(EventType.SETTING_EVENT), false);
     }
 
@@ -51,6 +51,7 @@ public class GcodeCommand {
     private String comment;
     private boolean isTemporaryParserModalChange = false;
     private Integer id = ID_GENERATOR.getAndIncrement();
+    private long sentTime = 0;
 
     public GcodeCommand(String command) {
         this(command, -1);
@@ -98,6 +99,20 @@ public class GcodeCommand {
     public void setSkipped(Boolean skipped) {
         this.isSkipped = skipped;
     }
+
+    /**
+     * @param sentTime the time the command was sent from {@link System#nanoTime()}
+     */
+    public void setSentTime(long sentTime) {
+        this.sentTime = sentTime;
+    }
+
+    /**
+     * @return the time the command was sent from {@link System#nanoTime()} or zero if it hasn't been sent
+     */
+    public long getSentTime() {
+        return sentTime;
+    }
     
     /** Getters. */
     @Override
@@ -0,0 +1,147 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.uielements.components;
+
+import com.willwinder.universalgcodesender.utils.LineRingBuffer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects console lines from any thread and writes them to a document on
+ * the event dispatch thread.
+ *
+ * Lines are appended to a {@link LineRingBuffer} without locking. The first
+ * line after a flush schedules the next one, which writes all waiting lines
+ * to the document in a single insert. Flushes are at least
+ * {@link #FLUSH_INTERVAL} milliseconds apart, so the event dispatch thread
+ * isn't busy with the console when lines arrive faster than they can be shown.
+ *
+ * @author agent
+ */
+public class ConsoleModel {
+    private static final Logger LOGGER = Logger.getLogger(ConsoleModel.class.getName());
+
+    /**
+     * The shortest time between two flushes in milliseconds, about the refresh rate of a display.
+     */
+    public static final int FLUSH_INTERVAL = 1000 / 60;
+
+    /**
+     * The default number of lines which may be waiting for a flush.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Document document;
+    private final LineRingBuffer buffer;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer timer;
+
+    // Only used on the event dispatch thread
+    private final StringBuilder text = new StringBuilder();
+    private long lastFlush = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL);
+    private Runnable flushListener;
+
+    /**
+     * @param document the document to write the lines to, usually a {@link LengthLimitedDocument}
+     */
+    public ConsoleModel(Document document) {
+        this(document, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param document the document to write the lines to, usually a {@link LengthLimitedDocument}
+     * @param capacity the number of lines which may be waiting for a flush before the oldest are dropped
+     */
+    public ConsoleModel(Document document, int capacity) {
+        this.document = document;
+        this.buffer = new LineRingBuffer(capacity);
+        this.timer = new Timer(FLUSH_INTERVAL, e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Sets a listener which is called on the event dispatch thread after
+     * lines have been written to the document, for instance to scroll to
+     * the end.
+     */
+    public void setFlushListener(Runnable flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    /**
+     * Appends a line to the console. May be called from any thread.
+     */
+    public void append(String line) {
+        buffer.append(line);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::scheduleFlush);
+        }
+    }
+
+    /**
+     * Writes the waiting lines to the document. Must be called on the event
+     * dispatch thread.
+     */
+    public void flush() {
+        // Cleared first so that lines appended while flushing schedule another flush
+        flushScheduled.set(false);
+        timer.stop();
+        lastFlush = System.nanoTime();
+
+        if (buffer.drainTo(text) == 0) {
+            return;
+        }
+
+        try {
+            document.insertString(document.getLength(), text.toString(), null);
+        } catch (BadLocationException e) {
+            LOGGER.log(Level.WARNING, "Couldn't write to the console", e);
+        } finally {
+            text.setLength(0);
+        }
+
+        if (flushListener != null) {
+            flushListener.run();
+        }
+    }
+
+    /**
+     * @return the number of lines which were dropped because the console couldn't keep up
+     */
+    public long getDroppedLines() {
+        return buffer.getOverwritten();
+    }
+
+    private void scheduleFlush() {
+        long wait = TimeUnit.NANOSECONDS.toMillis(lastFlush - System.nanoTime()) + FLUSH_INTERVAL;
+        if (wait <= 0) {
+            flush();
+        } else {
+            timer.setInitialDelay((int) wait);
+            timer.restart();
+        }
+    }
+}
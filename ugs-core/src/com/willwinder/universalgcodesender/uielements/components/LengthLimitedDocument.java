@@ -20,6 +20,7 @@ package com.willwinder.universalgcodesender.uielements.components;
 
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
 import javax.swing.text.PlainDocument;
 
 /**
@@ -36,30 +37,12 @@ public class LengthLimitedDocument extends PlainDocument {
     }
 
     private void truncateDataFor(int insertLength) throws BadLocationException {
-        // Truncate when we get past 80% full.
-        if ((getLength() + insertLength) > limit) {
-            int idx = -1;
-
-            // Look for the smallest amount to remove...
-            int offset = -100;
-
-            // TODO: If this is too expensive, remove larger batches.
-            // Remove 25% of that 80% full
-            //int offset = len-(int)Math.ceil(limit*.6)-100;
-
-            // Find newline to make new text fit
-            while ((offset + idx + 1) < insertLength) {
-                offset += 100;
-                String line = this.getText(offset, offset+100);
-                idx = line.indexOf('\n');
-            }
-
-            // If no newline is found, remove the first 25%
-            if (idx > 0) {
-                this.remove(0, offset + idx + 1);
-            } else {
-                this.remove(0, (int)(limit*0.25));
-            }
+        int excess = getLength() + insertLength - limit;
+        if (excess > 0) {
+            // Remove whole lines, up to the end of the line with the last character that has to go.
+            Element root = getDefaultRootElement();
+            Element line = root.getElement(root.getElementIndex(excess - 1));
+            this.remove(0, Math.min(line.getEndOffset(), getLength()));
         }
     }
     
@@ -71,6 +54,12 @@ public class LengthLimitedDocument extends PlainDocument {
     public void insertString(int offs, String str, AttributeSet a) throws BadLocationException {
         if (str == null) return;
 
+        // Only the last lines of a string longer than the limit are kept.
+        if (str.length() > limit) {
+            int newline = str.indexOf('\n', str.length() - limit - 1);
+            str = str.substring(newline < 0 ? str.length() - limit : newline + 1);
+        }
+
         // Make sure the string will fit, then append it.
         truncateDataFor(str.length());
         super.insertString(getLength(), str, a);
@@ -25,6 +25,7 @@ import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.uielements.components.CommandTextArea;
+import com.willwinder.universalgcodesender.uielements.components.ConsoleModel;
 import com.willwinder.universalgcodesender.uielements.components.LengthLimitedDocument;
 import com.willwinder.universalgcodesender.utils.SwingHelpers;
 import net.miginfocom.swing.MigLayout;
@@ -50,6 +51,7 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
 
     private final JScrollPane scrollPane = new JScrollPane();
     private final JTextArea consoleTextArea = new JTextArea();
+    private final ConsoleModel console;
     private final CommandTextArea commandTextField;
     private final JLabel commandLabel = new JLabel(Localization.getString("mainWindow.swing.commandLabel"));
 
@@ -59,6 +61,8 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
     private final JCheckBoxMenuItem scrollWindowMenuItem = new JCheckBoxMenuItem(
             Localization.getString("mainWindow.swing.scrollWindowCheckBox"));
 
+    // Read by the threads writing messages
+    private volatile boolean showVerbose = false;
 
     /**
      * No-Arg constructor to make this control work in the UI builder tools
@@ -77,6 +81,9 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
             backend.addMessageListener(this);
         }
         commandTextField = new CommandTextArea(backend);
+        consoleTextArea.setDocument(new LengthLimitedDocument(CONSOLE_SIZE));
+        console = new ConsoleModel(consoleTextArea.getDocument());
+        console.setFlushListener(this::scrollToEnd);
         initComponents();
         loadSettings();
     }
@@ -85,7 +92,6 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
     private void initComponents() {
         consoleTextArea.setEditable(false);
         consoleTextArea.setColumns(20);
-        consoleTextArea.setDocument(new LengthLimitedDocument(CONSOLE_SIZE));
         consoleTextArea.setRows(5);
         consoleTextArea.setMaximumSize(new java.awt.Dimension(32767, 32767));
         consoleTextArea.setMinimumSize(new java.awt.Dimension(0, 0));
@@ -99,7 +105,10 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
         add(commandLabel, "gapleft 5, al left, split 2");
         add(commandTextField, "gapright 5, r, grow");
 
-        showVerboseMenuItem.addChangeListener((e) ->backend.getSettings().setVerboseOutputEnabled(showVerboseMenuItem.isSelected()));
+        showVerboseMenuItem.addChangeListener((e) -> {
+            showVerbose = showVerboseMenuItem.isSelected();
+            backend.getSettings().setVerboseOutputEnabled(showVerbose);
+        });
         menu.add(showVerboseMenuItem);
 
         scrollWindowMenuItem.addChangeListener((e) -> backend.getSettings().setScrollWindowEnabled(scrollWindowMenuItem.isSelected()));
@@ -121,27 +130,25 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
     /**
      * When new messages are created this method will be called.
      * It will decide using the {@code messageType} if the message should be written to the console.
+     * The message is written to the console on the next flush of the console model.
      *
      * @param messageType the type of message to be written
      * @param message     the message to be written to the console
      */
     @Override
     public void onMessage(MessageType messageType, String message) {
-        java.awt.EventQueue.invokeLater(() -> {
-            boolean verbose = MessageType.VERBOSE.equals(messageType);
-            if (messageType.equals(MessageType.ERROR)) {
-                consoleTextArea.append("[" +  messageType.getLocalizedString() + "] " + message);
-            } else if (!verbose || showVerboseMenuItem.isSelected()) {
-                if (verbose) {
-                    consoleTextArea.append("[" + messageType.getLocalizedString() + "] ");
-                }
-                consoleTextArea.append(message);
-
-                if (consoleTextArea.isVisible() && scrollWindowMenuItem.isSelected()) {
-                    consoleTextArea.setCaretPosition(consoleTextArea.getDocument().getLength());
-                }
-            }
-        });
+        boolean verbose = MessageType.VERBOSE.equals(messageType);
+        if (messageType.equals(MessageType.ERROR) || (verbose && showVerbose)) {
+            console.append("[" + messageType.getLocalizedString() + "] " + message);
+        } else if (!verbose) {
+            console.append(message);
+        }
+    }
+
+    private void scrollToEnd() {
+        if (consoleTextArea.isVisible() && scrollWindowMenuItem.isSelected()) {
+            consoleTextArea.setCaretPosition(consoleTextArea.getDocument().getLength());
+        }
     }
 
     private void checkScrollWindow() {
@@ -158,6 +165,7 @@ public class CommandPanel extends JPanel implements UGSEventListener, MessageLis
     public void loadSettings() {
         scrollWindowMenuItem.setSelected(backend.getSettings().isScrollWindowEnabled());
         showVerboseMenuItem.setSelected(backend.getSettings().isVerboseOutputEnabled());
+        showVerbose = showVerboseMenuItem.isSelected();
         checkScrollWindow();
     }
 
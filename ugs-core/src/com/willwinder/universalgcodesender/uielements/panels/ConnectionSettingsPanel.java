@@ -22,6 +22,7 @@ import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.i18n.AvailableLanguages;
 import com.willwinder.universalgcodesender.i18n.Language;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.jfr.FlightRecording;
 import com.willwinder.universalgcodesender.uielements.IChanged;
 import com.willwinder.universalgcodesender.uielements.helpers.AbstractUGSSettings;
 import com.willwinder.universalgcodesender.utils.Settings;
@@ -50,6 +51,11 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
     private final Spinner statusPollRate = new Spinner(
             Localization.getString("sender.status.rate"),
             new SpinnerNumberModel(1, 1, null, 100));
+    private final Checkbox plannerAwareStreaming = new Checkbox(
+            Localization.getString("sender.plannerAware"));
+    private final Spinner rxBufferSizeOverride = new Spinner(
+            Localization.getString("sender.rxBufferSize"),
+            new SpinnerNumberModel(0, 0, null, 128));
     private final Spinner safetyHeight = new Spinner(
             Localization.getString("sender.safety-height"),
             new SpinnerNumberModel(1, 1, null, 1));
@@ -57,6 +63,8 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
             Localization.getString("sender.nightly-warning"));
     private final Checkbox autoStartPendant = new Checkbox(
             Localization.getString("sender.autostartpendant"));
+    private final Checkbox flightRecording = new Checkbox(
+            Localization.getString("sender.flightRecording"));
     private final JComboBox<Language> languageCombo = new JComboBox<>(AvailableLanguages.getAvailableLanguages().toArray(new Language[0]));
     private final JComboBox<String> connectionDriver = new JComboBox<>(ConnectionDriver.getPrettyNames());
     private final JTextField workspaceDirectory = new JTextField();
@@ -78,6 +86,9 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
                 Localization.getString("sender.help.singlestep") + "\n\n" +
                 Localization.getString("sender.help.status") + "\n\n" +
                 Localization.getString("sender.help.status.rate") + "\n\n" +
+                Localization.getString("sender.help.plannerAware") + "\n\n" +
+                Localization.getString("sender.help.rxBufferSize") + "\n\n" +
+                Localization.getString("sender.help.flightRecording") + "\n\n" +
                 Localization.getString("sender.help.state") + "\n\n";
     }
 
@@ -89,9 +100,12 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
         settings.setSafetyHeight((int) safetyHeight.getValue());
         settings.setStatusUpdatesEnabled(statusPollingEnabled.getValue());
         settings.setStatusUpdateRate((int) statusPollRate.getValue());
+        settings.setPlannerAwareStreaming(plannerAwareStreaming.getValue());
+        settings.setRxBufferSizeOverride(settings.getPort(), (int) rxBufferSizeOverride.getValue());
         //settings.setAutoConnectEnabled(autoConnect.getValue());
         settings.setShowNightlyWarning(showNightlyWarning.getValue());
         settings.setAutoStartPendant(autoStartPendant.getValue());
+        settings.setFlightRecordingEnabled(flightRecording.getValue());
         settings.setLanguage(((Language) languageCombo.getSelectedItem()).getLanguageCode());
         settings.setConnectionDriver(ConnectionDriver.prettyNameToEnum(connectionDriver.getSelectedItem().toString()));
         settings.setWorkspaceDirectory(workspaceDirectory.getText());
@@ -125,6 +139,12 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
         statusPollRate.setValue(s.getStatusUpdateRate());
         add(statusPollRate, "spanx, wrap");
 
+        plannerAwareStreaming.setSelected(s.isPlannerAwareStreaming());
+        add(plannerAwareStreaming, "spanx, wrap");
+
+        rxBufferSizeOverride.setValue(s.getRxBufferSizeOverride(s.getPort()));
+        add(rxBufferSizeOverride, "spanx, wrap");
+
         safetyHeight.setValue((int) s.getSafetyHeight());
         add(safetyHeight, "spanx, wrap");
 
@@ -134,6 +154,10 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
         autoStartPendant.setSelected(s.isAutoStartPendant());
         add(autoStartPendant, "spanx, wrap");
 
+        flightRecording.setSelected(s.isFlightRecordingEnabled());
+        flightRecording.box.setEnabled(FlightRecording.isAvailable());
+        add(flightRecording, "spanx, wrap");
+
         for (int i = 0; i < languageCombo.getItemCount(); i++) {
             Language l = languageCombo.getItemAt(i);
             if (l.getLanguageCode().equals(s.getLanguage())) {
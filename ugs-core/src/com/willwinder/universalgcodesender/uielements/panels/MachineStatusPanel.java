@@ -111,7 +111,7 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Cont
         this.backend = backend;
         if (this.backend != null) {
             this.backend.addUGSEventListener(this);
-            this.backend.addControllerStateListener(this);
+            this.backend.addAsyncControllerStateListener(this);
         }
         decimalFormatter = new DecimalFormat("0.000");
         statePollTimer = createTimer();
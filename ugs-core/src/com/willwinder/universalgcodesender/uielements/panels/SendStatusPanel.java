@@ -20,6 +20,7 @@ package com.willwinder.universalgcodesender.uielements.panels;
 
 import com.willwinder.universalgcodesender.Utils;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.CommandsCompletedListener;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
@@ -40,6 +41,7 @@ import javax.swing.Timer;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.util.List;
 
 import static com.willwinder.universalgcodesender.model.UGSEvent.ControlState.COMM_SENDING;
 import static com.willwinder.universalgcodesender.model.UGSEvent.FileState.FILE_LOADED;
@@ -50,7 +52,7 @@ import static com.willwinder.universalgcodesender.model.UGSEvent.FileState.FILE_
  *
  * @author wwinder
  */
-public class SendStatusPanel extends JPanel implements UGSEventListener, ControllerListener {
+public class SendStatusPanel extends JPanel implements UGSEventListener, ControllerListener, CommandsCompletedListener {
     private static final String AL_RIGHT = "al right";
     private final BackendAPI backend;
 
@@ -90,14 +92,22 @@ public class SendStatusPanel extends JPanel implements UGSEventListener, Control
     }
 
     private void update() {
+        updateDuration();
+        updateRows();
+    }
+
+    private void updateDuration() {
         durationValue.setText(Utils.formattedMillis(backend.getSendDuration()));
         setRemainingTime(backend.getSendRemainingDuration());
+    }
+
+    private void updateRows() {
         sentRowsValue.setText(""+backend.getNumCompletedRows());
         remainingRowsValue.setText("" + backend.getNumRemainingRows());
     }
 
     private void beginSend() {
-        // Timer for updating duration labels.
+        // Timer for updating duration labels, the rows are updated with each batch of completed commands.
         ActionListener actionListener = new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
@@ -105,7 +115,7 @@ public class SendStatusPanel extends JPanel implements UGSEventListener, Control
                     @Override
                     public void run() {
                         try {
-                            update();
+                            updateDuration();
 
                             // Stop the timer if we no longer is sending a file
                             if (!backend.isSendingFile() && timer != null && timer.isRunning()) {
@@ -254,9 +264,14 @@ public class SendStatusPanel extends JPanel implements UGSEventListener, Control
     public void commandComplete(GcodeCommand command) {
     }
 
+    @Override
+    public void commandsCompleted(int fromLine, int toLine, List<GcodeCommand> errors) {
+        java.awt.EventQueue.invokeLater(this::updateRows);
+    }
+
     @Override
     public void commandComment(String comment) {
-        latestCommentValueLabel.setText(comment);
+        java.awt.EventQueue.invokeLater(() -> latestCommentValueLabel.setText(comment));
     }
 
     @Override
@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.uielements.toolbars;
 
 import com.willwinder.universalgcodesender.Utils;
+import com.willwinder.universalgcodesender.listeners.CommandsCompletedListener;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
@@ -36,6 +37,7 @@ import javax.swing.Timer;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.util.List;
 
 import static com.willwinder.universalgcodesender.model.UGSEvent.FileState.FILE_LOADED;
 
@@ -44,7 +46,7 @@ import static com.willwinder.universalgcodesender.model.UGSEvent.FileState.FILE_
  *
  * @author wwinder
  */
-public class SendStatusLine extends JLabel implements UGSEventListener, ControllerListener {
+public class SendStatusLine extends JLabel implements UGSEventListener, ControllerListener, CommandsCompletedListener {
     private static final String SEND_PREFIX = "Send Status: ";
     private static final String LOAD_PREFIX = "Loaded File: ";
     private static final String NO_FILE_LOADED = "No file loaded";
@@ -77,15 +79,7 @@ public class SendStatusLine extends JLabel implements UGSEventListener, Controll
                 java.awt.EventQueue.invokeLater(new Runnable() {
                     @Override
                     public void run() {
-                        try {
-                            setText(String.format(SEND_FORMAT, 
-                                    backend.getNumSentRows(),
-                                    backend.getNumRows(),
-                                    Utils.formattedMillis(backend.getSendDuration()),
-                                    Utils.formattedMillis(backend.getSendRemainingDuration())));
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
+                        updateSendStatus();
                     }
                 });
             }
@@ -102,6 +96,18 @@ public class SendStatusLine extends JLabel implements UGSEventListener, Controll
         }
     }
 
+    private void updateSendStatus() {
+        try {
+            setText(String.format(SEND_FORMAT,
+                    backend.getNumSentRows(),
+                    backend.getNumRows(),
+                    Utils.formattedMillis(backend.getSendDuration()),
+                    Utils.formattedMillis(backend.getSendRemainingDuration())));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     private void endSend() {
         if (timer != null && timer.isRunning()) {
             timer.stop();
@@ -174,6 +180,16 @@ public class SendStatusLine extends JLabel implements UGSEventListener, Controll
     public void commandComplete(GcodeCommand command) {
     }
 
+    @Override
+    public void commandsCompleted(int fromLine, int toLine, List<GcodeCommand> errors) {
+        java.awt.EventQueue.invokeLater(() -> {
+            // The rows are only shown while the timer is running
+            if (timer != null && timer.isRunning()) {
+                updateSendStatus();
+            }
+        });
+    }
+
     @Override
     public void commandComment(String comment) {
     }
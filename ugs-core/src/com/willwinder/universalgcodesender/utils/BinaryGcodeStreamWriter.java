@@ -0,0 +1,209 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeStats;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a "GcodeStream" file in the binary format, see {@link GcodeStream}
+ * for the layout. The row offsets, checksums and program statistics are
+ * written in a footer when the writer is closed so that the file can be
+ * opened again without parsing it.
+ *
+ * @author agent
+ */
+public class BinaryGcodeStreamWriter extends GcodeStream implements IGcodeWriter {
+    static final int FLAG_HAS_STATS = 1;
+
+    private final File file;
+    private final DataOutputStream output;
+    private final CRC32 checksum = new CRC32();
+
+    private long position;
+    private int lineCount = 0;
+    private long[] rowOffsets = new long[1024];
+    private int[] checksums = new int[16];
+
+    private byte[] row = new byte[256];
+    private int rowLength;
+
+    private GcodeStats stats;
+
+    public BinaryGcodeStreamWriter(File f) throws IOException {
+        file = f;
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 65536));
+
+        try {
+            output.write(binaryMagic);
+            output.writeInt(binaryVersion);
+        } catch (IOException e) {
+            output.close();
+            throw e;
+        }
+        position = BINARY_HEADER_SIZE;
+    }
+
+    /**
+     * Sets the program statistics which are stored in the footer.
+     *
+     * @param stats the statistics of the processed program, in MM
+     */
+    public void setStats(GcodeStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public String getCanonicalPath() throws IOException {
+        return file.getCanonicalPath();
+    }
+
+    @Override
+    public void addLine(GcodeCommand command) {
+        writeRow(command.getOriginalCommandString(), command.getCommandString(), command.getComment(), command.getCommandNumber());
+    }
+
+    @Override
+    public void addLine(String original, String processed, String comment, int commandNumber) {
+        writeRow(getString(original), getString(processed), getString(comment), commandNumber);
+    }
+
+    private String getString(String str) {
+        return str == null ? "" : str.trim();
+    }
+
+    private void writeRow(String original, String processed, String comment, int commandNumber) {
+        rowLength = 0;
+        appendInt(commandNumber);
+        appendString(original);
+        appendString(processed);
+        appendString(comment);
+
+        if (lineCount % CHECKSUM_RANGE == 0 && lineCount > 0) {
+            finishChecksum();
+        }
+
+        if (lineCount == rowOffsets.length) {
+            rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+        }
+        rowOffsets[lineCount] = position;
+
+        try {
+            output.write(row, 0, rowLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checksum.update(row, 0, rowLength);
+        position += rowLength;
+        lineCount++;
+    }
+
+    private void finishChecksum() {
+        int range = (lineCount - 1) / CHECKSUM_RANGE;
+        if (range == checksums.length) {
+            checksums = Arrays.copyOf(checksums, checksums.length * 2);
+        }
+        checksums[range] = (int) checksum.getValue();
+        checksum.reset();
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            value = "";
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        appendInt(bytes.length);
+        ensureRowCapacity(bytes.length);
+        System.arraycopy(bytes, 0, row, rowLength, bytes.length);
+        rowLength += bytes.length;
+    }
+
+    private void appendInt(int value) {
+        ensureRowCapacity(4);
+        row[rowLength++] = (byte) (value >>> 24);
+        row[rowLength++] = (byte) (value >>> 16);
+        row[rowLength++] = (byte) (value >>> 8);
+        row[rowLength++] = (byte) value;
+    }
+
+    private void ensureRowCapacity(int length) {
+        if (rowLength + length > row.length) {
+            row = Arrays.copyOf(row, Math.max(row.length * 2, rowLength + length));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (lineCount > 0) {
+                finishChecksum();
+            }
+
+            long offsetTable = position;
+            for (int i = 0; i < lineCount; i++) {
+                output.writeLong(rowOffsets[i]);
+            }
+
+            long checksumTable = offsetTable + lineCount * 8L;
+            int numChecksums = (lineCount + CHECKSUM_RANGE - 1) / CHECKSUM_RANGE;
+            for (int i = 0; i < numChecksums; i++) {
+                output.writeInt(checksums[i]);
+            }
+
+            output.writeLong(offsetTable);
+            output.writeLong(checksumTable);
+            output.writeInt(lineCount);
+            output.writeInt(CHECKSUM_RANGE);
+            if (stats != null) {
+                Position min = stats.getMin().getPositionIn(UnitUtils.Units.MM);
+                Position max = stats.getMax().getPositionIn(UnitUtils.Units.MM);
+                output.writeLong(stats.getCommandCount());
+                output.writeDouble(min.x);
+                output.writeDouble(min.y);
+                output.writeDouble(min.z);
+                output.writeDouble(max.x);
+                output.writeDouble(max.y);
+                output.writeDouble(max.z);
+                output.writeInt(FLAG_HAS_STATS);
+            } else {
+                output.writeLong(0);
+                for (int i = 0; i < 6; i++) {
+                    output.writeDouble(0);
+                }
+                output.writeInt(0);
+            }
+            output.write(binaryMagic);
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.listeners.CommandsCompletedListener;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects completed commands and hands them to a listener in batches.
+ *
+ * The first command of a batch schedules it to be delivered after the batch
+ * interval, so the listener is called at most once per interval no matter
+ * how fast the commands are completed. A batch can be delivered right away
+ * with {@link #flush()}, which is done when a stream completes.
+ *
+ * Batches are delivered one at a time and in order, either from the
+ * scheduler thread or from the thread calling {@link #flush()}.
+ *
+ * @author agent
+ */
+public class CommandCompletionBatcher {
+    private static final Logger LOGGER = Logger.getLogger(CommandCompletionBatcher.class.getName());
+
+    /**
+     * The default time between batches in milliseconds.
+     */
+    public static final int DEFAULT_INTERVAL = 100;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CommandCompletionBatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CommandsCompletedListener listener;
+    private final long interval;
+
+    // Held while a batch is delivered, so batches are delivered in order
+    private final Object deliveryLock = new Object();
+
+    // Guarded by this
+    private int fromLine;
+    private int toLine;
+    private int commands;
+    private List<GcodeCommand> errors = new ArrayList<>();
+    private ScheduledFuture<?> future;
+    private long batchCount;
+    private long commandCount;
+
+    /**
+     * @param listener receives the batches
+     */
+    public CommandCompletionBatcher(CommandsCompletedListener listener) {
+        this(listener, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param listener receives the batches
+     * @param interval the time between batches in milliseconds
+     */
+    public CommandCompletionBatcher(CommandsCompletedListener listener, long interval) {
+        this.listener = listener;
+        this.interval = interval;
+    }
+
+    /**
+     * Adds a completed command to the current batch.
+     */
+    public synchronized void commandComplete(GcodeCommand command) {
+        if (commands == 0) {
+            fromLine = command.getCommandNumber();
+            future = EXECUTOR.schedule(this::deliver, interval, TimeUnit.MILLISECONDS);
+        }
+        toLine = command.getCommandNumber();
+        commands++;
+        commandCount++;
+        if (command.isError()) {
+            errors.add(command);
+        }
+    }
+
+    /**
+     * Delivers the current batch right away, if there is one.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        deliver();
+    }
+
+    /**
+     * @return the number of batches which have been delivered
+     */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @return the number of commands which have been completed
+     */
+    public synchronized long getCommandCount() {
+        return commandCount;
+    }
+
+    private void deliver() {
+        synchronized (deliveryLock) {
+            int first;
+            int last;
+            List<GcodeCommand> batchErrors;
+            synchronized (this) {
+                if (commands == 0) {
+                    return;
+                }
+                first = fromLine;
+                last = toLine;
+                if (errors.isEmpty()) {
+                    batchErrors = Collections.emptyList();
+                } else {
+                    batchErrors = Collections.unmodifiableList(errors);
+                    errors = new ArrayList<>();
+                }
+                commands = 0;
+                future = null;
+                batchCount++;
+            }
+
+            try {
+                listener.commandsCompleted(first, last, batchErrors);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Couldn't deliver the completed commands", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.metrics.Histogram;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers events to a set of listeners.
+ *
+ * Synchronous subscribers are called by the thread publishing the event, the
+ * same way as iterating over a list of listeners. Asynchronous subscribers
+ * each have a bounded queue and a thread of their own, so a slow listener
+ * only delays itself and not the publisher or the other listeners.
+ *
+ * Events published with a key, like status reports, are coalesced: if an
+ * asynchronous subscriber still hasn't received an event with the same key
+ * it is dropped and the new one is queued in its place at the end of the
+ * queue, so a slow listener only gets the latest one and still receives the
+ * events in the order they were published. When the queue of a subscriber is full the publisher waits for it.
+ *
+ * The time the listeners take to handle the events is recorded for each
+ * subscription and for the whole bus in the metric "eventbus.[name].dispatch".
+ *
+ * @param <L> the listener type
+ * @author agent
+ */
+public class EventBus<L> {
+    private static final Logger LOGGER = Logger.getLogger(EventBus.class.getName());
+
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    private final String name;
+    private final Histogram dispatchTime;
+    private final List<Subscription<L>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name the name of the bus, used in the name of the subscriber threads and the metrics
+     */
+    public EventBus(String name) {
+        this.name = name;
+        this.dispatchTime = MetricsRegistry.getDefault().histogram("eventbus." + name + ".dispatch",
+                "Time the " + name + " listeners took to handle each event", Metric.Unit.NANOSECONDS);
+    }
+
+    /**
+     * Adds a listener which is called by the publishing thread. Listeners
+     * which are already subscribed are ignored.
+     */
+    public void subscribe(L listener) {
+        if (!isSubscribed(listener)) {
+            subscriptions.add(new Subscription<>(name, listener, dispatchTime));
+        }
+    }
+
+    /**
+     * Adds a listener which is called from a thread of its own, with a
+     * queue of {@link #DEFAULT_QUEUE_SIZE} events.
+     */
+    public void subscribeAsync(L listener) {
+        subscribeAsync(listener, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Adds a listener which is called from a thread of its own. Listeners
+     * which are already subscribed are ignored.
+     *
+     * @param listener the listener
+     * @param queueSize the number of events which may be waiting for the listener
+     */
+    public void subscribeAsync(L listener, int queueSize) {
+        if (!isSubscribed(listener)) {
+            subscriptions.add(new AsyncSubscription<>(name, listener, dispatchTime, queueSize));
+        }
+    }
+
+    /**
+     * Removes the listener. An asynchronous listener still receives the
+     * events which were published before it was removed.
+     */
+    public void unsubscribe(L listener) {
+        for (Subscription<L> subscription : subscriptions) {
+            if (subscription.listener.equals(listener)) {
+                subscriptions.remove(subscription);
+                subscription.close();
+            }
+        }
+    }
+
+    /**
+     * Removes all listeners.
+     */
+    public void unsubscribeAll() {
+        for (Subscription<L> subscription : subscriptions) {
+            subscriptions.remove(subscription);
+            subscription.close();
+        }
+    }
+
+    public boolean isSubscribed(L listener) {
+        for (Subscription<L> subscription : subscriptions) {
+            if (subscription.listener.equals(listener)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publishes an event to all listeners.
+     *
+     * @param event calls the listener method with the event
+     */
+    public void publish(Consumer<L> event) {
+        publish(null, event);
+    }
+
+    /**
+     * Publishes an event to all listeners. An asynchronous listener which
+     * hasn't received the last event with the same key gets this one instead.
+     *
+     * @param key the key of the event, or null if it may not be coalesced
+     * @param event calls the listener method with the event
+     */
+    public void publish(Object key, Consumer<L> event) {
+        for (Subscription<L> subscription : subscriptions) {
+            subscription.publish(key, event);
+        }
+    }
+
+    /**
+     * Publishes an event to the listeners accepted by the filter.
+     *
+     * @param filter selects the listeners which should receive the event
+     * @param event calls the listener method with the event
+     */
+    public void publishTo(Predicate<L> filter, Consumer<L> event) {
+        for (Subscription<L> subscription : subscriptions) {
+            if (filter.test(subscription.listener)) {
+                subscription.publish(null, event);
+            }
+        }
+    }
+
+    /**
+     * @return the subscriptions with their delivery statistics
+     */
+    public List<Subscription<L>> getSubscriptions() {
+        return Collections.unmodifiableList(new ArrayList<>(subscriptions));
+    }
+
+    /**
+     * A listener on the bus with its statistics. The base class delivers
+     * events synchronously.
+     */
+    public static class Subscription<L> {
+        protected final L listener;
+        protected final Histogram dispatchTime;
+        protected final Histogram handlingTime;
+        protected final Histogram lag;
+
+        // Guarded by this
+        protected long delivered = 0;
+
+        Subscription(String busName, L listener, Histogram dispatchTime) {
+            this.listener = listener;
+            this.dispatchTime = dispatchTime;
+            String prefix = "eventbus." + busName + "." + getListenerName();
+            this.handlingTime = new Histogram(prefix + ".handling",
+                    "Time the listener took to handle each event", Metric.Unit.NANOSECONDS);
+            this.lag = new Histogram(prefix + ".lag",
+                    "Time from each event being published until the listener was called", Metric.Unit.NANOSECONDS);
+        }
+
+        void publish(Object key, Consumer<L> event) {
+            deliver(event);
+        }
+
+        void close() {
+        }
+
+        void deliver(Consumer<L> event) {
+            long start = System.nanoTime();
+            try {
+                event.accept(listener);
+            } finally {
+                long time = System.nanoTime() - start;
+                handlingTime.record(time);
+                dispatchTime.record(time);
+                synchronized (this) {
+                    delivered++;
+                }
+            }
+        }
+
+        public L getListener() {
+            return listener;
+        }
+
+        public String getListenerName() {
+            String simpleName = listener.getClass().getSimpleName();
+            return simpleName.isEmpty() ? listener.getClass().getName() : simpleName;
+        }
+
+        public boolean isAsynchronous() {
+            return false;
+        }
+
+        /**
+         * @return the time the listener took to handle each event
+         */
+        public Histogram getHandlingTime() {
+            return handlingTime;
+        }
+
+        /**
+         * @return the time from each event being published until the listener was called
+         */
+        public Histogram getLag() {
+            return lag;
+        }
+
+        public synchronized long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * @return the number of events waiting for the listener
+         */
+        public int getQueueSize() {
+            return 0;
+        }
+
+        /**
+         * @return the largest number of events which have been waiting for the listener
+         */
+        public int getMaxQueueSize() {
+            return 0;
+        }
+
+        /**
+         * @return the number of events replaced with a newer one before the listener got them
+         */
+        public long getCoalesced() {
+            return 0;
+        }
+
+        /**
+         * @return the number of times the publisher had to wait for room in the queue
+         */
+        public long getBlocked() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: delivered=%d, queued=%d, maxQueued=%d, coalesced=%d, blocked=%d, lag=[%s], handling=[%s]",
+                    getListenerName(), getDelivered(), getQueueSize(), getMaxQueueSize(), getCoalesced(),
+                    getBlocked(), lag.getSummary(), handlingTime.getSummary());
+        }
+    }
+
+    private static final class Event<L> {
+        final Object key;
+        Consumer<L> event;
+        long published;
+
+        Event(Object key, Consumer<L> event, long published) {
+            this.key = key;
+            this.event = event;
+            this.published = published;
+        }
+    }
+
+    private static final class AsyncSubscription<L> extends Subscription<L> implements Runnable {
+        private final int capacity;
+        private final Thread thread;
+
+        // Guarded by this
+        private final ArrayDeque<Event<L>> queue = new ArrayDeque<>();
+        private final Map<Object, Event<L>> pending = new HashMap<>();
+        private boolean running = true;
+        private int maxQueueSize = 0;
+        private long coalesced = 0;
+        private long blocked = 0;
+
+        AsyncSubscription(String busName, L listener, Histogram dispatchTime, int capacity) {
+            super(busName, listener, dispatchTime);
+            this.capacity = Math.max(1, capacity);
+            this.thread = new Thread(this, "EventBus " + busName + " - " + getListenerName());
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        synchronized void publish(Object key, Consumer<L> event) {
+            if (!running) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            if (key != null) {
+                // Move the stale event to the tail so that the events are
+                // still delivered in the order they were published
+                Event<L> waiting = pending.get(key);
+                if (waiting != null) {
+                    queue.remove(waiting);
+                    waiting.event = event;
+                    waiting.published = now;
+                    queue.add(waiting);
+                    coalesced++;
+                    return;
+                }
+            }
+
+            // The listener may publish events itself, it can't wait for its own queue
+            if (queue.size() >= capacity && Thread.currentThread() != thread) {
+                blocked++;
+                while (running && queue.size() >= capacity) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+            }
+
+            Event<L> queued = new Event<>(key, event, now);
+            queue.add(queued);
+            if (key != null) {
+                pending.put(key, queued);
+            }
+            maxQueueSize = Math.max(maxQueueSize, queue.size());
+            notifyAll();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event<L> next;
+                synchronized (this) {
+                    while (running && queue.isEmpty()) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            running = false;
+                        }
+                    }
+
+                    // Events published before the listener was removed are still delivered
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+
+                    next = queue.poll();
+                    if (next.key != null) {
+                        pending.remove(next.key);
+                    }
+                    lag.record(System.nanoTime() - next.published);
+                    notifyAll();
+                }
+
+                try {
+                    deliver(next.event);
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Listener " + getListenerName() + " failed to handle an event", e);
+                }
+            }
+        }
+
+        @Override
+        synchronized void close() {
+            running = false;
+            notifyAll();
+        }
+
+        @Override
+        public boolean isAsynchronous() {
+            return true;
+        }
+
+        @Override
+        public synchronized int getQueueSize() {
+            return queue.size();
+        }
+
+        @Override
+        public synchronized int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        @Override
+        public synchronized long getCoalesced() {
+            return coalesced;
+        }
+
+        @Override
+        public synchronized long getBlocked() {
+            return blocked;
+        }
+    }
+}
@@ -29,6 +29,22 @@ package com.willwinder.universalgcodesender.utils;
 import java.util.regex.Pattern;
 
 /**
+ * Shared constants of the GcodeStream formats.
+ *
+ * The legacy text format has a metadata line followed by one row per line
+ * with the columns joined by a separator.
+ *
+ * The binary format (version 2) is laid out as:
+ * <pre>
+ *   header:    magic, version
+ *   rows:      command number, then original, processed and comment as
+ *              length prefixed UTF-8
+ *   offsets:   the file offset of each row
+ *   checksums: a CRC32 of the row bytes for each range of rows
+ *   footer:    table offsets, row count, rows per checksum, command count,
+ *              min and max extents in MM and the magic again
+ * </pre>
+ * All numbers are big endian.
  *
  * @author wwinder
  */
@@ -43,4 +59,10 @@ public abstract class GcodeStream {
     protected final String separator = "++";
     protected final Pattern splitPattern = Pattern.compile(Pattern.quote(separator));
     protected final String metaPrefix = "gsw_meta:";
+
+    protected final byte[] binaryMagic = {'G', 'S', 'W', 'B'};
+    protected final int binaryVersion = 2;
+    protected final int BINARY_HEADER_SIZE = 8;
+    protected final int BINARY_FOOTER_SIZE = 88;
+    protected final int CHECKSUM_RANGE = 1024;
 }
@@ -18,21 +18,76 @@
  */
 package com.willwinder.universalgcodesender.utils;
 
+import com.willwinder.universalgcodesender.gcode.GcodeStats;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Reads a 'GcodeStream' file containing command processing information, actual
  * command to send and other metadata like total number of commands.
  *
+ * When created from a file the stream is memory mapped and any row can be
+ * accessed directly with {@link #seek(int)} or {@link #getCommand(int)}. Both
+ * the binary and the legacy text format are supported, for the binary format
+ * the row offsets are read from the file and each range of rows is verified
+ * against its checksum the first time it is read. For the text format an
+ * offset index is built while reading. Only the columns which are needed are
+ * decoded from the mapped bytes.
+ *
  * @author wwinder
  */
 public class GcodeStreamReader extends GcodeStream implements IGcodeStreamReader {
+    private static final Logger logger = Logger.getLogger(GcodeStreamReader.class.getName());
+
+    /**
+     * The metadata is written in a reserved block of 50 characters, allow
+     * some slack when looking for the end of the header.
+     */
+    private static final int MAX_HEADER_LENGTH = 1024;
+    private static final int INITIAL_INDEX_SIZE = 1024;
+
+    // Sequential mode, used when reading from a BufferedReader.
     private BufferedReader reader;
+
+    // Random access mode, used when reading from a file.
+    private MappedByteBuffer buffer;
+    private ByteBuffer view;
+    private Charset charset = Charset.defaultCharset();
+    private byte[] scratch = new byte[256];
+    private final int[] columns = new int[NUM_COLUMNS * 2];
+
+    // Text format, rowOffsets[i] is the start of row i, rowOffsets[indexedRows] is where scanning continues.
+    private int[] rowOffsets;
+    private int indexedRows;
+
+    // Binary format
+    private boolean binary;
+    private int offsetTable;
+    private int checksumTable;
+    private int checksumRange;
+    private BitSet verifiedRanges;
+    private GcodeStats stats;
+
     private int numRows;
     private int numRowsRemaining;
 
@@ -40,26 +95,144 @@ public class GcodeStreamReader extends GcodeStream implements IGcodeStreamReader
 
     public GcodeStreamReader(BufferedReader reader) throws NotGcodeStreamFile {
         this.reader = reader;
-        
-        try {
-            String metadata = reader.readLine().trim();
 
-            if (!metadata.startsWith(super.metaPrefix)) {
+        try {
+            String metadata = reader.readLine();
+            if (metadata == null) {
                 throw new NotGcodeStreamFile();
             }
-
-            metadata = metadata.substring(super.metaPrefix.length());
-            numRows = Integer.parseInt(metadata);
+            numRows = parseMetadata(metadata.trim());
             numRowsRemaining = numRows;
-        } catch (IOException | NumberFormatException e) {
+        } catch (IOException e) {
             throw new NotGcodeStreamFile();
         }
     }
 
-    public GcodeStreamReader(File f) throws NotGcodeStreamFile, FileNotFoundException {
-        this(new BufferedReader(new FileReader(f)));
+    public GcodeStreamReader(File f) throws NotGcodeStreamFile, IOException {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                openSequentially(f, channel);
+                return;
+            }
+
+            // The mapping stays valid after the channel has been closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(f.getAbsolutePath());
+        }
+
+        view = buffer.duplicate();
+        try {
+            if (hasMagic(0)) {
+                openBinary();
+            } else {
+                openText();
+            }
+        } catch (NotGcodeStreamFile | IOException | RuntimeException e) {
+            unmap(buffer);
+            buffer = null;
+            throw e;
+        }
+    }
+
+    private void openSequentially(File f, FileChannel channel) throws NotGcodeStreamFile, IOException {
+        ByteBuffer header = ByteBuffer.allocate(binaryMagic.length);
+        channel.read(header, 0);
+        if (Arrays.equals(header.array(), binaryMagic)) {
+            throw new IOException("GcodeStream file is too large to be read: " + f);
+        }
+
+        // Too large for a single mapping, fall back to reading the rows in order.
+        logger.log(Level.INFO, "GcodeStream file is too large to map, reading it sequentially: {0}", f);
+        this.reader = new BufferedReader(new FileReader(f));
+        try {
+            String metadata = reader.readLine();
+            numRows = parseMetadata(metadata == null ? "" : metadata.trim());
+        } catch (NotGcodeStreamFile e) {
+            reader.close();
+            throw e;
+        }
+        numRowsRemaining = numRows;
+    }
+
+    private void openText() throws NotGcodeStreamFile {
+        int headerEnd = indexOf(buffer, (byte) '\n', 0, Math.min(buffer.limit(), MAX_HEADER_LENGTH));
+        if (headerEnd < 0) {
+            throw new NotGcodeStreamFile();
+        }
+
+        numRows = parseMetadata(decode(0, headerEnd).trim());
+        numRowsRemaining = numRows;
+
+        rowOffsets = new int[Math.min(numRows, INITIAL_INDEX_SIZE) + 1];
+        rowOffsets[0] = headerEnd + 1;
+        indexedRows = 0;
+    }
+
+    private void openBinary() throws IOException {
+        int limit = buffer.limit();
+        if (limit < BINARY_HEADER_SIZE + BINARY_FOOTER_SIZE || !hasMagic(limit - binaryMagic.length)) {
+            throw new IOException("The gcode stream is incomplete, the footer is missing");
+        }
+
+        int version = buffer.getInt(binaryMagic.length);
+        if (version != binaryVersion) {
+            throw new IOException("Unsupported gcode stream version: " + version);
+        }
+
+        int footer = limit - BINARY_FOOTER_SIZE;
+        long offsets = buffer.getLong(footer);
+        long checksums = buffer.getLong(footer + 8);
+        numRows = buffer.getInt(footer + 16);
+        checksumRange = buffer.getInt(footer + 20);
+
+        if (numRows < 0 || checksumRange <= 0
+                || offsets < BINARY_HEADER_SIZE
+                || checksums != offsets + numRows * 8L
+                || footer != checksums + ((numRows + (long) checksumRange - 1) / checksumRange) * 4L) {
+            throw new IOException("Corrupt gcode stream footer");
+        }
+
+        offsetTable = (int) offsets;
+        checksumTable = (int) checksums;
+        numRowsRemaining = numRows;
+        verifiedRanges = new BitSet();
+        charset = StandardCharsets.UTF_8;
+        binary = true;
+
+        if ((buffer.getInt(footer + 80) & BinaryGcodeStreamWriter.FLAG_HAS_STATS) != 0) {
+            stats = new StoredStats(
+                    buffer.getLong(footer + 24),
+                    new Position(buffer.getDouble(footer + 32), buffer.getDouble(footer + 40), buffer.getDouble(footer + 48), UnitUtils.Units.MM),
+                    new Position(buffer.getDouble(footer + 56), buffer.getDouble(footer + 64), buffer.getDouble(footer + 72), UnitUtils.Units.MM));
+        }
+    }
+
+    private boolean hasMagic(int position) {
+        if (position < 0 || position + binaryMagic.length > buffer.limit()) {
+            return false;
+        }
+
+        for (int i = 0; i < binaryMagic.length; i++) {
+            if (buffer.get(position + i) != binaryMagic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int parseMetadata(String metadata) throws NotGcodeStreamFile {
+        if (!metadata.startsWith(super.metaPrefix)) {
+            throw new NotGcodeStreamFile();
+        }
+
+        try {
+            return Integer.parseInt(metadata.substring(super.metaPrefix.length()));
+        } catch (NumberFormatException e) {
+            throw new NotGcodeStreamFile();
+        }
     }
-    
+
     @Override
     public boolean ready() {
         return getNumRowsRemaining() > 0;
@@ -75,6 +248,65 @@ public class GcodeStreamReader extends GcodeStream implements IGcodeStreamReader
         return numRowsRemaining;
     }
 
+    /**
+     * Returns the statistics of the program which were stored when the
+     * stream was written, this avoids parsing the program again to find its
+     * size and bounds.
+     *
+     * @return the statistics in MM or null if the stream doesn't contain any
+     */
+    public GcodeStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Moves the stream so that the next call to {@link #getNextCommand()}
+     * returns the given row. Rows which have been read before are located
+     * directly, seeking past them indexes the rows in between once.
+     *
+     * @param row the row to continue from, 0 based
+     * @throws IOException if the stream can not be read
+     */
+    public void seek(int row) throws IOException {
+        checkRandomAccess();
+        if (row < 0 || row > numRows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside of the stream, which has " + numRows + " rows");
+        }
+
+        if (!binary && row < numRows) {
+            locateRow(row);
+        }
+        numRowsRemaining = numRows - row;
+    }
+
+    /**
+     * Returns the command at the given row without moving the stream.
+     *
+     * @param row the row to read, 0 based
+     * @return the command
+     * @throws IOException if the stream can not be read
+     */
+    public GcodeCommand getCommand(int row) throws IOException {
+        checkRandomAccess();
+        checkRow(row);
+        return readCommand(row);
+    }
+
+    /**
+     * Returns the processed command at the given row without moving the
+     * stream, the other columns of the row are not decoded.
+     *
+     * @param row the row to read, 0 based
+     * @return the command string to send
+     * @throws IOException if the stream can not be read
+     */
+    public String getCommandString(int row) throws IOException {
+        checkRandomAccess();
+        checkRow(row);
+        locateColumns(row);
+        return decodeColumn(COL_PROCESSED_COMMAND);
+    }
+
     private String[] parseLine(String line) {
         return splitPattern.split(line, -1);
     }
@@ -83,7 +315,22 @@ public class GcodeStreamReader extends GcodeStream implements IGcodeStreamReader
     public GcodeCommand getNextCommand() throws IOException {
         if (numRowsRemaining == 0) return null;
 
+        if (reader != null) {
+            return getNextCommandFromReader();
+        }
+
+        checkRandomAccess();
+        GcodeCommand command = readCommand(numRows - numRowsRemaining);
+        numRowsRemaining--;
+        return command;
+    }
+
+    private GcodeCommand getNextCommandFromReader() throws IOException {
         String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Unexpected end of gcode stream, " + numRowsRemaining + " rows are missing");
+        }
+
         String[] nextLine = parseLine(line);
         if (nextLine.length != NUM_COLUMNS) {
             throw new IOException("Corrupt data found while processing gcode stream: " + line);
@@ -97,8 +344,315 @@ public class GcodeStreamReader extends GcodeStream implements IGcodeStreamReader
                 false);
     }
 
+    private GcodeCommand readCommand(int row) throws IOException {
+        locateColumns(row);
+
+        String processed = decodeColumn(COL_PROCESSED_COMMAND);
+
+        // Most rows are unchanged by the preprocessors, reuse the processed
+        // string instead of decoding the same bytes twice.
+        String original = columnEquals(COL_ORIGINAL_COMMAND, COL_PROCESSED_COMMAND)
+                ? processed
+                : decodeColumn(COL_ORIGINAL_COMMAND);
+
+        return new GcodeCommand(
+                processed,
+                original,
+                decodeColumn(COL_COMMENT),
+                readCommandNumber(),
+                false);
+    }
+
     @Override
     public void close() throws IOException {
-        reader.close();
+        if (reader != null) {
+            reader.close();
+        }
+
+        if (buffer != null) {
+            MappedByteBuffer mapped = buffer;
+            buffer = null;
+            view = null;
+            rowOffsets = null;
+            unmap(mapped);
+        }
+    }
+
+    private void checkRandomAccess() throws IOException {
+        if (reader != null) {
+            throw new UnsupportedOperationException("Random access is only supported for GcodeStream files which can be mapped");
+        }
+
+        if (buffer == null) {
+            throw new IOException("The gcode stream has been closed");
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= numRows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside of the stream, which has " + numRows + " rows");
+        }
+    }
+
+    /**
+     * Makes sure the start and end of the given row is in the offset index.
+     */
+    private void locateRow(int row) throws IOException {
+        while (indexedRows <= row) {
+            int start = rowOffsets[indexedRows];
+            if (start >= buffer.limit()) {
+                throw new IOException("Unexpected end of gcode stream, expected " + numRows + " rows but found " + indexedRows);
+            }
+
+            // A missing newline at the end of the last row is accepted.
+            int end = indexOf(buffer, (byte) '\n', start, buffer.limit());
+            if (end < 0) {
+                end = buffer.limit();
+            }
+
+            if (indexedRows + 1 == rowOffsets.length) {
+                rowOffsets = Arrays.copyOf(rowOffsets, (int) Math.min((long) numRows + 1, rowOffsets.length * 2L));
+            }
+            indexedRows++;
+            rowOffsets[indexedRows] = end + 1;
+        }
+    }
+
+    /**
+     * Finds the column boundaries of a row and stores them in the columns array.
+     */
+    private void locateColumns(int row) throws IOException {
+        if (binary) {
+            locateBinaryColumns(row);
+        } else {
+            locateTextColumns(row);
+        }
+    }
+
+    private void locateBinaryColumns(int row) throws IOException {
+        verifyChecksum(row / checksumRange);
+
+        int position = getBinaryRowOffset(row);
+        columns[COL_COMMAND_NUMBER * 2] = position;
+        columns[COL_COMMAND_NUMBER * 2 + 1] = position + 4;
+        position = locateBinaryColumn(COL_ORIGINAL_COMMAND, position + 4, row);
+        position = locateBinaryColumn(COL_PROCESSED_COMMAND, position, row);
+        locateBinaryColumn(COL_COMMENT, position, row);
+    }
+
+    private int locateBinaryColumn(int column, int position, int row) throws IOException {
+        if (position + 4 > offsetTable) {
+            throw new IOException("Corrupt data found while processing gcode stream at row " + row);
+        }
+
+        int start = position + 4;
+        int length = buffer.getInt(position);
+        if (length < 0 || length > offsetTable - start) {
+            throw new IOException("Corrupt data found while processing gcode stream at row " + row);
+        }
+
+        columns[column * 2] = start;
+        columns[column * 2 + 1] = start + length;
+        return start + length;
+    }
+
+    private int getBinaryRowOffset(int row) throws IOException {
+        long offset = buffer.getLong(offsetTable + row * 8);
+        if (offset < BINARY_HEADER_SIZE || offset >= offsetTable) {
+            throw new IOException("Corrupt row offset found while processing gcode stream at row " + row);
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Verifies the checksum of a range of rows the first time one of its rows is read.
+     */
+    private void verifyChecksum(int range) throws IOException {
+        if (verifiedRanges.get(range)) {
+            return;
+        }
+
+        int firstRow = range * checksumRange;
+        int nextRow = firstRow + checksumRange;
+        int start = getBinaryRowOffset(firstRow);
+        int end = nextRow < numRows ? getBinaryRowOffset(nextRow) : offsetTable;
+        if (end < start) {
+            throw new IOException("Corrupt row offset found while processing gcode stream at row " + nextRow);
+        }
+
+        CRC32 crc = new CRC32();
+        view.limit(end);
+        view.position(start);
+        crc.update(view);
+
+        if ((int) crc.getValue() != buffer.getInt(checksumTable + range * 4)) {
+            throw new IOException("Checksum mismatch in gcode stream for rows " + firstRow + " to " + (Math.min(nextRow, numRows) - 1));
+        }
+        verifiedRanges.set(range);
+    }
+
+    private void locateTextColumns(int row) throws IOException {
+        locateRow(row);
+
+        int start = rowOffsets[row];
+        int end = rowOffsets[row + 1] - 1;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        int column = 0;
+        columns[0] = start;
+        for (int i = start; i < end - 1; i++) {
+            if (buffer.get(i) == '+' && buffer.get(i + 1) == '+') {
+                if (column == NUM_COLUMNS - 1) {
+                    throw corruptRow(start, end);
+                }
+
+                columns[column * 2 + 1] = i;
+                column++;
+                columns[column * 2] = i + 2;
+                i++;
+            }
+        }
+
+        if (column != NUM_COLUMNS - 1) {
+            throw corruptRow(start, end);
+        }
+        columns[column * 2 + 1] = end;
+    }
+
+    private IOException corruptRow(int start, int end) {
+        return new IOException("Corrupt data found while processing gcode stream: " + decode(start, end));
+    }
+
+    private String decodeColumn(int column) {
+        int start = columns[column * 2];
+        int end = columns[column * 2 + 1];
+        return start == end ? "" : decode(start, end);
+    }
+
+    private boolean columnEquals(int first, int second) {
+        int firstStart = columns[first * 2];
+        int secondStart = columns[second * 2];
+        int length = columns[first * 2 + 1] - firstStart;
+        if (length != columns[second * 2 + 1] - secondStart) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(firstStart + i) != buffer.get(secondStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int readCommandNumber() {
+        if (binary) {
+            return buffer.getInt(columns[COL_COMMAND_NUMBER * 2]);
+        }
+        return parseColumnInt(COL_COMMAND_NUMBER);
+    }
+
+    private int parseColumnInt(int column) {
+        int start = columns[column * 2];
+        int end = columns[column * 2 + 1];
+
+        boolean negative = start < end && buffer.get(start) == '-';
+        int i = negative ? start + 1 : start;
+
+        // Digits only and short enough not to overflow, otherwise let Integer report the problem.
+        if (i == end || end - i > 9) {
+            return Integer.parseInt(decode(start, end));
+        }
+
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(decode(start, end));
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+
+        view.limit(end);
+        view.position(start);
+        view.get(scratch, 0, length);
+        return new String(scratch, 0, length, charset);
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases the mapping right away instead of waiting for the garbage
+     * collector, otherwise the file stays locked on some platforms and can't
+     * be rewritten when the gcode is processed again. This is best effort,
+     * if it fails the mapping is released when the buffer is collected.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not available, try the Java 8 way.
+        }
+
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.log(Level.FINE, "Could not unmap the gcode stream, it will be released by the garbage collector", e);
+        }
+    }
+
+    private static class StoredStats implements GcodeStats {
+        private final long commandCount;
+        private final Position min;
+        private final Position max;
+
+        StoredStats(long commandCount, Position min, Position max) {
+            this.commandCount = commandCount;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public Position getMin() {
+            return min;
+        }
+
+        @Override
+        public Position getMax() {
+            return max;
+        }
+
+        @Override
+        public long getCommandCount() {
+            return commandCount;
+        }
     }
 }
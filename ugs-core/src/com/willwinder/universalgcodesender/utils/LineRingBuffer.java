@@ -0,0 +1,146 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed capacity ring buffer of lines which any number of threads may
+ * append to without locking. When the buffer is full the oldest lines are
+ * overwritten, so a slow reader loses lines instead of slowing down the
+ * writers. Only one thread at a time may drain the buffer.
+ *
+ * @author agent
+ */
+public class LineRingBuffer {
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+
+    // The sequence number of the next line to append.
+    private final AtomicLong tail = new AtomicLong();
+
+    // The sequence number of the next line to drain, only used by the reader.
+    private long head = 0;
+    private volatile long overwritten = 0;
+
+    /**
+     * @param capacity the minimum number of lines, it is rounded up to a power of two
+     */
+    public LineRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        entries = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Appends a line, overwriting the oldest one if the buffer is full.
+     * May be called from any thread.
+     */
+    public void append(String line) {
+        if (line == null) {
+            throw new NullPointerException();
+        }
+
+        long sequence = tail.getAndIncrement();
+        Entry entry = new Entry(sequence, line);
+        int index = (int) sequence & mask;
+
+        // A writer which was a whole lap behind must not replace a newer line.
+        Entry current;
+        do {
+            current = entries.get(index);
+            if (current != null && current.sequence > sequence) {
+                return;
+            }
+        } while (!entries.compareAndSet(index, current, entry));
+    }
+
+    /**
+     * Appends the lines added since the last drain to the builder. Lines
+     * which are still being written by another thread are left for the next
+     * drain, together with any lines after them.
+     *
+     * @param builder receives the lines
+     * @return the number of lines drained
+     */
+    public int drainTo(StringBuilder builder) {
+        long end = tail.get();
+        long lost = 0;
+        if (end - head > entries.length()) {
+            lost = end - entries.length() - head;
+            head = end - entries.length();
+        }
+
+        int drained = 0;
+        while (head < end) {
+            Entry entry = entries.get((int) head & mask);
+            if (entry == null || entry.sequence < head) {
+                // Claimed but not written yet
+                break;
+            }
+
+            if (entry.sequence == head) {
+                builder.append(entry.line);
+                drained++;
+            } else {
+                // Overwritten while draining
+                lost++;
+            }
+            head++;
+        }
+
+        if (lost > 0) {
+            overwritten += lost;
+        }
+        return drained;
+    }
+
+    /**
+     * May only be called by the thread draining the buffer.
+     *
+     * @return true if there are no lines waiting to be drained
+     */
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * @return the number of lines which were overwritten before they were drained
+     */
+    public long getOverwritten() {
+        return overwritten;
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final String line;
+
+        Entry(long sequence, String line) {
+            this.sequence = sequence;
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A cache of processed gcode files. Entries are keyed by the content of the
+ * source file and the configuration of the command processors, so a program
+ * which has been processed before with the same settings can be reused
+ * instead of processed again. The least recently used entries are removed
+ * when the cache grows larger than its maximum size.
+ *
+ * @author agent
+ */
+public class ProcessedGcodeCache {
+    private static final Logger logger = Logger.getLogger(ProcessedGcodeCache.class.getName());
+
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+
+    /**
+     * Changes whenever the way files are processed changes, for example a new
+     * GcodeStream format, so that old entries are not reused.
+     */
+    private static final int CACHE_VERSION = 2;
+
+    private static final String ENTRY_SEPARATOR = "_ugs_";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxSize;
+
+    public ProcessedGcodeCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates a key from the content of the source file and the configuration
+     * of the processors.
+     *
+     * @param source the file which will be processed
+     * @param processors the processors in the order they are applied
+     * @return the key or empty if one of the processors can't describe its configuration
+     * @throws IOException if the source file can't be read
+     */
+    public static Optional<String> createKey(File source, List<CommandProcessor> processors) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(CACHE_VERSION);
+        hasher.putBytes(com.google.common.io.Files.asByteSource(source).hash(Hashing.sha256()).asBytes());
+
+        for (CommandProcessor processor : processors) {
+            String configuration = processor.getConfiguration();
+            if (configuration == null) {
+                logger.log(Level.FINE, "The processor {0} can not be cached.", processor.getClass().getName());
+                return Optional.empty();
+            }
+            hasher.putInt(configuration.length());
+            hasher.putString(configuration, StandardCharsets.UTF_8);
+        }
+
+        return Optional.of(hasher.hash().toString());
+    }
+
+    /**
+     * Returns a cached file and marks it as recently used.
+     *
+     * @param name the name of the source file
+     * @param key the key from {@link #createKey(File, List)}
+     * @return the processed file if it is in the cache
+     */
+    public Optional<File> get(String name, String key) {
+        File file = getEntryFile(name, key);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+
+        if (!file.setLastModified(System.currentTimeMillis())) {
+            logger.log(Level.FINE, "Could not mark {0} as used.", file);
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Creates a temporary file in the cache directory which the processed
+     * program can be written to before it is added with {@link #put}.
+     *
+     * @param name the name of the source file
+     * @return a new empty file
+     * @throws IOException if the file can't be created
+     */
+    public File createTempFile(String name) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the cache directory " + directory);
+        }
+        return File.createTempFile(name + ENTRY_SEPARATOR, TEMP_SUFFIX, directory);
+    }
+
+    /**
+     * Adds a processed file to the cache and removes the least recently used
+     * entries if the cache has grown too large.
+     *
+     * @param name the name of the source file
+     * @param key the key from {@link #createKey(File, List)}
+     * @param processed the processed file, it is moved into the cache
+     * @return the cached file
+     * @throws IOException if the file can't be moved
+     */
+    public File put(String name, String key, File processed) throws IOException {
+        File file = getEntryFile(name, key);
+        Files.move(processed.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict(file);
+        return file;
+    }
+
+    /**
+     * Removes the least recently used files until the cache fits in its
+     * maximum size, the given file is kept as it is about to be used.
+     */
+    private void evict(File keep) {
+        File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            return;
+        }
+
+        long size = Arrays.stream(files).mapToLong(File::length).sum();
+        if (size <= maxSize) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (size <= maxSize) {
+                break;
+            }
+
+            if (file.equals(keep)) {
+                continue;
+            }
+
+            long length = file.length();
+            if (file.delete()) {
+                logger.log(Level.FINE, "Removed {0} from the processed gcode cache.", file);
+                size -= length;
+            }
+        }
+    }
+
+    private File getEntryFile(String name, String key) {
+        return new File(directory, name + ENTRY_SEPARATOR + key);
+    }
+}
@@ -66,11 +66,13 @@ public class Settings {
     private boolean singleStepMode = false;
     private boolean statusUpdatesEnabled = true;
     private int statusUpdateRate = 200;
+    private boolean plannerAwareStreaming = false;
     private Units preferredUnits = Units.MM;
 
     private boolean showNightlyWarning = true;
     private boolean showSerialPortWarning = true;
     private boolean autoStartPendant = false;
+    private boolean flightRecordingEnabled = false;
 
     private boolean autoConnect = false;
     private boolean autoReconnect = false;
@@ -90,6 +92,12 @@ public class Settings {
 
     private Map<Integer, Macro> macros = new HashMap<>();
 
+    /**
+     * The controllers serial receive buffer size by port name, for firmware
+     * which doesn't report it.
+     */
+    private Map<String, Integer> rxBufferSizeOverrides = new HashMap<>();
+
     private String language = "en_US";
 
     private String connectionDriver;
@@ -209,6 +217,27 @@ public class Settings {
         changed();
     }
 
+    /**
+     * @param port the port name
+     * @return the serial receive buffer size to use for the port or zero to detect it
+     */
+    public int getRxBufferSizeOverride(String port) {
+        return rxBufferSizeOverrides.getOrDefault(port, 0);
+    }
+
+    /**
+     * @param port the port name
+     * @param rxBufferSize the serial receive buffer size or zero to detect it
+     */
+    public void setRxBufferSizeOverride(String port, int rxBufferSize) {
+        if (rxBufferSize > 0) {
+            rxBufferSizeOverrides.put(port, rxBufferSize);
+        } else {
+            rxBufferSizeOverrides.remove(port);
+        }
+        changed();
+    }
+
     public String getPortRate() {
         return portRate;
     }
@@ -318,6 +347,15 @@ public class Settings {
         changed();
     }
 
+    public boolean isPlannerAwareStreaming() {
+        return plannerAwareStreaming;
+    }
+
+    public void setPlannerAwareStreaming(boolean plannerAwareStreaming) {
+        this.plannerAwareStreaming = plannerAwareStreaming;
+        changed();
+    }
+
     public boolean isStatusUpdatesEnabled() {
         return statusUpdatesEnabled;
     }
@@ -454,6 +492,19 @@ public class Settings {
         return this.autoStartPendant;
     }
 
+    /**
+     * Records a bounded Java Flight Recorder trace to the settings directory
+     * while enabled.
+     */
+    public void setFlightRecordingEnabled(boolean flightRecordingEnabled) {
+        this.flightRecordingEnabled = flightRecordingEnabled;
+        changed();
+    }
+
+    public boolean isFlightRecordingEnabled() {
+        return this.flightRecordingEnabled;
+    }
+
     public void setWorkspaceDirectory(String workspaceDirectory) {
         this.workspaceDirectory = workspaceDirectory;
     }
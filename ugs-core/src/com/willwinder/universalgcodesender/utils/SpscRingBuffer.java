@@ -0,0 +1,134 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded lock free queue for exactly one producer thread and one consumer
+ * thread. {@link #offer} may only be called by the producer and
+ * {@link #peek}, {@link #poll} and {@link #clear} only by the consumer, the
+ * size can be read from any thread.
+ *
+ * @author agent
+ */
+public class SpscRingBuffer<E> {
+    private final Object[] elements;
+    private final int mask;
+
+    // Index of the next element to poll, only written by the consumer.
+    private final AtomicLong head = new AtomicLong();
+
+    // Index of the next free slot, only written by the producer.
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity the minimum number of elements, it is rounded up to a power of two
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        elements = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an element to the end of the queue.
+     *
+     * @param element the element to add
+     * @return false if the queue is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+
+        long t = tail.get();
+        if (t - head.get() == elements.length) {
+            return false;
+        }
+
+        elements[(int) t & mask] = element;
+        // Publishes the element to the consumer.
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * @return the first element without removing it or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        return (E) elements[(int) h & mask];
+    }
+
+    /**
+     * @return the first element or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+
+        int index = (int) h & mask;
+        E element = (E) elements[index];
+        elements[index] = null;
+        // Hands the slot back to the producer.
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Removes all elements which have been published to the consumer.
+     */
+    public void clear() {
+        while (poll() != null) {
+            // Drain
+        }
+    }
+
+    public int size() {
+        // Read the head first so that the size is never negative.
+        long h = head.get();
+        return (int) Math.max(0, Math.min(tail.get() - h, elements.length));
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    public boolean isFull() {
+        return tail.get() - head.get() == elements.length;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
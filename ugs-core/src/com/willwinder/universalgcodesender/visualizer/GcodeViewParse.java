@@ -39,7 +39,6 @@ import com.willwinder.universalgcodesender.types.PointSegment;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 
@@ -48,13 +47,13 @@ public class GcodeViewParse {
     // Parsed object
     private final Position min;
     private final Position max;
-    private final List<LineSegment> lines;
+    private final LineSegmentStore lines;
 
     public GcodeViewParse()
     {
         min = new Position();
         max = new Position();
-        lines = new ArrayList<>();
+        lines = new LineSegmentStore();
     }
 
     public Position getMinimumExtremes()
@@ -112,7 +111,7 @@ public class GcodeViewParse {
     }
 
     /**
-     * Almost the same as toObjRedux, convert gcode to a LineSegment collection.
+     * Almost the same as toObjRedux, convert gcode to a line segment store.
      * I've tried refactoring this, but the function is so small that merging
      * toObjFromReader and toObjRedux adds more complexity than having these two
      * methods.
@@ -120,8 +119,8 @@ public class GcodeViewParse {
      * @param reader a stream with commands to parse.
      * @param arcSegmentLength length of line segments when expanding an arc.
      */
-    public List<LineSegment> toObjFromReader(IGcodeStreamReader reader,
-                                             double arcSegmentLength) throws IOException, GcodeParserException {
+    public LineSegmentStore toObjFromReader(IGcodeStreamReader reader,
+                                            double arcSegmentLength) throws IOException, GcodeParserException {
         lines.clear();
         GcodeParser gp = getParser(arcSegmentLength);
 
@@ -142,16 +141,17 @@ public class GcodeViewParse {
             }
         }
 
+        lines.trimToSize();
         return lines;
     }
     
     /**
-     * The original (working) gcode to LineSegment collection code.
+     * The original (working) gcode to line segment store code.
      *
      * @param gcode commands to visualize.
      * @param arcSegmentLength length of line segments when expanding an arc.
      */
-    public List<LineSegment> toObjRedux(List<String> gcode, double arcSegmentLength) throws GcodeParserException {
+    public LineSegmentStore toObjRedux(List<String> gcode, double arcSegmentLength) throws GcodeParserException {
         GcodeParser gp = getParser(arcSegmentLength);
 
         lines.clear();
@@ -183,25 +183,29 @@ public class GcodeViewParse {
             }
         }
         
+        lines.trimToSize();
         return lines;
     }
     
     /**
-     * Turns a point segment into one or more LineSegment. Arcs are expanded.
+     * Turns a point segment into one or more line segments. Arcs are expanded.
      * Keeps track of the minimum and maximum x/y/z locations.
      */
-    private List<LineSegment> addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, List<LineSegment> ret) {
+    private void addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, LineSegmentStore ret) {
         // For a line segment list ALL arcs must be converted to lines.
         double minArcLength = 0;
-        LineSegment ls;
         endSegment.convertToMetric();
         
-        Position end = new Position(endSegment.point());
+        Position end = endSegment.point();
+        int lineNumber = endSegment.getLineNumber();
+        boolean isArc = endSegment.isArc();
+        boolean isFastTraverse = endSegment.isFastTraverse();
+        boolean isZMovement = endSegment.isZMovement();
 
         // start is null for the first iteration.
         if (start != null) {
             // Expand arc for graphics.
-            if (endSegment.isArc()) {
+            if (isArc) {
                 List<Position> points =
                     GcodePreprocessorUtils.generatePointsAlongArcBDring(
                         start, end, endSegment.center(), endSegment.isClockwise(),
@@ -210,26 +214,18 @@ public class GcodeViewParse {
                 if (points != null) {
                     Position startPoint = start;
                     for (Position nextPoint : points) {
-                        ls = new LineSegment(startPoint, nextPoint, endSegment.getLineNumber());
-                        ls.setIsArc(endSegment.isArc());
-                        ls.setIsFastTraverse(endSegment.isFastTraverse());
-                        ls.setIsZMovement(endSegment.isZMovement());
+                        ret.add(startPoint.x, startPoint.y, startPoint.z, nextPoint.x, nextPoint.y, nextPoint.z,
+                                lineNumber, isArc, isFastTraverse, isZMovement);
                         this.testExtremes(nextPoint);
-                        ret.add(ls);
                         startPoint = nextPoint;
                     }
                 }
             // Line
             } else {
-                ls = new LineSegment(start, end, endSegment.getLineNumber());
-                ls.setIsArc(endSegment.isArc());
-                ls.setIsFastTraverse(endSegment.isFastTraverse());
-                ls.setIsZMovement(endSegment.isZMovement());
+                ret.add(start.x, start.y, start.z, end.x, end.y, end.z,
+                        lineNumber, isArc, isFastTraverse, isZMovement);
                 this.testExtremes(end);
-                ret.add(ls);
             }
         }
-        
-        return ret;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,309 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+
+import javax.vecmath.Point3d;
+import java.util.Arrays;
+
+/**
+ * A compact store of line segments using one primitive array per property
+ * instead of one {@link LineSegment} object with two positions per segment.
+ * All coordinates are stored in millimeters.
+ *
+ * Segments are read either by index or through a {@link Cursor} which is a
+ * reusable view of a single segment:
+ * <pre>
+ *     LineSegmentStore.Cursor cursor = store.cursor();
+ *     while (cursor.next()) {
+ *         double x = cursor.getEndX();
+ *     }
+ * </pre>
+ *
+ * @author agent
+ */
+public class LineSegmentStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final byte FLAG_ARC = 1;
+    private static final byte FLAG_FAST_TRAVERSE = 1 << 1;
+    private static final byte FLAG_Z_MOVEMENT = 1 << 2;
+
+    private int size = 0;
+
+    // Start and end coordinates, three values per segment.
+    private double[] start;
+    private double[] end;
+    private int[] lineNumbers;
+    private byte[] flags;
+
+    public LineSegmentStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LineSegmentStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        start = new double[capacity * 3];
+        end = new double[capacity * 3];
+        lineNumbers = new int[capacity];
+        flags = new byte[capacity];
+    }
+
+    /**
+     * Adds a segment, the coordinates must be in millimeters.
+     */
+    public void add(double startX, double startY, double startZ,
+                    double endX, double endY, double endZ,
+                    int lineNumber, boolean isArc, boolean isFastTraverse, boolean isZMovement) {
+        ensureCapacity(size + 1);
+
+        int i = size * 3;
+        start[i] = startX;
+        start[i + 1] = startY;
+        start[i + 2] = startZ;
+        end[i] = endX;
+        end[i + 1] = endY;
+        end[i + 2] = endZ;
+
+        lineNumbers[size] = lineNumber;
+        byte f = 0;
+        if (isArc) {
+            f |= FLAG_ARC;
+        }
+        if (isFastTraverse) {
+            f |= FLAG_FAST_TRAVERSE;
+        }
+        if (isZMovement) {
+            f |= FLAG_Z_MOVEMENT;
+        }
+        flags[size] = f;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Releases any unused capacity.
+     */
+    public void trimToSize() {
+        if (lineNumbers.length > size) {
+            resize(Math.max(1, size));
+        }
+    }
+
+    public double getStartX(int index) {
+        return start[checkIndex(index) * 3];
+    }
+
+    public double getStartY(int index) {
+        return start[checkIndex(index) * 3 + 1];
+    }
+
+    public double getStartZ(int index) {
+        return start[checkIndex(index) * 3 + 2];
+    }
+
+    public double getEndX(int index) {
+        return end[checkIndex(index) * 3];
+    }
+
+    public double getEndY(int index) {
+        return end[checkIndex(index) * 3 + 1];
+    }
+
+    public double getEndZ(int index) {
+        return end[checkIndex(index) * 3 + 2];
+    }
+
+    /**
+     * Copies the start point of a segment into the given point.
+     *
+     * @return the given point
+     */
+    public <T extends Point3d> T getStart(int index, T point) {
+        int i = checkIndex(index) * 3;
+        point.set(start[i], start[i + 1], start[i + 2]);
+        return point;
+    }
+
+    /**
+     * Copies the end point of a segment into the given point.
+     *
+     * @return the given point
+     */
+    public <T extends Point3d> T getEnd(int index, T point) {
+        int i = checkIndex(index) * 3;
+        point.set(end[i], end[i + 1], end[i + 2]);
+        return point;
+    }
+
+    public int getLineNumber(int index) {
+        return lineNumbers[checkIndex(index)];
+    }
+
+    public boolean isArc(int index) {
+        return (flags[checkIndex(index)] & FLAG_ARC) != 0;
+    }
+
+    public boolean isFastTraverse(int index) {
+        return (flags[checkIndex(index)] & FLAG_FAST_TRAVERSE) != 0;
+    }
+
+    public boolean isZMovement(int index) {
+        return (flags[checkIndex(index)] & FLAG_Z_MOVEMENT) != 0;
+    }
+
+    /**
+     * Creates a {@link LineSegment} object for the segment, this allocates
+     * new objects and should be avoided when iterating large stores.
+     */
+    public LineSegment get(int index) {
+        LineSegment ls = new LineSegment(
+                getStart(index, new Position(0, 0, 0, UnitUtils.Units.MM)),
+                getEnd(index, new Position(0, 0, 0, UnitUtils.Units.MM)),
+                getLineNumber(index));
+        ls.setIsArc(isArc(index));
+        ls.setIsFastTraverse(isFastTraverse(index));
+        ls.setIsZMovement(isZMovement(index));
+        return ls;
+    }
+
+    /**
+     * @return a new cursor positioned before the first segment
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > lineNumbers.length) {
+            resize(Math.max(capacity, lineNumbers.length + (lineNumbers.length >> 1)));
+        }
+    }
+
+    private void resize(int capacity) {
+        start = Arrays.copyOf(start, capacity * 3);
+        end = Arrays.copyOf(end, capacity * 3);
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    /**
+     * A reusable view of one segment in the store.
+     */
+    public class Cursor {
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next segment.
+         *
+         * @return false if there are no more segments
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        /**
+         * Moves to the given segment.
+         */
+        public Cursor moveTo(int index) {
+            this.index = checkIndex(index);
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getStartX() {
+            return start[index * 3];
+        }
+
+        public double getStartY() {
+            return start[index * 3 + 1];
+        }
+
+        public double getStartZ() {
+            return start[index * 3 + 2];
+        }
+
+        public double getEndX() {
+            return end[index * 3];
+        }
+
+        public double getEndY() {
+            return end[index * 3 + 1];
+        }
+
+        public double getEndZ() {
+            return end[index * 3 + 2];
+        }
+
+        public <T extends Point3d> T getStart(T point) {
+            return LineSegmentStore.this.getStart(index, point);
+        }
+
+        public <T extends Point3d> T getEnd(T point) {
+            return LineSegmentStore.this.getEnd(index, point);
+        }
+
+        public int getLineNumber() {
+            return lineNumbers[index];
+        }
+
+        public boolean isArc() {
+            return (flags[index] & FLAG_ARC) != 0;
+        }
+
+        public boolean isFastTraverse() {
+            return (flags[index] & FLAG_FAST_TRAVERSE) != 0;
+        }
+
+        public boolean isZMovement() {
+            return (flags[index] & FLAG_Z_MOVEMENT) != 0;
+        }
+    }
+}
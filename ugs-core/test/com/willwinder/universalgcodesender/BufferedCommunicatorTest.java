@@ -38,16 +38,28 @@ import org.mockito.ArgumentCaptor;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author wwinder
@@ -574,6 +586,126 @@ public class BufferedCommunicatorTest {
         assertFalse(instance.isPaused());
     }
 
+    @Test
+    public void connectedCommunicatorShouldStreamFromTheSendPipeline() throws Exception {
+        // Given
+        List<String> sentLines = Collections.synchronizedList(new ArrayList<>());
+        Connection connection = mock(Connection.class);
+        when(connection.openPort()).thenReturn(true);
+        doAnswer(invocation -> sentLines.add(invocation.getArgument(0)))
+                .when(connection).sendStringToComm(anyString());
+        doAnswer(invocation -> {
+            List<byte[]> commands = invocation.getArgument(0);
+            commands.forEach(command -> sentLines.add(new String(command, StandardCharsets.UTF_8)));
+            return null;
+        }).when(connection).sendBytesToComm(anyList());
+        instance.setConnection(connection);
+        instance.connect(ConnectionDriver.JSSC, "", 0);
+
+        String tenChar = "123456789";
+        for (int i = 0; i < 20; i++) {
+            instance.queueCommand(new GcodeCommand(tenChar));
+        }
+
+        // When
+        instance.streamCommands();
+
+        // Then the buffer should be filled by the sender thread
+        waitForSize(sentLines, 10);
+        assertEquals(Collections.nCopies(10, tenChar + "\n"), sentLines);
+
+        // Responses should release room for the remaining commands
+        for (int i = 0; i < 10; i++) {
+            instance.handleResponseMessage("ok");
+        }
+        waitForSize(sentLines, 20);
+        assertEquals(Collections.nCopies(20, tenChar + "\n"), sentLines);
+
+        instance.disconnect();
+    }
+
+    @Test
+    public void cancelWhileABatchIsPendingShouldNotWriteTheBatch() throws Exception {
+        // Given a communicator which is canceled from another thread after
+        // three commands have been added to the batch
+        List<String> sentLines = Collections.synchronizedList(new ArrayList<>());
+        Connection connection = mock(Connection.class);
+        when(connection.openPort()).thenReturn(true);
+        doAnswer(invocation -> sentLines.add(invocation.getArgument(0)))
+                .when(connection).sendStringToComm(anyString());
+        doAnswer(invocation -> {
+            List<byte[]> commands = invocation.getArgument(0);
+            commands.forEach(command -> sentLines.add(new String(command, StandardCharsets.UTF_8)));
+            return null;
+        }).when(connection).sendBytesToComm(anyList());
+
+        AtomicInteger bufferSizeCalls = new AtomicInteger(-1);
+        AtomicReference<Thread> cancelThread = new AtomicReference<>();
+        instance = new BufferedCommunicatorImpl(cb, asl) {
+            @Override
+            public int getBufferSize() {
+                if (bufferSizeCalls.get() >= 0 && bufferSizeCalls.incrementAndGet() == 4) {
+                    Thread thread = new Thread(this::cancelSend);
+                    cancelThread.set(thread);
+                    thread.start();
+                    waitForState(thread, Thread.State.TIMED_WAITING);
+                }
+                return super.getBufferSize();
+            }
+        };
+        instance.setConnection(connection);
+        instance.connect(ConnectionDriver.JSSC, "", 0);
+
+        // Fill the send queue while paused so that the batch is collected at once
+        instance.pauseSend();
+        String tenChar = "123456789";
+        for (int i = 0; i < 20; i++) {
+            instance.queueCommand(new GcodeCommand(tenChar));
+        }
+        instance.streamCommands();
+        waitUntilEmpty(cb);
+
+        // When
+        bufferSizeCalls.set(0);
+        instance.resumeSend();
+        waitForValue(cancelThread);
+        cancelThread.get().join(1000);
+
+        // Then
+        assertTrue(sentLines.isEmpty());
+        assertFalse(instance.areActiveCommands());
+
+        instance.disconnect();
+    }
+
+    private static void waitUntilEmpty(Collection<?> collection) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!collection.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void waitForValue(AtomicReference<?> reference) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (reference.get() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void waitForState(Thread thread, Thread.State state) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (thread.getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private static void waitForSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
     public class BufferedCommunicatorImpl extends BufferedCommunicator {
         BufferedCommunicatorImpl(LinkedBlockingDeque<GcodeCommand> cb, LinkedBlockingDeque<GcodeCommand> asl) {
             super(cb, asl);
@@ -18,12 +18,16 @@
  */
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.connection.ResponseMessageHandler;
 import com.willwinder.universalgcodesender.utils.CommUtils;
 import com.willwinder.universalgcodesender.mockobjects.MockConnection;
 import com.willwinder.universalgcodesender.mockobjects.MockGrbl;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import java.util.LinkedList;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
@@ -489,4 +493,53 @@ public class GrblCommunicatorTest {
         assertEquals(0, cb.size());
         assertFalse("The communicator should not be paused when last command has an error", instance.isPaused());
     }
+
+    @Test
+    public void responseFramesShouldCompleteCommandsByTheirType() {
+        MockConnection mc = new MockConnection(mg.in, mg.out);
+        GrblCommunicator instance = new GrblCommunicator(cb, asl, mc);
+        ResponseMessageHandler responseMessageHandler = new ResponseMessageHandler();
+        responseMessageHandler.addListener(instance);
+
+        instance.queueCommand(new GcodeCommand("G0X1"));
+        instance.queueCommand(new GcodeCommand("G0X2"));
+        instance.streamCommands();
+        assertEquals(2, asl.size());
+
+        // Status reports and feedback messages don't complete any commands
+        responseMessageHandler.handleResponse("<Idle|MPos:0.000,0.000,0.000|FS:0,0>\n[MSG:error]\n");
+        assertEquals(2, asl.size());
+
+        responseMessageHandler.handleResponse("ok\nerror:20\n");
+        assertEquals(0, asl.size());
+        assertFalse(instance.isPaused());
+    }
+
+    @Test
+    public void eepromCommandShouldBeWrittenAloneUntilItIsCompleted() throws Exception {
+        MockConnection mc = new MockConnection(mg.in, mg.out);
+        GrblCommunicator instance = new GrblCommunicator(cb, asl, mc);
+        instance.connect(ConnectionDriver.JSSC, "", 0);
+
+        // Queue the commands while paused so that they are all waiting to be sent at once
+        instance.pauseSend();
+        instance.queueCommand(new GcodeCommand("G10 L20 P1 X0"));
+        instance.queueCommand(new GcodeCommand("G0 X1"));
+        instance.queueCommand(new GcodeCommand("G0 X2"));
+        instance.streamCommands();
+        ThreadHelper.waitUntil(cb::isEmpty, 1000, TimeUnit.MILLISECONDS);
+        instance.resumeSend();
+
+        ThreadHelper.waitUntil(() -> asl.size() == 1, 1000, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+        assertEquals("G10 L20 P1 X0\n", mg.readStringFromGrblBuffer());
+        assertEquals(1, asl.size());
+
+        // The following commands are sent once the EEPROM write is completed
+        instance.handleResponseMessage("ok");
+        ThreadHelper.waitUntil(() -> asl.size() == 2, 1000, TimeUnit.MILLISECONDS);
+        assertEquals("G0 X1\nG0 X2\n", mg.readStringFromGrblBuffer());
+
+        instance.disconnect();
+    }
 }
@@ -1340,6 +1340,26 @@ public class GrblControllerTest {
         assertEquals(COMM_CHECK, instance.getControlState());
     }
 
+    @Test
+    public void rxBufferSizeOverrideShouldTakePrecedenceOverTheBuildOptions() throws Exception {
+        // Given
+        GrblController instance = new GrblController(mgc);
+        instance.openCommPort(getSettings().getConnectionDriver(), "foo", 2400);
+        instance.rawResponseHandler("Grbl 1.1f");
+        instance.rawResponseHandler("[OPT:V,15,1024]");
+        assertEquals(1024 - GrblUtils.GRBL_RX_BUFFER_MARGIN, mgc.getBufferSize());
+
+        // When
+        instance.setRxBufferSizeOverride(256);
+
+        // Then
+        assertEquals(256 - GrblUtils.GRBL_RX_BUFFER_MARGIN, mgc.getBufferSize());
+
+        // The detected size is used again when the override is removed
+        instance.setRxBufferSizeOverride(0);
+        assertEquals(1024 - GrblUtils.GRBL_RX_BUFFER_MARGIN, mgc.getBufferSize());
+    }
+
     @Test
     public void versionStringShouldResetStatus() throws Exception {
         // Given
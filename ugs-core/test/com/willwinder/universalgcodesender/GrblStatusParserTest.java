@@ -0,0 +1,245 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.AccessoryStates;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.EnabledPins;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class GrblStatusParserTest {
+
+    private static final String[] REPORTS = {
+            "<Idle|MPos:1.1,2.2,3.3|WPos:4.4,5.5,6.6|WCO:7.7,8.8,9.9|Ov:1,2,3|F:12345.6|FS:12345.7,65432.1|Pn:XYZPDHRS|A:SFMC>",
+            "<Idle|MPos:1.1,2.2,3.3|WPos:4.4,5.5,6.6|Ov:1,2,3|F:12345.6|FS:12345.7,65432.1|Pn:XYZPDHRS|A:SFMC>",
+            "<Idle|MPos:1.0,2.0,3.0|WCO:7.0,8.0,9.0|Ov:1,2,3|F:12345.6|FS:12345.7,65432.1|Pn:XYZPDHRS|A:SFMC>",
+            "<Idle|WPos:4.0,5.0,6.0|WCO:7.0,8.0,9.0|Ov:1,2,3|FS:12345.7,65432.1|F:12345.6|Pn:XYZPDHRS|A:SFMC>",
+            "<Idle|WPos:4.0,5.0,6.0|WCO:7.0,8.0,9.0|Ov:1,2,3|F:12345.6,1000.0>",
+            "<Idle|WPos:4.0,5.0,6.0|WCO:7.0,8.0,9.0|Ov:1,2,3|F:12345.6,1000.0,2000.0>",
+            "<Idle|WPos:4.0,5.0,6.0|WCO:7.0,8.0,9.0|Ov:1,2,3|FS:12345.7,65432.1|F:12345.6|A:SFMC>",
+            "<Run|MPos:1.0,2.0,3.0|Bf:15,128|FS:500,0>",
+            "<Run|MPos:1.0,2.0,3.0|FS:500,0>",
+            "<Run|MPos:-10.000,-0.000,0.001|Bf:12,100|FS:1500,12000|Pn:pz>",
+            "<Hold:0|MPos:-10.000,-0.000,0.001|Bf:12,100|FS:0,12000>",
+            "<Door:1|WPos:.5,5.,-.25|FS:0,0|Ov:100,100,100|A:fm>",
+            "<Jog|MPos:1.000,2.000,3.000,4.000|FS:300,0>",
+            "<Alarm|MPos:0.000,0.000,0.000|FS:0,0|Pn:XYZ>",
+            "<Home|MPos:0.000,0.000,0.000|FS:0,0|WCO:-1.500,2.250,0.000>",
+            "<Check|MPos:0.000,0.000,0.000|FS:0,0>",
+            "<Sleep|MPos:0.000,0.000,0.000|FS:0,0>",
+            "<Tool|MPos:0.000,0.000,0.000|FS:0,0|WCO:0,0,0>",
+            "<idle|MPos:123456.789,-98765.4321,0.000001|F:100>",
+            "<Idle|MPos:1e3,2,3|FS:0,0>",
+            "<Idle|MPos:1,2|FS:0,0>",
+            "<Idle|MPos:12345678901234567890.5,0,0|FS:0,0>",
+            "<Idle|MPos:0.12345678901234567890123,0,0|FS:0,0>",
+            "<Idle|MPos:1,2,3|Ov: 100,100,100|FS:0,0>",
+            "<Idle|MPos:1,2,3|Ov:100,100|Pn:X>",
+            "<Idle||MPos:1,2,3|Unknown:1,2|FS:0,0>",
+            "<Idle>",
+            "<Idle|WCO:1,2,3>",
+    };
+
+    @Test
+    public void parseShouldGiveTheSameStatusAsTheRegularParser() {
+        GrblStatusParser parser = new GrblStatusParser();
+        ControllerStatus lastExpected = null;
+        ControllerStatus lastActual = null;
+
+        // Every report is parsed after every other one so the values are carried over in all combinations
+        for (String previous : REPORTS) {
+            for (String report : REPORTS) {
+                lastExpected = GrblUtils.getStatusFromStatusStringV1(lastExpected, previous, Units.MM);
+                lastActual = parser.parse(lastActual, previous, Units.MM);
+                assertStatusEquals(previous, lastExpected, lastActual);
+
+                lastExpected = GrblUtils.getStatusFromStatusStringV1(lastExpected, report, Units.MM);
+                lastActual = parser.parse(lastActual, report, Units.MM);
+                assertStatusEquals(report, lastExpected, lastActual);
+            }
+        }
+    }
+
+    @Test
+    public void parseWithoutLastStatusShouldGiveTheSameStatusAsTheRegularParser() {
+        GrblStatusParser parser = new GrblStatusParser();
+        for (String report : REPORTS) {
+            assertStatusEquals(report,
+                    GrblUtils.getStatusFromStatusStringV1(null, report, Units.INCH),
+                    parser.parse(null, report, Units.INCH));
+        }
+    }
+
+    @Test
+    public void parseShouldGiveTheSameNumbersAsParseDouble() {
+        GrblStatusParser parser = new GrblStatusParser();
+        Random random = new Random(1234);
+        for (int i = 0; i < 10000; i++) {
+            String x = String.format(Locale.ROOT, "%.3f", (random.nextDouble() - 0.5) * 2000);
+            String y = String.format(Locale.ROOT, "%.4f", (random.nextDouble() - 0.5) * 200);
+            String z = Long.toString(random.nextLong() % 100000000000L) + "." + Math.abs(random.nextInt());
+            ControllerStatus status = parser.parse(null, "<Run|MPos:" + x + "," + y + "," + z + "|FS:0,0>", Units.MM);
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(x)), Double.doubleToRawLongBits(status.getMachineCoord().x));
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(y)), Double.doubleToRawLongBits(status.getMachineCoord().y));
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(z)), Double.doubleToRawLongBits(status.getMachineCoord().z));
+        }
+    }
+
+    @Test
+    public void parseShouldReturnTheLastStatusIfNothingChanged() {
+        GrblStatusParser parser = new GrblStatusParser();
+        String report = "<Idle|MPos:1.000,2.000,3.000|Bf:15,128|FS:0,0|WCO:0.000,0.000,0.000>";
+        ControllerStatus first = parser.parse(null, report, Units.MM);
+        ControllerStatus second = parser.parse(first, report, Units.MM);
+        assertSame(first, second);
+
+        // WCO is only reported now and then, without it the last one is used
+        ControllerStatus third = parser.parse(second, "<Idle|MPos:1.000,2.000,3.000|Bf:15,128|FS:0,0>", Units.MM);
+        assertSame(first, third);
+
+        // Override reports without any pins should keep returning the same status
+        ControllerStatus fourth = parser.parse(third, "<Idle|MPos:1.000,2.000,3.000|Bf:15,128|FS:0,0|Ov:100,100,100>", Units.MM);
+        assertNotSame(third, fourth);
+        assertSame(fourth, parser.parse(fourth, "<Idle|MPos:1.000,2.000,3.000|Bf:15,128|FS:0,0|Ov:100,100,100>", Units.MM));
+    }
+
+    @Test
+    public void parseShouldReuseTheValuesWhichDidNotChange() {
+        GrblStatusParser parser = new GrblStatusParser();
+        ControllerStatus first = parser.parse(null, "<Run|MPos:1.000,2.000,3.000|Bf:15,128|FS:100,0|WCO:1.000,1.000,1.000|Ov:100,100,100|Pn:P>", Units.MM);
+        ControllerStatus second = parser.parse(first, "<Run|MPos:1.500,2.000,3.000|Bf:15,128|FS:100,0>", Units.MM);
+
+        assertNotSame(first, second);
+        assertEquals(1.5, second.getMachineCoord().x, 0);
+        assertEquals(0.5, second.getWorkCoord().x, 0);
+        assertSame(first.getWorkCoordinateOffset(), second.getWorkCoordinateOffset());
+        assertSame(first.getBufferState(), second.getBufferState());
+        assertSame(first.getFeedSpeed(), second.getFeedSpeed());
+        assertSame(first.getOverrides(), second.getOverrides());
+        assertSame(first.getEnabledPins(), second.getEnabledPins());
+        assertSame(first.getAccessoryStates(), second.getAccessoryStates());
+    }
+
+    @Test
+    public void parseShouldCreateANewStatusWhenTheStateChanges() {
+        GrblStatusParser parser = new GrblStatusParser();
+        ControllerStatus idle = parser.parse(null, "<Idle|MPos:1.000,2.000,3.000|FS:0,0>", Units.MM);
+        ControllerStatus hold = parser.parse(idle, "<Hold:0|MPos:1.000,2.000,3.000|FS:0,0>", Units.MM);
+        assertEquals(ControllerState.HOLD, hold.getState());
+        assertSame(idle.getMachineCoord(), hold.getMachineCoord());
+    }
+
+    @Test
+    public void parseShouldFailLikeTheRegularParserOnMalformedReports() {
+        GrblStatusParser parser = new GrblStatusParser();
+        String[] malformed = {"<Idle|FS:1>", "<Idle|MPos:-,2,3>", "<Idle|Ov:a,b,c>", "<Idle|F:,100>", ""};
+        for (String report : malformed) {
+            Class<?> expected = null;
+            try {
+                GrblUtils.getStatusFromStatusStringV1(null, report, Units.MM);
+            } catch (RuntimeException e) {
+                expected = e.getClass();
+            }
+            assertNotNull("Expected the regular parser to fail on " + report, expected);
+
+            try {
+                parser.parse(null, report, Units.MM);
+                fail("Expected " + expected.getSimpleName() + " for " + report);
+            } catch (RuntimeException e) {
+                assertEquals(report, expected, e.getClass());
+            }
+        }
+    }
+
+    private static void assertStatusEquals(String report, ControllerStatus expected, ControllerStatus actual) {
+        assertEquals(report, expected.getState(), actual.getState());
+        assertPositionEquals(report, expected.getMachineCoord(), actual.getMachineCoord());
+        assertPositionEquals(report, expected.getWorkCoord(), actual.getWorkCoord());
+        assertPositionEquals(report, expected.getWorkCoordinateOffset(), actual.getWorkCoordinateOffset());
+        assertEquals(report, expected.getFeedSpeed(), actual.getFeedSpeed());
+        assertEquals(report, expected.getSpindleSpeed(), actual.getSpindleSpeed());
+        assertEquals(report, expected.getFeedSpeedUnits(), actual.getFeedSpeedUnits());
+
+        if (expected.getOverrides() == null) {
+            assertNull(report, actual.getOverrides());
+        } else {
+            assertEquals(report, expected.getOverrides().feed, actual.getOverrides().feed);
+            assertEquals(report, expected.getOverrides().rapid, actual.getOverrides().rapid);
+            assertEquals(report, expected.getOverrides().spindle, actual.getOverrides().spindle);
+        }
+
+        if (expected.getBufferState() == null) {
+            assertNull(report, actual.getBufferState());
+        } else {
+            assertEquals(report, expected.getBufferState().plannerBlocksAvailable, actual.getBufferState().plannerBlocksAvailable);
+            assertEquals(report, expected.getBufferState().rxBytesAvailable, actual.getBufferState().rxBytesAvailable);
+        }
+
+        EnabledPins expectedPins = expected.getEnabledPins();
+        EnabledPins actualPins = actual.getEnabledPins();
+        if (expectedPins == null) {
+            assertNull(report, actualPins);
+        } else {
+            assertEquals(report, pins(expectedPins), pins(actualPins));
+        }
+
+        AccessoryStates expectedStates = expected.getAccessoryStates();
+        AccessoryStates actualStates = actual.getAccessoryStates();
+        if (expectedStates == null) {
+            assertNull(report, actualStates);
+        } else {
+            assertEquals(report, accessoryStates(expectedStates), accessoryStates(actualStates));
+        }
+    }
+
+    private static void assertPositionEquals(String report, Position expected, Position actual) {
+        if (expected == null) {
+            assertNull(report, actual);
+            return;
+        }
+        assertEquals(report, expected.getUnits(), actual.getUnits());
+        assertEquals(report, Double.doubleToRawLongBits(expected.x), Double.doubleToRawLongBits(actual.x));
+        assertEquals(report, Double.doubleToRawLongBits(expected.y), Double.doubleToRawLongBits(actual.y));
+        assertEquals(report, Double.doubleToRawLongBits(expected.z), Double.doubleToRawLongBits(actual.z));
+    }
+
+    private static String pins(EnabledPins pins) {
+        return "" + pins.X + pins.Y + pins.Z + pins.Probe + pins.Door + pins.Hold + pins.SoftReset + pins.CycleStart;
+    }
+
+    private static String accessoryStates(AccessoryStates states) {
+        return "" + states.SpindleCW + states.SpindleCCW + states.Flood + states.Mist;
+    }
+}
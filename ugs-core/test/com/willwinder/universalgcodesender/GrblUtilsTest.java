@@ -260,6 +260,24 @@ public class GrblUtilsTest {
         assertTrue(result.hasCapability(GrblCapabilitiesConstants.HARDWARE_JOGGING));
         assertTrue(result.hasOverrides());
         assertTrue(result.hasContinuousJogging());
+        assertFalse(result.hasCapability(GrblCapabilitiesConstants.BUILD_OPTIONS_BUFFER_SIZE));
+
+        version = 1.1;
+        letter = 'f';
+        result = GrblUtils.getGrblStatusCapabilities(version, letter);
+        assertTrue(result.hasCapability(GrblCapabilitiesConstants.BUILD_OPTIONS_BUFFER_SIZE));
+        assertEquals(0, result.getRxBufferSize());
+    }
+
+    @Test
+    public void testGetRxBufferSizeFromBuildOptions() {
+        assertTrue(GrblUtils.isGrblBuildOptionsMessage("[OPT:V,15,128]"));
+        assertFalse(GrblUtils.isGrblBuildOptionsMessage("[VER:1.1f.20170801:]"));
+
+        assertEquals(128, GrblUtils.getRxBufferSizeFromBuildOptions("[OPT:V,15,128]"));
+        assertEquals(1024, GrblUtils.getRxBufferSizeFromBuildOptions("[OPT:VNMSL,35,1024,3,0]"));
+        assertEquals(256, GrblUtils.getRxBufferSizeFromBuildOptions("[OPT:,15,256]"));
+        assertEquals(-1, GrblUtils.getRxBufferSizeFromBuildOptions("[OPT:VL]"));
     }
 
     /**
@@ -565,4 +583,22 @@ public class GrblUtilsTest {
         assertFalse(controllerStatus.getAccessoryStates().SpindleCCW);
         assertFalse(controllerStatus.getAccessoryStates().SpindleCW);
     }
+
+    @Test
+    public void getStatusFromStringVersion1WithBufferState() {
+        String status = "<Run|MPos:1.0,2.0,3.0|Bf:15,128|FS:500,0>";
+        Capabilities version = new Capabilities();
+        version.addCapability(GrblCapabilitiesConstants.V1_FORMAT);
+        UnitUtils.Units unit = UnitUtils.Units.MM;
+
+        ControllerStatus controllerStatus = GrblUtils.getStatusFromStatusString(null, status, version, unit);
+
+        assertEquals(15, controllerStatus.getBufferState().plannerBlocksAvailable);
+        assertEquals(128, controllerStatus.getBufferState().rxBytesAvailable);
+
+        // The buffer state is only reported when enabled in the status report mask
+        status = "<Run|MPos:1.0,2.0,3.0|FS:500,0>";
+        controllerStatus = GrblUtils.getStatusFromStatusString(controllerStatus, status, version, unit);
+        assertNull(controllerStatus.getBufferState());
+    }
 }
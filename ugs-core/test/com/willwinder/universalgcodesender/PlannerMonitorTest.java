@@ -0,0 +1,141 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus.BufferState;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class PlannerMonitorTest {
+
+    @Test
+    public void bufferSizesShouldBeLearnedFromTheLargestReport() {
+        PlannerMonitor monitor = new PlannerMonitor();
+        assertFalse(monitor.hasBufferState());
+        assertEquals(0, monitor.getRxBufferSize());
+
+        monitor.update(new BufferState(10, 64), ControllerState.RUN, 0);
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 100);
+        monitor.update(new BufferState(5, 100), ControllerState.RUN, 200);
+
+        assertTrue(monitor.hasBufferState());
+        assertEquals(15, monitor.getPlannerSize());
+        assertEquals(128, monitor.getRxBufferSize());
+        assertEquals(10 / 15.0, monitor.getPlannerFill(), 0.001);
+
+        monitor.reset();
+        assertFalse(monitor.hasBufferState());
+        assertEquals(0, monitor.getPlannerSize());
+    }
+
+    @Test
+    public void missingBufferStateShouldBeIgnored() {
+        PlannerMonitor monitor = new PlannerMonitor();
+        monitor.update(null, ControllerState.RUN, 0);
+        assertFalse(monitor.hasBufferState());
+        assertEquals(200, monitor.getPollInterval(200));
+    }
+
+    @Test
+    public void starvationShouldOnlyBeMeasuredWhileAJobIsRunning() {
+        PlannerMonitor monitor = new PlannerMonitor();
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 0);
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 100);
+        assertEquals(0, monitor.getStarvationTime());
+
+        monitor.startJob(1000);
+        monitor.update(new BufferState(2, 10), ControllerState.RUN, 1100);
+        monitor.update(new BufferState(15, 128), ControllerState.RUN, 1200);
+        monitor.update(new BufferState(15, 128), ControllerState.RUN, 1300);
+        monitor.update(new BufferState(3, 50), ControllerState.RUN, 1400);
+
+        // Paused by the user is not starvation
+        monitor.update(new BufferState(15, 128), ControllerState.HOLD, 1500);
+        monitor.update(new BufferState(15, 128), ControllerState.HOLD, 1600);
+
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 1700);
+        monitor.update(new BufferState(4, 60), ControllerState.RUN, 1750);
+
+        assertEquals(250, monitor.getStarvationTime());
+        assertEquals(2, monitor.getStarvationCount());
+
+        monitor.finishJob();
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 1800);
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 2000);
+        assertEquals(250, monitor.getStarvationTime());
+
+        monitor.startJob(3000);
+        assertEquals(0, monitor.getStarvationTime());
+        assertEquals(0, monitor.getStarvationCount());
+    }
+
+    @Test
+    public void pollIntervalShouldFollowThePlannerFill() {
+        PlannerMonitor monitor = new PlannerMonitor();
+        monitor.update(new BufferState(16, 128), ControllerState.IDLE, 0);
+
+        // Not adapted without a job
+        assertEquals(200, monitor.getPollInterval(200));
+
+        monitor.startJob(0);
+        monitor.update(new BufferState(14, 100), ControllerState.RUN, 100);
+        assertEquals(100, monitor.getPollInterval(200));
+        assertEquals(PlannerMonitor.MIN_POLL_INTERVAL, monitor.getPollInterval(80));
+        assertEquals(20, monitor.getPollInterval(20));
+
+        monitor.update(new BufferState(8, 100), ControllerState.RUN, 200);
+        assertEquals(200, monitor.getPollInterval(200));
+
+        monitor.update(new BufferState(1, 100), ControllerState.RUN, 300);
+        assertEquals(400, monitor.getPollInterval(200));
+        assertEquals(PlannerMonitor.MAX_POLL_INTERVAL, monitor.getPollInterval(800));
+        assertEquals(2000, monitor.getPollInterval(2000));
+    }
+
+    @Test
+    public void sendWindowShouldBeHeldBackWhileThePlannerIsFull() {
+        PlannerMonitor monitor = new PlannerMonitor();
+        monitor.update(new BufferState(15, 128), ControllerState.IDLE, 0);
+
+        // Not adapted without a job
+        monitor.update(new BufferState(0, 10), ControllerState.RUN, 50);
+        assertEquals(123, monitor.getSendWindow(123));
+
+        monitor.startJob(100);
+        monitor.update(new BufferState(0, 10), ControllerState.RUN, 200);
+        assertEquals(250, monitor.getSendWindow(500));
+        assertEquals(PlannerMonitor.MIN_SEND_WINDOW, monitor.getSendWindow(123));
+        assertEquals(60, monitor.getSendWindow(60));
+
+        // The full window is used again as soon as the planner has room
+        monitor.update(new BufferState(1, 10), ControllerState.RUN, 300);
+        assertEquals(123, monitor.getSendWindow(123));
+
+        monitor.update(new BufferState(0, 10), ControllerState.RUN, 400);
+        monitor.finishJob();
+        assertEquals(123, monitor.getSendWindow(123));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender;
+
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.mockobjects.MockGrblCommunicator;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class StatusPollTimerTest {
+    private GrblController controller;
+    private StatusPollTimer timer;
+
+    @Before
+    public void setUp() throws Exception {
+        controller = new GrblController(new MockGrblCommunicator());
+        controller.setStatusUpdatesEnabled(false);
+        controller.openCommPort(ConnectionDriver.JSSC, "blah", 1234);
+        controller.rawResponseHandler("Grbl 1.1f ['$' for help]");
+        controller.setStatusUpdateRate(100);
+        controller.setStatusUpdatesEnabled(true);
+        timer = new StatusPollTimer(controller);
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+        controller.setStatusUpdatesEnabled(false);
+    }
+
+    @Test
+    public void pollIntervalShouldBeLongerWhileIdle() {
+        timer.start();
+
+        controller.rawResponseHandler("<Run|MPos:0.000,0.000,0.000|FS:0,0>");
+        assertEquals(100, timer.getPollInterval());
+
+        controller.rawResponseHandler("<Jog|MPos:0.000,0.000,0.000|FS:0,0>");
+        assertEquals(100, timer.getPollInterval());
+
+        controller.rawResponseHandler("<Idle|MPos:0.000,0.000,0.000|FS:0,0>");
+        assertEquals(100 * StatusPollTimer.IDLE_INTERVAL_FACTOR, timer.getPollInterval());
+
+        controller.rawResponseHandler("<Alarm|MPos:0.000,0.000,0.000|FS:0,0>");
+        assertEquals(100 * StatusPollTimer.IDLE_INTERVAL_FACTOR, timer.getPollInterval());
+
+        timer.setUpdateInterval(400);
+        assertEquals(StatusPollTimer.MAX_IDLE_INTERVAL, timer.getPollInterval());
+
+        timer.setUpdateInterval(2000);
+        assertEquals(2000, timer.getPollInterval());
+    }
+
+    @Test
+    public void startShouldRestoreTheStatusUpdateRate() {
+        timer.start();
+        controller.rawResponseHandler("<Run|MPos:0.000,0.000,0.000|FS:0,0>");
+        timer.setUpdateInterval(50);
+        assertEquals(50, timer.getPollInterval());
+
+        timer.stop();
+        assertFalse(timer.isRunning());
+        timer.start();
+        assertTrue(timer.isRunning());
+        assertEquals(100, timer.getPollInterval());
+    }
+
+    @Test
+    public void timerShouldNotStartWithoutStatusUpdates() {
+        controller.setStatusUpdatesEnabled(false);
+        timer.start();
+        assertFalse(timer.isRunning());
+    }
+
+    @Test
+    public void pollsWithoutStatusReportsShouldBeCountedAsMissed() throws Exception {
+        controller.rawResponseHandler("<Run|MPos:0.000,0.000,0.000|FS:0,0>");
+        timer.start();
+        timer.setUpdateInterval(10);
+
+        ThreadHelper.waitUntil(() -> timer.getMissedPolls() >= 3, 10, TimeUnit.SECONDS);
+        assertEquals(1, timer.getPollCount());
+
+        timer.receivedStatus();
+        ThreadHelper.waitUntil(() -> timer.getPollCount() == 2, 10, TimeUnit.SECONDS);
+        assertTrue(timer.getPollJitter().getCount() >= 4);
+
+        timer.resetStatistics();
+        assertEquals(0, timer.getPollCount());
+        assertEquals(0, timer.getMissedPolls());
+        assertEquals(0, timer.getLatePolls());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class AbstractConnectionTest {
+
+    @Test
+    public void sendBytesToCommShouldGatherTheCommandsInASingleWrite() throws Exception {
+        RecordingConnection connection = new RecordingConnection();
+
+        connection.sendBytesToComm(Arrays.asList(bytes("G0X1\n"), bytes("G0Y2\n"), bytes("$$\n")));
+
+        assertEquals(Collections.singletonList("G0X1\nG0Y2\n$$\n"), connection.writes);
+    }
+
+    @Test
+    public void sendBytesToCommShouldGrowTheWriteBuffer() throws Exception {
+        RecordingConnection connection = new RecordingConnection();
+        StringBuilder expected = new StringBuilder();
+        List<byte[]> commands = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String command = "G1X" + i + "Y" + i + "\n";
+            commands.add(bytes(command));
+            expected.append(command);
+        }
+
+        connection.sendBytesToComm(Collections.singletonList(bytes("G0X0\n")));
+        connection.sendBytesToComm(commands);
+        connection.sendBytesToComm(Collections.singletonList(bytes("G0X0\n")));
+
+        assertEquals(Arrays.asList("G0X0\n", expected.toString(), "G0X0\n"), connection.writes);
+    }
+
+    @Test
+    public void realtimeBytesShouldBeWrittenBetweenChunks() throws Exception {
+        CountDownLatch firstChunkStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstChunk = new CountDownLatch(1);
+        RecordingConnection connection = new RecordingConnection() {
+            @Override
+            protected int getWriteChunkSize() {
+                return 5;
+            }
+
+            @Override
+            public void sendStringToComm(String command) {
+                super.sendStringToComm(command);
+                if (firstChunkStarted.getCount() > 0) {
+                    firstChunkStarted.countDown();
+                    try {
+                        releaseFirstChunk.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+
+        Thread writer = new Thread(() -> {
+            try {
+                connection.sendBytesToComm(Arrays.asList(bytes("G0X1\n"), bytes("G0Y2\n"), bytes("G0Z3\n")));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        firstChunkStarted.await();
+
+        // The writer is blocked in the first chunk, the byte is written before the next one
+        connection.sendByteImmediately((byte) '!');
+        releaseFirstChunk.countDown();
+        writer.join();
+
+        assertEquals(Arrays.asList("G0X1\n", "!", "G0Y2\n", "G0Z3\n"), connection.writes);
+        assertEquals(1, connection.getRealtimeLatency().getCount());
+    }
+
+    @Test
+    public void realtimeBytesShouldBeWrittenRightAwayWhenIdle() throws Exception {
+        RecordingConnection connection = new RecordingConnection();
+
+        connection.sendByteImmediately((byte) '?');
+        connection.sendByteImmediately((byte) '~');
+
+        assertEquals(Arrays.asList("?", "~"), connection.writes);
+        assertEquals(2, connection.getRealtimeLatency().getCount());
+    }
+
+    private static byte[] bytes(String command) {
+        return command.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class RecordingConnection extends AbstractConnection {
+        protected final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void setUri(String uri) {
+        }
+
+        @Override
+        public boolean openPort() {
+            return true;
+        }
+
+        @Override
+        public void closePort() {
+        }
+
+        @Override
+        public void sendStringToComm(String command) {
+            writes.add(command);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public List<String> getPortNames() {
+            return Collections.emptyList();
+        }
+    }
+}
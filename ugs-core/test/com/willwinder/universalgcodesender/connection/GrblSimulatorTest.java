@@ -0,0 +1,230 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import com.willwinder.universalgcodesender.firmware.DefaultFirmwareSettings;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class GrblSimulatorTest {
+    private final List<String> responses = Collections.synchronizedList(new ArrayList<>());
+    private GrblSimulator simulator;
+
+    @Before
+    public void setUp() {
+        simulator = new GrblSimulator(response -> responses.add(response.trim()));
+        simulator.setBaudRate(0);
+    }
+
+    @After
+    public void tearDown() {
+        simulator.stop();
+    }
+
+    @Test
+    public void shouldRespondLikeGrbl() throws Exception {
+        simulator.start();
+        ThreadHelper.waitUntil(() -> responses.contains("Grbl 1.1f ['$' for help]"), 10, TimeUnit.SECONDS);
+
+        send("$I\n");
+        ThreadHelper.waitUntil(() -> responses.contains("ok"), 10, TimeUnit.SECONDS);
+        assertTrue(responses.contains("[OPT:V,15,128]"));
+
+        send("?");
+        ThreadHelper.waitUntil(() -> lastResponse().startsWith("<"), 10, TimeUnit.SECONDS);
+        assertEquals("<Idle|MPos:0.000,0.000,0.000|Bf:15,128|FS:0,0|WCO:0.000,0.000,0.000|Ov:100,100,100>", lastResponse());
+
+        send("G1X1\n");
+        ThreadHelper.waitUntil(() -> lastResponse().equals("error:22"), 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void motionShouldBeLimitedByTheAcceleration() throws Exception {
+        simulator.setTimeScale(20);
+        simulator.start();
+
+        // 10 mm/s with 100 mm/s^2 takes 0.1s to accelerate and 0.1s to stop
+        send("$110=1000\n$111=1000\n$112=1000\n$120=100\n$121=100\n$122=100\nG1X10F600\n");
+        ThreadHelper.waitUntil(() -> simulator.getBlocksCompleted() == 1, 10, TimeUnit.SECONDS);
+
+        assertEquals(1.1, simulator.getMotionTime(), 0.02);
+        assertEquals(10, simulator.getMachinePosition().x, 0.0001);
+    }
+
+    @Test
+    public void motionShouldUseTheAccelerationFromTheFirmwareSettings() throws Exception {
+        simulator.setTimeScale(20);
+        simulator.setFirmwareSettings(createFirmwareSettings(1000, 25));
+        simulator.start();
+
+        // 10 mm/s with 25 mm/s^2 takes 0.4s to accelerate and 0.4s to stop
+        send("G1X10F600\n");
+        ThreadHelper.waitUntil(() -> simulator.getBlocksCompleted() == 1, 10, TimeUnit.SECONDS);
+        double slow = simulator.getMotionTime();
+
+        simulator.setFirmwareSettings(createFirmwareSettings(1000, 100));
+        send("G1X0\n");
+        ThreadHelper.waitUntil(() -> simulator.getBlocksCompleted() == 2, 10, TimeUnit.SECONDS);
+        double fast = simulator.getMotionTime() - slow;
+
+        assertEquals(1.4, slow, 0.05);
+        assertEquals(1.1, fast, 0.05);
+    }
+
+    @Test
+    public void accelerationShouldBeAppliedWhenTheMaximumRateIsUnavailable() throws Exception {
+        simulator.setTimeScale(20);
+        simulator.setFirmwareSettings(new DefaultFirmwareSettings() {
+            @Override
+            public double getMaximumRate(Axis axis) {
+                throw new IllegalStateException("Not available");
+            }
+
+            @Override
+            public double getMaximumAcceleration(Axis axis) {
+                return 100;
+            }
+        });
+        simulator.start();
+
+        // 5 mm/s with 100 mm/s^2 takes 0.05s to accelerate and 0.05s to stop
+        send("G1X10F300\n");
+        ThreadHelper.waitUntil(() -> simulator.getBlocksCompleted() == 1, 10, TimeUnit.SECONDS);
+        assertEquals(2.05, simulator.getMotionTime(), 0.02);
+    }
+
+    @Test
+    public void straightJunctionsShouldBePassedAtFullSpeed() throws Exception {
+        simulator.setTimeScale(20);
+        simulator.start();
+        send("$110=1000\n$111=1000\n$120=100\n$121=100\nG1X10F600\nG1X20\n");
+        ThreadHelper.waitUntil(() -> simulator.getBlocksCompleted() == 2, 10, TimeUnit.SECONDS);
+        double straight = simulator.getMotionTime();
+
+        send("G1Y10\nG1X10\n");
+        ThreadHelper.waitUntil(() -> simulator.getBlocksCompleted() == 4, 10, TimeUnit.SECONDS);
+        double corner = simulator.getMotionTime() - straight;
+
+        assertEquals(2.1, straight, 0.02);
+        assertTrue("Corner took " + corner, corner > straight + 0.05);
+    }
+
+    @Test
+    public void linesShouldWaitInTheRxBufferWhileThePlannerIsFull() throws Exception {
+        simulator.setPlannerBlockCount(2);
+        simulator.start();
+
+        send("G1X1F60\nG1X2\nG1X3\nG1X4\nG1X5\n");
+        ThreadHelper.waitUntil(() -> count("ok") == 2, 10, TimeUnit.SECONDS);
+        send("?");
+        ThreadHelper.waitUntil(() -> lastResponse().startsWith("<"), 10, TimeUnit.SECONDS);
+        assertTrue(lastResponse(), lastResponse().startsWith("<Run|"));
+        assertTrue(lastResponse(), lastResponse().contains("|Bf:0,113|"));
+
+        // The bytes which don't fit in the RX buffer are lost
+        byte[] bytes = new byte[200];
+        java.util.Arrays.fill(bytes, (byte) 'G');
+        simulator.receive(bytes, 0, bytes.length);
+        ThreadHelper.waitUntil(() -> simulator.getRxOverflows() == 200 - 113, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void feedHoldShouldStopTheMachine() throws Exception {
+        simulator.start();
+        send("$120=1000\nG1X100F6000\n");
+        ThreadHelper.waitUntil(() -> simulator.getMachinePosition().x > 1, 10, TimeUnit.SECONDS);
+
+        send("!");
+        send("?");
+        ThreadHelper.waitUntil(() -> lastResponse().startsWith("<Hold"), 10, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        double x = simulator.getMachinePosition().x;
+        send("?");
+        ThreadHelper.waitUntil(() -> lastResponse().startsWith("<Hold:0"), 10, TimeUnit.SECONDS);
+        assertEquals(x, simulator.getMachinePosition().x, 0.0001);
+
+        send("~");
+        ThreadHelper.waitUntil(() -> simulator.getMachinePosition().x > x, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void serverShouldBeReachableWithATcpConnection() throws Exception {
+        try (GrblSimulatorServer server = new GrblSimulatorServer(0)) {
+            TCPConnection connection = new TCPConnection();
+            connection.addListener(responses::add);
+            connection.setUri("tcp://localhost:" + server.getPort());
+            connection.openPort();
+            try {
+                ThreadHelper.waitUntil(() -> responses.contains("Grbl 1.1f ['$' for help]"), 10, TimeUnit.SECONDS);
+                connection.sendStringToComm("$I\n");
+                ThreadHelper.waitUntil(() -> responses.contains("ok"), 10, TimeUnit.SECONDS);
+                assertTrue(responses.contains("[OPT:V,15,128]"));
+            } finally {
+                connection.closePort();
+            }
+        }
+    }
+
+    private static IFirmwareSettings createFirmwareSettings(double maximumRate, double acceleration) {
+        return new DefaultFirmwareSettings() {
+            @Override
+            public double getMaximumRate(Axis axis) {
+                return maximumRate;
+            }
+
+            @Override
+            public double getMaximumAcceleration(Axis axis) {
+                return acceleration;
+            }
+        };
+    }
+
+    private void send(String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+        simulator.receive(bytes, 0, bytes.length);
+    }
+
+    private String lastResponse() {
+        synchronized (responses) {
+            return responses.isEmpty() ? "" : responses.get(responses.size() - 1);
+        }
+    }
+
+    private int count(String response) {
+        synchronized (responses) {
+            return Collections.frequency(responses, response);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ResponseLineFramerTest {
+    private List<String> lines;
+    private List<ResponseFrame.Type> types;
+    private ResponseLineFramer framer;
+
+    @Before
+    public void setUp() {
+        lines = new ArrayList<>();
+        types = new ArrayList<>();
+        framer = new ResponseLineFramer(frame -> {
+            types.add(frame.getType());
+            lines.add(frame.getLine());
+        });
+    }
+
+    private void append(String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        framer.append(bytes, 0, bytes.length);
+    }
+
+    @Test
+    public void linesShouldBeSplitOnLineTerminators() {
+        append("test1\r\n test2 \ntest3");
+        assertEquals(Arrays.asList("test1", " test2 "), lines);
+
+        append("\r");
+        assertEquals(2, lines.size());
+
+        append("\n\n");
+        assertEquals(Arrays.asList("test1", " test2 ", "test3", ""), lines);
+    }
+
+    @Test
+    public void linesShouldBeJoinedAcrossReads() {
+        byte[] bytes = "<Idle|MPos:0.000,0.000,0.000>\r\nok\r\n".getBytes(StandardCharsets.UTF_8);
+
+        // Feed the data one byte at a time from an offset in a reused buffer
+        byte[] buffer = new byte[10];
+        for (byte b : bytes) {
+            buffer[5] = b;
+            framer.append(buffer, 5, 1);
+        }
+
+        assertEquals(Arrays.asList("<Idle|MPos:0.000,0.000,0.000>", "ok"), lines);
+    }
+
+    @Test
+    public void longLinesShouldGrowTheBuffer() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            line.append(i % 10);
+        }
+
+        append(line.substring(0, 300));
+        append(line.substring(300));
+        append("\n");
+
+        assertEquals(Arrays.asList(line.toString()), lines);
+    }
+
+    @Test
+    public void multiByteCharactersShouldBeDecodedWhenSplitAcrossReads() {
+        byte[] bytes = "[MSG:åäö]\n".getBytes(StandardCharsets.UTF_8);
+        framer.append(bytes, 0, 6);
+        framer.append(bytes, 6, bytes.length - 6);
+
+        assertEquals(Arrays.asList("[MSG:åäö]"), lines);
+    }
+
+    @Test
+    public void stringsShouldBeFramed() {
+        framer.append("ok\r\nerror:");
+        framer.append("20\nåäö\n");
+
+        assertEquals(Arrays.asList("ok", "error:20", "åäö"), lines);
+    }
+
+    @Test
+    public void framesShouldBeClassified() {
+        append("ok\nerror:9\nerror: Bad number format\nALARM:1\n<Idle>\n[GC:G0 G54]\nGrbl 1.1f ['$' for help]\nokay\n\n");
+
+        assertEquals(Arrays.asList(
+                ResponseFrame.Type.OK,
+                ResponseFrame.Type.ERROR,
+                ResponseFrame.Type.ERROR,
+                ResponseFrame.Type.ALARM,
+                ResponseFrame.Type.STATUS,
+                ResponseFrame.Type.FEEDBACK,
+                ResponseFrame.Type.OTHER,
+                ResponseFrame.Type.OTHER,
+                ResponseFrame.Type.OTHER), types);
+    }
+
+    @Test
+    public void okShouldNotBeDecoded() {
+        append("ok\nok\n");
+        assertSame(lines.get(0), lines.get(1));
+    }
+
+    @Test
+    public void frameShouldGiveAccessToTheBytes() {
+        List<Boolean> result = new ArrayList<>();
+        ResponseLineFramer byteFramer = new ResponseLineFramer(frame -> {
+            result.add(frame.startsWith("<Run"));
+            result.add(frame.startsWith("<Idle|MPos:0.000,0.000,0.000>+"));
+            assertEquals(6, frame.length());
+            assertEquals('R', frame.byteAt(1));
+        });
+
+        byte[] bytes = "<Run|>\r\n".getBytes(StandardCharsets.UTF_8);
+        byteFramer.append(bytes, 0, bytes.length);
+
+        assertTrue(result.get(0));
+        assertFalse(result.get(1));
+    }
+}
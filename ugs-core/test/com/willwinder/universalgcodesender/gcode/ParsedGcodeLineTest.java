@@ -0,0 +1,162 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author agent
+ */
+public class ParsedGcodeLineTest {
+
+    private static List<String> words(ParsedGcodeLine line) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < line.size(); i++) {
+            result.add(line.getWord(i));
+        }
+        return result;
+    }
+
+    @Test
+    public void parseSplitsWords() {
+        ParsedGcodeLine line = new ParsedGcodeLine();
+
+        assertEquals(Arrays.asList("G53", "F100", "S1300"), words(line.parse("G53F100S1300")));
+        assertEquals(Arrays.asList("G53", "F100", "S1300"), words(line.parse("G53 F 100 S 1300")));
+        assertEquals(Arrays.asList("G53", "G90.1", "S1300"), words(line.parse("G53G90.1S1300")));
+        assertEquals(Arrays.asList("(comment)", "G1", "X10", "(comment)"), words(line.parse("(comment)G1X10(comment)")));
+        assertEquals(Arrays.asList(";commentG1X10(comment)"), words(line.parse(";commentG1X10(comment)")));
+        assertEquals(Arrays.asList("$J=G91 X1"), words(line.parse("$J=G91 X1")));
+        assertTrue(line.parse("").isEmpty());
+    }
+
+    @Test
+    public void parseShouldNotCreateEmptyWordsAfterComments() {
+        ParsedGcodeLine line = new ParsedGcodeLine("G21 G90 ( G64 ) G40");
+        assertEquals(Arrays.asList("G21", "G90", "( G64 )", "G40"), words(line));
+
+        line.parse("G0X1(comment X5)Y2;tail X9");
+        assertEquals(Arrays.asList("G0", "X1", "(comment X5)", "Y2", ";tail X9"), words(line));
+        assertEquals(2.0, line.parseCoord('Y'), 0);
+    }
+
+    @Test
+    public void splitCommandShouldMatchParsedLine() {
+        String[] commands = {"G1X10Y-2.5", "g2 x1 y2 i-1 j0", "N10 G0 X.5 Y-0.5 (move)", "X1-2", "M3 S1000 ;spindle"};
+        for (String command : commands) {
+            assertEquals(GcodePreprocessorUtils.splitCommand(command), words(new ParsedGcodeLine(command)));
+        }
+    }
+
+    @Test
+    public void getValueShouldMatchParseDouble() {
+        String[] numbers = {"0", "-0", "1", "-1", "0.1", ".5", "-.5", "5.", "123.456", "-0.000001",
+                "1234567890.12345", "0.1234567890123456789", "12345678901234567890", "3.14159265358979323846"};
+        ParsedGcodeLine line = new ParsedGcodeLine();
+        for (String number : numbers) {
+            line.parse("X" + number);
+            assertTrue(number, line.isValid(0));
+            assertEquals(number, Double.doubleToLongBits(Double.parseDouble(number)),
+                    Double.doubleToLongBits(line.getValue(0)));
+        }
+    }
+
+    @Test
+    public void getValueShouldBeNaNForInvalidNumbers() {
+        ParsedGcodeLine line = new ParsedGcodeLine("X Y. Z- A1.2.3 BC1");
+        assertEquals(Arrays.asList("XY.", "Z-", "A1.2.3", "BC1"), words(line));
+        for (int i = 0; i < line.size(); i++) {
+            assertFalse(line.getWord(i), line.isValid(i));
+            assertTrue(Double.isNaN(line.getValue(i)));
+        }
+    }
+
+    @Test
+    public void requireValueShouldThrowLikeParseDouble() {
+        ParsedGcodeLine line = new ParsedGcodeLine("X1.5 Y. A1.2.3 Z");
+        assertEquals(Arrays.asList("X1.5", "Y.", "A1.2.3", "Z"), words(line));
+        assertEquals(1.5, line.requireValue(0), 0);
+        for (int i = 1; i < line.size(); i++) {
+            String number = line.getWord(i).substring(1);
+            try {
+                line.requireValue(i);
+                fail("Expected an exception for " + line.getWord(i));
+            } catch (NumberFormatException e) {
+                try {
+                    Double.parseDouble(number);
+                    fail("Expected an exception for " + number);
+                } catch (NumberFormatException expected) {
+                    assertEquals(expected.getMessage(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getCodeShouldMatchLookupCode() {
+        ParsedGcodeLine line = new ParsedGcodeLine("G00 g1 G38.2 G90.1 M3 m05 G999 T1 (G1)");
+        for (int i = 0; i < line.size(); i++) {
+            assertEquals(line.getWord(i), Code.lookupCode(line.getWord(i)), line.getCode(i));
+        }
+        assertEquals(Code.G0, line.getCode(0));
+        assertEquals(Code.G38_2, line.getCode(2));
+        assertEquals(Code.UNKNOWN, line.getCode(6));
+    }
+
+    @Test
+    public void parseCoordAndAxisWords() {
+        ParsedGcodeLine line = new ParsedGcodeLine("G1 x1.5 Y-2 F100 X3");
+        assertEquals(1.5, line.parseCoord('X'), 0);
+        assertEquals(-2, line.parseCoord('y'), 0);
+        assertTrue(Double.isNaN(line.parseCoord('Z')));
+        assertEquals(2, line.count('X'));
+        assertEquals(3, line.indexOf('F'));
+        assertTrue(line.hasAxisWords());
+
+        line.parse("G21 F100");
+        assertFalse(line.hasAxisWords());
+        assertEquals(-1, line.indexOf('X'));
+    }
+
+    @Test
+    public void parseShouldReuseBuffersForLongerLines() {
+        ParsedGcodeLine line = new ParsedGcodeLine("G0X1");
+        StringBuilder command = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            command.append("X").append(i);
+        }
+        line.parse(command.toString());
+        assertEquals(100, line.size());
+        assertEquals(99, line.getValue(99), 0);
+
+        line.parse("G1Y2");
+        assertEquals(Arrays.asList("G1", "Y2"), words(line));
+    }
+}
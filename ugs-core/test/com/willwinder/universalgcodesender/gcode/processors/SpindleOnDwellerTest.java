@@ -64,6 +64,9 @@ public class SpindleOnDwellerTest {
 
         command = "(this is ignored) M4 S1000";
         Assertions.assertThat(dweller.processCommand(command, null)).containsExactly(command,"G4P2.50");
+
+        command = "M03 S1000";
+        Assertions.assertThat(dweller.processCommand(command, null)).containsExactly(command,"G4P2.50");
     }
     
     @Test
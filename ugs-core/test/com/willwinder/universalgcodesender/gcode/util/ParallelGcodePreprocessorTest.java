@@ -0,0 +1,220 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.CommandLengthProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.LineSplitter;
+import com.willwinder.universalgcodesender.gcode.processors.M30Processor;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.Translator;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static com.willwinder.universalgcodesender.model.UnitUtils.Units.MM;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class ParallelGcodePreprocessorTest {
+    private static final Supplier<List<CommandProcessor>> PROCESSORS = () -> Arrays.asList(
+            new CommentProcessor(),
+            new WhitespaceProcessor(),
+            new M30Processor(),
+            new Translator(new Position(1.5, -2.5, 0, MM)),
+            new ArcExpander(true, 0.3),
+            new LineSplitter(2),
+            new DecimalProcessor(4),
+            new CommandLengthProcessor(70));
+
+    private ForkJoinPool pool;
+    private Path tempDir;
+
+    @Before
+    public void setup() throws IOException {
+        pool = new ForkJoinPool(4);
+        tempDir = Files.createTempDirectory("parallelpreprocessor");
+    }
+
+    @After
+    public void teardown() throws IOException {
+        pool.shutdownNow();
+        FileUtils.deleteDirectory(tempDir.toFile());
+    }
+
+    private static List<String> createProgram() {
+        List<String> lines = new ArrayList<>();
+        lines.add("(header comment)");
+        lines.add("G21 G90 G17");
+        lines.add("M3 S1000");
+        lines.add("");
+        for (int i = 0; i < 500; i++) {
+            double x = Math.sin(i / 10.0) * 20;
+            double y = Math.cos(i / 7.0) * 20;
+            if (i % 50 == 0) {
+                lines.add("G20 ; switch to inches");
+                lines.add(String.format(Locale.US, "G0 X%.4f Y%.4f", x / 25.4, y / 25.4));
+                lines.add("G21");
+            } else if (i % 31 == 0) {
+                lines.add(String.format(Locale.US, "G2 X%.4f Y%.4f I1 J1 F%d", x, y, 100 + i));
+            } else if (i % 17 == 0) {
+                lines.add("G91");
+                lines.add("X0.5 Y-0.5 Z0.1");
+                lines.add("G90");
+            } else if (i % 3 == 0) {
+                lines.add(String.format(Locale.US, "G1 X%.6f Y%.6f Z%.6f (move %d)", x, y, -i / 100.0, i));
+            } else {
+                lines.add(String.format(Locale.US, "X%.6f Y%.6f", x, y));
+            }
+        }
+        lines.add("M30");
+        return lines;
+    }
+
+    private File writeProgram(List<String> lines) throws IOException {
+        File file = Files.createTempFile(tempDir, "input", ".gcode").toFile();
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private File processSerially(File input) throws Exception {
+        File output = Files.createTempFile(tempDir, "serial", ".gcode").toFile();
+        GcodeParser gcp = new GcodeParser();
+        PROCESSORS.get().forEach(gcp::addCommandProcessor);
+        try (IGcodeWriter writer = new GcodeStreamWriter(output)) {
+            GcodeParserUtils.processAndExport(gcp, input, writer);
+        }
+        return output;
+    }
+
+    private File processInParallel(File input, int chunkSize, GcodeParser gcp) throws Exception {
+        File output = Files.createTempFile(tempDir, "parallel", ".gcode").toFile();
+        PROCESSORS.get().forEach(gcp::addCommandProcessor);
+        try (IGcodeWriter writer = new GcodeStreamWriter(output)) {
+            new ParallelGcodePreprocessor(PROCESSORS, pool, chunkSize).processAndExport(gcp, input, writer);
+        }
+        return output;
+    }
+
+    @Test
+    public void outputShouldBeIdenticalToSerialProcessing() throws Exception {
+        File input = writeProgram(createProgram());
+        byte[] expected = Files.readAllBytes(processSerially(input).toPath());
+
+        for (int chunkSize : new int[]{1, 7, 100, 100000}) {
+            File output = processInParallel(input, chunkSize, new GcodeParser());
+            assertArrayEquals("Chunk size " + chunkSize, expected, Files.readAllBytes(output.toPath()));
+        }
+    }
+
+    @Test
+    public void reprocessingGcodeStreamShouldBeIdenticalToSerialProcessing() throws Exception {
+        File gcodeStream = processSerially(writeProgram(createProgram()));
+        byte[] expected = Files.readAllBytes(processSerially(gcodeStream).toPath());
+
+        File output = processInParallel(gcodeStream, 13, new GcodeParser());
+        assertArrayEquals(expected, Files.readAllBytes(output.toPath()));
+    }
+
+    @Test
+    public void parserShouldHaveSameStateAndStatsAsSerialProcessing() throws Exception {
+        File input = writeProgram(createProgram());
+
+        GcodeParser serial = new GcodeParser();
+        PROCESSORS.get().forEach(serial::addCommandProcessor);
+        try (IGcodeWriter writer = new GcodeStreamWriter(Files.createTempFile(tempDir, "serial", ".gcode").toFile())) {
+            GcodeParserUtils.processAndExport(serial, input, writer);
+        }
+
+        GcodeParser parallel = new GcodeParser();
+        processInParallel(input, 11, parallel);
+
+        GcodeState expectedState = serial.getCurrentState();
+        GcodeState state = parallel.getCurrentState();
+        assertEquals(expectedState.commandNumber, state.commandNumber);
+        assertEquals(expectedState.currentPoint, state.currentPoint);
+        assertEquals(expectedState.currentMotionMode, state.currentMotionMode);
+        assertEquals(serial.getCurrentStats().getCommandCount(), parallel.getCurrentStats().getCommandCount());
+        assertEquals(serial.getCurrentStats().getMin(), parallel.getCurrentStats().getMin());
+        assertEquals(serial.getCurrentStats().getMax(), parallel.getCurrentStats().getMax());
+    }
+
+    @Test
+    public void errorsShouldBeReportedAfterWritingThePreviousLines() throws Exception {
+        List<String> lines = createProgram();
+        lines.add(300, "G0 G1 X10");
+        File input = writeProgram(lines);
+
+        GcodeParserException expectedError = null;
+        File serialOutput = Files.createTempFile(tempDir, "serial", ".gcode").toFile();
+        GcodeParser serial = new GcodeParser();
+        PROCESSORS.get().forEach(serial::addCommandProcessor);
+        try (IGcodeWriter writer = new GcodeStreamWriter(serialOutput)) {
+            GcodeParserUtils.processAndExport(serial, input, writer);
+        } catch (GcodeParserException e) {
+            expectedError = e;
+        }
+        assertNotNull(expectedError);
+
+        File parallelOutput = Files.createTempFile(tempDir, "parallel", ".gcode").toFile();
+        try (IGcodeWriter writer = new GcodeStreamWriter(parallelOutput)) {
+            new ParallelGcodePreprocessor(PROCESSORS, pool, 17).processAndExport(new GcodeParser(), input, writer);
+            fail("Expected the parser to fail");
+        } catch (GcodeParserException e) {
+            assertEquals(expectedError.getMessage(), e.getMessage());
+        }
+
+        assertArrayEquals(Files.readAllBytes(serialOutput.toPath()), Files.readAllBytes(parallelOutput.toPath()));
+    }
+
+    @Test
+    public void statefulProcessorsShouldPreventParallelProcessing() {
+        assertTrue(ParallelGcodePreprocessor.canProcessInParallel(PROCESSORS.get()));
+        assertFalse(ParallelGcodePreprocessor.canProcessInParallel(Arrays.asList(new CommentProcessor(), new RunFromProcessor(10))));
+    }
+}
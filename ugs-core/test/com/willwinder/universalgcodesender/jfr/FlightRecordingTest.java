@@ -0,0 +1,99 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.jfr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvent.field;
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvent.timespan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author agent
+ */
+public class FlightRecordingTest {
+    private static final FlightRecorderEvent TEST_EVENT = new FlightRecorderEvent(
+            "com.willwinder.ugs.Test", "Test", "An event used by the tests",
+            field("line", "Line", int.class),
+            timespan("time", "Time"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        assumeTrue(FlightRecording.isAvailable());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FlightRecording.stop();
+    }
+
+    @Test
+    public void eventsShouldOnlyBeCreatedWhileRecording() throws Exception {
+        assertFalse(FlightRecording.isStarted());
+        assertNull(TEST_EVENT.begin());
+
+        File destination = new File(folder.getRoot(), "test.jfr");
+        FlightRecording.start(destination, FlightRecording.DEFAULT_MAX_AGE, FlightRecording.DEFAULT_MAX_SIZE);
+        assertTrue(FlightRecording.isStarted());
+        assertTrue(FlightRecording.isRecording());
+        assertEquals(destination, FlightRecording.getDestination());
+
+        Object event = TEST_EVENT.begin();
+        assertNotNull(event);
+        TEST_EVENT.commit(event, 1, 1000L);
+
+        assertEquals(destination, FlightRecording.stop());
+        assertFalse(FlightRecording.isStarted());
+        assertFalse(FlightRecording.isRecording());
+        assertNull(TEST_EVENT.begin());
+        assertTrue(destination.length() > 0);
+    }
+
+    @Test
+    public void stopShouldDoNothingWithoutARecording() throws Exception {
+        assertNull(FlightRecording.stop());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void commitShouldRequireAllFields() throws Exception {
+        FlightRecording.start(new File(folder.getRoot(), "test.jfr"), FlightRecording.DEFAULT_MAX_AGE, FlightRecording.DEFAULT_MAX_SIZE);
+        TEST_EVENT.commit(TEST_EVENT.begin(), 1);
+    }
+
+    @Test
+    public void createDestinationShouldUseTheDirectory() {
+        File destination = FlightRecording.createDestination(folder.getRoot());
+        assertEquals(folder.getRoot(), destination.getParentFile());
+        assertTrue(destination.getName().endsWith(".jfr"));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class HistogramTest {
+    private final Histogram histogram = new Histogram("test", "Test", Metric.Unit.NANOSECONDS);
+
+    @Test
+    public void bucketsShouldCoverAllValuesWithoutGaps() {
+        assertEquals(0, Histogram.getBucket(0));
+        assertEquals(Histogram.SUB_BUCKETS - 1, Histogram.getBucket(Histogram.SUB_BUCKETS - 1));
+        assertEquals(Histogram.BUCKETS - 1, Histogram.getBucket(Long.MAX_VALUE));
+
+        for (int bucket = 0; bucket < Histogram.BUCKETS - 1; bucket++) {
+            long lower = Histogram.getBucketLowerBound(bucket);
+            long upper = Histogram.getBucketUpperBound(bucket);
+            assertEquals(bucket, Histogram.getBucket(lower));
+            assertEquals(bucket, Histogram.getBucket(upper));
+            assertEquals(upper + 1, Histogram.getBucketLowerBound(bucket + 1));
+        }
+    }
+
+    @Test
+    public void percentilesShouldBeWithinTheBucketPrecision() {
+        Random random = new Random(1);
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            long value = (long) Math.exp(random.nextDouble() * 20);
+            values.add(value);
+            histogram.record(value);
+        }
+        values.sort(Long::compare);
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(10000, snapshot.getCount());
+        assertEquals((long) values.get(0), snapshot.getMin());
+        assertEquals((long) values.get(9999), snapshot.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long expected = values.get((int) Math.ceil(percentile * 100) - 1);
+            long actual = snapshot.getPercentile(percentile);
+            assertTrue(percentile + ": " + actual + " < " + expected, actual >= expected);
+            assertTrue(percentile + ": " + actual + " > " + expected, actual <= expected + expected / Histogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void concurrentRecordsShouldAllBeCounted() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(40000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(10000, snapshot.getMax());
+        assertEquals(5000, snapshot.getMean());
+    }
+
+    @Test
+    public void resetShouldClearTheStatistics() {
+        histogram.record(-5);
+        assertEquals(0, histogram.getSnapshot().getMax());
+        histogram.record(1000);
+
+        histogram.reset();
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getPercentile(99));
+        assertEquals(0, (long) histogram.getValues().get("max"));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class MetricsRegistryTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    public void metricsWithTheSameNameShouldBeShared() {
+        Counter counter = registry.counter("b.counter", "Counter", Metric.Unit.NONE);
+        assertSame(counter, registry.counter("b.counter", "Counter", Metric.Unit.NONE));
+        registry.gauge("c.gauge", "Gauge", Metric.Unit.BYTES);
+        registry.histogram("a.histogram", "Histogram", Metric.Unit.NANOSECONDS);
+
+        List<Metric> metrics = registry.getMetrics();
+        assertEquals(3, metrics.size());
+        assertEquals("a.histogram", metrics.get(0).getName());
+        assertEquals(Metric.Type.COUNTER, metrics.get(1).getType());
+        assertSame(counter, registry.getMetric("b.counter").get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void metricsWithTheSameNameShouldHaveTheSameType() {
+        registry.counter("metric", "Counter", Metric.Unit.NONE);
+        registry.gauge("metric", "Gauge", Metric.Unit.NONE);
+    }
+
+    @Test
+    public void countersAndGaugesShouldKeepTheirValues() {
+        Counter counter = registry.counter("counter", "Counter", Metric.Unit.NONE);
+        counter.increment();
+        counter.add(4);
+        assertEquals(5, counter.getValue());
+
+        Gauge gauge = registry.gauge("gauge", "Gauge", Metric.Unit.BYTES);
+        gauge.set(10);
+        gauge.add(-7);
+        assertEquals(3, gauge.getValue());
+        assertEquals(10, gauge.getMax());
+        assertEquals("3 B (max 10 B)", gauge.getSummary());
+
+        registry.reset();
+        assertEquals(0, counter.getValue());
+        assertEquals(3, gauge.getValue());
+        assertEquals(3, gauge.getMax());
+    }
+
+    @Test
+    public void defaultRegistryShouldContainTheStreamingMetrics() throws Exception {
+        Class.forName("com.willwinder.universalgcodesender.BufferedCommunicator");
+        assertTrue(MetricsRegistry.getDefault().getMetric("communicator.command.roundtrip").isPresent());
+    }
+}
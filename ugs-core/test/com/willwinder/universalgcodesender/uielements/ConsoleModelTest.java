@@ -0,0 +1,104 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.uielements;
+
+import com.willwinder.universalgcodesender.uielements.components.ConsoleModel;
+import com.willwinder.universalgcodesender.uielements.components.LengthLimitedDocument;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ConsoleModelTest {
+    private final LengthLimitedDocument document = new LengthLimitedDocument(1000);
+    private final AtomicInteger inserts = new AtomicInteger();
+    private final AtomicInteger flushes = new AtomicInteger();
+
+    public ConsoleModelTest() {
+        document.addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                inserts.incrementAndGet();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+    }
+
+    @Test
+    public void linesShouldBeWrittenInOneInsert() throws Exception {
+        ConsoleModel console = new ConsoleModel(document);
+        SwingUtilities.invokeAndWait(() -> {
+            // Appended on the event dispatch thread, so no flush can run in between
+            for (int i = 0; i < 100; i++) {
+                console.append(i + "\n");
+            }
+            console.flush();
+        });
+
+        assertEquals(1, inserts.get());
+        assertTrue(document.getText(0, document.getLength()).startsWith("0\n1\n2\n"));
+    }
+
+    @Test
+    public void appendedLinesShouldBeFlushedByTheEventDispatchThread() throws Exception {
+        ConsoleModel console = new ConsoleModel(document);
+        console.setFlushListener(() -> {
+            assertTrue(SwingUtilities.isEventDispatchThread());
+            flushes.incrementAndGet();
+        });
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10000; i++) {
+                console.append("line " + i + "\n");
+            }
+        });
+        writer.start();
+        writer.join();
+
+        ThreadHelper.waitUntil(() -> getText().endsWith("line 9999\n"), 10, TimeUnit.SECONDS);
+        assertTrue(document.getLength() <= 1000);
+        assertTrue(getText().startsWith("line "));
+        assertTrue("Flushed " + flushes.get() + " times", flushes.get() < 10000);
+    }
+
+    private String getText() {
+        try {
+            return document.getText(0, document.getLength());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
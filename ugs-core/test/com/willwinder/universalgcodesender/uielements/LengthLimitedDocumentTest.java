@@ -70,4 +70,14 @@ public class LengthLimitedDocumentTest {
         instance.insertString(instance.getLength(), hundredfifty, null);
         assertEquals(950, instance.getLength());
     }
+
+    @Test
+    public void testInsertStringLongerThanLimit() throws Exception {
+        LengthLimitedDocument instance = new LengthLimitedDocument(10);
+        instance.insertString(0, "first\n", null);
+
+        // Only the lines at the end which fit are kept.
+        instance.insertString(instance.getLength(), "aaaa\nbbbb\ncccc\n", null);
+        assertEquals("bbbb\ncccc\n", instance.getText(0, instance.getLength()));
+    }
 }
@@ -0,0 +1,168 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeStats;
+import com.willwinder.universalgcodesender.gcode.processors.Stats;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class BinaryGcodeStreamWriterTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("gcodestream", ".gcode");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(file);
+    }
+
+    private void writeRows(int rows) throws IOException {
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                gsw.addLine("G1 X" + i + " ; åäö", "G1X" + i, "åäö", i);
+            }
+        }
+    }
+
+    @Test
+    public void rowsShouldBeReadBack() throws Exception {
+        writeRows(5000);
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            assertEquals(5000, gsr.getNumRows());
+
+            int count = 0;
+            while (gsr.getNumRowsRemaining() > 0) {
+                GcodeCommand command = gsr.getNextCommand();
+                assertEquals("G1X" + count, command.getCommandString());
+                assertEquals("G1 X" + count + " ; åäö", command.getOriginalCommandString());
+                assertEquals("åäö", command.getComment());
+                assertEquals(count, command.getCommandNumber());
+                count++;
+            }
+            assertEquals(5000, count);
+            assertNull(gsr.getStats());
+        }
+    }
+
+    @Test
+    public void seekShouldUseTheStoredRowOffsets() throws Exception {
+        writeRows(3000);
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            gsr.seek(2999);
+            assertEquals(1, gsr.getNumRowsRemaining());
+            assertEquals("G1X2999", gsr.getNextCommand().getCommandString());
+            assertEquals("G1X1024", gsr.getCommandString(1024));
+            assertEquals(7, gsr.getCommand(7).getCommandNumber());
+        }
+    }
+
+    @Test
+    public void emptyStreamShouldBeReadBack() throws Exception {
+        writeRows(0);
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            assertEquals(0, gsr.getNumRows());
+            assertNull(gsr.getNextCommand());
+        }
+    }
+
+    @Test
+    public void statsShouldBeStoredInTheFooter() throws Exception {
+        Stats stats = new Stats();
+        stats.getMin().set(new Position(-1, -2, -3, UnitUtils.Units.MM));
+        stats.getMax().set(new Position(10, 20, 30, UnitUtils.Units.MM));
+
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(file)) {
+            gsw.addLine("G0 X0", "G0X0", null, 0);
+            gsw.setStats(stats);
+        }
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            GcodeStats result = gsr.getStats();
+            assertEquals(new Position(-1, -2, -3, UnitUtils.Units.MM), result.getMin());
+            assertEquals(new Position(10, 20, 30, UnitUtils.Units.MM), result.getMax());
+            assertEquals(0, result.getCommandCount());
+        }
+    }
+
+    @Test
+    public void corruptRowsShouldFailTheChecksum() throws Exception {
+        writeRows(2000);
+
+        // Change a byte in the command of the last row
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            assertEquals("G1X1999", gsr.getCommandString(1999));
+        }
+        long position;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            position = file.length() - 88 - 2 * 4 - 8;
+            raf.seek(position);
+            long lastRow = raf.readLong();
+            raf.seek(lastRow + 4 + 4 + "G1 X1999 ; åäö".getBytes("UTF-8").length + 4 + 3);
+            raf.write('8');
+        }
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            // The first range is still valid
+            assertEquals("G1X0", gsr.getNextCommand().getCommandString());
+
+            gsr.getCommandString(1999);
+            fail("The corrupt row should have been detected");
+        } catch (IOException e) {
+            assertEquals("Checksum mismatch in gcode stream for rows 1024 to 1999", e.getMessage());
+        }
+    }
+
+    @Test
+    public void truncatedStreamShouldBeReported() throws Exception {
+        writeRows(10);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            fail("The truncated stream should have been reported");
+        } catch (IOException e) {
+            assertEquals("The gcode stream is incomplete, the footer is missing", e.getMessage());
+        }
+    }
+}
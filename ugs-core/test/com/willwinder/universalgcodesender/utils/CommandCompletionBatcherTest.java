@@ -0,0 +1,100 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class CommandCompletionBatcherTest {
+    private final List<String> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void commandsShouldBeDeliveredInOneBatchPerInterval() throws Exception {
+        CommandCompletionBatcher batcher = new CommandCompletionBatcher(
+                (from, to, errors) -> batches.add(from + "-" + to + " " + errors.size()), 50);
+
+        for (int i = 1; i <= 100; i++) {
+            batcher.commandComplete(createCommand(i, i == 42));
+        }
+        assertTrue(batches.isEmpty());
+
+        ThreadHelper.waitUntil(() -> batches.size() == 1, 10, TimeUnit.SECONDS);
+        assertEquals("1-100 1", batches.get(0));
+
+        batcher.commandComplete(createCommand(101, false));
+        ThreadHelper.waitUntil(() -> batches.size() == 2, 10, TimeUnit.SECONDS);
+        assertEquals("101-101 0", batches.get(1));
+        assertEquals(2, batcher.getBatchCount());
+        assertEquals(101, batcher.getCommandCount());
+    }
+
+    @Test
+    public void flushShouldDeliverTheBatchRightAway() throws Exception {
+        List<GcodeCommand> failed = new ArrayList<>();
+        CommandCompletionBatcher batcher = new CommandCompletionBatcher((from, to, errors) -> {
+            batches.add(from + "-" + to);
+            failed.addAll(errors);
+        }, 10000);
+
+        GcodeCommand error = createCommand(3, true);
+        batcher.commandComplete(createCommand(1, false));
+        batcher.commandComplete(createCommand(2, false));
+        batcher.commandComplete(error);
+        batcher.flush();
+
+        assertEquals(Collections.singletonList("1-3"), batches);
+        assertEquals(Collections.singletonList(error), failed);
+
+        // Nothing is delivered without completed commands
+        batcher.flush();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void failingListenerShouldKeepReceivingBatches() throws Exception {
+        CommandCompletionBatcher batcher = new CommandCompletionBatcher((from, to, errors) -> {
+            batches.add(from + "-" + to);
+            throw new IllegalStateException("Failed");
+        }, 10);
+
+        batcher.commandComplete(createCommand(1, false));
+        ThreadHelper.waitUntil(() -> batches.size() == 1, 10, TimeUnit.SECONDS);
+        batcher.commandComplete(createCommand(2, false));
+        ThreadHelper.waitUntil(() -> batches.size() == 2, 10, TimeUnit.SECONDS);
+    }
+
+    private static GcodeCommand createCommand(int number, boolean error) {
+        GcodeCommand command = new GcodeCommand("G0 X" + number, number);
+        command.setResponse(error ? "error:20" : "ok");
+        command.setError(error);
+        command.setOk(!error);
+        return command;
+    }
+}
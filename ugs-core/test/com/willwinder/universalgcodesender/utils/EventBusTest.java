@@ -0,0 +1,252 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class EventBusTest {
+    private final EventBus<Consumer<String>> bus = new EventBus<>("Test");
+
+    @After
+    public void tearDown() {
+        bus.unsubscribeAll();
+    }
+
+    @Test
+    public void synchronousListenersShouldBeCalledByThePublisher() {
+        List<String> received = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        Consumer<String> listener = event -> {
+            received.add(event);
+            threads.add(Thread.currentThread());
+        };
+        bus.subscribe(listener);
+        bus.subscribe(listener);
+
+        bus.publish(l -> l.accept("first"));
+        bus.publish("status", l -> l.accept("second"));
+
+        assertEquals(2, received.size());
+        assertEquals("second", received.get(1));
+        assertEquals(Thread.currentThread(), threads.get(0));
+        assertEquals(1, bus.getSubscriptions().size());
+        assertEquals(2, bus.getSubscriptions().get(0).getDelivered());
+        assertFalse(bus.getSubscriptions().get(0).isAsynchronous());
+    }
+
+    @Test
+    public void filteredEventsShouldOnlyReachTheSelectedListeners() {
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        Consumer<String> firstListener = first::add;
+        bus.subscribe(firstListener);
+        bus.subscribe(second::add);
+
+        bus.publishTo(l -> l == firstListener, l -> l.accept("event"));
+
+        assertEquals(Collections.singletonList("event"), first);
+        assertTrue(second.isEmpty());
+    }
+
+    @Test
+    public void asynchronousListenersShouldBeCalledFromTheirOwnThreadInOrder() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribeAsync(event -> {
+            received.add(event);
+            threads.add(Thread.currentThread());
+        });
+
+        for (int i = 0; i < 100; i++) {
+            String event = Integer.toString(i);
+            bus.publish(l -> l.accept(event));
+        }
+
+        ThreadHelper.waitUntil(() -> received.size() == 100, 10, TimeUnit.SECONDS);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), received.get(i));
+        }
+        assertNotSame(Thread.currentThread(), threads.get(0));
+        assertTrue(bus.getSubscriptions().get(0).isAsynchronous());
+        assertEquals(100, bus.getSubscriptions().get(0).getLag().getCount());
+    }
+
+    @Test
+    public void slowListenerShouldNotDelayTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> fast = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribeAsync(event -> await(release));
+        bus.subscribe(fast::add);
+
+        for (int i = 0; i < 10; i++) {
+            bus.publish(l -> l.accept("event"));
+        }
+
+        assertEquals(10, fast.size());
+        release.countDown();
+    }
+
+    @Test
+    public void undeliveredEventsWithTheSameKeyShouldBeCoalesced() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribeAsync(event -> {
+            if (event.equals("block")) {
+                blocking.countDown();
+                await(release);
+            }
+            received.add(event);
+        });
+
+        bus.publish(l -> l.accept("block"));
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+        bus.publish("status", l -> l.accept("status 1"));
+        bus.publish(l -> l.accept("command"));
+        bus.publish("status", l -> l.accept("status 2"));
+        bus.publish("status", l -> l.accept("status 3"));
+
+        EventBus.Subscription<Consumer<String>> subscription = bus.getSubscriptions().get(0);
+        assertEquals(2, subscription.getQueueSize());
+        assertEquals(2, subscription.getCoalesced());
+
+        release.countDown();
+        ThreadHelper.waitUntil(() -> received.size() == 3, 10, TimeUnit.SECONDS);
+        assertEquals("block", received.get(0));
+        assertEquals("command", received.get(1));
+        assertEquals("status 3", received.get(2));
+        assertEquals(0, subscription.getQueueSize());
+        assertEquals(2, subscription.getMaxQueueSize());
+    }
+
+    @Test
+    public void coalescedEventsShouldBeDeliveredAfterTheEventsPublishedBeforeThem() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribeAsync(event -> {
+            if (event.equals("block")) {
+                blocking.countDown();
+                await(release);
+            } else {
+                received.add(event);
+            }
+        });
+
+        bus.publish(l -> l.accept("block"));
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+        bus.publish("status", l -> l.accept("status 1"));
+        bus.publish(l -> l.accept("X"));
+        bus.publish("status", l -> l.accept("status 2"));
+
+        release.countDown();
+        ThreadHelper.waitUntil(() -> received.size() == 2, 10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("X", "status 2"), received);
+        assertEquals(1, bus.getSubscriptions().get(0).getCoalesced());
+    }
+
+    @Test
+    public void publisherShouldWaitWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribeAsync(event -> {
+            await(release);
+            received.add(event);
+        }, 2);
+
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                String event = Integer.toString(i);
+                bus.publish(l -> l.accept(event));
+            }
+        });
+        publisher.start();
+
+        EventBus.Subscription<Consumer<String>> subscription = bus.getSubscriptions().get(0);
+        ThreadHelper.waitUntil(() -> subscription.getBlocked() > 0, 10, TimeUnit.SECONDS);
+        assertTrue(publisher.isAlive());
+        assertTrue(subscription.getQueueSize() <= 2);
+
+        release.countDown();
+        publisher.join(5000);
+        ThreadHelper.waitUntil(() -> received.size() == 10, 10, TimeUnit.SECONDS);
+        assertEquals("9", received.get(9));
+    }
+
+    @Test
+    public void unsubscribedListenerShouldReceiveTheEventsPublishedBefore() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Consumer<String> listener = event -> {
+            await(release);
+            received.add(event);
+        };
+        bus.subscribeAsync(listener);
+
+        bus.publish(l -> l.accept("before"));
+        bus.unsubscribe(listener);
+        bus.publish(l -> l.accept("after"));
+        assertFalse(bus.isSubscribed(listener));
+
+        release.countDown();
+        ThreadHelper.waitUntil(() -> received.size() == 1, 10, TimeUnit.SECONDS);
+        Thread.sleep(50);
+        assertEquals(Collections.singletonList("before"), received);
+    }
+
+    @Test
+    public void failingAsynchronousListenerShouldKeepReceivingEvents() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribeAsync(event -> {
+            received.add(event);
+            throw new IllegalStateException("Failed");
+        });
+
+        bus.publish(l -> l.accept("first"));
+        bus.publish(l -> l.accept("second"));
+        ThreadHelper.waitUntil(() -> received.size() == 2, 10, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
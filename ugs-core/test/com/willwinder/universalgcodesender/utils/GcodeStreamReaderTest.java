@@ -0,0 +1,193 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class GcodeStreamReaderTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("gcodestream", ".gcode");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(file);
+    }
+
+    private void writeRows(int rows) throws IOException {
+        try (GcodeStreamWriter gsw = new GcodeStreamWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                gsw.addLine("G1 X" + i + " (move " + i + ")", "G1X" + i, "move " + i, i);
+            }
+        }
+    }
+
+    @Test
+    public void seekShouldContinueStreamingFromRow() throws Exception {
+        writeRows(5000);
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            gsr.seek(4000);
+            assertEquals(1000, gsr.getNumRowsRemaining());
+            assertEquals("G1X4000", gsr.getNextCommand().getCommandString());
+
+            // Seek back to a row which has already been indexed
+            gsr.seek(10);
+            assertEquals(4990, gsr.getNumRowsRemaining());
+            GcodeCommand command = gsr.getNextCommand();
+            assertEquals("G1X10", command.getCommandString());
+            assertEquals("G1 X10 (move 10)", command.getOriginalCommandString());
+            assertEquals("move 10", command.getComment());
+            assertEquals(10, command.getCommandNumber());
+
+            gsr.seek(5000);
+            assertEquals(0, gsr.getNumRowsRemaining());
+            assertNull(gsr.getNextCommand());
+        }
+    }
+
+    @Test
+    public void getCommandShouldNotMoveTheStream() throws Exception {
+        writeRows(100);
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            assertEquals("G1X99", gsr.getCommandString(99));
+            assertEquals("G1X50", gsr.getCommand(50).getCommandString());
+            assertEquals(50, gsr.getCommand(50).getCommandNumber());
+
+            assertEquals(100, gsr.getNumRowsRemaining());
+            assertEquals("G1X0", gsr.getNextCommand().getCommandString());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void seekOutsideOfTheStreamShouldFail() throws Exception {
+        writeRows(10);
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            gsr.seek(11);
+        }
+    }
+
+    @Test
+    public void mappedAndSequentialReadsShouldBeEqual() throws Exception {
+        try (GcodeStreamWriter gsw = new GcodeStreamWriter(file)) {
+            gsw.addLine("G0 X0", "G0X0", null, 0);
+            gsw.addLine("", "", "", 1);
+            gsw.addLine("G1 X1 ; åäö", "G1X1", "åäö", 2);
+            gsw.addLine("M3", "M3", null, -3);
+            gsw.addLine("G1 X1+", "G1X1+", "+", 4);
+        }
+
+        try (GcodeStreamReader mapped = new GcodeStreamReader(file);
+             GcodeStreamReader sequential = new GcodeStreamReader(new BufferedReader(new FileReader(file)))) {
+            assertEquals(sequential.getNumRows(), mapped.getNumRows());
+            while (sequential.getNumRowsRemaining() > 0) {
+                GcodeCommand expected = sequential.getNextCommand();
+                GcodeCommand actual = mapped.getNextCommand();
+                assertEquals(expected.getCommandString(), actual.getCommandString());
+                assertEquals(expected.getOriginalCommandString(), actual.getOriginalCommandString());
+                assertEquals(expected.getComment(), actual.getComment());
+                assertEquals(expected.getCommandNumber(), actual.getCommandNumber());
+            }
+            assertEquals(0, mapped.getNumRowsRemaining());
+        }
+    }
+
+    @Test
+    public void unchangedOriginalCommandShouldReuseTheProcessedCommand() throws Exception {
+        try (GcodeStreamWriter gsw = new GcodeStreamWriter(file)) {
+            gsw.addLine("G0X0", "G0X0", null, 0);
+        }
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            GcodeCommand command = gsr.getNextCommand();
+            assertSame(command.getCommandString(), command.getOriginalCommandString());
+        }
+    }
+
+    @Test
+    public void missingRowsShouldBeReported() throws Exception {
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.print("gsw_meta:3\n");
+            writer.print("G0++G0++0++\n");
+            writer.print("G1++G1++1++");
+        }
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            assertEquals("G0", gsr.getNextCommand().getCommandString());
+            // The last row is accepted without a newline
+            assertEquals("G1", gsr.getNextCommand().getCommandString());
+            gsr.getNextCommand();
+            fail("The missing row should have been reported");
+        } catch (IOException e) {
+            assertEquals("Unexpected end of gcode stream, expected 3 rows but found 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void corruptRowsShouldBeReported() throws Exception {
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.print("gsw_meta:1\n");
+            writer.print("G0++G0++0\n");
+        }
+
+        try (GcodeStreamReader gsr = new GcodeStreamReader(file)) {
+            gsr.getNextCommand();
+            fail("The corrupt row should have been reported");
+        } catch (IOException e) {
+            assertEquals("Corrupt data found while processing gcode stream: G0++G0++0", e.getMessage());
+        }
+    }
+
+    @Test(expected = GcodeStreamReader.NotGcodeStreamFile.class)
+    public void emptyFileShouldNotBeAGcodeStream() throws Exception {
+        new GcodeStreamReader(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void readingAfterCloseShouldFail() throws Exception {
+        writeRows(2);
+
+        GcodeStreamReader gsr = new GcodeStreamReader(file);
+        gsr.close();
+        gsr.getNextCommand();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class LineRingBufferTest {
+    @Test
+    public void linesShouldBeDrainedInOrder() {
+        LineRingBuffer buffer = new LineRingBuffer(4);
+        assertTrue(buffer.isEmpty());
+
+        buffer.append("one\n");
+        buffer.append("two\n");
+        assertFalse(buffer.isEmpty());
+
+        StringBuilder builder = new StringBuilder();
+        assertEquals(2, buffer.drainTo(builder));
+        assertEquals("one\ntwo\n", builder.toString());
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.drainTo(builder));
+    }
+
+    @Test
+    public void oldestLinesShouldBeOverwrittenWhenFull() {
+        LineRingBuffer buffer = new LineRingBuffer(3);
+        for (int i = 0; i < 10; i++) {
+            buffer.append(i + "\n");
+        }
+
+        // The capacity is rounded up to four lines
+        StringBuilder builder = new StringBuilder();
+        assertEquals(4, buffer.drainTo(builder));
+        assertEquals("6\n7\n8\n9\n", builder.toString());
+        assertEquals(6, buffer.getOverwritten());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityShouldBePositive() {
+        new LineRingBuffer(0);
+    }
+
+    @Test
+    public void linesFromSeveralThreadsShouldAllBeDrained() throws Exception {
+        LineRingBuffer buffer = new LineRingBuffer(1 << 16);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            String prefix = Integer.toString(w);
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    buffer.append(prefix + ":" + i + "\n");
+                }
+            }));
+        }
+
+        StringBuilder builder = new StringBuilder();
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            while (writer.isAlive()) {
+                buffer.drainTo(builder);
+            }
+        }
+        buffer.drainTo(builder);
+
+        Set<String> lines = new HashSet<>();
+        int[] last = {-1, -1, -1, -1};
+        for (String line : builder.toString().split("\n")) {
+            String[] parts = line.split(":");
+            int writer = Integer.parseInt(parts[0]);
+            int number = Integer.parseInt(parts[1]);
+            assertEquals(last[writer] + 1, number);
+            last[writer] = number;
+            lines.add(line);
+        }
+        assertEquals(40000, lines.size());
+        assertEquals(0, buffer.getOverwritten());
+    }
+}
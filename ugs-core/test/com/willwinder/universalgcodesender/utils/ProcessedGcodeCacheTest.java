@@ -0,0 +1,151 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ProcessedGcodeCacheTest {
+    private File tempDir;
+    private File cacheDir;
+    private File source;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("cachetest").toFile();
+        cacheDir = new File(tempDir, "cache");
+        source = new File(tempDir, "program.nc");
+        FileUtils.write(source, "G0 X0\nG1 X10 (cut)\n", StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    private String key(List<CommandProcessor> processors) throws IOException {
+        return ProcessedGcodeCache.createKey(source, processors).get();
+    }
+
+    @Test
+    public void keyShouldDependOnSourceAndProcessors() throws IOException {
+        List<CommandProcessor> processors = ImmutableList.of(new CommentProcessor(), new DecimalProcessor(4));
+        String key = key(processors);
+
+        assertEquals(key, key(ImmutableList.of(new CommentProcessor(), new DecimalProcessor(4))));
+        assertNotEquals(key, key(ImmutableList.of(new CommentProcessor(), new DecimalProcessor(5))));
+        assertNotEquals(key, key(ImmutableList.of(new DecimalProcessor(4), new CommentProcessor())));
+        assertNotEquals(key, key(ImmutableList.of(new WhitespaceProcessor(), new DecimalProcessor(4))));
+        assertNotEquals(key, key(ImmutableList.of(new CommentProcessor(), new DecimalProcessor(4), new ArcExpander(true, 0.5))));
+
+        FileUtils.write(source, "G0 X1\n", StandardCharsets.UTF_8);
+        assertNotEquals(key, key(processors));
+    }
+
+    @Test
+    public void processorsWithoutConfigurationShouldNotBeCached() throws IOException {
+        CommandProcessor processor = new CommandProcessor() {
+            @Override
+            public List<String> processCommand(String command, GcodeState state) {
+                return Collections.singletonList(command);
+            }
+
+            @Override
+            public String getHelp() {
+                return "";
+            }
+        };
+
+        assertFalse(ProcessedGcodeCache.createKey(source, ImmutableList.of(processor)).isPresent());
+    }
+
+    @Test
+    public void putShouldMoveTheFileIntoTheCache() throws IOException {
+        ProcessedGcodeCache cache = new ProcessedGcodeCache(cacheDir, ProcessedGcodeCache.DEFAULT_MAX_SIZE);
+        String key = key(ImmutableList.of(new CommentProcessor()));
+        assertFalse(cache.get("program.nc", key).isPresent());
+
+        File temp = cache.createTempFile("program.nc");
+        FileUtils.write(temp, "processed", StandardCharsets.UTF_8);
+        File cached = cache.put("program.nc", key, temp);
+
+        assertFalse(temp.exists());
+        assertEquals(cacheDir, cached.getParentFile());
+        assertEquals("program.nc_ugs_" + key, cached.getName());
+
+        Optional<File> result = cache.get("program.nc", key);
+        assertTrue(result.isPresent());
+        assertEquals("processed", FileUtils.readFileToString(result.get(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void leastRecentlyUsedFilesShouldBeEvicted() throws IOException {
+        ProcessedGcodeCache cache = new ProcessedGcodeCache(cacheDir, 25);
+
+        File first = put(cache, "first", 10);
+        File second = put(cache, "second", 10);
+        assertTrue(first.setLastModified(System.currentTimeMillis() - 20000));
+        assertTrue(second.setLastModified(System.currentTimeMillis() - 10000));
+
+        // Use the first file which makes the second one the oldest
+        assertTrue(cache.get("first", "key").isPresent());
+
+        File third = put(cache, "third", 10);
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+        assertTrue(third.exists());
+
+        // A file larger than the cache is still kept as it is about to be used
+        File large = put(cache, "large", 100);
+        assertTrue(large.exists());
+        assertFalse(first.exists());
+        assertFalse(third.exists());
+    }
+
+    private File put(ProcessedGcodeCache cache, String name, int size) throws IOException {
+        File temp = cache.createTempFile(name);
+        Files.write(temp.toPath(), new byte[size]);
+        return cache.put(name, "key", temp);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class SpscRingBufferTest {
+
+    @Test
+    public void capacityShouldBeRoundedToPowerOfTwo() {
+        assertEquals(1, new SpscRingBuffer<Integer>(1).capacity());
+        assertEquals(8, new SpscRingBuffer<Integer>(5).capacity());
+        assertEquals(64, new SpscRingBuffer<Integer>(64).capacity());
+    }
+
+    @Test
+    public void elementsShouldBeReturnedInOrder() {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.peek());
+        assertNull(buffer.poll());
+
+        // Wrap around the end of the array a few times
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i * 2));
+            assertTrue(buffer.offer(i * 2 + 1));
+            assertEquals(2, buffer.size());
+            assertEquals(Integer.valueOf(i * 2), buffer.peek());
+            assertEquals(Integer.valueOf(i * 2), buffer.poll());
+            assertEquals(Integer.valueOf(i * 2 + 1), buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void offerShouldFailWhenFull() {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(2);
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(2));
+        assertTrue(buffer.isFull());
+        assertFalse(buffer.offer(3));
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.size());
+        assertTrue(buffer.offer(3));
+        assertEquals(Integer.valueOf(3), buffer.poll());
+    }
+
+    @Test
+    public void elementsShouldBeTransferredBetweenThreads() throws InterruptedException {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(16);
+        int count = 100000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!buffer.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < count; i++) {
+            Integer value;
+            while ((value = buffer.poll()) == null) {
+                Thread.yield();
+            }
+            assertEquals(i, value.intValue());
+        }
+
+        producer.join();
+        assertTrue(buffer.isEmpty());
+    }
+}
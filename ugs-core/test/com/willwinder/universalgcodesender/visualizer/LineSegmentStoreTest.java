@@ -0,0 +1,117 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author agent
+ */
+public class LineSegmentStoreTest {
+
+    @Test
+    public void addShouldStoreCoordinatesAndFlags() {
+        LineSegmentStore store = new LineSegmentStore(1);
+        store.add(1, 2, 3, 4, 5, 6, 10, true, false, true);
+        store.add(4, 5, 6, 7, 8, 9, 11, false, true, false);
+        store.add(7, 8, 9, 1, 2, 3, 12, false, false, false);
+
+        assertEquals(3, store.size());
+        assertEquals(4, store.getStartX(1), 0);
+        assertEquals(8, store.getEndY(1), 0);
+        assertEquals(3, store.getEndZ(2), 0);
+        assertEquals(11, store.getLineNumber(1));
+
+        assertTrue(store.isArc(0));
+        assertFalse(store.isFastTraverse(0));
+        assertTrue(store.isZMovement(0));
+        assertFalse(store.isArc(1));
+        assertTrue(store.isFastTraverse(1));
+        assertFalse(store.isZMovement(2));
+
+        assertEquals(new Position(1, 2, 3, UnitUtils.Units.MM), store.getStart(0, new Position(0, 0, 0, UnitUtils.Units.MM)));
+    }
+
+    @Test
+    public void cursorShouldIterateAllSegments() {
+        LineSegmentStore store = new LineSegmentStore();
+        for (int i = 0; i < 5; i++) {
+            store.add(i, 0, 0, i + 1, 0, 0, i, false, false, false);
+        }
+
+        LineSegmentStore.Cursor cursor = store.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(count, cursor.getIndex());
+            assertEquals(count, cursor.getStartX(), 0);
+            assertEquals(count + 1, cursor.getEndX(), 0);
+            assertEquals(count, cursor.getLineNumber());
+            count++;
+        }
+        assertEquals(5, count);
+        assertFalse(cursor.next());
+
+        assertEquals(3, cursor.moveTo(3).getLineNumber());
+    }
+
+    @Test
+    public void getShouldCreateLineSegment() {
+        LineSegmentStore store = new LineSegmentStore();
+        store.add(1, 2, 3, 4, 5, 6, 7, false, true, false);
+
+        LineSegment segment = store.get(0);
+        assertEquals(new Position(1, 2, 3, UnitUtils.Units.MM), segment.getStart());
+        assertEquals(new Position(4, 5, 6, UnitUtils.Units.MM), segment.getEnd());
+        assertEquals(7, segment.getLineNumber());
+        assertTrue(segment.isFastTraverse());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getShouldThrowExceptionOutsideOfStore() {
+        LineSegmentStore store = new LineSegmentStore();
+        store.add(1, 2, 3, 4, 5, 6, 7, false, true, false);
+        store.clear();
+        store.getStartX(0);
+    }
+
+    @Test
+    public void gcodeViewParseShouldCreateSegmentsInMillimeters() throws Exception {
+        GcodeViewParse parse = new GcodeViewParse();
+        LineSegmentStore store = parse.toObjRedux(Arrays.asList("G20 G0 X1 Y1", "G1 X2", "G21 G0 Z5"), 0.3);
+
+        assertEquals(3, store.size());
+        assertTrue(store.isFastTraverse(0));
+        assertEquals(25.4, store.getEndX(0), 0.0001);
+        assertEquals(25.4, store.getStartX(1), 0.0001);
+        assertEquals(50.8, store.getEndX(1), 0.0001);
+        assertFalse(store.isFastTraverse(1));
+        assertEquals(5, store.getEndZ(2), 0.0001);
+        assertTrue(store.isZMovement(2));
+        assertEquals(2, store.getLineNumber(2));
+    }
+}
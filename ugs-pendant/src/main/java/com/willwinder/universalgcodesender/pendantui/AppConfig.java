@@ -3,6 +3,7 @@ package com.willwinder.universalgcodesender.pendantui;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.FilesResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.MachineResource;
+import com.willwinder.universalgcodesender.pendantui.v1.resources.MetricsResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.MacrosResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.SettingsResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.StatusResource;
@@ -25,16 +26,19 @@ public class AppConfig extends ResourceConfig {
         register(MacrosResource.class);
         register(SettingsResource.class);
         register(FilesResource.class);
+        register(MetricsResource.class);
         register(MultiPartFeature.class);
 
         BackendAPI backendAPI = BackendAPIFactory.getInstance().getBackendAPI();
         JogService jogService = new JogService(backendAPI);
+        StatusBroadcaster statusBroadcaster = new StatusBroadcaster(backendAPI);
 
         register(new AbstractBinder() {
             @Override
             protected void configure() {
                 bind(backendAPI).to(BackendAPI.class);
                 bind(jogService).to(JogService.class);
+                bind(statusBroadcaster).to(StatusBroadcaster.class);
             }
         });
     }
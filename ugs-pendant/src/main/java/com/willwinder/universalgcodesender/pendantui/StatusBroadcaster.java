@@ -0,0 +1,316 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.pendantui.v1.model.Status;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes the status to the pendant clients subscribed with server sent
+ * events, so that they don't have to poll for it.
+ *
+ * One status snapshot is created and serialized per tick and shared by all
+ * clients. The first event a client gets is the whole status, named
+ * {@link #STATUS_EVENT}, after that it only gets the fields which changed
+ * since its previous event, named {@link #DELTA_EVENT}.
+ *
+ * Each client is written to from a task of its own and only the latest
+ * snapshot is kept for it while a write is in progress, so a slow client
+ * skips snapshots instead of delaying the other clients.
+ *
+ * @author agent
+ */
+public class StatusBroadcaster {
+    private static final Logger LOGGER = Logger.getLogger(StatusBroadcaster.class.getName());
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final String STATUS_EVENT = "status";
+    public static final String DELTA_EVENT = "delta";
+
+    static final long TICK_INTERVAL = 100;
+    static final long KEEP_ALIVE_INTERVAL = 5000;
+    static final long WRITE_TIMEOUT = 10000;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Pendant status");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "Pendant status writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BackendAPI backendAPI;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private ScheduledFuture<?> tick;
+
+    // Only used on the scheduler thread
+    private Snapshot lastSnapshot;
+
+    public StatusBroadcaster(BackendAPI backendAPI) {
+        this.backendAPI = backendAPI;
+    }
+
+    /**
+     * Creates a status from the current state of the backend.
+     */
+    public Status createStatus() {
+        Status status = new Status();
+
+        IController controller = backendAPI.getController();
+        if (controller != null) {
+            UnitUtils.Units preferredUnits = backendAPI.getSettings().getPreferredUnits();
+            ControllerStatus controllerStatus = controller.getControllerStatus();
+            if (controllerStatus != null) {
+                status.setMachineCoord(controllerStatus.getMachineCoord().getPositionIn(preferredUnits));
+                status.setWorkCoord(controllerStatus.getWorkCoord().getPositionIn(preferredUnits));
+                status.setState(controllerStatus.getState());
+                status.setFeedSpeed(controllerStatus.getFeedSpeed());
+                status.setSpindleSpeed(controllerStatus.getSpindleSpeed());
+            } else {
+                // Hack, we are connected so we need to set it to an unknown state
+                status.setState(ControllerState.UNKNOWN);
+            }
+
+            status.setRowCount(backendAPI.getNumRows());
+            status.setCompletedRowCount(backendAPI.getNumCompletedRows());
+            status.setRemainingRowCount(backendAPI.getNumRemainingRows());
+            if (backendAPI.getGcodeFile() != null) {
+                status.setFileName(backendAPI.getGcodeFile().getName());
+            } else {
+                status.setFileName("");
+            }
+            status.setSendDuration(backendAPI.getSendDuration());
+            status.setSendRemainingDuration(backendAPI.getSendRemainingDuration());
+        }
+
+        return status;
+    }
+
+    /**
+     * Adds a client which gets the status until it disconnects.
+     */
+    public void subscribe(SseEventSink eventSink, Sse sse) {
+        Client client = new Client(eventSink, sse);
+        clients.add(client);
+        LOGGER.log(Level.FINE, "Pendant client subscribed to the status, {0} clients", clients.size());
+
+        synchronized (this) {
+            if (tick == null) {
+                tick = SCHEDULER.scheduleAtFixedRate(this::tick, 0, TICK_INTERVAL, TimeUnit.MILLISECONDS);
+            } else {
+                SCHEDULER.execute(() -> client.offer(lastSnapshot));
+            }
+        }
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    private void tick() {
+        try {
+            clients.removeIf(Client::isClosed);
+            synchronized (this) {
+                if (clients.isEmpty()) {
+                    tick.cancel(false);
+                    tick = null;
+                    lastSnapshot = null;
+                    return;
+                }
+            }
+
+            Snapshot snapshot = new Snapshot(MAPPER.convertValue(createStatus(), Map.class), lastSnapshot);
+            lastSnapshot = snapshot;
+            for (Client client : clients) {
+                client.offer(snapshot);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not push the status to the pendant clients", e);
+        }
+    }
+
+    /**
+     * The status at one tick, serialized once for all clients.
+     */
+    private static final class Snapshot {
+        private final long sequence;
+        private final Map<String, Object> fields;
+        private final String json;
+
+        // The changes since the previous snapshot, null if nothing changed
+        private final String delta;
+
+        @SuppressWarnings("unchecked")
+        Snapshot(Map<?, ?> fields, Snapshot previous) throws JsonProcessingException {
+            this.sequence = previous == null ? 0 : previous.sequence + 1;
+            this.fields = (Map<String, Object>) fields;
+            this.json = MAPPER.writeValueAsString(fields);
+            this.delta = previous == null ? null : deltaFrom(previous);
+        }
+
+        /**
+         * @return the fields which are different in this snapshot as json, or null if there are none
+         */
+        String deltaFrom(Snapshot other) throws JsonProcessingException {
+            Map<String, Object> changed = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                if (!Objects.equals(field.getValue(), other.fields.get(field.getKey()))) {
+                    changed.put(field.getKey(), field.getValue());
+                }
+            }
+            return changed.isEmpty() ? null : MAPPER.writeValueAsString(changed);
+        }
+    }
+
+    /**
+     * A subscribed client with the snapshot waiting to be written to it.
+     */
+    private final class Client {
+        private final SseEventSink eventSink;
+        private final Sse sse;
+
+        // Guarded by this
+        private Snapshot pending;
+        private boolean writing = false;
+
+        // Only used by the writing task
+        private Snapshot lastSent;
+        private long lastWrite = System.currentTimeMillis();
+
+        Client(SseEventSink eventSink, Sse sse) {
+            this.eventSink = eventSink;
+            this.sse = sse;
+        }
+
+        boolean isClosed() {
+            return eventSink.isClosed();
+        }
+
+        /**
+         * Replaces the snapshot waiting to be written, the client only gets
+         * the latest one if it is still busy with the previous.
+         */
+        synchronized void offer(Snapshot snapshot) {
+            if (snapshot == null) {
+                return;
+            }
+
+            pending = snapshot;
+            if (!writing) {
+                writing = true;
+                WRITERS.execute(this::write);
+            }
+        }
+
+        private void write() {
+            while (true) {
+                Snapshot snapshot;
+                synchronized (this) {
+                    snapshot = pending;
+                    pending = null;
+                    if (snapshot == null || isClosed()) {
+                        writing = false;
+                        return;
+                    }
+                }
+
+                try {
+                    OutboundSseEvent event = createEvent(snapshot);
+                    if (event != null) {
+                        eventSink.send(event).toCompletableFuture().get(WRITE_TIMEOUT, TimeUnit.MILLISECONDS);
+                        lastWrite = System.currentTimeMillis();
+                    }
+                    lastSent = snapshot;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    return;
+                } catch (ExecutionException | TimeoutException | JsonProcessingException | RuntimeException e) {
+                    LOGGER.log(Level.FINE, "Could not push the status to a pendant client, disconnecting it", e);
+                    close();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return the event to send for the snapshot, or null if there is nothing to send
+         */
+        private OutboundSseEvent createEvent(Snapshot snapshot) throws JsonProcessingException {
+            if (lastSent == null) {
+                return sse.newEvent(STATUS_EVENT, snapshot.json);
+            }
+
+            // Clients which got the previous snapshot share the delta of the tick
+            String delta = lastSent.sequence == snapshot.sequence - 1 ? snapshot.delta : snapshot.deltaFrom(lastSent);
+            if (delta != null) {
+                return sse.newEvent(DELTA_EVENT, delta);
+            }
+
+            // Lets the client and the server notice a dropped connection
+            if (System.currentTimeMillis() - lastWrite > KEEP_ALIVE_INTERVAL) {
+                return sse.newEventBuilder().comment("keep-alive").build();
+            }
+            return null;
+        }
+
+        private void close() {
+            synchronized (this) {
+                writing = false;
+                pending = null;
+            }
+            clients.remove(this);
+            try {
+                eventSink.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Could not close the pendant client", e);
+            }
+        }
+    }
+}
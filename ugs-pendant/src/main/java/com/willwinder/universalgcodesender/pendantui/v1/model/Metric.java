@@ -0,0 +1,55 @@
+package com.willwinder.universalgcodesender.pendantui.v1.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Metric implements Serializable {
+    private String name;
+    private String description;
+    private String type;
+    private String unit;
+    private Map<String, Long> values;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public Map<String, Long> getValues() {
+        return values;
+    }
+
+    public void setValues(Map<String, Long> values) {
+        this.values = values;
+    }
+}
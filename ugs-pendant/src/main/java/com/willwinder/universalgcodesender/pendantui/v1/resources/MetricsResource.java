@@ -0,0 +1,44 @@
+package com.willwinder.universalgcodesender.pendantui.v1.resources;
+
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
+import com.willwinder.universalgcodesender.pendantui.v1.model.Metric;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Exports the metrics of the streaming stack, the latencies are in nanoseconds.
+ */
+@Path("/v1/metrics")
+public class MetricsResource {
+
+    @GET
+    @Path("getMetrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<Metric> getMetrics() {
+        return MetricsRegistry.getDefault().getMetrics().stream()
+                .map(MetricsResource::toMetric)
+                .collect(Collectors.toList());
+    }
+
+    @POST
+    @Path("resetMetrics")
+    public void resetMetrics() {
+        MetricsRegistry.getDefault().reset();
+    }
+
+    private static Metric toMetric(com.willwinder.universalgcodesender.metrics.Metric metric) {
+        Metric response = new Metric();
+        response.setName(metric.getName());
+        response.setDescription(metric.getDescription());
+        response.setType(metric.getType().name());
+        response.setUnit(metric.getUnit().name());
+        response.setValues(metric.getValues());
+        return response;
+    }
+}
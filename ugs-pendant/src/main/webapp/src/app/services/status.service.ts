@@ -24,9 +24,38 @@ export class StatusService {
   }
 
   /**
-   * Starts a timer and refreshes the status with event intervals
+   * Subscribes to the status pushed by the server, the first event is the whole status and
+   * after that only the changed fields are sent. Falls back to polling if the browser
+   * doesn't support server sent events.
    */
   start() {
+    if (typeof EventSource === 'undefined') {
+      this.startPolling();
+      return;
+    }
+
+    let response:any = {};
+    let eventSource = new EventSource('/api/v1/status/subscribe');
+    eventSource.addEventListener('status', (event:MessageEvent) => {
+      response = JSON.parse(event.data);
+      this.statusSubject.next(this.toStatus(response));
+    });
+    eventSource.addEventListener('delta', (event:MessageEvent) => {
+      response = Object.assign(response, JSON.parse(event.data));
+      this.statusSubject.next(this.toStatus(response));
+    });
+    eventSource.onerror = () => {
+      // The browser reconnects by itself and gets the whole status again
+      let status = new Status();
+      status.state = StateEnum.UNAVAILABLE;
+      this.statusSubject.next(status);
+    };
+  }
+
+  /**
+   * Starts a timer and refreshes the status with event intervals
+   */
+  startPolling() {
     interval(200)
     .pipe(
       switchMap(_ => this.refreshStatus()),
@@ -49,27 +78,29 @@ export class StatusService {
 
   refreshStatus():Observable<Status> {
     return this.http.get<Status>('/api/v1/status/getStatus')
-      .map(response => {
-        let status = new Status();
-        status.state = response.state;
-        status.fileName = response.fileName;
-        status.rowCount = response.rowCount;
-        status.completedRowCount = response.completedRowCount;
-        status.remainingRowCount = response.remainingRowCount;
-        status.sendDuration = response.sendDuration;
-        status.sendRemainingDuration = response.sendRemainingDuration;
-
-        if (response.workCoord) {
-          status.workCoord = new Position(response.workCoord.x, response.workCoord.y, response.workCoord.z, response.workCoord.units);
-        }
-
-        if (response.machineCoord) {
-          status.machineCoord = new Position(response.machineCoord.x, response.machineCoord.y, response.machineCoord.z, response.machineCoord.units);
-        }
-        return status;
-      })
+      .map(response => this.toStatus(response))
       .pipe(
         tap(status => this.statusSubject.next(status))
       );
   }
+
+  private toStatus(response:any):Status {
+    let status = new Status();
+    status.state = response.state;
+    status.fileName = response.fileName;
+    status.rowCount = response.rowCount;
+    status.completedRowCount = response.completedRowCount;
+    status.remainingRowCount = response.remainingRowCount;
+    status.sendDuration = response.sendDuration;
+    status.sendRemainingDuration = response.sendRemainingDuration;
+
+    if (response.workCoord) {
+      status.workCoord = new Position(response.workCoord.x, response.workCoord.y, response.workCoord.z, response.workCoord.units);
+    }
+
+    if (response.machineCoord) {
+      status.machineCoord = new Position(response.machineCoord.x, response.machineCoord.y, response.machineCoord.z, response.machineCoord.units);
+    }
+    return status;
+  }
 }
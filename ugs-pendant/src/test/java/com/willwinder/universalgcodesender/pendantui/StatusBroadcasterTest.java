@@ -0,0 +1,185 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui;
+
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.utils.Settings;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class StatusBroadcasterTest {
+    private final BackendAPI mockBackend = EasyMock.createNiceMock(BackendAPI.class);
+    private final IController mockController = EasyMock.createNiceMock(IController.class);
+    private final AtomicLong rowCount = new AtomicLong();
+    private final List<TestSink> sinks = new ArrayList<>();
+    private StatusBroadcaster statusBroadcaster;
+
+    @Before
+    public void setup() {
+        EasyMock.reset(mockBackend, mockController);
+        EasyMock.expect(mockBackend.getController()).andReturn(mockController).anyTimes();
+        EasyMock.expect(mockBackend.getSettings()).andReturn(new Settings()).anyTimes();
+        EasyMock.expect(mockBackend.getNumRows()).andAnswer(rowCount::get).anyTimes();
+        EasyMock.replay(mockBackend, mockController);
+
+        statusBroadcaster = new StatusBroadcaster(mockBackend);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sinks.forEach(TestSink::close);
+        ThreadHelper.waitUntil(() -> statusBroadcaster.getClientCount() == 0, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void unchangedStatusShouldNotBeSentAgain() throws Exception {
+        TestSink sink = subscribe(new TestSink());
+        ThreadHelper.waitUntil(() -> sink.getEvents().size() == 1, 10, TimeUnit.SECONDS);
+        Thread.sleep(StatusBroadcaster.TICK_INTERVAL * 5);
+        assertEquals(StatusBroadcaster.STATUS_EVENT, sink.getEvents().get(0).getName());
+        assertEquals(1, sink.getEvents().size());
+
+        // Only the changed field is sent
+        rowCount.set(10);
+        ThreadHelper.waitUntil(() -> sink.getEvents().size() == 2, 10, TimeUnit.SECONDS);
+        Thread.sleep(StatusBroadcaster.TICK_INTERVAL * 5);
+        assertEquals(StatusBroadcaster.DELTA_EVENT, sink.getEvents().get(1).getName());
+        assertEquals("{\"rowCount\":10}", sink.getEvents().get(1).getData());
+        assertEquals(2, sink.getEvents().size());
+    }
+
+    @Test
+    public void slowClientShouldOnlyGetTheLatestStatus() throws Exception {
+        CompletableFuture<Void> slowWrite = new CompletableFuture<>();
+        TestSink slowSink = subscribe(new TestSink(slowWrite));
+        TestSink sink = subscribe(new TestSink());
+        ThreadHelper.waitUntil(() -> sink.getEvents().size() == 1 && slowSink.getEvents().size() == 1, 10, TimeUnit.SECONDS);
+
+        // The other client gets every change while the slow client is still writing
+        for (int i = 1; i <= 5; i++) {
+            rowCount.set(i);
+            int events = i + 1;
+            ThreadHelper.waitUntil(() -> sink.getEvents().size() == events, 10, TimeUnit.SECONDS);
+        }
+        assertEquals(1, slowSink.getEvents().size());
+
+        // The slow client skips to the latest status
+        slowWrite.complete(null);
+        ThreadHelper.waitUntil(() -> slowSink.getEvents().size() == 2, 10, TimeUnit.SECONDS);
+        Thread.sleep(StatusBroadcaster.TICK_INTERVAL * 3);
+        assertEquals(2, slowSink.getEvents().size());
+        assertEquals(StatusBroadcaster.DELTA_EVENT, slowSink.getEvents().get(1).getName());
+        assertEquals("{\"rowCount\":5}", slowSink.getEvents().get(1).getData());
+    }
+
+    @Test
+    public void clientShouldBeDroppedIfTheWriteFails() throws Exception {
+        CompletableFuture<Void> failedWrite = new CompletableFuture<>();
+        failedWrite.completeExceptionally(new IllegalStateException("Broken pipe"));
+        TestSink failingSink = subscribe(new TestSink(failedWrite));
+        TestSink sink = subscribe(new TestSink());
+
+        ThreadHelper.waitUntil(failingSink::isClosed, 10, TimeUnit.SECONDS);
+        ThreadHelper.waitUntil(() -> statusBroadcaster.getClientCount() == 1, 10, TimeUnit.SECONDS);
+
+        rowCount.set(1);
+        ThreadHelper.waitUntil(() -> sink.getEvents().size() == 2, 10, TimeUnit.SECONDS);
+        assertEquals(1, failingSink.getEvents().size());
+    }
+
+    private TestSink subscribe(TestSink sink) {
+        sinks.add(sink);
+        statusBroadcaster.subscribe(sink, createSse());
+        return sink;
+    }
+
+    private static Sse createSse() {
+        Sse sse = EasyMock.createNiceMock(Sse.class);
+        EasyMock.expect(sse.newEvent(EasyMock.anyString(), EasyMock.anyString())).andAnswer(() -> {
+            Object[] arguments = EasyMock.getCurrentArguments();
+            OutboundSseEvent event = EasyMock.createNiceMock(OutboundSseEvent.class);
+            EasyMock.expect(event.getName()).andReturn((String) arguments[0]).anyTimes();
+            EasyMock.expect(event.getData()).andReturn(arguments[1]).anyTimes();
+            EasyMock.replay(event);
+            return event;
+        }).anyTimes();
+        EasyMock.replay(sse);
+        return sse;
+    }
+
+    /**
+     * Records the events sent to a client, the writes complete when the given
+     * future does.
+     */
+    private static class TestSink implements SseEventSink {
+        private final List<OutboundSseEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final CompletableFuture<Void> write;
+        private volatile boolean closed = false;
+
+        TestSink() {
+            this(CompletableFuture.completedFuture(null));
+        }
+
+        TestSink(CompletableFuture<Void> write) {
+            this.write = write;
+        }
+
+        List<OutboundSseEvent> getEvents() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            events.add(event);
+            return write;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
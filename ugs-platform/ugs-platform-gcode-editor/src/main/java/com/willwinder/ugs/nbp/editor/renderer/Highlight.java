@@ -25,9 +25,8 @@ import com.jogamp.opengl.GLAutoDrawable;
 import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
 import com.willwinder.ugs.nbm.visualizer.renderables.GcodeModel;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_HIGHLIGHT;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.Collection;
 import javax.vecmath.Point3d;
 
@@ -110,29 +109,33 @@ public class Highlight extends Renderable {
             return;
         }
 
-        ArrayList<LineSegment> highlights = new ArrayList<>();
-        int vertIndex = 0;
-        for (LineSegment ls : model.getLineList()) {
+        LineSegmentStore segments = model.getLineList();
+        int highlightCount = 0;
+        LineSegmentStore.Cursor ls = segments.cursor();
+        while (ls.next()) {
             if (lines.contains(ls.getLineNumber() -1)) {
-                highlights.add(ls);
+                highlightCount++;
             }
         }
 
-        this.numberOfVertices = highlights.size() * 2;
+        this.numberOfVertices = highlightCount * 2;
         this.lineVertexData = new float[numberOfVertices * 3];
 
-        for (LineSegment ls : highlights) {
-            Point3d p1 = ls.getStart();
-            Point3d p2 = ls.getEnd();
+        int vertIndex = 0;
+        ls = segments.cursor();
+        while (ls.next()) {
+            if (!lines.contains(ls.getLineNumber() -1)) {
+                continue;
+            }
 
             // p1 location
-            lineVertexData[vertIndex++] = (float)p1.x;
-            lineVertexData[vertIndex++] = (float)p1.y;
-            lineVertexData[vertIndex++] = (float)p1.z;
+            lineVertexData[vertIndex++] = (float)ls.getStartX();
+            lineVertexData[vertIndex++] = (float)ls.getStartY();
+            lineVertexData[vertIndex++] = (float)ls.getStartZ();
             //p2
-            lineVertexData[vertIndex++] = (float)p2.x;
-            lineVertexData[vertIndex++] = (float)p2.y;
-            lineVertexData[vertIndex++] = (float)p2.z;
+            lineVertexData[vertIndex++] = (float)ls.getEndX();
+            lineVertexData[vertIndex++] = (float)ls.getEndY();
+            lineVertexData[vertIndex++] = (float)ls.getEndZ();
         }
     }
 }
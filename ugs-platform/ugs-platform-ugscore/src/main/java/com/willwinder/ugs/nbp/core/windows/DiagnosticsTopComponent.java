@@ -25,6 +25,8 @@ import com.willwinder.universalgcodesender.ICommunicator;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.Metric;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 
@@ -60,10 +62,17 @@ import org.openide.windows.TopComponent;
         displayName = "<Not localized:DiagnosticsAction>",
         preferredID = "DiagnosticsTopComponent")
 public final class DiagnosticsTopComponent extends TopComponent implements UGSEventListener {
+  private static final int METRICS_REFRESH_INTERVAL = 500;
+
   private final BackendAPI backend;
 
   private Map<String, JLabel> labels = new LinkedHashMap<>();
 
+  // The metrics are refreshed live while the window is open
+  private final Map<String, JLabel> metricLabels = new LinkedHashMap<>();
+  private final JPanel metricsPanel = new JPanel(new MigLayout("wrap2,fillx"));
+  private final Timer metricsTimer = new Timer(METRICS_REFRESH_INTERVAL, (event) -> refreshMetrics());
+
   public DiagnosticsTopComponent() {
     setName(LocalizingService.DiagnosticsTitle);
     setToolTipText(LocalizingService.DiagnosticsTooltip);
@@ -114,7 +123,18 @@ public final class DiagnosticsTopComponent extends TopComponent implements UGSEv
     refresh.addActionListener((event) -> refreshValues());
     labelPanel.add(refresh, "spanx 2");
 
-    JScrollPane scrollPane = new JScrollPane(labelPanel);
+    JButton resetMetrics = new JButton("Reset metrics");
+    resetMetrics.addActionListener((event) -> {
+      MetricsRegistry.getDefault().reset();
+      refreshMetrics();
+    });
+
+    JPanel panel = new JPanel(new MigLayout("wrap1,fillx,insets 0"));
+    panel.add(labelPanel, "growx");
+    panel.add(metricsPanel, "growx");
+    panel.add(resetMetrics, "gapleft 7");
+
+    JScrollPane scrollPane = new JScrollPane(panel);
     add(scrollPane, BorderLayout.CENTER);
     setMinimumSize(new Dimension(100, 200));
   }
@@ -171,6 +191,27 @@ public final class DiagnosticsTopComponent extends TopComponent implements UGSEv
     }
   }
 
+  private void refreshMetrics() {
+    boolean added = false;
+    for (Metric metric : MetricsRegistry.getDefault().getMetrics()) {
+      JLabel label = metricLabels.get(metric.getName());
+      if (label == null) {
+        JLabel name = new JLabel("metrics:" + metric.getName());
+        name.setToolTipText(metric.getDescription());
+        label = new JLabel();
+        metricLabels.put(metric.getName(), label);
+        metricsPanel.add(name);
+        metricsPanel.add(label);
+        added = true;
+      }
+      label.setText(metric.getSummary());
+    }
+
+    if (added) {
+      metricsPanel.revalidate();
+    }
+  }
+
   @Override
   public void UGSEvent(UGSEvent evt) {
     refreshValues();
@@ -179,11 +220,14 @@ public final class DiagnosticsTopComponent extends TopComponent implements UGSEv
   @Override
   public void componentOpened() {
     backend.addUGSEventListener(this);
+    refreshMetrics();
+    metricsTimer.start();
   }
 
   @Override
   public void componentClosed() {
     backend.removeUGSEventListener(this);
+    metricsTimer.stop();
   }
 
   public void writeProperties(java.util.Properties p) {
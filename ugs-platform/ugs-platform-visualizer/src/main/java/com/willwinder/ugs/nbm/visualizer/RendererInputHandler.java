@@ -24,6 +24,7 @@ import com.willwinder.ugs.nbm.visualizer.renderables.Selection;
 import com.willwinder.ugs.nbm.visualizer.renderables.SizeDisplay;
 import com.willwinder.ugs.nbm.visualizer.shared.GcodeRenderer;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.CommandsCompletedListener;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
@@ -40,6 +41,7 @@ import javax.swing.*;
 import javax.vecmath.Point3d;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.List;
 import java.util.prefs.PreferenceChangeEvent;
 import java.util.prefs.PreferenceChangeListener;
 
@@ -51,7 +53,7 @@ import java.util.prefs.PreferenceChangeListener;
 public class RendererInputHandler implements
         WindowListener, MouseWheelListener, MouseMotionListener,
         MouseListener, KeyListener, PreferenceChangeListener,
-        ControllerListener, UGSEventListener {
+        ControllerListener, CommandsCompletedListener, UGSEventListener {
     final private GcodeRenderer gcodeRenderer;
     final private FPSAnimator animator;
     private final BackendAPI backend;
@@ -366,8 +368,11 @@ public class RendererInputHandler implements
 
     @Override
     public void commandComplete(GcodeCommand command) {
-        gcodeModel.setCurrentCommandNumber(command.getCommandNumber());
-        // TODO: When to redraw??
+    }
+
+    @Override
+    public void commandsCompleted(int fromLine, int toLine, List<GcodeCommand> errors) {
+        gcodeModel.setCurrentCommandNumber(toLine);
     }
 
     @Override
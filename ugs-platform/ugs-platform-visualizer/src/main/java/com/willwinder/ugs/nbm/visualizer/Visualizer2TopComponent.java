@@ -164,8 +164,8 @@ public final class Visualizer2TopComponent extends TopComponent {
         }
 
         // Install listeners...
-        backend.addControllerListener(this.rih);
-        backend.addUGSEventListener(this.rih);
+        backend.addAsyncControllerListener(this.rih);
+        backend.addAsyncUGSEventListener(this.rih);
 
         // shutdown hook...
         //frame.addWindowListener(this.rih);
@@ -64,6 +64,9 @@ public class VisualizerOptions extends ArrayList<Option> {
     public static final String VISUALIZER_OPTION_BOUNDRY_SIDES = "platform.visualizer.color.boundry-sides";
 
 
+    // Draw the GcodeModel with line strips, this roughly halves the number of vertices
+    public static final String VISUALIZER_OPTION_LINE_STRIP = "platform.visualizer.line-strip";
+
     public class ColorPref {
         public String preference;
         public String localized;
@@ -142,4 +145,12 @@ public class VisualizerOptions extends ArrayList<Option> {
     public static void setColorOption(String option, Color color) {
         NbPreferences.forModule(VisualizerOptions.class).putInt(option, color.getRGB());
     }
+
+    public static boolean getBooleanOption(String option, boolean defaultValue) {
+        return NbPreferences.forModule(VisualizerOptions.class).getBoolean(option, defaultValue);
+    }
+
+    public static void setBooleanOption(String option, boolean value) {
+        NbPreferences.forModule(VisualizerOptions.class).putBoolean(option, value);
+    }
 }
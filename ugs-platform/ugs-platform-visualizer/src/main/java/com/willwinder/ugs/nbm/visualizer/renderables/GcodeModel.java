@@ -30,7 +30,7 @@ import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
 
 import javax.vecmath.Point3d;
@@ -39,6 +39,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -47,6 +49,7 @@ import static com.jogamp.opengl.GL.GL_LINES;
 import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_COLOR_ARRAY;
 import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_VERTEX_ARRAY;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.*;
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvents.GCODE_MODEL_REBUILD;
 
 /**
  *
@@ -56,18 +59,27 @@ public class GcodeModel extends Renderable {
     private static final Logger logger = Logger.getLogger(GcodeModel.class.getName());
 
     private boolean colorArrayDirty, vertexArrayDirty, vertexBufferDirty;
+    private volatile boolean geometryDirty;
 
     // Gcode file data
     private String gcodeFile = null;
     private boolean isDrawable = false; //True if a file is loaded; false if not
-    private List<LineSegment> gcodeLineList; //An ArrayList of linesegments composing the model
-    private int currentCommandNumber = 0;
+    private LineSegmentStore gcodeLineList; //A store of the linesegments composing the model
+    private LineNumberIndex lineNumberIndex;
+    private volatile int currentCommandNumber = 0;
+
+    // The command number the completed colors in lineColorData were generated for.
+    private int coloredCommandNumber = 0;
 
     // OpenGL Object Buffer Variables
-    private int numberOfVertices = -1;
-    private float[] lineVertexData = null;
+    private static final int VERTEX_BUFFER = 0;
+    private static final int COLOR_BUFFER = 1;
+    private static final int INDEX_BUFFER = 2;
+    private final int[] bufferObjects = new int[3];
+    private int numberOfIndices = 0;
+    private boolean useLineStrip;
+    private LineGeometry geometry = null;
     private byte[] lineColorData = null;
-    private FloatBuffer lineVertexBuffer = null;
     private ByteBuffer lineColorBuffer = null;
 
     private Point3d objectMin;
@@ -94,6 +106,12 @@ public class GcodeModel extends Renderable {
         arcColor = vo.getOptionForKey(VISUALIZER_OPTION_ARC).value;
         plungeColor = vo.getOptionForKey(VISUALIZER_OPTION_PLUNGE).value;
         completedColor = vo.getOptionForKey(VISUALIZER_OPTION_COMPLETE).value;
+        boolean lineStrip = VisualizerOptions.getBooleanOption(VISUALIZER_OPTION_LINE_STRIP, true);
+        if (lineStrip != useLineStrip) {
+            // The geometry is rebuilt in the rendering thread on the next draw
+            useLineStrip = lineStrip;
+            geometryDirty = true;
+        }
         vertexBufferDirty = true;
     }
 
@@ -115,14 +133,14 @@ public class GcodeModel extends Renderable {
     }
 
     /**
-     * This is used to gray out completed commands.
+     * This is used to gray out completed commands. Only the segments between
+     * the previous and the new command number are recolored on the next draw.
      */
     public void setCurrentCommandNumber(int num) {
         currentCommandNumber = num;
-        vertexBufferDirty = true;
     }
 
-    public List<LineSegment> getLineList() {
+    public LineSegmentStore getLineList() {
         return this.gcodeLineList;
     }
 
@@ -143,6 +161,8 @@ public class GcodeModel extends Renderable {
 
     @Override
     public void init(GLAutoDrawable drawable) {
+        // Buffer objects belong to the previous context, if any.
+        Arrays.fill(bufferObjects, 0);
         generateObject();
     }
 
@@ -151,59 +171,123 @@ public class GcodeModel extends Renderable {
         if (!isDrawable) return;
 
         GL2 gl = drawable.getGL().getGL2();
-        
+
+        if (this.geometryDirty) {
+            createGeometry();
+            this.vertexBufferDirty = true;
+        }
+
+        // Initialize the vertex and color arrays if required.
+        if (this.vertexBufferDirty) {
+            updateVertexBuffers();
+            this.vertexBufferDirty = false;
+        }
+
         // Batch mode if available 
         boolean forceOldStyle = false;
         if(!forceOldStyle
                 && gl.isFunctionAvailable( "glGenBuffers" )
                 && gl.isFunctionAvailable( "glBindBuffer" )
                 && gl.isFunctionAvailable( "glBufferData" )
+                && gl.isFunctionAvailable( "glBufferSubData" )
                 && gl.isFunctionAvailable( "glDeleteBuffers" ) ) {
-            
-            // Initialize OpenGL arrays if required.
-            if (this.vertexBufferDirty && !vertexArrayDirty && !colorArrayDirty) {
-                updateVertexBuffers();
-                this.vertexBufferDirty = false;
-            }
-            if (this.colorArrayDirty) {
-                this.updateGLColorArray(drawable);
-                this.colorArrayDirty = false;
-            }
-            if (this.vertexArrayDirty) {
-                this.updateGLGeometryArray(drawable);
-                this.vertexArrayDirty = false;
-            }
-            gl.glLineWidth(1.0f);
-            gl.glEnableClientState(GL_VERTEX_ARRAY);
-            gl.glEnableClientState(GL_COLOR_ARRAY);
-            gl.glDrawArrays( GL.GL_LINES, 0, numberOfVertices);
-            gl.glDisableClientState(GL_COLOR_ARRAY);
-            gl.glDisableClientState(GL_VERTEX_ARRAY);
+            drawBufferObjects(gl);
         }
         // Traditional OpenGL
         else {
+            updateCompletedColors(null);
+            drawImmediate(gl);
+        }
 
-            // TODO: By using a GL_LINE_STRIP I can easily use half the number of
-            //       verticies. May lose some control over line colors though.
-            //gl.glEnable(GL2.GL_LINE_SMOOTH);
-            gl.glBegin(GL_LINES);
-            gl.glLineWidth(1.0f);
-
-            int verts = 0;
-            int colors = 0;
-            for(LineSegment ls : gcodeLineList)
-            {
-                gl.glColor3ub(lineColorData[colors++],lineColorData[colors++],lineColorData[colors++]);
-                gl.glVertex3d(lineVertexData[verts++], lineVertexData[verts++], lineVertexData[verts++]);
-                gl.glColor3ub(lineColorData[colors++],lineColorData[colors++],lineColorData[colors++]);
-                gl.glVertex3d(lineVertexData[verts++], lineVertexData[verts++], lineVertexData[verts++]);
+        // makes the gui stay on top of elements
+        // drawn before.
+    }
+
+    /**
+     * Draws the model from vertex buffer objects. The geometry is only uploaded
+     * when a new file is loaded, colors are updated partially as commands complete.
+     */
+    private void drawBufferObjects(GL2 gl) {
+        if (bufferObjects[VERTEX_BUFFER] == 0) {
+            gl.glGenBuffers(bufferObjects.length, bufferObjects, 0);
+        }
+
+        if (this.vertexArrayDirty) {
+            this.updateGLGeometryArray(gl);
+            this.vertexArrayDirty = false;
+        }
+        if (this.colorArrayDirty) {
+            this.updateGLColorArray(gl);
+            this.colorArrayDirty = false;
+        } else {
+            updateCompletedColors(gl);
+        }
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObjects[VERTEX_BUFFER]);
+        gl.glVertexPointer(3, GL.GL_FLOAT, 0, 0L);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObjects[COLOR_BUFFER]);
+        gl.glColorPointer(3, GL.GL_UNSIGNED_BYTE, 0, 0L);
+
+        gl.glLineWidth(1.0f);
+        gl.glEnableClientState(GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL_COLOR_ARRAY);
+        if (geometry.isLineStrip()) {
+            // The segment color is stored in the vertex it ends with.
+            gl.glShadeModel(GL2.GL_FLAT);
+            if (isPrimitiveRestartAvailable(gl)) {
+                gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, bufferObjects[INDEX_BUFFER]);
+                gl.glEnable(GL2.GL_PRIMITIVE_RESTART);
+                gl.glPrimitiveRestartIndex(LineGeometry.RESTART_INDEX);
+                gl.glDrawElements(GL.GL_LINE_STRIP, numberOfIndices, GL.GL_UNSIGNED_INT, 0L);
+                gl.glDisable(GL2.GL_PRIMITIVE_RESTART);
+                gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+            } else {
+                gl.glMultiDrawArrays(GL.GL_LINE_STRIP,
+                        geometry.getRunFirst(), 0, geometry.getRunVertexCount(), 0, geometry.getRunCount());
             }
+            gl.glShadeModel(GL2.GL_SMOOTH);
+        } else {
+            gl.glDrawArrays(GL.GL_LINES, 0, geometry.getVertexCount());
+        }
+        gl.glDisableClientState(GL_COLOR_ARRAY);
+        gl.glDisableClientState(GL_VERTEX_ARRAY);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
 
+    /**
+     * Draws the model with one call per vertex, used if buffer objects aren't supported.
+     */
+    private void drawImmediate(GL2 gl) {
+        float[] vertexData = geometry.getVertexData();
+        //gl.glEnable(GL2.GL_LINE_SMOOTH);
+        gl.glLineWidth(1.0f);
+
+        if (geometry.isLineStrip()) {
+            gl.glShadeModel(GL2.GL_FLAT);
+            int[] runFirst = geometry.getRunFirst();
+            int[] runCount = geometry.getRunVertexCount();
+            for (int run = 0; run < geometry.getRunCount(); run++) {
+                gl.glBegin(GL.GL_LINE_STRIP);
+                for (int v = runFirst[run]; v < runFirst[run] + runCount[run]; v++) {
+                    gl.glColor3ub(lineColorData[v * 3], lineColorData[v * 3 + 1], lineColorData[v * 3 + 2]);
+                    gl.glVertex3f(vertexData[v * 3], vertexData[v * 3 + 1], vertexData[v * 3 + 2]);
+                }
+                gl.glEnd();
+            }
+            gl.glShadeModel(GL2.GL_SMOOTH);
+        } else {
+            gl.glBegin(GL_LINES);
+            for (int v = 0; v < geometry.getVertexCount(); v++) {
+                gl.glColor3ub(lineColorData[v * 3], lineColorData[v * 3 + 1], lineColorData[v * 3 + 2]);
+                gl.glVertex3f(vertexData[v * 3], vertexData[v * 3 + 1], vertexData[v * 3 + 2]);
+            }
             gl.glEnd();
         }
+    }
 
-        // makes the gui stay on top of elements
-        // drawn before.
+    private static boolean isPrimitiveRestartAvailable(GL2 gl) {
+        return gl.isFunctionAvailable("glPrimitiveRestartIndex")
+                && gl.isFunctionAvailable("glDrawElements");
     }
     
     public Point3d getMin() {
@@ -221,12 +305,12 @@ public class GcodeModel extends Renderable {
     {
         isDrawable = false;
         if (this.gcodeFile == null){ return false; }
-        
+
+        Object event = GCODE_MODEL_REBUILD.begin();
         try {
             GcodeViewParse gcvp = new GcodeViewParse();
             logger.log(Level.INFO, "About to process {}", gcodeFile);
-            try {
-                IGcodeStreamReader gsr = new GcodeStreamReader(new File(gcodeFile));
+            try (IGcodeStreamReader gsr = new GcodeStreamReader(new File(gcodeFile))) {
                 gcodeLineList = gcvp.toObjFromReader(gsr, 0.3);
             } catch (GcodeStreamReader.NotGcodeStreamFile e) {
                 List<String> linesInFile;
@@ -267,11 +351,14 @@ public class GcodeModel extends Renderable {
             // Now that the object is known, fill the buffers.
             this.isDrawable = true;
 
-            this.numberOfVertices = gcodeLineList.size() * 2;
-            this.lineVertexData = new float[numberOfVertices * 3];
-            this.lineColorData = new byte[numberOfVertices * 3];
-            
+            this.lineNumberIndex = new LineNumberIndex(gcodeLineList);
+            createGeometry();
+
             this.updateVertexBuffers();
+
+            if (event != null) {
+                GCODE_MODEL_REBUILD.commit(event, true, gcodeLineList.size(), currentCommandNumber);
+            }
         } catch (GcodeParserException | IOException e) {
             String error = Localization.getString("mainWindow.error.openingFile") + " : " + e.getLocalizedMessage();
             System.out.println(error);
@@ -283,114 +370,163 @@ public class GcodeModel extends Renderable {
     }
 
     /**
-     * Convert the gcodeLineList into vertex and color arrays.
+     * Builds the vertices of the gcodeLineList as separate lines or as line
+     * strips, depending on the line strip option.
+     */
+    private void createGeometry() {
+        this.geometryDirty = false;
+        this.geometry = new LineGeometry(gcodeLineList, useLineStrip);
+        this.lineColorData = new byte[geometry.getVertexCount() * 3];
+        this.vertexArrayDirty = true;
+        this.colorArrayDirty = true;
+        logger.log(Level.FINE, "Num Vertices: {0}", geometry.getVertexCount());
+    }
+
+    /**
+     * Convert the gcodeLineList into the color array, the vertex positions
+     * don't change until a new file is loaded.
      */
     private void updateVertexBuffers() {
         if (this.isDrawable) {
-            Color color;
-            int vertIndex = 0;
-            int colorIndex = 0;
-            byte[] c = new byte[3];
-            for (LineSegment ls : gcodeLineList) {
-                // Find the lines color.
-                if (ls.isArc()) {
-                    color = arcColor;
-                } else if (ls.isFastTraverse()) {
-                    color = rapidColor;
-                } else if (ls.isZMovement()) {
-                    color = plungeColor;
-                } else {
-                    color = linearColor;
-                }
+            Object event = GCODE_MODEL_REBUILD.begin();
+            int commandNumber = this.currentCommandNumber;
+            LineSegmentStore.Cursor ls = gcodeLineList.cursor();
+            while (ls.next()) {
+                setSegmentColor(ls.getIndex(), getSegmentColor(ls, commandNumber));
+            }
 
-                // Override color if it is cutoff
-                if (ls.getLineNumber() < this.currentCommandNumber) {
-                    color = completedColor;
-                }
+            this.coloredCommandNumber = commandNumber;
+            this.colorArrayDirty = true;
 
-                // Draw it.
-                {
-                    Point3d p1 = ls.getStart();
-                    Point3d p2 = ls.getEnd();
-
-                    c[0] = (byte) color.getRed();
-                    c[1] = (byte) color.getGreen();
-                    c[2] = (byte) color.getBlue();
-
-                    // colors
-                    //p1
-                    lineColorData[colorIndex++] = c[0];
-                    lineColorData[colorIndex++] = c[1];
-                    lineColorData[colorIndex++] = c[2];
-
-                    //p2
-                    lineColorData[colorIndex++] = c[0];
-                    lineColorData[colorIndex++] = c[1];
-                    lineColorData[colorIndex++] = c[2];
-
-                    // p1 location
-                    lineVertexData[vertIndex++] = (float) p1.x;
-                    lineVertexData[vertIndex++] = (float) p1.y;
-                    lineVertexData[vertIndex++] = (float) p1.z;
-                    //p2
-                    lineVertexData[vertIndex++] = (float) p2.x;
-                    lineVertexData[vertIndex++] = (float) p2.y;
-                    lineVertexData[vertIndex++] = (float) p2.z;
-                }
+            if (event != null) {
+                GCODE_MODEL_REBUILD.commit(event, false, gcodeLineList.size(), commandNumber);
             }
+        }
+    }
 
-            this.colorArrayDirty = true;
-            this.vertexArrayDirty = true;
+    /**
+     * Recolors the segments whose completed state changed since the colors
+     * were last generated and uploads only that range of the color buffer.
+     *
+     * @param gl used for updating the color buffer object, or null if buffer
+     *           objects are not used
+     */
+    private void updateCompletedColors(GL2 gl) {
+        int commandNumber = this.currentCommandNumber;
+        if (!this.isDrawable || commandNumber == this.coloredCommandNumber) {
+            return;
+        }
+
+        int[] range = lineNumberIndex.getSegmentRange(
+                Math.min(commandNumber, coloredCommandNumber),
+                Math.max(commandNumber, coloredCommandNumber));
+        LineSegmentStore.Cursor ls = gcodeLineList.cursor();
+        for (int i = range[0]; i < range[1]; i++) {
+            setSegmentColor(i, getSegmentColor(ls.moveTo(i), commandNumber));
+        }
+        this.coloredCommandNumber = commandNumber;
+
+        if (gl != null && range[0] < range[1]) {
+            int firstVertex = geometry.getSegmentFirstColorVertex(range[0]);
+            int endVertex = geometry.getSegmentEndVertex(range[1] - 1) + 1;
+            updateGLColorRange(gl, firstVertex, endVertex);
         }
     }
-    
+
     /**
-     * Initialize or update open gl geometry array in native buffer objects.
+     * Find the color of a segment given the current command number.
      */
-    private void updateGLGeometryArray(GLAutoDrawable drawable) {
-        GL2 gl = drawable.getGL().getGL2();
-        
-        // Reset buffer and set to null of new geometry doesn't fit.
-        if (lineVertexBuffer != null) {
-            lineVertexBuffer.clear();
-            if (lineVertexBuffer.remaining() < lineVertexData.length) {
-                lineVertexBuffer = null;
-            }
+    private Color getSegmentColor(LineSegmentStore.Cursor ls, int commandNumber) {
+        // Override color if it is cutoff
+        if (ls.getLineNumber() < commandNumber) {
+            return completedColor;
+        } else if (ls.isArc()) {
+            return arcColor;
+        } else if (ls.isFastTraverse()) {
+            return rapidColor;
+        } else if (ls.isZMovement()) {
+            return plungeColor;
         }
-        
-        if (lineVertexBuffer == null) {
-            lineVertexBuffer = Buffers.newDirectFloatBuffer(lineVertexData.length);
+        return linearColor;
+    }
+
+    /**
+     * Writes the color for the vertices of a segment, a vertex shared with the
+     * previous segment in a line strip keeps the color of the previous segment.
+     */
+    private void setSegmentColor(int segmentIndex, Color color) {
+        byte red = (byte) color.getRed();
+        byte green = (byte) color.getGreen();
+        byte blue = (byte) color.getBlue();
+
+        int end = geometry.getSegmentEndVertex(segmentIndex);
+        for (int v = geometry.getSegmentFirstColorVertex(segmentIndex); v <= end; v++) {
+            lineColorData[v * 3] = red;
+            lineColorData[v * 3 + 1] = green;
+            lineColorData[v * 3 + 2] = blue;
+        }
+    }
+
+    /**
+     * Upload the geometry to the vertex buffer object, the native copy is
+     * released once the data has been handed to the driver.
+     */
+    private void updateGLGeometryArray(GL2 gl) {
+        FloatBuffer vertexBuffer = Buffers.newDirectFloatBuffer(geometry.getVertexData());
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObjects[VERTEX_BUFFER]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertexBuffer.capacity() * Buffers.SIZEOF_FLOAT,
+                vertexBuffer, GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        numberOfIndices = 0;
+        if (geometry.isLineStrip() && isPrimitiveRestartAvailable(gl)) {
+            IntBuffer indexBuffer = Buffers.newDirectIntBuffer(geometry.createStripIndices());
+            numberOfIndices = indexBuffer.capacity();
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, bufferObjects[INDEX_BUFFER]);
+            gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, (long) numberOfIndices * Buffers.SIZEOF_INT,
+                    indexBuffer, GL.GL_STATIC_DRAW);
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
         }
-        
-        lineVertexBuffer.put(lineVertexData);
-        lineVertexBuffer.flip();
-        gl.glVertexPointer( 3, GL.GL_FLOAT, 0, lineVertexBuffer );
     }
     
     /**
-     * Initialize or update open gl color array in native buffer objects.
+     * Upload all colors to the color buffer object.
      */
-    private void updateGLColorArray(GLAutoDrawable drawable) {
-        GL2 gl = drawable.getGL().getGL2();
-        
+    private void updateGLColorArray(GL2 gl) {
         // Reset buffer and set to null of new colors don't fit.
-        if (lineColorBuffer != null) {
-            lineColorBuffer.clear();
-
-            if (lineColorBuffer.remaining() < lineColorData.length) {
-                lineColorBuffer = null;
-            }
+        if (lineColorBuffer != null && lineColorBuffer.capacity() != lineColorData.length) {
+            lineColorBuffer = null;
         }
         
         if (lineColorBuffer == null) {
-            if (lineColorData == null) {
-                updateVertexBuffers();
-            }
             lineColorBuffer = Buffers.newDirectByteBuffer(this.lineColorData.length);
         }
         
+        lineColorBuffer.clear();
         lineColorBuffer.put(lineColorData);
         lineColorBuffer.flip();
-        gl.glColorPointer( 3, GL.GL_UNSIGNED_BYTE, 0, lineColorBuffer );
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObjects[COLOR_BUFFER]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, lineColorData.length, lineColorBuffer, GL.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Upload the colors of a range of vertices to the color buffer object.
+     */
+    private void updateGLColorRange(GL2 gl, int fromVertex, int toVertex) {
+        int offset = fromVertex * 3;
+        int length = (toVertex - fromVertex) * 3;
+
+        ByteBuffer range = lineColorBuffer.duplicate();
+        range.clear();
+        range.position(offset);
+        range.put(lineColorData, offset, length);
+        range.position(offset);
+        range.limit(offset + length);
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObjects[COLOR_BUFFER]);
+        gl.glBufferSubData(GL.GL_ARRAY_BUFFER, offset, length, range);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
     }
 }
@@ -0,0 +1,182 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+
+/**
+ * Vertex layout for a list of line segments. The segments are either stored
+ * as independent lines (two vertices per segment) or as line strips, where
+ * connected segments share a vertex which roughly halves the vertex count.
+ *
+ * Every segment is colored through the vertex it ends with, when drawing line
+ * strips that vertex needs to be the provoking vertex (flat shading with the
+ * default last vertex convention).
+ *
+ * @author agent
+ */
+class LineGeometry {
+    /**
+     * Index used to separate line strips when drawing with primitive restart.
+     */
+    static final int RESTART_INDEX = 0xFFFFFFFF;
+
+    private final boolean lineStrip;
+    private final int vertexCount;
+    private final float[] vertexData;
+    private final int[] segmentEndVertex;
+
+    // Line strips, only used if lineStrip is true
+    private final int[] runFirst;
+    private final int[] runCount;
+
+    LineGeometry(LineSegmentStore segments, boolean lineStrip) {
+        this.lineStrip = lineStrip;
+        int segmentCount = segments.size();
+        segmentEndVertex = new int[segmentCount];
+
+        if (!lineStrip) {
+            vertexCount = segmentCount * 2;
+            vertexData = new float[vertexCount * 3];
+            LineSegmentStore.Cursor ls = segments.cursor();
+            while (ls.next()) {
+                int segmentIndex = ls.getIndex();
+                putVertex(segmentIndex * 2, ls.getStartX(), ls.getStartY(), ls.getStartZ());
+                putVertex(segmentIndex * 2 + 1, ls.getEndX(), ls.getEndY(), ls.getEndZ());
+                segmentEndVertex[segmentIndex] = segmentIndex * 2 + 1;
+            }
+            runFirst = null;
+            runCount = null;
+            return;
+        }
+
+        // Count the strips first so the arrays can be allocated with the exact size.
+        int runs = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            if (!isConnected(segments, i)) {
+                runs++;
+            }
+        }
+
+        vertexCount = segmentCount + runs;
+        vertexData = new float[vertexCount * 3];
+        runFirst = new int[runs];
+        runCount = new int[runs];
+
+        int run = -1;
+        int vertex = 0;
+        LineSegmentStore.Cursor ls = segments.cursor();
+        while (ls.next()) {
+            if (!isConnected(segments, ls.getIndex())) {
+                run++;
+                runFirst[run] = vertex;
+                putVertex(vertex++, ls.getStartX(), ls.getStartY(), ls.getStartZ());
+                runCount[run] = 1;
+            }
+            putVertex(vertex, ls.getEndX(), ls.getEndY(), ls.getEndZ());
+            segmentEndVertex[ls.getIndex()] = vertex++;
+            runCount[run]++;
+        }
+    }
+
+    /**
+     * @return true if the segment starts where the previous segment ended
+     */
+    private static boolean isConnected(LineSegmentStore segments, int index) {
+        return index > 0
+                && (float) segments.getEndX(index - 1) == (float) segments.getStartX(index)
+                && (float) segments.getEndY(index - 1) == (float) segments.getStartY(index)
+                && (float) segments.getEndZ(index - 1) == (float) segments.getStartZ(index);
+    }
+
+    private void putVertex(int vertex, double x, double y, double z) {
+        vertexData[vertex * 3] = (float) x;
+        vertexData[vertex * 3 + 1] = (float) y;
+        vertexData[vertex * 3 + 2] = (float) z;
+    }
+
+    boolean isLineStrip() {
+        return lineStrip;
+    }
+
+    int getSegmentCount() {
+        return segmentEndVertex.length;
+    }
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return vertex positions, three floats per vertex
+     */
+    float[] getVertexData() {
+        return vertexData;
+    }
+
+    /**
+     * @return the vertex carrying the color of the segment
+     */
+    int getSegmentEndVertex(int segment) {
+        return segmentEndVertex[segment];
+    }
+
+    /**
+     * @return the first vertex which is affected by coloring the given segment
+     */
+    int getSegmentFirstColorVertex(int segment) {
+        int end = segmentEndVertex[segment];
+        boolean sharesStart = segment > 0 && segmentEndVertex[segment - 1] == end - 1;
+        return sharesStart ? end : end - 1;
+    }
+
+    int getRunCount() {
+        return lineStrip ? runFirst.length : 0;
+    }
+
+    int[] getRunFirst() {
+        return runFirst;
+    }
+
+    int[] getRunVertexCount() {
+        return runCount;
+    }
+
+    /**
+     * Creates element indices for drawing all strips with a single call using
+     * primitive restart, the strips are separated with {@link #RESTART_INDEX}.
+     */
+    int[] createStripIndices() {
+        if (!lineStrip) {
+            throw new IllegalStateException("Indices are only used for line strips");
+        }
+
+        int[] indices = new int[vertexCount + Math.max(0, runFirst.length - 1)];
+        int index = 0;
+        for (int run = 0; run < runFirst.length; run++) {
+            if (run > 0) {
+                indices[index++] = RESTART_INDEX;
+            }
+            for (int i = 0; i < runCount[run]; i++) {
+                indices[index++] = runFirst[run] + i;
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+
+/**
+ * Maps gcode line numbers to the range of line segments (and thereby vertices)
+ * that were generated from them. This makes it possible to find the segments
+ * affected by a change in the completed command number without scanning the
+ * entire model.
+ *
+ * @author agent
+ */
+class LineNumberIndex {
+    private final int[] lineNumbers;
+    private final boolean ordered;
+
+    LineNumberIndex(LineSegmentStore segments) {
+        lineNumbers = new int[segments.size()];
+        boolean isOrdered = true;
+        for (int i = 0; i < lineNumbers.length; i++) {
+            lineNumbers[i] = segments.getLineNumber(i);
+            if (i > 0 && lineNumbers[i] < lineNumbers[i - 1]) {
+                isOrdered = false;
+            }
+        }
+        ordered = isOrdered;
+    }
+
+    /**
+     * @return the number of indexed segments
+     */
+    int size() {
+        return lineNumbers.length;
+    }
+
+    /**
+     * @return true if the segments are ordered by line number
+     */
+    boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Returns the index of the first segment generated from a line number
+     * greater than or equal to the given line number.
+     */
+    int firstSegmentFrom(int lineNumber) {
+        if (!ordered) {
+            throw new IllegalStateException("The segments are not ordered by line number");
+        }
+
+        int low = 0;
+        int high = lineNumbers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lineNumbers[mid] < lineNumber) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the range of segments generated from lines in the interval
+     * [fromLine, toLine), or all segments if they are not ordered by line
+     * number.
+     *
+     * @return an array with the first segment and the end (exclusive) segment
+     */
+    int[] getSegmentRange(int fromLine, int toLine) {
+        if (!ordered) {
+            return new int[]{0, lineNumbers.length};
+        }
+        return new int[]{firstSegmentFrom(fromLine), firstSegmentFrom(toLine)};
+    }
+}
@@ -53,6 +53,7 @@ import static com.jogamp.opengl.GL.GL_LINES;
 import static com.jogamp.opengl.fixedfunc.GLMatrixFunc.GL_MODELVIEW;
 import static com.jogamp.opengl.fixedfunc.GLMatrixFunc.GL_PROJECTION;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_BG;
+import static com.willwinder.universalgcodesender.jfr.FlightRecorderEvents.RENDER_FRAME;
 
 /**
  * 3D Canvas for GCode Visualizer
@@ -355,6 +356,7 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
      */
     @Override
     public void display(GLAutoDrawable drawable) {
+        Object event = RENDER_FRAME.begin();
         this.setupPerpective(this.xSize, this.ySize, drawable, ortho);
 
         final GL2 gl = drawable.getGL().getGL2();
@@ -409,6 +411,10 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
     
         gl.glLoadIdentity();
         update();
+
+        if (event != null) {
+            RENDER_FRAME.commit(event, objects.size());
+        }
     }
 
     private void renderCornerAxes(GLAutoDrawable drawable) {
@@ -0,0 +1,78 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LineGeometryTest {
+
+    // Two connected segments followed by a disconnected one.
+    private static final LineSegmentStore SEGMENTS = new LineSegmentStore();
+
+    static {
+        SEGMENTS.add(0, 0, 0, 1, 0, 0, 1, false, false, false);
+        SEGMENTS.add(1, 0, 0, 1, 1, 0, 2, false, false, false);
+        SEGMENTS.add(5, 5, 0, 6, 6, 0, 3, false, false, false);
+    }
+
+    @Test
+    public void linesShouldUseTwoVerticesPerSegment() {
+        LineGeometry geometry = new LineGeometry(SEGMENTS, false);
+
+        assertEquals(6, geometry.getVertexCount());
+        assertEquals(0, geometry.getRunCount());
+        assertArrayEquals(new float[]{
+                0, 0, 0, 1, 0, 0,
+                1, 0, 0, 1, 1, 0,
+                5, 5, 0, 6, 6, 0}, geometry.getVertexData(), 0f);
+        assertEquals(2, geometry.getSegmentFirstColorVertex(1));
+        assertEquals(3, geometry.getSegmentEndVertex(1));
+    }
+
+    @Test
+    public void lineStripsShouldShareConnectedVertices() {
+        LineGeometry geometry = new LineGeometry(SEGMENTS, true);
+
+        assertEquals(5, geometry.getVertexCount());
+        assertArrayEquals(new float[]{
+                0, 0, 0, 1, 0, 0, 1, 1, 0,
+                5, 5, 0, 6, 6, 0}, geometry.getVertexData(), 0f);
+        assertArrayEquals(new int[]{0, 3}, geometry.getRunFirst());
+        assertArrayEquals(new int[]{3, 2}, geometry.getRunVertexCount());
+
+        // The first segment of a strip also colors the start vertex
+        assertEquals(0, geometry.getSegmentFirstColorVertex(0));
+        assertEquals(1, geometry.getSegmentEndVertex(0));
+        assertEquals(2, geometry.getSegmentFirstColorVertex(1));
+        assertEquals(2, geometry.getSegmentEndVertex(1));
+        assertEquals(3, geometry.getSegmentFirstColorVertex(2));
+        assertEquals(4, geometry.getSegmentEndVertex(2));
+    }
+
+    @Test
+    public void createStripIndicesShouldSeparateStripsWithRestartIndex() {
+        LineGeometry geometry = new LineGeometry(SEGMENTS, true);
+
+        assertArrayEquals(new int[]{0, 1, 2, LineGeometry.RESTART_INDEX, 3, 4}, geometry.createStripIndices());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LineNumberIndexTest {
+
+    private static LineSegmentStore segments(int... lineNumbers) {
+        LineSegmentStore result = new LineSegmentStore();
+        for (int lineNumber : lineNumbers) {
+            result.add(0, 0, 0, 0, 0, 0, lineNumber, false, false, false);
+        }
+        return result;
+    }
+
+    @Test
+    public void firstSegmentFromShouldFindFirstSegmentOfLine() {
+        LineNumberIndex index = new LineNumberIndex(segments(0, 1, 1, 1, 3, 4, 4));
+
+        assertTrue(index.isOrdered());
+        assertEquals(0, index.firstSegmentFrom(0));
+        assertEquals(1, index.firstSegmentFrom(1));
+        assertEquals(4, index.firstSegmentFrom(2));
+        assertEquals(4, index.firstSegmentFrom(3));
+        assertEquals(5, index.firstSegmentFrom(4));
+        assertEquals(7, index.firstSegmentFrom(5));
+    }
+
+    @Test
+    public void getSegmentRangeShouldContainSegmentsBetweenLines() {
+        LineNumberIndex index = new LineNumberIndex(segments(0, 1, 1, 1, 3, 4, 4));
+
+        assertArrayEquals(new int[]{1, 4}, index.getSegmentRange(1, 3));
+        assertArrayEquals(new int[]{0, 7}, index.getSegmentRange(0, 10));
+        assertArrayEquals(new int[]{4, 4}, index.getSegmentRange(2, 3));
+    }
+
+    @Test
+    public void getSegmentRangeShouldReturnEverythingIfUnordered() {
+        LineNumberIndex index = new LineNumberIndex(segments(0, 2, 1, 3));
+
+        assertFalse(index.isOrdered());
+        assertArrayEquals(new int[]{0, 4}, index.getSegmentRange(1, 2));
+    }
+}